@@ -39,6 +39,20 @@ public interface CCoverage {
    */
   int getTotalYieldPoints();
 
+  /**
+   * Get number of interleaving pairs covered.
+   * <p>
+   * An interleaving pair is an ordered pair of yield points <code>(A, B)</code> 
+   * such that a step at <code>A</code> by some thread was immediately followed by a step 
+   * at <code>B</code> by another thread. The default method returns <code>0</code>.
+   * </p>
+   * @return Number of distinct interleaving pairs covered.
+   * @since 0.5
+   */
+  default int getInterleavingPairs() {
+    return 0;
+  }
+
   /**
    * Get coverage rate.
    * 
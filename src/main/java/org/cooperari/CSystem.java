@@ -26,6 +26,7 @@ import org.cooperari.config.CNever;
 import org.cooperari.config.CSometimes;
 import org.cooperari.core.CSession;
 import org.cooperari.core.aspectj.AgentFacade;
+import org.cooperari.core.util.CAsyncWriter;
 import org.cooperari.errors.CHotspotError;
 import org.cooperari.errors.CNonCooperativeModeError;
 import org.cooperari.feature.hotspots.HotspotHandler;
@@ -131,7 +132,26 @@ public final class CSystem {
    * @throws IOException If an I/O error occurs.
    */
   public static File generateGlobalCoverageReport() throws IOException {
-    return AgentFacade.INSTANCE.produceCoverageReport();
+    File report = AgentFacade.INSTANCE.produceCoverageReport();
+    CAsyncWriter.INSTANCE.flush();
+    return report;
+  }
+
+  /**
+   * Save the coverage database for all tests executed so far.
+   * 
+   * <p>
+   * The database is saved in binary format to the workspace, and 
+   * may be queried or merged with others using the <code>ccoverage</code> utility.
+   * </p>
+   * 
+   * @return {@link File} object indicating the database file.
+   * @throws IOException If an I/O error occurs.
+   * @see org.cooperari.core.CCoverageDatabase
+   * @since 0.5
+   */
+  public static File saveCoverageDatabase() throws IOException {
+    return AgentFacade.INSTANCE.saveCoverageDatabase();
   }
 
   /**
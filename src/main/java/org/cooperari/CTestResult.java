@@ -19,6 +19,7 @@ package org.cooperari;
 import java.io.File;
 
 import org.cooperari.config.CSometimes;
+import org.cooperari.config.CTraceOptions;
 
 /**
  * Execution result for a cooperative test.
@@ -50,6 +51,18 @@ public interface CTestResult extends CCoverage {
    */
    File getFailureTrace();
    
+  /**
+   * Get number of trial replays that diverged from the recorded scheduling decisions.
+   * 
+   * <p>Trials are replayed to reconstruct traces when only scheduling decisions 
+   * are recorded (see {@link CTraceOptions#decisionsOnly()}). A trace obtained from 
+   * a diverging replay may not reflect the original trial.</p>
+   * 
+   * @return Number of diverging replays.
+   * @since 0.5
+   */
+  int getReplayDivergences();
+
   /**
    * Get number of trials executed.
    * @return Number of executed test trials.
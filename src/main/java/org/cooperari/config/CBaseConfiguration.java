@@ -33,6 +33,7 @@ package org.cooperari.config;
 @CNever({}) 
 @CSometimes({})
 @CTraceOptions()
+@CTrialParallelism()
 public final class CBaseConfiguration {
   
   /**
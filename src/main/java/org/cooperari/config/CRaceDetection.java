@@ -41,4 +41,38 @@ public @interface CRaceDetection {
    * If disabled (the default) races are merely reported.
    */
   boolean throwErrors() default false;
+
+  /**
+   * @return Race detection mode.
+   * The default is {@link Mode#OVERLAP}.
+   * @since 0.5
+   */
+  Mode mode() default Mode.OVERLAP;
+
+  /**
+   * Race detection modes.
+   * @since 0.5
+   */
+  enum Mode {
+    /**
+     * A race is detected when a write to a data location overlaps another
+     * access to the same location by a different thread, within the same step.
+     */
+    OVERLAP,
+    /**
+     * A race is detected when two accesses to a data location by different threads, 
+     * at least one of them a write, are not ordered by the happens-before relation.
+     * Happens-before is tracked using vector clocks (FastTrack algorithm), 
+     * updated on monitor operations (including <code>wait()</code>), 
+     * thread start and join, and operations over atomic objects.
+     */
+    HB,
+    /**
+     * A race is detected when a data location that is shared by several threads, 
+     * and written while shared, is not consistently protected by a common lock 
+     * (Eraser algorithm). Thread start and join are not accounted for, 
+     * so data handed over between threads without locking may be reported.
+     */
+    LOCKSET
+  }
 }
\ No newline at end of file
@@ -42,4 +42,32 @@ public @interface CScheduling {
    */
   CSchedulerFactory schedulerFactory() default CSchedulerFactory.MEMINI;
   
+  /**
+   * @return Session seed, from which the pseudo-random number generator seed for each
+   *         test trial is derived.
+   * @since 0.5
+   */
+  long seed() default 0L;
+
+  /**
+   * @return Flag indicating if threads may execute in solo mode. 
+   *         A thread executes in solo mode while it is the only ready thread, and 
+   *         all other threads are blocked or waiting (hence can only become ready through 
+   *         actions of the thread at stake). In solo mode, the thread executes
+   *         operations inline, without scheduling decisions, and consecutive 
+   *         steps are compressed into a single trace record. 
+   * @since 0.5
+   */
+  boolean soloSteps() default true;
+
+  /**
+   * @return Threshold for spin-loop detection. A thread that executes this number of 
+   *         consecutive steps at recently visited locations is considered to be spinning, 
+   *         and is given lower priority than other ready threads until some other thread executes a step.
+   *         Spin-loop detection is disabled if the value is lower or equal to 0, which
+   *         is the default, since deprioritizing spinning threads prunes some of the 
+   *         interleavings that are otherwise explored.
+   * @since 0.5
+   */
+  int spinThreshold() default 0;
 }
\ No newline at end of file
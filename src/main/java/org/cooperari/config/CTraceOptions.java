@@ -40,4 +40,27 @@ public @interface CTraceOptions {
    * By default the setting is off, meaning that only failure traces will be written.
    */
   boolean logEveryTrace() default false;
+
+  /**
+   * @return Flag indicating if traces should be written in compact binary format.
+   *         Binary trace files (with a <code>.ctrace</code> suffix) can be converted to 
+   *         the text format using the <code>ctrace</code> utility.
+   * @since 0.5
+   */
+  boolean binary() default false;
+
+  /**
+   * @return Flag indicating if binary traces should be compressed (ignored for text traces).
+   * @since 0.5
+   */
+  boolean compress() default false;
+
+  /**
+   * @return Flag indicating if only the sequence of scheduling decisions should be recorded 
+   *         during test trials. If set, a full trace is reconstructed only when a trace needs to be written,
+   *         i.e., upon a failure or when {@link #logEveryTrace()} is set, by deterministically replaying
+   *         the recorded decisions.
+   * @since 0.5
+   */
+  boolean decisionsOnly() default false;
 }
@@ -0,0 +1,56 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Configure the number of test trials that may execute concurrently.
+ * 
+ * <p>
+ * Each concurrently executing trial uses its own runtime environment,
+ * execution engine, execution trace, and a scheduler whose pseudo-random number generator
+ * is seeded from the session seed (see {@link CScheduling#seed()}) and the trial number.
+ * Scheduler history, coverage and hotspot information are merged 
+ * across trials.
+ * </p>
+ * 
+ * <p>
+ * The default value is 1, i.e., trials execute one after the other. 
+ * Concurrent trials share the test object and any static state, hence the setting
+ * should only be used for tests that do not keep state across trials.
+ * Also, for schedulers that use history information (e.g. {@link org.cooperari.core.scheduling.CSchedulerFactory#MEMINI}),
+ * the decisions made in a trial depend on the decisions previously made by 
+ * other trials, hence on how concurrent trials interleave.
+ * </p>
+ * 
+ * @see CMaxTrials
+ * @see CTimeLimit
+ * @since 0.5
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+public @interface CTrialParallelism {
+  /**
+   * @return Maximum number of concurrent trials. A value lower or equal to 0 stands for
+   *         the number of available processors.
+   */
+  int value() default 1;
+}
@@ -20,6 +20,7 @@ import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
+import org.cooperari.feature.data.RaceDetector;
 
 /**
  * Abstract aspect for generic yield points.
@@ -27,6 +28,9 @@ import org.aspectj.lang.annotation.Pointcut;
  * <p>
  * Concrete aspects may extend this abstract aspect for custom yield points.
  * [using the technique documented <a href="https://eclipse.org/aspectj/doc/next/devguide/ltw-configuration.html">here</a>].
+ * Custom yield points mark calls to synchronization primitives (e.g. atomic objects), 
+ * hence the call target is signaled to the race detector as a synchronizing access
+ * (see {@link RaceDetector#onSynchronizingAccess(CThread, Object)}).
  * </p>
  * 
  * @since 0.2 
@@ -50,6 +54,11 @@ public abstract class ACustomYieldPoint {
     CThread t = CThread.intercept(thisJoinPoint);
     if (t != null) {
       t.cYield(new CustomYieldPointOperation());
+      Object target = thisJoinPoint.getTarget();
+      RaceDetector rd = CRuntime.getRuntime().get(RaceDetector.class);
+      if (target != null && rd != null) {
+        rd.onSynchronizingAccess(t, target);
+      }
     }
   } 
 }
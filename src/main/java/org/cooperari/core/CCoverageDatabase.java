@@ -0,0 +1,292 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.cooperari.CCoverage;
+import org.cooperari.core.scheduling.CYieldPoint;
+import org.cooperari.core.util.CBinaryInput;
+import org.cooperari.core.util.CBinaryOutput;
+
+/**
+ * Coverage database.
+ * 
+ * <p>
+ * A coverage database holds one coverage log per test, and may be saved to 
+ * a compact binary file that can be loaded and merged by other JVMs, e.g., 
+ * to combine coverage from several test runs, or from the workers in a sharded execution.
+ * The file contains a dictionary of the yield points it refers to, and,
+ * for each test, the sets of defined and covered yield points plus the 
+ * covered interleaving pairs, all expressed in terms of dictionary indices.
+ * Since yield point ids are local to a JVM (see {@link CYieldPointRegistry}), 
+ * dictionary entries are mapped to registry ids when a file is loaded.
+ * </p>
+ * 
+ * @since 0.5
+ */
+public final class CCoverageDatabase {
+
+  /**
+   * Suffix for coverage database files.
+   */
+  public static final String SUFFIX = ".ccov";
+
+  /**
+   * Default file name for coverage database files in the workspace.
+   */
+  public static final String DEFAULT_FILE_NAME = "coverage" + SUFFIX;
+
+  /**
+   * Magic number for coverage database files ("CCOV").
+   */
+  private static final int MAGIC = 0x43434f56;
+
+  /**
+   * File format version.
+   */
+  private static final int VERSION = 1;
+
+  /**
+   * Coverage logs per test, indexed by test suite and test name.
+   */
+  private final TreeMap<String, TreeMap<String, CCoverageLog>> _tests = new TreeMap<>();
+
+  /**
+   * Constructs an empty database.
+   */
+  public CCoverageDatabase() { }
+
+  /**
+   * Get number of tests in the database.
+   * @return The number of tests.
+   */
+  public synchronized int size() {
+    int n = 0;
+    for (TreeMap<String, CCoverageLog> suite : _tests.values()) {
+      n += suite.size();
+    }
+    return n;
+  }
+
+  /**
+   * Record coverage for a test.
+   * If the test is already in the database, coverage information is merged.
+   * @param suiteName Test suite name.
+   * @param testName Test name.
+   * @param clog Coverage log for the test.
+   */
+  public synchronized void record(String suiteName, String testName, CCoverageLog clog) {
+    logFor(suiteName, testName).merge(clog);
+  }
+
+  /**
+   * Merge all information from another database into this one.
+   * @param other The other database.
+   */
+  public synchronized void merge(CCoverageDatabase other) {
+    synchronized (other) {
+      for (Map.Entry<String, TreeMap<String, CCoverageLog>> suite : other._tests.entrySet()) {
+        for (Map.Entry<String, CCoverageLog> test : suite.getValue().entrySet()) {
+          logFor(suite.getKey(), test.getKey()).merge(test.getValue());
+        }
+      }
+    }
+  }
+
+  /**
+   * Get coverage per test.
+   * @return A map of coverage information indexed by <code>suite.test</code> names.
+   */
+  public synchronized Map<String, CCoverage> byTest() {
+    TreeMap<String, CCoverage> result = new TreeMap<>();
+    for (Map.Entry<String, TreeMap<String, CCoverageLog>> suite : _tests.entrySet()) {
+      for (Map.Entry<String, CCoverageLog> test : suite.getValue().entrySet()) {
+        result.put(suite.getKey() + '.' + test.getKey(), test.getValue());
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get coverage per test class (suite), merging the coverage of all its tests.
+   * @return A map of coverage information indexed by suite name.
+   */
+  public synchronized Map<String, CCoverage> byClass() {
+    TreeMap<String, CCoverage> result = new TreeMap<>();
+    for (Map.Entry<String, TreeMap<String, CCoverageLog>> suite : _tests.entrySet()) {
+      CCoverageLog clog = new CCoverageLog();
+      for (CCoverageLog testLog : suite.getValue().values()) {
+        clog.merge(testLog);
+      }
+      result.put(suite.getKey(), clog);
+    }
+    return result;
+  }
+
+  /**
+   * Get coverage per source file, merging the coverage of all tests.
+   * An interleaving pair is accounted for the source file of its first yield point.
+   * @return A map of coverage information indexed by source file name.
+   */
+  public synchronized Map<String, CCoverage> bySourceFile() {
+    CCoverageLog all = global();
+    TreeMap<String, CCoverageLog> result = new TreeMap<>();
+    BitSet defined = all.definedIds(), covered = all.coveredIds();
+    CYieldPointRegistry registry = CYieldPointRegistry.INSTANCE;
+    for (int id = defined.nextSetBit(0); id >= 0; id = defined.nextSetBit(id + 1)) {
+      CYieldPoint yp = registry.get(id);
+      CCoverageLog clog = result.computeIfAbsent(yp.getSourceFile(), k -> new CCoverageLog());
+      if (covered.get(id)) {
+        clog.markAsCovered(yp);
+      } else {
+        clog.recordDefinition(yp);
+      }
+    }
+    for (long pair : all.interleavings()) {
+      int from = (int) (pair >>> 32);
+      result.get(registry.get(from).getSourceFile()).recordInterleaving(from, (int) pair);
+    }
+    return Collections.unmodifiableMap(result);
+  }
+
+  /**
+   * Get global coverage, merging the coverage of all tests.
+   * @return A coverage log.
+   */
+  public synchronized CCoverageLog global() {
+    CCoverageLog clog = new CCoverageLog();
+    for (TreeMap<String, CCoverageLog> suite : _tests.values()) {
+      for (CCoverageLog testLog : suite.values()) {
+        clog.merge(testLog);
+      }
+    }
+    return clog;
+  }
+
+  /**
+   * Save the database to a file.
+   * @param file Output file.
+   * @throws IOException If an I/O error occurs.
+   */
+  public synchronized void save(File file) throws IOException {
+    // Build dictionary of yield points in use.
+    BitSet used = new BitSet();
+    for (TreeMap<String, CCoverageLog> suite : _tests.values()) {
+      for (CCoverageLog clog : suite.values()) {
+        used.or(clog.definedIds());
+      }
+    }
+    int[] index = new int[used.length()];
+    try (CBinaryOutput out = new CBinaryOutput(file, true)) {
+      out.writeVarInt(MAGIC);
+      out.writeVarInt(VERSION);
+      out.writeVarInt(used.cardinality());
+      int n = 0;
+      for (int id = used.nextSetBit(0); id >= 0; id = used.nextSetBit(id + 1)) {
+        CYieldPoint yp = CYieldPointRegistry.INSTANCE.get(id);
+        out.writeString(yp.getSignature());
+        out.writeString(yp.getSourceFile());
+        out.writeVarInt(yp.getSourceLine());
+        index[id] = n++;
+      }
+      out.writeVarInt(size());
+      for (Map.Entry<String, TreeMap<String, CCoverageLog>> suite : _tests.entrySet()) {
+        for (Map.Entry<String, CCoverageLog> test : suite.getValue().entrySet()) {
+          CCoverageLog clog = test.getValue();
+          out.writeString(suite.getKey());
+          out.writeString(test.getKey());
+          writeIds(out, clog.definedIds(), index);
+          writeIds(out, clog.coveredIds(), index);
+          long[] pairs = clog.interleavings();
+          out.writeVarInt(pairs.length);
+          for (long pair : pairs) {
+            out.writeVarInt(index[(int) (pair >>> 32)]);
+            out.writeVarInt(index[(int) pair]);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Load a database file, merging its contents into this database.
+   * @param file Input file.
+   * @throws IOException If an I/O error occurs or the file is not a coverage database.
+   */
+  public synchronized void load(File file) throws IOException {
+    try (CBinaryInput in = new CBinaryInput(file)) {
+      if (in.readVarInt() != MAGIC || in.readVarInt() != VERSION) {
+        throw new IOException("Not a coverage database file: " + file);
+      }
+      int n = in.readVarInt();
+      CYieldPoint[] dictionary = new CYieldPoint[n];
+      for (int i = 0; i < n; i++) {
+        String signature = in.readString();
+        String sourceFile = in.readString();
+        dictionary[i] = CYieldPointRegistry.INSTANCE.register(signature, sourceFile, in.readVarInt());
+      }
+      for (int tests = in.readVarInt(); tests > 0; tests--) {
+        String suiteName = in.readString();
+        CCoverageLog clog = logFor(suiteName, in.readString());
+        for (int i : readIds(in)) {
+          clog.recordDefinition(dictionary[i]);
+        }
+        for (int i : readIds(in)) {
+          clog.markAsCovered(dictionary[i]);
+        }
+        for (int pairs = in.readVarInt(); pairs > 0; pairs--) {
+          int from = dictionary[in.readVarInt()].getId();
+          clog.recordInterleaving(from, dictionary[in.readVarInt()].getId());
+        }
+      }
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private CCoverageLog logFor(String suiteName, String testName) {
+    return _tests.computeIfAbsent(suiteName, k -> new TreeMap<>())
+                 .computeIfAbsent(testName, k -> new CCoverageLog());
+  }
+
+  @SuppressWarnings("javadoc")
+  private static void writeIds(CBinaryOutput out, BitSet ids, int[] index) throws IOException {
+    // Dictionary indices are increasing with ids, hence they are delta-encoded.
+    out.writeVarInt(ids.cardinality());
+    int last = 0;
+    for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+      out.writeVarInt(index[id] - last);
+      last = index[id];
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private static int[] readIds(CBinaryInput in) throws IOException {
+    int[] ids = new int[in.readVarInt()];
+    int last = 0;
+    for (int i = 0; i < ids.length; i++) {
+      last += in.readVarInt();
+      ids[i] = last;
+    }
+    return ids;
+  }
+}
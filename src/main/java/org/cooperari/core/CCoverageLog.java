@@ -18,13 +18,17 @@ package org.cooperari.core;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
 
 import org.cooperari.CCoverage;
 import org.cooperari.core.scheduling.CYieldPoint;
+import org.cooperari.core.util.CLongHashSet;
 import org.cooperari.core.util.CReport;
 
 /**
@@ -38,17 +42,29 @@ import org.cooperari.core.util.CReport;
 public final class CCoverageLog implements CCoverage {
 
   /**
-   * Yield point coverage info.
+   * Ids of yield points defined in the log.
+   * @see CYieldPointRegistry
    */
-  private final TreeMap<CYieldPoint, Boolean> _allYieldPoints = new TreeMap<>();
+  private final BitSet _defined = new BitSet();
+
+  /**
+   * Ids of covered yield points.
+   */
+  private final BitSet _covered = new BitSet();
 
   /**
    * Number of covered yield points  (attribute that avoids
-   * traversal of the map for the purpose of knowing how many
+   * counting bits for the purpose of knowing how many
    * yield points were covered)
    */
   private int _coveredYieldPoints = 0;
 
+  /**
+   * Interleaving pairs, each encoded as a <code>long</code> value.
+   * @see #recordInterleaving(int, int)
+   */
+  private final CLongHashSet _interleavings = new CLongHashSet();
+
   /**
    * Set of files associated to yield points in the log.
    */
@@ -66,7 +82,7 @@ public final class CCoverageLog implements CCoverage {
    */
   @Override
   public int getTotalYieldPoints() {
-    return _allYieldPoints.size();
+    return _defined.cardinality();
   }
 
   /**
@@ -86,9 +102,10 @@ public final class CCoverageLog implements CCoverage {
    * @param yp Yield point.
    */
   public void recordDefinition(CYieldPoint yp) {
-    if (!_allYieldPoints.containsKey(yp)) {
+    int id = yp.getId();
+    if (!_defined.get(id)) {
       assert CWorkspace.debug("DEF %s", yp);
-      _allYieldPoints.put(yp, false);
+      _defined.set(id);
       _sourceFiles.add(yp.getSourceFile());
     }
   }
@@ -98,17 +115,48 @@ public final class CCoverageLog implements CCoverage {
    * @param yp Yield point.
    */
   public void markAsCovered(CYieldPoint yp) {
-    Boolean b = _allYieldPoints.put(yp, true);
-    if ( b == null) { 
-      _coveredYieldPoints++;
-      _sourceFiles.add(yp.getSourceFile());
-      assert CWorkspace.debug("COVERED %s", yp);
-    } else if (b == false) {
+    int id = yp.getId();
+    if (!_covered.get(id)) {
+      _covered.set(id);
       _coveredYieldPoints++;
+      if (!_defined.get(id)) {
+        _defined.set(id);
+        _sourceFiles.add(yp.getSourceFile());
+      }
       assert CWorkspace.debug("COVERED %s", yp);
     }
   }
 
+  /**
+   * Record an interleaving pair.
+   * 
+   * <p>
+   * An interleaving pair is an ordered pair of yield points <code>(A, B)</code> such that a step 
+   * at <code>A</code> by some thread was immediately followed by a step at <code>B</code> 
+   * by another thread.
+   * </p>
+   * 
+   * @param from Id of the first yield point.
+   * @param to Id of the second yield point.
+   * @return <code>true</code> if the pair was not covered before.
+   * @see CYieldPoint#getId()
+   * @since 0.5
+   */
+  public boolean recordInterleaving(int from, int to) {
+    return _interleavings.add(((long) from << 32) | (to & 0xFFFFFFFFL));
+  }
+
+  /**
+   * Get number of covered interleaving pairs.
+   * @return Number of distinct interleaving pairs.
+   * @see #recordInterleaving(int, int)
+   * @since 0.5
+   */
+  @Override
+  public int getInterleavingPairs() {
+    return _interleavings.size();
+  }
+
   /**
    * Enrich this log with information from other log.
    * 
@@ -127,6 +175,7 @@ public final class CCoverageLog implements CCoverage {
    * it is marked as covered in the other log;
    * </li>
    * </ul>
+   * <li>Interleaving pairs in the other log are added to this log, unless {@code ignoreStatus} is {@code true}.</li>
    * </ul>
    * 
    * @param otherLog The other log.
@@ -134,23 +183,86 @@ public final class CCoverageLog implements CCoverage {
    */
   public void enrich(CCoverageLog otherLog, boolean ignoreCoverageStatus) {
     assert CWorkspace.debug("ENRICHING log %d %s :: %d %d", otherLog.getTotalYieldPoints(), ignoreCoverageStatus,  getTotalYieldPoints(), getCoveredYieldPoints());
+    BitSet mask = new BitSet();
     for (String sf : _sourceFiles) {
-      CYieldPointImpl lowerBound = new CYieldPointImpl("", sf, -1);
-      // Note: extra char so that view iterates until the last possible entry
-      CYieldPointImpl upperBound = new CYieldPointImpl("", sf + '*', -1);
-      Map<CYieldPoint,Boolean> view = otherLog._allYieldPoints.subMap(lowerBound, upperBound);
-      for (Map.Entry<CYieldPoint,Boolean> entry : view.entrySet()) {
-        CYieldPoint yp = entry.getKey();
-        if (ignoreCoverageStatus || !entry.getValue()) {
-          recordDefinition(yp);
-        } else {
-          markAsCovered(yp);
-        }
-      }
+      CYieldPointRegistry.INSTANCE.addYieldPointsIn(sf, mask);
+    }
+    BitSet defined = (BitSet) otherLog._defined.clone();
+    defined.and(mask);
+    _defined.or(defined);
+    if (!ignoreCoverageStatus) {
+      BitSet covered = (BitSet) otherLog._covered.clone();
+      covered.and(mask);
+      covered.andNot(_covered);
+      _coveredYieldPoints += covered.cardinality();
+      _covered.or(covered);
+      _interleavings.addAll(otherLog._interleavings);
     }
     assert CWorkspace.debug("ENRICHED log :: %d %d", getTotalYieldPoints(), getCoveredYieldPoints());
   }
 
+  /**
+   * Get all yield points in the log along with their coverage status.
+   * @return A read-only view of log entries, sorted by yield point.
+   * @since 0.5
+   */
+  Set<Map.Entry<CYieldPoint, Boolean>> entries() {
+    TreeMap<CYieldPoint, Boolean> map = new TreeMap<>();
+    for (int id = _defined.nextSetBit(0); id >= 0; id = _defined.nextSetBit(id + 1)) {
+      map.put(CYieldPointRegistry.INSTANCE.get(id), _covered.get(id));
+    }
+    return Collections.unmodifiableMap(map).entrySet();
+  }
+
+  /**
+   * Get ids of yield points defined in the log.
+   * @return A bit set that must not be modified by the caller.
+   * @since 0.5
+   */
+  BitSet definedIds() {
+    return _defined;
+  }
+
+  /**
+   * Get ids of yield points covered in the log.
+   * @return A bit set that must not be modified by the caller.
+   * @since 0.5
+   */
+  BitSet coveredIds() {
+    return _covered;
+  }
+
+  /**
+   * Get interleaving pairs in the log.
+   * @return Sorted array of encoded pairs.
+   * @see #recordInterleaving(int, int)
+   * @since 0.5
+   */
+  long[] interleavings() {
+    return _interleavings.toArray();
+  }
+
+  /**
+   * Merge all information from other log into this one.
+   * 
+   * <p>
+   * All yield points defined in the other log become defined in this log, 
+   * and those covered in the other log become covered in this log.
+   * The same applies to interleaving pairs.
+   * </p>
+   * 
+   * @param otherLog The other log.
+   * @since 0.5
+   */
+  public void merge(CCoverageLog otherLog) {
+    BitSet covered = (BitSet) otherLog._covered.clone();
+    covered.andNot(_covered);
+    _coveredYieldPoints += covered.cardinality();
+    _covered.or(covered);
+    _defined.or(otherLog._defined);
+    _sourceFiles.addAll(otherLog._sourceFiles);
+    _interleavings.addAll(otherLog._interleavings);
+  }
   
   /**
    * Generate a coverage report.
@@ -165,12 +277,23 @@ public final class CCoverageLog implements CCoverage {
     r.writeEntry(getTotalYieldPoints(), getCoveredYieldPoints(),
         getCoverageRate());
     r.beginSection("YIELD POINTS", "COVERED", "SOURCE FILE", "LINE", "SIGNATURE");
-    for (Entry<CYieldPoint, Boolean> e : _allYieldPoints.entrySet()) {
+    for (Entry<CYieldPoint, Boolean> e : entries()) {
       r.writeEntry(e.getValue() ? 'Y' : 'N', 
                    e.getKey().getSourceFile(), 
                    e.getKey().getSourceLine(), 
                    e.getKey().getSignature());
     }
+    r.beginSection("INTERLEAVING COVERAGE", "PAIRS");
+    r.writeEntry(getInterleavingPairs());
+    r.beginSection("INTERLEAVING PAIRS", 
+                   "SOURCE FILE", "LINE", "SIGNATURE", 
+                   "NEXT SOURCE FILE", "NEXT LINE", "NEXT SIGNATURE");
+    for (long pair : _interleavings.toArray()) {
+      CYieldPoint a = CYieldPointRegistry.INSTANCE.get((int) (pair >>> 32));
+      CYieldPoint b = CYieldPointRegistry.INSTANCE.get((int) pair);
+      r.writeEntry(a.getSourceFile(), a.getSourceLine(), a.getSignature(),
+                   b.getSourceFile(), b.getSourceLine(), b.getSignature());
+    }
     r.close();
     return r.getFile();
   }
@@ -23,6 +23,7 @@ import java.util.Iterator;
 import java.util.LinkedHashMap;
 
 import org.cooperari.config.CScheduling;
+import org.cooperari.core.jfr.CFlightRecorder;
 import org.cooperari.core.scheduling.CProgramStateFactory;
 import org.cooperari.core.scheduling.CScheduler;
 import org.cooperari.errors.CInternalError;
@@ -78,6 +79,28 @@ public class CEngine extends Thread {
    */
   private final CTrace _trace;
 
+  /**
+   * Flag indicating if solo steps are enabled.
+   * @see CScheduling#soloSteps()
+   */
+  private final boolean _soloSteps;
+
+  /**
+   * Spin-loop detector (<code>null</code> if disabled).
+   * @see CScheduling#spinThreshold()
+   */
+  private final SpinLoopDetector _spinDetector;
+
+  /**
+   * Decision replay (<code>null</code> if decisions are taken by the scheduler).
+   */
+  private final DecisionReplay _replay;
+
+  /**
+   * Thread that was last resumed by the engine and has not yielded yet (if any).
+   */
+  private volatile CThread _resumed;
+
   /**
    * Virtual preemption count.
    */
@@ -108,6 +131,10 @@ public class CEngine extends Thread {
     _runtime.register(this);
     _runtime.register(new CThreadMappings());
     _trace = _runtime.get(CTrace.class);
+    _replay = _runtime.get(DecisionReplay.class);
+    CScheduling schConfig = _runtime.getConfiguration(CScheduling.class);
+    _soloSteps = schConfig.soloSteps();
+    _spinDetector = schConfig.spinThreshold() > 0 ? new SpinLoopDetector(schConfig.spinThreshold()) : null;
     setUncaughtExceptionHandler(_uncaughtExceptionHandler);
 
     for (Runnable r : runnables) {
@@ -212,6 +239,9 @@ public class CEngine extends Thread {
       if (running != null && !running.isRunning()) {
         // Running thread either (1) yielded or (2) terminated
         _trace.recordStep(running);
+        if (_spinDetector != null) {
+          _spinDetector.onStep(running);
+        }
         handleNewThreads();
         if (running.isTerminated()) {
           _threads.remove(running.getCID());
@@ -219,6 +249,7 @@ public class CEngine extends Thread {
         }
         lastRunning = running;
         running = null;
+        _resumed = null;
       }
 
       if (running == null && _threads.size() > 0) {
@@ -246,6 +277,7 @@ public class CEngine extends Thread {
         //assert debug("A = %d B = %d W =%d", aliveCount, blockedCount, waitCount);
         if (cannotProgressCount == _threads.size()) {
           CWaitDeadlockError e = new CWaitDeadlockError(_threads.values());
+          CFlightRecorder.deadlock("wait", _threads.size());
           for (CThread t : _threads.values()) {
             assert CWorkspace.debug("Stopping "+ t.getName());
             _trace.record(t, CTrace.EventType.DEADLOCK);
@@ -253,15 +285,28 @@ public class CEngine extends Thread {
           }
         }
 
+        if (_spinDetector != null 
+            && _spinDetector.spinningThreads() > 0 
+            && readyThreads.size() > 1) {
+          deprioritizeSpinningThreads(readyThreads, blockedThreads);
+        }
+
         if (readyThreads.size() > 0) {
-          running = (CThread) _scheduler.decision(stateFac.create(readyThreads, blockedThreads));
+          if (_replay != null) {
+            running = _replay.next(readyThreads);
+          } else {
+            running = (CThread) _scheduler.decision(stateFac.create(readyThreads, blockedThreads));
+          }
           if (running == null || !running.isReady()) {
             throw new CInternalError("Scheduler made a wrong decision!");
           }
+          _trace.recordDecision(running);
+          CFlightRecorder.schedulingDecision(running.getCID(), readyThreads.size(), running != lastRunning);
           if (running != lastRunning)
             _virtualPreemptions++;
           _schedulingSteps++;
           assert CWorkspace.debug("%s will now run", running.getCID());
+          _resumed = running;
           running.cResume();
         }
       }
@@ -273,6 +318,82 @@ public class CEngine extends Thread {
   }
 
 
+  /**
+   * Move spinning threads from the list of ready threads to the list of blocked threads, 
+   * as long as at least one ready thread is not spinning.
+   * @param readyThreads Ready threads.
+   * @param blockedThreads Blocked threads.
+   * @see SpinLoopDetector
+   */
+  private void deprioritizeSpinningThreads(ArrayList<CThread> readyThreads, ArrayList<CThread> blockedThreads) {
+    int spinning = 0;
+    for (CThread t : readyThreads) {
+      if (_spinDetector.isSpinning(t)) {
+        spinning++;
+      }
+    }
+    if (spinning == 0 || spinning == readyThreads.size()) {
+      return;
+    }
+    Iterator<CThread> itr = readyThreads.iterator();
+    while (itr.hasNext()) {
+      CThread t = itr.next();
+      if (_spinDetector.isSpinning(t)) {
+        assert CWorkspace.debug("Thread %d is spinning and will not be scheduled", t.getCID());
+        itr.remove();
+        blockedThreads.add(t);
+      }
+    }
+  }
+
+  /**
+   * Try to let a thread execute its next step in solo mode.
+   * 
+   * <p>
+   * This method is called by a running thread when it reaches a yield point 
+   * for an operation that is ready to execute, and the previous step of the thread
+   * was a plain data access (see {@link COperation#isDataAccess()}). Other kinds of step, 
+   * such as monitor releases or notifications, may make other threads ready, 
+   * hence the thread must yield to the engine after them. 
+   * The thread may proceed in solo mode, i.e., execute the operation inline
+   * without yielding control to the engine, if
+   * solo steps are enabled, the thread was resumed by the engine and has not yielded since,
+   * no new threads are pending to start, and
+   * all other threads are blocked or waiting (not timed-waiting, since a timeout may make 
+   * a thread ready regardless of the thread's actions). 
+   * In that case the step is recorded in the trace using {@link CTrace#recordSoloStep(CThread)}.
+   * </p>
+   * 
+   * <p>
+   * Note that the engine thread does not change its internal state while a thread is 
+   * running, hence the check may be safely executed by the running thread.
+   * </p>
+   * 
+   * @param t Thread.
+   * @return <code>true</code> if the thread may execute its next step in solo mode.
+   * @since 0.5
+   */
+  boolean trySoloStep(CThread t) {
+    if (!_soloSteps || _resumed != t) {
+      return false;
+    }
+    synchronized (_newThreads) {
+      if (!_newThreads.isEmpty()) {
+        return false;
+      }
+    }
+    for (CThread other : _threads.values()) {
+      if (other != t) {
+        CThreadState s = other.getCState();
+        if (s != CThreadState.CBLOCKED && s != CThreadState.CWAITING) {
+          return false;
+        }
+      }
+    }
+    _trace.recordSoloStep(t);
+    return true;
+  }
+
   @SuppressWarnings("javadoc")
   private void handleNewThreads() {
     // Check for new threads.
@@ -94,6 +94,32 @@ public abstract class COperation<T> {
     return CThreadState.CREADY;
   }
 
+  /**
+   * Test if the operation is a plain data access, i.e., one whose execution
+   * cannot change the state of other threads. The default implementation
+   * returns <code>false</code>.
+   * 
+   * @return <code>true</code> if the operation is a plain data access.
+   * @see CEngine#trySoloStep(CThread)
+   * @since 0.5
+   */
+  public boolean isDataAccess() {
+    return false;
+  }
+
+  /**
+   * Test if the operation writes shared data, i.e., if its execution 
+   * is an observable change of the program state. The default implementation
+   * returns <code>false</code>.
+   * 
+   * @return <code>true</code> if the operation is a data write.
+   * @see SpinLoopDetector
+   * @since 0.5
+   */
+  public boolean isWrite() {
+    return false;
+  }
+
   /**
    * Execute the operation. The method is guaranteed to run within the
    * cooperative thread the operation associates to. The default operation does
@@ -0,0 +1,294 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+
+package org.cooperari.core;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+
+import org.cooperari.core.scheduling.CYieldPoint;
+import org.cooperari.core.util.CReport;
+
+/**
+ * Race log.
+ * 
+ * <p>
+ * An object of this kind aggregates the races detected over the trials of a test.
+ * Races are deduplicated by data location and (unordered) pair of yield points, 
+ * and for each distinct race the log keeps the number of occurrences, the 
+ * trial in which the race was first observed, and (optionally) a representative 
+ * trace file.
+ * </p>
+ * 
+ * @since 0.5
+ */
+public final class CRaceLog {
+
+  /**
+   * Races in order of discovery.
+   */
+  private final LinkedHashMap<Race, Race> _races = new LinkedHashMap<>();
+
+  /**
+   * Races discovered in the current trial.
+   */
+  private final ArrayList<Race> _newRaces = new ArrayList<>();
+
+  /**
+   * Current trial.
+   */
+  private int _trial = 1;
+
+  /**
+   * Constructs a new race log.
+   */
+  public CRaceLog() { }
+
+  /**
+   * Signal the start of a trial.
+   * @param trial Trial number.
+   */
+  public void startTrial(int trial) {
+    _trial = trial;
+    _newRaces.clear();
+  }
+
+  /**
+   * Record a race.
+   * @param location Data location.
+   * @param yp1 Id of a yield point involved in the race.
+   * @param yp2 Id of the other yield point involved in the race, or <code>-1</code> if unknown.
+   * @return <code>true</code> if the race was not observed before.
+   * @see CYieldPoint#getId()
+   */
+  public boolean record(String location, int yp1, int yp2) {
+    Race key = yp1 <= yp2 || yp2 < 0 ? 
+        new Race(location, yp1, yp2) : new Race(location, yp2, yp1);
+    Race r = _races.get(key);
+    boolean isNew = r == null;
+    if (isNew) {
+      r = key;
+      r._firstTrial = _trial;
+      _races.put(r, r);
+      _newRaces.add(r);
+      assert CWorkspace.debug("NEW RACE %s %d %d", location, r._yp1, r._yp2);
+    }
+    r._occurrences++;
+    return isNew;
+  }
+
+  /**
+   * Test if races were discovered in the current trial.
+   * @return <code>true</code> if some race was first observed in the current trial.
+   */
+  public boolean hasNewRaces() {
+    return !_newRaces.isEmpty();
+  }
+
+  /**
+   * Associate a representative trace file to the races discovered in the current trial.
+   * @param traceFile Trace file.
+   */
+  public void setTraceForNewRaces(File traceFile) {
+    for (Race r : _newRaces) {
+      r._traceFile = traceFile;
+    }
+  }
+
+  /**
+   * Get number of distinct races.
+   * @return Number of distinct races in the log.
+   */
+  public int size() {
+    return _races.size();
+  }
+
+  /**
+   * Get total number of race occurrences.
+   * @return Sum of occurrences for all races in the log.
+   */
+  public int getOccurrences() {
+    int n = 0;
+    for (Race r : _races.keySet()) {
+      n += r._occurrences;
+    }
+    return n;
+  }
+
+  /**
+   * Get races in the log.
+   * @return A read-only view of the races, in order of discovery.
+   */
+  public Collection<Race> getRaces() {
+    return Collections.unmodifiableCollection(_races.keySet());
+  }
+
+  /**
+   * Merge all information from other log into this one.
+   * 
+   * <p>
+   * Occurrences of the same race are added up, and the first trial
+   * (along with the corresponding trace file) is the earliest one in both logs.
+   * </p>
+   * 
+   * @param otherLog The other log.
+   */
+  public void merge(CRaceLog otherLog) {
+    for (Race o : otherLog._races.keySet()) {
+      Race r = _races.get(o);
+      if (r == null) {
+        r = new Race(o._location, o._yp1, o._yp2);
+        r._firstTrial = o._firstTrial;
+        r._traceFile = o._traceFile;
+        _races.put(r, r);
+      } else if (o._firstTrial < r._firstTrial) {
+        r._firstTrial = o._firstTrial;
+        r._traceFile = o._traceFile;
+      }
+      r._occurrences += o._occurrences;
+    }
+  }
+
+  /**
+   * Generate a race report.
+   * @param dirName Directory name inside workspace.
+   * @param reportId Report id.
+   * @throws IOException if an I/O error occurs.
+   * @return File object for the race report.
+   */
+  public File produceRaceReport(String dirName, String reportId) throws IOException {
+    CReport r = CWorkspace.INSTANCE.createReport(dirName, reportId + ".races");
+    r.beginSection("RACE SUMMARY", "DISTINCT RACES", "OCCURRENCES");
+    r.writeEntry(size(), getOccurrences());
+    r.beginSection("RACES", 
+                   "LOCATION", "SOURCE FILE", "LINE", 
+                   "OTHER SOURCE FILE", "OTHER LINE", 
+                   "OCCURRENCES", "FIRST TRIAL", "TRACE");
+    for (Race race : _races.keySet()) {
+      CYieldPoint a = CYieldPointRegistry.INSTANCE.get(race._yp1);
+      CYieldPoint b = race._yp2 >= 0 ? CYieldPointRegistry.INSTANCE.get(race._yp2) : null;
+      r.writeEntry(race._location, 
+                   a.getSourceFile(), a.getSourceLine(),
+                   b != null ? b.getSourceFile() : "-", b != null ? b.getSourceLine() : "-",
+                   race._occurrences, race._firstTrial, 
+                   race._traceFile != null ? race._traceFile.getName() : "-");
+    }
+    r.close();
+    return r.getFile();
+  }
+
+  /**
+   * Distinct race in a log.
+   */
+  public static final class Race {
+    /**
+     * Data location.
+     */
+    private final String _location;
+
+    /**
+     * Id of first yield point.
+     */
+    private final int _yp1;
+
+    /**
+     * Id of second yield point.
+     */
+    private final int _yp2;
+
+    /**
+     * Number of occurrences.
+     */
+    private int _occurrences;
+
+    /**
+     * Trial where the race was first observed.
+     */
+    private int _firstTrial;
+
+    /**
+     * Representative trace file.
+     */
+    private File _traceFile;
+
+    @SuppressWarnings("javadoc")
+    private Race(String location, int yp1, int yp2) {
+      _location = location;
+      _yp1 = yp1;
+      _yp2 = yp2;
+    }
+
+    /**
+     * Get data location.
+     * @return A string identifying the data location.
+     */
+    public String getLocation() {
+      return _location;
+    }
+
+    /**
+     * Get yield point ids for the race.
+     * @return An array with two yield point ids, in ascending order, 
+     *   where the second one is <code>-1</code> if unknown.
+     */
+    public int[] getYieldPoints() {
+      return new int[] { _yp1, _yp2 };
+    }
+
+    /**
+     * Get number of occurrences.
+     * @return Number of times the race was observed.
+     */
+    public int getOccurrences() {
+      return _occurrences;
+    }
+
+    /**
+     * Get trial where the race was first observed.
+     * @return A trial number.
+     */
+    public int getFirstTrial() {
+      return _firstTrial;
+    }
+
+    /**
+     * Get representative trace file.
+     * @return A trace file, or <code>null</code> if no trace was saved.
+     */
+    public File getTraceFile() {
+      return _traceFile;
+    }
+
+    @Override
+    public int hashCode() {
+      return (_location.hashCode() * 31 + _yp1) * 31 + _yp2;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Race)) {
+        return false;
+      }
+      Race r = (Race) o;
+      return _yp1 == r._yp1 && _yp2 == r._yp2 && _location.equals(r._location);
+    }
+  }
+}
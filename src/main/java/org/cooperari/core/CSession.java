@@ -19,6 +19,8 @@ package org.cooperari.core;
 import java.io.File;
 import java.io.IOException;
 import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.cooperari.CSystem;
 import org.cooperari.CTest;
@@ -28,13 +30,17 @@ import org.cooperari.config.CMaxTrials;
 import org.cooperari.config.CScheduling;
 import org.cooperari.config.CTimeLimit;
 import org.cooperari.config.CTraceOptions;
+import org.cooperari.config.CTrialParallelism;
 import org.cooperari.core.aspectj.AgentFacade;
+import org.cooperari.core.jfr.CFlightRecorder;
 import org.cooperari.core.scheduling.CScheduler;
+import org.cooperari.core.util.CAsyncWriter;
 import org.cooperari.core.util.CReport;
 import org.cooperari.errors.CCheckedExceptionError;
 import org.cooperari.errors.CConfigurationError;
 import org.cooperari.errors.CHotspotError;
 import org.cooperari.errors.CInternalError;
+import org.cooperari.feature.data.RaceDetector;
 import org.cooperari.feature.hotspots.HotspotHandler;
 
 /**
@@ -67,19 +73,11 @@ public final class CSession {
   }
 
   /**
-   * Current test (workaround).
+   * Session lock. 
+   * Exclusive sessions acquire the write lock, and sessions that may run concurrently with
+   * other sessions acquire the read lock.
    */
-  private static CTest _currentTest = null;
-
-  /**
-   * Current runtime (workaround).
-   */
-  private static CRuntime _currentRuntime = null;
-
-  /**
-   * Test mutex (workaround).
-   */
-  private static final Object TEST_EXEC_MUTEX = new Object();
+  private static final ReentrantReadWriteLock SESSION_LOCK = new ReentrantReadWriteLock();
 
   /**
    * Execute a test session.
@@ -104,122 +102,150 @@ public final class CSession {
    * threads or the internal logic.
    * </p>
    * 
+   * <p>
+   * The session executes in exclusive manner, i.e., no other test sessions will
+   * execute at the same time. 
+   * </p>
    * 
    * @param test The test.
    * @return An instance of {@link CTestResult}.
+   * @see #executeTest(CTest, boolean)
    */
   public static CTestResult executeTest(CTest test) {
-    synchronized(TEST_EXEC_MUTEX) {
+    return executeTest(test, true);
+  }
+
+  /**
+   * Execute a test session, possibly concurrently with other test sessions.
+   * 
+   * <p>
+   * This behaves like {@link #executeTest(CTest)}, but the session may 
+   * execute concurrently with other non-exclusive sessions if <code>exclusive</code> is <code>false</code>.
+   * Each session uses its own runtime environment(s), but the
+   * tests at stake must not interfere with each other through shared (e.g., static) state.
+   * </p>
+   * 
+   * @param test The test.
+   * @param exclusive Execute session in exclusive mode.
+   * @return An instance of {@link CTestResult}.
+   * @since 0.5
+   */
+  public static CTestResult executeTest(CTest test, boolean exclusive) {
+    Lock lock = exclusive ? SESSION_LOCK.writeLock() : SESSION_LOCK.readLock();
+    lock.lock();
+    try {
       assert CWorkspace.debug("== PREPARING  %s ==", test.getName());
-      CTestResult r;
+      CRuntime runtime = new CRuntime(new CConfiguration(test.getConfiguration()));
+      if (CSystem.inCooperativeMode()) {
+        return executeTestCooperatively(test, runtime);
+      } 
+      // The calling thread joins the runtime, such that threads it spawns
+      // through CSystem.forkAndJoin may join it as well.
+      runtime.join();
       try {
-        _currentTest = test;
-        _currentRuntime = new CRuntime(new CConfiguration(test.getConfiguration()));
-        if (CSystem.inCooperativeMode()) {
-          r = executeTestCooperatively(test);
-        } else {
-          r = executeTestPreemptively(test);
-        }
-        return r;
+        return executeTestPreemptively(test, runtime);
       } finally {
-        _currentTest = null;
-        _currentRuntime = null;
+        runtime.leave();
       }
+    } finally {
+      // Make sure traces, reports and logs for the session are fully written.
+      CAsyncWriter.INSTANCE.flush();
+      lock.unlock();
     }
   }
 
-  /**
-   * Get current test being executed.
-   * @return The current test being executed.
-   */
-  public static CTest getCurrentTest() {
-    return _currentTest;
-  }
-
-  /**
-   * Get runtime environment for current test.
-   * @return The current runtime environment.
-   */
-  public static CRuntime getRuntime() {
-    return _currentRuntime;
-  }
-
   /**
    * Execute a test with cooperative semantics.
+   * 
+   * <p>
+   * Trials are executed by one or more trial workers, according to the
+   * {@link CTrialParallelism} configuration.
+   * </p>
    * @param test The test.
+   * @param runtime Runtime environment.
    * @return The test result.
    */
-  private static CTestResult executeTestCooperatively(CTest test) {
+  private static CTestResult executeTestCooperatively(CTest test, CRuntime runtime) {
     assert CWorkspace.debug("== STARTED %s (cooperatively) ==", test.getName());
 
-    CScheduling schConfig = _currentRuntime.getConfiguration(CScheduling.class);
-    CTraceOptions traceOptions = _currentRuntime.getConfiguration(CTraceOptions.class);
+    CScheduling schConfig = runtime.getConfiguration(CScheduling.class);
+    CTraceOptions traceOptions = runtime.getConfiguration(CTraceOptions.class);
 
     CScheduler scheduler = schConfig.schedulerFactory().create();
 
-    CMaxTrials maxTrials = _currentRuntime.getConfiguration(CMaxTrials.class);
+    CMaxTrials maxTrials = runtime.getConfiguration(CMaxTrials.class);
 
     if (maxTrials.value() < 1) {
       throw new CConfigurationError("Invalid @CMaxTrials configuration: "
           + maxTrials.value());
     }
+    int parallelism = runtime.getConfiguration(CTrialParallelism.class).value();
+    if (parallelism <= 0) {
+      parallelism = Runtime.getRuntime().availableProcessors();
+    }
+    parallelism = Math.min(parallelism, maxTrials.value());
 
-    int trials = 0;
-    Throwable failure;
-    long timeLimit = _currentRuntime.getConfiguration(CTimeLimit.class).value() * 1000L;
-
-    HotspotHandler hHandler = new HotspotHandler(_currentRuntime);
-    _currentRuntime.register(hHandler);
+    long timeLimit = runtime.getConfiguration(CTimeLimit.class).value() * 1000L;
 
-    // Main loop
+    // Setup workers
     long startTime = System.currentTimeMillis();
-    boolean done = false;
-    CCoverageLog clog = new CCoverageLog();
-    CTrace trace = new CTrace(clog, traceOptions);
-    _currentRuntime.register(trace);
+    TrialControl control = new TrialControl(maxTrials.value(), timeLimit, startTime, 
+        CSharding.getIndex(), CSharding.getCount());
+    TrialWorker[] workers = new TrialWorker[parallelism];
+    for (int i = 0; i < parallelism; i++) {
+      workers[i] = new TrialWorker(test, 
+          i == 0 ? runtime : new CRuntime(new CConfiguration(test.getConfiguration())),
+          i == 0 ? scheduler : scheduler.fork(),
+          schConfig.seed(),
+          traceOptions,
+          control);
+    }
 
-    do {
-      failure = null;
-      trials++;
-      trace.reset();
-      hHandler.startTestTrial();
-      scheduler.onTestStarted();
-      CEngine s = new CEngine(_currentRuntime, scheduler, test);
-      s.start();
-      try {
-        s.join();
-      } catch (InterruptedException e) {
-        throw new CInternalError(e);
+    // Main loop
+    if (parallelism == 1) {
+      workers[0].run();
+    } else {
+      CUncaughtExceptionHandler excHandler = new CUncaughtExceptionHandler();
+      Thread[] threads = new Thread[parallelism];
+      for (int i = 0; i < parallelism; i++) {
+        threads[i] = new Thread(workers[i], "CTrialWorker-" + i);
+        threads[i].setUncaughtExceptionHandler(excHandler);
+        threads[i].start();
       }
-      scheduler.onTestFinished();
-      try {
-        s.rethrowExceptionsIfAny();
-        hHandler.endTestTrial();
+      for (Thread t : threads) {
         try {
-          test.onNormalCompletion();
-        } catch (Throwable e) {
-          failure = e;
-        }
-      } catch (Throwable e) {
-        assert CWorkspace.debug(Thread.currentThread(), e);
-        if (test.ignoreException(e) == false) {
-          failure = e;
+          t.join();
+        } catch (InterruptedException e) {
+          throw new CInternalError(e);
         }
       }
-      if (failure == null && traceOptions.logEveryTrace()) {
-        saveTrace(test, trials, trace, Optional.empty());
+      excHandler.rethrowExceptionsIfAny();
+    }
+
+    // Merge results
+    int trials = control.trialsStarted();
+    CCoverageLog clog = new CCoverageLog();
+    CRaceLog raceLog = new CRaceLog();
+    HotspotHandler hHandler = workers[0]._hHandler;
+    TrialWorker failedWorker = null;
+    for (TrialWorker w : workers) {
+      clog.merge(w._clog);
+      if (w != workers[0]) {
+        hHandler.mergeSessionState(w._hHandler);
       }
-      done = failure != null
-          || !scheduler.continueTrials()
-          || trials >= maxTrials.value()
-          || (timeLimit > 0 && System.currentTimeMillis() - startTime >= timeLimit);
-    } while (!done);
+      if (w._failure != null && (failedWorker == null || w._failedTrial < failedWorker._failedTrial)) {
+        failedWorker = w;
+      }
+    }
+    Throwable failure = failedWorker != null ? failedWorker._failure : null;
+    int failedTrial = failedWorker != null ? failedWorker._failedTrial : trials;
 
     if (failure != null) {
       if (failure instanceof CCheckedExceptionError) {
         failure = failure.getCause();
       } 
-    } else {
+    } else if (!CSharding.isActive()) {
+      // Note: when sharding is active, @CSometimes hotspots are checked once shard results are merged.
       try {
         hHandler.endTestSession();
       } catch (CHotspotError e) {
@@ -229,7 +255,27 @@ public final class CSession {
     File traceFile = null;
     
     if (failure != null) {
-      traceFile = saveTrace(test, trials, trace, Optional.of(failure));
+      if (failedWorker != null) {
+        traceFile = saveTrace(test, failedTrial, 
+            failedWorker.traceToSave(failedTrial), traceOptions, Optional.of(failure));
+        failedWorker._raceLog.setTraceForNewRaces(traceFile);
+      } else {
+        // Session-level failure (unreached @CSometimes hotspots): 
+        // save the trace of the last trial executed.
+        TrialWorker lastWorker = workers[0];
+        for (TrialWorker w : workers) {
+          if (w._lastTrial > lastWorker._lastTrial) {
+            lastWorker = w;
+          }
+        }
+        traceFile = saveTrace(test, lastWorker._lastTrial, 
+            lastWorker.traceToSave(lastWorker._lastTrial), traceOptions, Optional.of(failure));
+      }
+    }
+    int replayDivergences = 0;
+    for (TrialWorker w : workers) {
+      raceLog.merge(w._raceLog);
+      replayDivergences += w._replayDivergences;
     }
     long timeElapsed = System.currentTimeMillis() - startTime;
 
@@ -239,9 +285,21 @@ public final class CSession {
         trials, timeElapsed, failure == null ? "passed" : "failed : "
             + failure.getClass().getCanonicalName());
 
+    if (raceLog.size() > 0) {
+      try {
+        File raceReport = raceLog.produceRaceReport(test.getSuiteName(), test.getName());
+        CWorkspace.log("%s: %d distinct races (%d occurrences) detected, see '%s'.", test.getName(),
+            raceLog.size(), raceLog.getOccurrences(), raceReport.getAbsolutePath());
+      } 
+      catch(IOException e) {
+        throw new CInternalError(e);  
+      }
+    }
+
     AgentFacade.INSTANCE.complementCoverageInfo(clog);
+    AgentFacade.INSTANCE.getCoverageDatabase().record(test.getSuiteName(), test.getName(), clog);
 
-    if (_currentRuntime.getConfiguration(CGenerateCoverageReports.class).value()) {
+    if (runtime.getConfiguration(CGenerateCoverageReports.class).value()) {
       try {
         clog.produceCoverageReport(test.getSuiteName(), test.getName());
       } 
@@ -249,18 +307,22 @@ public final class CSession {
         throw new CInternalError(e);  
       }
     }
-    return new CTestResultImpl(trials, timeElapsed, clog, failure, traceFile);
+    if (CSharding.isActive()) {
+      CSharding.record(new CSharding.Result(test, trials, timeElapsed, clog, scheduler, 
+          hHandler.getUnreachedSometimesHotspots(), failure, failedTrial, traceFile));
+    }
+    return new CTestResultImpl(trials, timeElapsed, clog, failure, traceFile, replayDivergences);
   }
 
   /**
    * Execute a test with preemptive semantics.
    * @param test The test.
+   * @param runtime Runtime environment.
    * @return The test result.
    */
-  private static CTestResult executeTestPreemptively(CTest test) {
+  private static CTestResult executeTestPreemptively(CTest test, CRuntime runtime) {
     assert CWorkspace.debug("== STARTED %s (preemptively) ==", test.getName());
-    _currentTest = test;
-    CMaxTrials maxTrials = _currentRuntime.getConfiguration(CMaxTrials.class);
+    CMaxTrials maxTrials = runtime.getConfiguration(CMaxTrials.class);
 
     if (maxTrials.value() < 1) {
       throw new CConfigurationError("Invalid @CMaxTrials configuration: "
@@ -269,10 +331,10 @@ public final class CSession {
 
     int trials = 0;
     Throwable failure;
-    long timeLimit = _currentRuntime.getConfiguration(CTimeLimit.class).value() * 1000L;
+    long timeLimit = runtime.getConfiguration(CTimeLimit.class).value() * 1000L;
 
-    HotspotHandler hHandler = new HotspotHandler(_currentRuntime);
-    _currentRuntime.register(hHandler);
+    HotspotHandler hHandler = new HotspotHandler(runtime);
+    runtime.register(hHandler);
 
     // Main loop
     long startTime = System.currentTimeMillis();
@@ -317,22 +379,34 @@ public final class CSession {
       failure = failure.getCause();
     }
 
-    return new CTestResultImpl(trials, timeElapsed, null, failure, null);
+    return new CTestResultImpl(trials, timeElapsed, null, failure, null, 0);
   }
 
   @SuppressWarnings("javadoc")
-  private static File saveTrace(CTest test, int trialNumber, CTrace trace, Optional<Throwable> failure) {
+  private static File saveTrace(CTest test, int trialNumber, CTrace trace, CTraceOptions options, Optional<Throwable> failure) {
     try {
-      CReport report = CWorkspace.INSTANCE.createReport(test.getSuiteName(), test.getName() + "." + trialNumber + ".trace");
-      try { 
-        trace.save(report, failure);
-        CWorkspace.log("Trace for trial %d of %s written to '%s'.", trialNumber, test.getName(),
-            report.getFile().getAbsolutePath());
-        return report.getFile();
-      } finally {
-        trace.reset();
-        report.close();
+      String baseName = test.getName() + "." + trialNumber;
+      File traceFile;
+      if (options.binary()) {
+        traceFile = CWorkspace.INSTANCE.createFile(test.getSuiteName() + '/' + baseName + CTrace.BINARY_SUFFIX);
+        try {
+          trace.saveBinary(traceFile, failure, options.compress());
+        } finally {
+          trace.reset();
+        }
+      } else {
+        CReport report = CWorkspace.INSTANCE.createReport(test.getSuiteName(), baseName + ".trace");
+        traceFile = report.getFile();
+        try { 
+          trace.save(report, failure);
+        } finally {
+          trace.reset();
+          report.close();
+        }
       }
+      CWorkspace.log("Trace for trial %d of %s written to '%s'.", trialNumber, test.getName(),
+          traceFile.getAbsolutePath());
+      return traceFile;
     } catch (Throwable e) {
       CWorkspace.log("Error generating trace file for %s: %s", 
           test.getName(), e.getMessage());
@@ -341,23 +415,252 @@ public final class CSession {
     } 
   }
 
+  /**
+   * Trial control, shared by all trial workers of a test session.
+   * 
+   * @since 0.5
+   */
+  private static final class TrialControl {
+    /** Maximum number of trials. */
+    private final int _maxTrials;
+    /** Time limit in milliseconds. */
+    private final long _timeLimit;
+    /** Session start time. */
+    private final long _startTime;
+    /** Shard index. */
+    private final int _shardIndex;
+    /** Shard count. */
+    private final int _shardCount;
+    /** Number of trials started so far. */
+    private int _trials = 0;
+    /** Done flag. */
+    private boolean _done = false;
+
+    @SuppressWarnings("javadoc")
+    TrialControl(int maxTrials, long timeLimit, long startTime, int shardIndex, int shardCount) {
+      _maxTrials = maxTrials;
+      _timeLimit = timeLimit;
+      _startTime = startTime;
+      _shardIndex = shardIndex;
+      _shardCount = shardCount;
+    }
+
+    /**
+     * Get a number for a new trial.
+     * 
+     * <p>
+     * Trial numbers start from 1 and are consecutive, unless sharding is active.
+     * In that case they only cover the trials assigned to the shard.
+     * </p>
+     * @return A trial number, or 0 if no more trials should execute.
+     * @see CSharding
+     */
+    synchronized int nextTrial() {
+      int trial = _shardIndex + 1 + _trials * _shardCount;
+      if (!_done) {
+        _done = trial > _maxTrials
+            || (_trials > 0 && _timeLimit > 0 && System.currentTimeMillis() - _startTime >= _timeLimit);
+      }
+      if (_done) {
+        return 0;
+      }
+      _trials++;
+      return trial;
+    }
+
+    /**
+     * Signal that no more trials should execute.
+     */
+    synchronized void stop() {
+      _done = true;
+    }
+
+    /**
+     * Get number of trials that were started.
+     * @return Number of trials started.
+     */
+    synchronized int trialsStarted() {
+      return _trials;
+    }
+  }
+
+  /**
+   * Trial worker.
+   * 
+   * <p>
+   * A worker executes test trials in sequence using its own runtime environment, 
+   * scheduler, execution trace, coverage log, and hotspot handler,
+   * until the shared {@link TrialControl} object signals no more trials should execute,
+   * a failure occurs, or the scheduler signals that no more trials are necessary.
+   * </p>
+   * 
+   * @since 0.5
+   */
+  private static final class TrialWorker implements Runnable {
+    /** Test. */
+    private final CTest _test;
+    /** Runtime. */
+    private final CRuntime _runtime;
+    /** Scheduler. */
+    private final CScheduler _scheduler;
+    /** Session seed. */
+    private final long _sessionSeed;
+    /** Trace options. */
+    private final CTraceOptions _traceOptions;
+    /** Trial control. */
+    private final TrialControl _control;
+    /** Coverage log. */
+    private final CCoverageLog _clog = new CCoverageLog();
+    /** Execution trace. */
+    private final CTrace _trace;
+    /** Race log. */
+    private final CRaceLog _raceLog = new CRaceLog();
+    /** Hotspot handler. */
+    private final HotspotHandler _hHandler;
+    /** Failure, if any. */
+    private Throwable _failure = null;
+    /** Trial number for failure. */
+    private int _failedTrial = 0;
+    /** Number of the last trial executed by the worker. */
+    private int _lastTrial = 0;
+    /** Number of trial replays that diverged from the recorded scheduling decisions. */
+    private int _replayDivergences = 0;
+
+    @SuppressWarnings("javadoc")
+    TrialWorker(CTest test, CRuntime runtime, CScheduler scheduler, long sessionSeed, CTraceOptions traceOptions, TrialControl control) {
+      _test = test;
+      _runtime = runtime;
+      _scheduler = scheduler;
+      _sessionSeed = sessionSeed;
+      _traceOptions = traceOptions;
+      _control = control;
+      _hHandler = new HotspotHandler(runtime);
+      _runtime.register(_hHandler);
+      _trace = new CTrace(_clog, traceOptions);
+      _runtime.register(_trace);
+      _runtime.register(_raceLog);
+    }
+
+    @Override
+    public void run() {
+      int trial;
+      while ((trial = _control.nextTrial()) != 0) {
+        Throwable failure = null;
+        _lastTrial = trial;
+        _trace.reset();
+        int pairs = _clog.getInterleavingPairs();
+        _hHandler.startTestTrial();
+        _raceLog.startTrial(trial);
+        RaceDetector rd = _runtime.get(RaceDetector.class);
+        if (rd != null) {
+          rd.startTestTrial();
+        }
+        _scheduler.setSeed(CScheduler.deriveSeed(_sessionSeed, trial));
+        _scheduler.onTestStarted();
+        Object jfrEvent = CFlightRecorder.trialStarted();
+        CEngine s = new CEngine(_runtime, _scheduler, _test);
+        s.start();
+        try {
+          s.join();
+        } catch (InterruptedException e) {
+          throw new CInternalError(e);
+        }
+        _scheduler.onTestFinished();
+        _scheduler.onInterleavingCoverage(_clog.getInterleavingPairs() - pairs, _clog.getInterleavingPairs());
+        try {
+          s.rethrowExceptionsIfAny();
+          _hHandler.endTestTrial();
+          try {
+            _test.onNormalCompletion();
+          } catch (Throwable e) {
+            failure = e;
+          }
+        } catch (Throwable e) {
+          assert CWorkspace.debug(Thread.currentThread(), e);
+          if (_test.ignoreException(e) == false) {
+            failure = e;
+          }
+        }
+        CFlightRecorder.trialEnded(jfrEvent, _test.getName(), trial, failure != null);
+        if (failure != null) {
+          _failure = failure;
+          _failedTrial = trial;
+          _control.stop();
+          break;
+        }
+        if (_raceLog.hasNewRaces()) {
+          // Keep a representative trace for races first observed in this trial.
+          _raceLog.setTraceForNewRaces(saveTrace(_test, trial, traceToSave(trial), _traceOptions, Optional.empty()));
+        } else if (_traceOptions.logEveryTrace()) {
+          saveTrace(_test, trial, traceToSave(trial), _traceOptions, Optional.empty());
+        }
+        if (!_scheduler.continueTrials()) {
+          _control.stop();
+          break;
+        }
+      }
+    }
+
+    /**
+     * Get the trace to save for the last trial executed by the worker.
+     * 
+     * <p>
+     * If only scheduling decisions are recorded, a full trace is reconstructed
+     * by replaying the decisions of the trial in a fresh runtime environment.
+     * </p>
+     * 
+     * @param trial Trial number.
+     * @return The trace to save.
+     * @see CTraceOptions#decisionsOnly()
+     */
+    CTrace traceToSave(int trial) {
+      if (!_traceOptions.decisionsOnly()) {
+        return _trace;
+      }
+      assert CWorkspace.debug("Replaying trial %d of %s", trial, _test.getName());
+      CRuntime runtime = new CRuntime(new CConfiguration(_test.getConfiguration()));
+      runtime.register(new HotspotHandler(runtime));
+      CTrace trace = new CTrace(new CCoverageLog(), _traceOptions.limit(), false);
+      runtime.register(trace);
+      DecisionReplay replay = new DecisionReplay(_trace.getDecisions());
+      runtime.register(replay);
+      CEngine s = new CEngine(runtime, _scheduler, _test);
+      s.start();
+      try {
+        s.join();
+      } catch (InterruptedException e) {
+        throw new CInternalError(e);
+      }
+      if (replay.diverged()) {
+        _replayDivergences++;
+        CWorkspace.log("Replay of trial %d of %s diverged from the recorded scheduling decisions.", 
+            trial, _test.getName());
+      }
+      return trace;
+    }
+  }
+
   @SuppressWarnings("javadoc")
   private static class CTestResultImpl implements CTestResult {
     final int _trials;
     final long _executionTime;
     final int _yieldPoints;
     final int _yieldPointsCovered;
+    final int _interleavingPairs;
     final Throwable _failure;
     final File _failureTrace;
+    final int _replayDivergences;
 
     CTestResultImpl(int trials, long timeElapsed, CCoverageLog clog,
-        Throwable failure, File failureTrace) {
+        Throwable failure, File failureTrace, int replayDivergences) {
       _trials = trials;
       _executionTime = timeElapsed;
       _yieldPoints = clog != null ? clog.getTotalYieldPoints() : 0;
       _yieldPointsCovered = clog != null ? clog.getCoveredYieldPoints() : 0;
+      _interleavingPairs = clog != null ? clog.getInterleavingPairs() : 0;
       _failure = failure;
       _failureTrace = failureTrace;
+      _replayDivergences = replayDivergences;
     }
 
     @Override
@@ -385,6 +688,11 @@ public final class CSession {
       return _failureTrace;
     }
 
+    @Override
+    public int getReplayDivergences() {
+      return _replayDivergences;
+    }
+
 
     @Override 
     public int getCoveredYieldPoints() {
@@ -395,6 +703,11 @@ public final class CSession {
     public int getTotalYieldPoints() {
       return _yieldPoints;
     }
+
+    @Override 
+    public int getInterleavingPairs() {
+      return _interleavingPairs;
+    }
   }
 
 }
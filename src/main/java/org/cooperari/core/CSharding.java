@@ -0,0 +1,470 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.core;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintWriter;
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.cooperari.CTest;
+import org.cooperari.config.CSometimes;
+import org.cooperari.core.scheduling.CScheduler;
+import org.cooperari.core.scheduling.CSchedulerFactory;
+import org.cooperari.core.scheduling.CYieldPoint;
+import org.cooperari.errors.CHotspotError;
+
+/**
+ * Support for test sessions that are sharded across several JVMs.
+ * 
+ * <p>
+ * When sharding is configured for a JVM through {@link #configure(int, int)},
+ * the JVM only executes the test trials assigned to its shard: for shard <code>k</code> 
+ * out of <code>n</code> these are trials <code>k+1</code>, <code>k+1+n</code>, <code>k+1+2n</code>, ...
+ * Per-trial scheduler seeds are derived from trial numbers, hence distinct shards
+ * make distinct random choices. Scheduler state is not shared between shards, but
+ * the history-dependent scheduler partitions the schedule space among shards, so that
+ * shards do not repeat each other's schedules (see {@link CSchedulerFactory#MEMINI}).
+ * A shard records one {@link Result} per test session, and 
+ * the results of all shards may then be merged using {@link Result#merge(Result)}
+ * and {@link Result#complete()}. Failures reported by JUnit are also recorded (see {@link Failure}),
+ * since not all of them stem from test sessions.
+ * </p>
+ * 
+ * @since 0.5
+ */
+public final class CSharding {
+
+  /**
+   * Shard index.
+   */
+  private static int _index = 0;
+
+  /**
+   * Shard count.
+   */
+  private static int _count = 1;
+
+  /**
+   * Results recorded so far.
+   */
+  private static final ArrayList<Result> RESULTS = new ArrayList<>();
+
+  /**
+   * Configure sharding for this JVM.
+   * @param index Shard index, from 0 to <code>count-1</code>.
+   * @param count Shard count.
+   * @throws IllegalArgumentException If arguments are invalid.
+   */
+  public static synchronized void configure(int index, int count) {
+    if (count < 1 || index < 0 || index >= count) {
+      throw new IllegalArgumentException("Invalid shard: " + index + "/" + count);
+    }
+    _index = index;
+    _count = count;
+  }
+
+  /**
+   * Check if sharding is active.
+   * @return <code>true</code> if sharding has been configured with more than one shard.
+   */
+  public static synchronized boolean isActive() {
+    return _count > 1;
+  }
+
+  /**
+   * Get shard index.
+   * @return The shard index.
+   */
+  public static synchronized int getIndex() {
+    return _index;
+  }
+
+  /**
+   * Get shard count.
+   * @return The shard count.
+   */
+  public static synchronized int getCount() {
+    return _count;
+  }
+
+  /**
+   * Test failures recorded so far.
+   */
+  private static final ArrayList<Failure> FAILURES = new ArrayList<>();
+
+  /**
+   * Record the result of a test session.
+   * @param r Result.
+   */
+  static synchronized void record(Result r) {
+    RESULTS.add(r);
+  }
+
+  /**
+   * Record a test failure reported by JUnit.
+   * 
+   * <p>
+   * JUnit failures are recorded in addition to test session results, since
+   * some failures do not stem from test sessions, e.g., those of tests that are not 
+   * executed cooperatively, or errors in class-level fixtures.
+   * </p>
+   * 
+   * @param suite Test suite name.
+   * @param name Test name.
+   * @param failure Failure.
+   */
+  public static synchronized void recordFailure(String suite, String name, Throwable failure) {
+    FAILURES.add(new Failure(suite, name, failure));
+  }
+
+  /**
+   * Save results and failures recorded so far to a file.
+   * @param file File.
+   * @throws IOException If an I/O error occurs.
+   */
+  public static synchronized void saveResults(File file) throws IOException {
+    try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
+      out.writeObject(new ArrayList<>(RESULTS));
+      out.writeObject(new ArrayList<>(FAILURES));
+    }
+  }
+
+  /**
+   * Load results and failures from a file.
+   * @param file File.
+   * @param failures List to which failures are added.
+   * @return List of results.
+   * @throws IOException If an I/O error occurs.
+   */
+  @SuppressWarnings("unchecked")
+  public static List<Result> loadResults(File file, List<Failure> failures) throws IOException {
+    try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
+      List<Result> results = (List<Result>) in.readObject();
+      failures.addAll((List<Failure>) in.readObject());
+      return results;
+    } catch (ClassNotFoundException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Test failure reported by JUnit in a shard.
+   * 
+   * @since 0.5
+   */
+  public static final class Failure implements Serializable {
+
+    @SuppressWarnings("javadoc")
+    private static final long serialVersionUID = 1L;
+
+    /** Test suite name. */
+    private final String _suite;
+    /** Test name. */
+    private final String _name;
+    /** Failure class. */
+    private final String _failureClass;
+    /** Failure stack trace. */
+    private final String _failureStackTrace;
+
+    /**
+     * Constructor.
+     * @param suite Test suite name.
+     * @param name Test name.
+     * @param failure Failure.
+     */
+    Failure(String suite, String name, Throwable failure) {
+      StringWriter sw = new StringWriter();
+      failure.printStackTrace(new PrintWriter(sw));
+      _suite = suite;
+      _name = name;
+      _failureClass = failure.getClass().getCanonicalName();
+      _failureStackTrace = sw.toString();
+    }
+
+    /**
+     * Get test suite name.
+     * @return The test suite name.
+     */
+    public String getSuiteName() {
+      return _suite;
+    }
+
+    /**
+     * Get test name.
+     * @return The test name.
+     */
+    public String getName() {
+      return _name;
+    }
+
+    /**
+     * Get failure class name.
+     * @return The canonical class name for the failure.
+     */
+    public String getFailureClass() {
+      return _failureClass;
+    }
+
+    /**
+     * Get failure stack trace.
+     * @return The failure stack trace.
+     */
+    public String getFailureStackTrace() {
+      return _failureStackTrace;
+    }
+  }
+
+  /**
+   * Result of a (possibly sharded) test session.
+   * 
+   * @since 0.5
+   */
+  public static final class Result implements Serializable {
+
+    @SuppressWarnings("javadoc")
+    private static final long serialVersionUID = 1L;
+
+    /** Test suite name. */
+    private final String _suite;
+    /** Test name. */
+    private final String _name;
+    /** Trials executed. */
+    private int _trials;
+    /** Execution time. */
+    private long _executionTime;
+    /** Yield points, stored as "file|line|signature" keys and coverage status. */
+    private final TreeMap<String, Boolean> _yieldPoints = new TreeMap<>();
+    /** Scheduler history fingerprints. */
+    private final HashSet<Long> _history = new HashSet<>();
+    /** Unreached {@link CSometimes} hotspots. */
+    private final HashSet<String> _unreachedHotspots = new HashSet<>();
+    /** Trial number of failure, or 0 if there was no failure. */
+    private int _failedTrial;
+    /** Failure class. */
+    private String _failureClass;
+    /** Failure message. */
+    private String _failureMessage;
+    /** Failure stack trace. */
+    private String _failureStackTrace;
+    /** Failure trace file path. */
+    private String _failureTrace;
+
+    /**
+     * Constructor.
+     * @param test Test.
+     * @param trials Trials executed.
+     * @param executionTime Execution time.
+     * @param clog Coverage log.
+     * @param scheduler Scheduler.
+     * @param unreachedHotspots Unreached {@link CSometimes} hotspots.
+     * @param failure Failure (may be <code>null</code>).
+     * @param failedTrial Trial number for failure.
+     * @param failureTrace Trace file for failure (may be <code>null</code>).
+     */
+    Result(CTest test, int trials, long executionTime, CCoverageLog clog, CScheduler scheduler,
+        Set<String> unreachedHotspots, Throwable failure, int failedTrial, File failureTrace) {
+      _suite = test.getSuiteName();
+      _name = test.getName();
+      _trials = trials;
+      _executionTime = executionTime;
+      for (Map.Entry<CYieldPoint, Boolean> e : clog.entries()) {
+        _yieldPoints.put(e.getKey().toString(), e.getValue());
+      }
+      _history.addAll(scheduler.getHistoryFingerprints());
+      _unreachedHotspots.addAll(unreachedHotspots);
+      if (failure != null) {
+        setFailure(failure, failedTrial, failureTrace);
+      }
+    }
+
+    @SuppressWarnings("javadoc")
+    private void setFailure(Throwable failure, int failedTrial, File failureTrace) {
+      StringWriter sw = new StringWriter();
+      failure.printStackTrace(new PrintWriter(sw));
+      _failedTrial = failedTrial;
+      _failureClass = failure.getClass().getCanonicalName();
+      _failureMessage = failure.getMessage();
+      _failureStackTrace = sw.toString();
+      _failureTrace = failureTrace != null ? failureTrace.getAbsolutePath() : null;
+    }
+
+    /**
+     * Merge with result from another shard for the same test.
+     * 
+     * <p>
+     * Trial counts are summed, coverage and scheduler history fingerprints are merged
+     * (the latter only for reporting purposes),
+     * and the failure with the lowest trial number is retained.
+     * The execution time is the maximum of both, given that shards execute concurrently.
+     * </p>
+     * @param other Other result.
+     */
+    public void merge(Result other) {
+      _trials += other._trials;
+      _executionTime = Math.max(_executionTime, other._executionTime);
+      for (Map.Entry<String, Boolean> e : other._yieldPoints.entrySet()) {
+        _yieldPoints.merge(e.getKey(), e.getValue(), Boolean::logicalOr);
+      }
+      _history.addAll(other._history);
+      _unreachedHotspots.retainAll(other._unreachedHotspots);
+      if (other._failedTrial != 0 && (_failedTrial == 0 || other._failedTrial < _failedTrial)) {
+        _failedTrial = other._failedTrial;
+        _failureClass = other._failureClass;
+        _failureMessage = other._failureMessage;
+        _failureStackTrace = other._failureStackTrace;
+        _failureTrace = other._failureTrace;
+      }
+    }
+
+    /**
+     * Complete the result once all shard results have been merged.
+     * 
+     * <p>
+     * If the test did not fail otherwise, a {@link CHotspotError} failure is set in case 
+     * some {@link CSometimes} hotspots have not been reached by any shard.
+     * </p>
+     */
+    public void complete() {
+      if (_failedTrial == 0 && !_unreachedHotspots.isEmpty()) {
+        setFailure(new CHotspotError(CSometimes.class, _unreachedHotspots), Math.max(1, _trials), null);
+      }
+    }
+
+    /**
+     * Get test suite name.
+     * @return The test suite name.
+     */
+    public String getSuiteName() {
+      return _suite;
+    }
+
+    /**
+     * Get test name.
+     * @return The test name.
+     */
+    public String getName() {
+      return _name;
+    }
+
+    /**
+     * Get number of trials.
+     * @return The number of trials.
+     */
+    public int trials() {
+      return _trials;
+    }
+
+    /**
+     * Get execution time.
+     * @return The execution time in milliseconds.
+     */
+    public long getExecutionTime() {
+      return _executionTime;
+    }
+
+    /**
+     * Get number of distinct scheduler decisions recorded in the scheduler's history.
+     * @return Number of distinct decisions.
+     */
+    public int getHistorySize() {
+      return _history.size();
+    }
+
+    /**
+     * Check if the test failed.
+     * @return <code>true</code> if the test failed.
+     */
+    public boolean failed() {
+      return _failedTrial != 0;
+    }
+
+    /**
+     * Get trial number for failure.
+     * @return The trial number of the failure, or 0 if the test did not fail.
+     */
+    public int getFailedTrial() {
+      return _failedTrial;
+    }
+
+    /**
+     * Get failure class name.
+     * @return The canonical class name for the failure.
+     */
+    public String getFailureClass() {
+      return _failureClass;
+    }
+
+    /**
+     * Get failure message.
+     * @return The failure message.
+     */
+    public String getFailureMessage() {
+      return _failureMessage;
+    }
+
+    /**
+     * Get failure stack trace.
+     * @return The failure stack trace.
+     */
+    public String getFailureStackTrace() {
+      return _failureStackTrace;
+    }
+
+    /**
+     * Get trace file for the failure.
+     * @return The trace file, or <code>null</code> if not available.
+     */
+    public File getFailureTrace() {
+      return _failureTrace != null ? new File(_failureTrace) : null;
+    }
+
+    /**
+     * Get coverage log.
+     * @return A new coverage log with merged coverage information.
+     */
+    public CCoverageLog getCoverageLog() {
+      CCoverageLog clog = new CCoverageLog();
+      for (Map.Entry<String, Boolean> e : _yieldPoints.entrySet()) {
+        String[] parts = e.getKey().split("\\|", 3);
+        CYieldPoint yp = CYieldPointRegistry.INSTANCE.register(parts[2], parts[0], Integer.parseInt(parts[1]));
+        if (e.getValue()) {
+          clog.markAsCovered(yp);
+        } else {
+          clog.recordDefinition(yp);
+        }
+      }
+      return clog;
+    }
+  }
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private CSharding() { }
+}
@@ -28,6 +28,7 @@ import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.locks.LockSupport;
 
 import org.aspectj.lang.JoinPoint;
+import org.cooperari.core.jfr.CFlightRecorder;
 import org.cooperari.core.scheduling.CThreadHandle;
 import org.cooperari.core.scheduling.CThreadLocation;
 import org.cooperari.core.scheduling.CYieldPoint;
@@ -106,6 +107,18 @@ public final class CThread extends Thread implements CThreadHandle {
    */
   private boolean _atYieldPoint = false;
 
+  /**
+   * Set if the last step of the thread was a plain data access.
+   * @see COperation#isDataAccess()
+   */
+  private boolean _afterDataAccess = false;
+
+  /**
+   * Number of data writes executed by the thread.
+   * @see COperation#isWrite()
+   */
+  private int _writes = 0;
+
   /**
    * Current join point, if any.
    */
@@ -131,6 +144,16 @@ public final class CThread extends Thread implements CThreadHandle {
    */
   private int _spuriousWakeupTime;
 
+  /**
+   * Park permit, as defined for <code>java.util.concurrent.locks.LockSupport</code>.
+   */
+  private boolean _parkPermit;
+
+  /**
+   * Blocker object for the current park operation, if any.
+   */
+  private Object _parkBlocker;
+
   /**
    * Thread step (incremented upon each yield point).
    */
@@ -215,7 +238,16 @@ public final class CThread extends Thread implements CThreadHandle {
   public int getStep() {
     return _step;
   }
-  
+
+  /**
+   * Get data write count.
+   * @return The number of data writes executed by the thread so far.
+   * @see COperation#isWrite()
+   */
+  int getWriteCount() {
+    return _writes;
+  }
+
   /**
    * Get the thread's current location.
    * 
@@ -226,6 +258,21 @@ public final class CThread extends Thread implements CThreadHandle {
     return _location;
   }
 
+  /**
+   * Get the yield point most recently reached by the thread.
+   *
+   * <p>
+   * Unlike the yield point of {@link #getLocation()}, which is only updated when the
+   * thread actually yields, this is set as soon as the yield point is intercepted.
+   * </p>
+   *
+   * @return The yield point, or <code>null</code> if no yield point was reached yet.
+   * @since 0.5
+   */
+  public CYieldPoint getYieldPoint() {
+    return _yieldPoint;
+  }
+
   /**
    * Get engine that governs the execution of this thread.
    * 
@@ -272,7 +319,7 @@ public final class CThread extends Thread implements CThreadHandle {
   public static CThread intercept(JoinPoint jp) {
     CThread ct = self();
     if (ct != null) {
-      ct._yieldPoint = new CYieldPointImpl(jp.getStaticPart());
+      ct._yieldPoint = CYieldPointRegistry.INSTANCE.get(jp.getStaticPart());
     }
     return ct;
   }
@@ -377,6 +424,13 @@ public final class CThread extends Thread implements CThreadHandle {
   /**
    * Cooperatively yield (new version).
    * 
+   * <p>
+   * If the previous step of the thread was a plain data access (see {@link COperation#isDataAccess()}) 
+   * and the engine allows it, the operation is executed inline without yielding (see {@link CEngine#trySoloStep(CThread)}).
+   * Any other kind of step, e.g., a monitor release or a notification, may change the state of other threads,
+   * hence the thread then yields control back to the engine.
+   * </p>
+   * 
    * @param <T> Type of result for operation.
    * @param op Operation.
    * @return Result for operation.
@@ -389,6 +443,24 @@ public final class CThread extends Thread implements CThreadHandle {
     } 
 
     _operation = op;
+    Object jfrEvent = CFlightRecorder.yieldStarted();
+
+    if (_afterDataAccess && op.getState() == CREADY && _engine.trySoloStep(this)) {
+      // Solo step: execute operation inline.
+      assert CWorkspace.debug("solo step - %s", toString());
+      try {
+        op.execute();
+      } finally {
+        _afterDataAccess = op.isDataAccess();
+        if (op.isWrite()) {
+          _writes++;
+        }
+        _step++;
+        _operation = NOT_AT_YIELD_POINT;
+        CFlightRecorder.yieldEnded(jfrEvent, _cid, _location.getYieldPoint(), op, true);
+      }
+      return op.getResult();
+    }
     assert CWorkspace.debug("yielding - %s", toString());
 
     // Yield.
@@ -417,6 +489,10 @@ public final class CThread extends Thread implements CThreadHandle {
     }
     // Sync step.
     assert CWorkspace.debug("syncing - %s", toString());
+    _afterDataAccess = _operation.isDataAccess();
+    if (_operation.isWrite()) {
+      _writes++;
+    }
     _step++;
     _operation = NOT_AT_YIELD_POINT;
 
@@ -427,6 +503,7 @@ public final class CThread extends Thread implements CThreadHandle {
     }
 
     assert CWorkspace.debug("fully resumed [%s]", getLocation());
+    CFlightRecorder.yieldEnded(jfrEvent, _cid, _location.getYieldPoint(), op, false);
 
     // Return sequence.
     if (rtExc != null) {
@@ -577,6 +654,53 @@ public final class CThread extends Thread implements CThreadHandle {
     return _interruptTime != 0;
   }
 
+  /**
+   * Make the park permit available. 
+   * The request has no effect if the permit is already available.
+   * @since 0.5
+   */
+  public void grantParkPermit() {
+    _parkPermit = true;
+  }
+
+  /**
+   * Test if the park permit is available.
+   * @return <code>true</code> if the park permit is available.
+   * @since 0.5
+   */
+  public boolean getParkPermit() {
+    return _parkPermit;
+  }
+
+  /**
+   * Test and consume the park permit.
+   * @return <code>true</code> if the park permit was available.
+   * @since 0.5
+   */
+  public boolean testAndClearParkPermit() {
+    boolean prevPermit = _parkPermit;
+    _parkPermit = false;
+    return prevPermit;
+  }
+
+  /**
+   * Set blocker object for park operations.
+   * @param blocker Blocker object, or <code>null</code> to clear it.
+   * @since 0.5
+   */
+  public void setParkBlocker(Object blocker) {
+    _parkBlocker = blocker;
+  }
+
+  /**
+   * Get blocker object for the current park operation.
+   * @return Blocker object, or <code>null</code> if the thread is not parked or no blocker was set.
+   * @since 0.5
+   */
+  public Object getParkBlocker() {
+    return _parkBlocker;
+  }
+
   /**
    * Enable the possibility of spurious wakeups.
    */
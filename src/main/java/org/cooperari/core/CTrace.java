@@ -16,8 +16,12 @@
 
 package org.cooperari.core;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.ArrayDeque;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
@@ -25,6 +29,8 @@ import java.util.Optional;
 import org.cooperari.config.CTraceOptions;
 import org.cooperari.core.scheduling.CThreadLocation;
 import org.cooperari.core.scheduling.CYieldPoint;
+import org.cooperari.core.util.CBinaryInput;
+import org.cooperari.core.util.CBinaryOutput;
 import org.cooperari.core.util.CReport;
 
 /**
@@ -47,7 +53,12 @@ public final class CTrace {
     /**
      * Deadlock
      */
-    DEADLOCK('D');
+    DEADLOCK('D'),
+    /**
+     * Sequence of steps executed by a thread in solo mode.
+     * @since 0.5
+     */
+    SOLO('S');
     
     /**
      * Event marker in trace file.
@@ -71,15 +82,104 @@ public final class CTrace {
     }
   };
 
+  /**
+   * File name suffix for binary trace files.
+   * @since 0.5
+   */
+  public static final String BINARY_SUFFIX = ".ctrace";
+
   /**
    * Size limit.
    */
   private final int _sizeLimit;
 
   /**
-   * Trace steps.
+   * Initial capacity for trace arrays, when the trace size is unbounded.
+   */
+  private static final int INITIAL_CAPACITY = 1024;
+
+  /**
+   * Magic number for binary trace files ("CTRC").
+   */
+  private static final int BINARY_MAGIC = 0x43545243;
+
+  /**
+   * Binary trace format version.
+   */
+  private static final int BINARY_VERSION = 1;
+
+  /**
+   * Title of failure section in trace files.
+   */
+  private static final String FAILURE_SECTION = "STACK TRACE FOR FAILURE";
+
+  // Trace items are stored in a ring buffer made of parallel primitive arrays.
+  /**
+   * Thread ids for trace items.
+   */
+  private int[] _tid;
+
+  /**
+   * Thread steps for trace items.
+   */
+  private int[] _step;
+
+  /**
+   * Event markers for trace items.
+   */
+  private char[] _marker;
+
+  /**
+   * Yield point ids for trace items.
+   * @see CYieldPointRegistry
+   */
+  private int[] _ypId;
+
+  /**
+   * Yield point stages for trace items.
+   */
+  private int[] _stage;
+
+  /**
+   * Additional steps for trace items representing solo sequences.
+   */
+  private int[] _soloSteps;
+
+  /**
+   * Flag indicating that only scheduling decisions are recorded.
+   * @see CTraceOptions#decisionsOnly()
+   */
+  private final boolean _decisionsOnly;
+
+  /**
+   * Recorded scheduling decisions (thread ids), if only decisions are recorded.
+   */
+  private int[] _decisions;
+
+  /**
+   * Number of recorded scheduling decisions.
    */
-  private final ArrayDeque<TraceItem> _traceElements = new ArrayDeque<>();
+  private int _decisionCount = 0;
+
+  /**
+   * Thread id for the last executed step (negative if none), for interleaving coverage.
+   */
+  private int _lastThread = -1;
+
+  /**
+   * Yield point id for the last executed step, for interleaving coverage.
+   */
+  private int _lastYieldPoint;
+
+  /**
+   * Index of first trace item in the ring buffer.
+   */
+  private int _head = 0;
+
+  /**
+   * Number of trace items.
+   */
+  private int _size = 0;
 
   /**
    * Map of thread identifiers to names.
@@ -98,10 +198,73 @@ public final class CTrace {
    * @param options Options.
    */
   public CTrace(CCoverageLog clog, CTraceOptions options) {
+    this(clog, options.limit(), options.decisionsOnly());
+  }
+
+  /**
+   * Constructs a new trace.
+   * @param clog Set in which to record covered yield points.
+   * @param sizeLimit Size limit (unbounded trace if lower or equal than 0).
+   * @param decisionsOnly Flag indicating that only scheduling decisions should be recorded.
+   * @since 0.5
+   */
+  CTrace(CCoverageLog clog, int sizeLimit, boolean decisionsOnly) {
     _clog = clog;
-    _sizeLimit = options.limit();
+    _sizeLimit = sizeLimit;
+    _decisionsOnly = decisionsOnly;
+    if (decisionsOnly) {
+      _decisions = new int[INITIAL_CAPACITY];
+      allocate(0);
+    } else {
+      allocate(_sizeLimit > 0 ? _sizeLimit : INITIAL_CAPACITY);
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private void allocate(int capacity) {
+    _tid = new int[capacity];
+    _step = new int[capacity];
+    _marker = new char[capacity];
+    _ypId = new int[capacity];
+    _stage = new int[capacity];
+    _soloSteps = new int[capacity];
+  }
+
+  /**
+   * Double the capacity of the trace arrays (only used for unbounded traces).
+   */
+  private void grow() {
+    int[] tid = _tid, step = _step, ypId = _ypId, stage = _stage, soloSteps = _soloSteps;
+    char[] marker = _marker;
+    int n = _size;
+    allocate(2 * tid.length);
+    // Unbounded traces never wrap around, hence _head is always 0.
+    System.arraycopy(tid, 0, _tid, 0, n);
+    System.arraycopy(step, 0, _step, 0, n);
+    System.arraycopy(marker, 0, _marker, 0, n);
+    System.arraycopy(ypId, 0, _ypId, 0, n);
+    System.arraycopy(stage, 0, _stage, 0, n);
+    System.arraycopy(soloSteps, 0, _soloSteps, 0, n);
   }
 
+  /**
+   * Get index in the trace arrays for the i-th trace item.
+   * @param i Trace item index.
+   * @return The array index.
+   */
+  private int index(int i) {
+    int idx = _head + i;
+    return idx < _tid.length ? idx : idx - _tid.length;
+  }
+
+  /**
+   * Get number of items in the trace.
+   * @return The number of trace items.
+   * @since 0.5
+   */
+  public int size() {
+    return _size;
+  }
 
   /**
    * Record existence of thread. 
@@ -126,16 +289,121 @@ public final class CTrace {
    * @param type event type
    */
   public void record(CThread t, EventType type) {
-    CYieldPoint yp = t.getLocation().getYieldPoint();
+    CThreadLocation location = t.getLocation();
+    CYieldPoint yp = location.getYieldPoint();
     if (yp.getSourceFile() != CYieldPointImpl.INTERNAL) {
       _clog.markAsCovered(yp);
     }
-    _traceElements.addLast(new TraceItem(t, type));
-    if (_sizeLimit > 0 && _traceElements.size() == _sizeLimit) {
-      _traceElements.removeFirst();
+    if (_decisionsOnly) {
+      return;
+    }
+    int idx;
+    if (_size < _tid.length) {
+      idx = index(_size);
+      _size++;
+    } else if (_sizeLimit > 0) {
+      // Ring buffer is full: overwrite first item.
+      idx = _head;
+      _head = index(1);
+    } else {
+      grow();
+      idx = _size;
+      _size++;
+    }
+    _tid[idx] = t.getCID();
+    _step[idx] = t.getStep();
+    _marker[idx] = type != null ? type.getTraceMarker() : '-';
+    _ypId[idx] = yp.getId();
+    _stage[idx] = location.getStage();
+    _soloSteps[idx] = 0;
+  }
+
+  /**
+   * Record a step executed by a thread in solo mode.
+   * 
+   * <p>
+   * Consecutive solo steps by the same thread are compressed into a single trace item,
+   * whose step column indicates the range of thread steps at stake.
+   * </p>
+   * @param t The thread at stake.
+   * @see CEngine#trySoloStep(CThread)
+   * @since 0.5
+   */
+  public void recordSoloStep(CThread t) {
+    recordExecution(t);
+    if (_decisionsOnly) {
+      record(t, EventType.SOLO);
+      return;
+    }
+    if (_size > 0) {
+      int idx = index(_size - 1);
+      if (_marker[idx] == EventType.SOLO.getTraceMarker()
+          && _tid[idx] == t.getCID()
+          && _step[idx] + _soloSteps[idx] + 1 == t.getStep()) {
+        CThreadLocation location = t.getLocation();
+        CYieldPoint yp = location.getYieldPoint();
+        if (yp.getSourceFile() != CYieldPointImpl.INTERNAL) {
+          _clog.markAsCovered(yp);
+        }
+        _soloSteps[idx]++;
+        _ypId[idx] = yp.getId();
+        _stage[idx] = location.getStage();
+        return;
+      }
+    }
+    record(t, EventType.SOLO);
+  }
+
+  /**
+   * Record a scheduling decision.
+   * 
+   * <p>
+   * Decisions are only recorded if the trace is configured to record only decisions.
+   * In any case, the decision is accounted for in interleaving coverage.
+   * </p>
+   * 
+   * @param t The thread that was selected to run.
+   * @see CTraceOptions#decisionsOnly()
+   * @since 0.5
+   */
+  public void recordDecision(CThread t) {
+    recordExecution(t);
+    if (_decisionsOnly) {
+      if (_decisionCount == _decisions.length) {
+        _decisions = Arrays.copyOf(_decisions, 2 * _decisionCount);
+      }
+      _decisions[_decisionCount++] = t.getCID();
     }
   }
 
+  /**
+   * Record that a thread is about to execute a step, for the purpose of interleaving coverage.
+   * @param t The thread at stake.
+   * @see CCoverageLog#recordInterleaving(int, int)
+   */
+  private void recordExecution(CThread t) {
+    CYieldPoint yp = t.getLocation().getYieldPoint();
+    if (yp.getSourceFile() != CYieldPointImpl.INTERNAL) {
+      int cid = t.getCID();
+      int id = yp.getId();
+      if (_lastThread >= 0 && _lastThread != cid) {
+        _clog.recordInterleaving(_lastYieldPoint, id);
+      }
+      _lastThread = cid;
+      _lastYieldPoint = id;
+    }
+  }
+
+  /**
+   * Get the recorded scheduling decisions.
+   * @return A fresh array with the ids of the threads selected to run, in order.
+   * @see #recordDecision(CThread)
+   * @since 0.5
+   */
+  public int[] getDecisions() {
+    return _decisions != null ? Arrays.copyOf(_decisions, _decisionCount) : new int[0];
+  }
+
   /**
    * Write trace to a output file.
    * @param report Output file.
@@ -144,13 +412,143 @@ public final class CTrace {
    */
   public void save(CReport report, Optional<Throwable> failure) throws IOException {
     // Write thread info
-    report.beginSection("THREADS", "TID", "NAME", "CLASS");
+    beginThreadSection(report);
     for (Map.Entry<Integer, ThreadInfo> entry : _threadNames.entrySet()) {
       ThreadInfo ti = entry.getValue();
       report.writeEntry(entry.getKey(), ti.getName(), ti.getClassName());
     }
     // Write step info
-    int stepId = 0;  
+    beginTraceSection(report);
+    for (int i = 0; i < _size; i++) {
+      int idx = index(i);
+      CYieldPoint yp = CYieldPointRegistry.INSTANCE.get(_ypId[idx]);
+      writeTraceEntry(report, i, _tid[idx], _step[idx], _soloSteps[idx], _marker[idx],
+                      yp.getSourceFile(), yp.getSourceLine(), yp.getSignature(), _stage[idx]);
+    }
+    
+    if (failure.isPresent()) {
+      report.beginSection(FAILURE_SECTION);
+      report.dumpStackTrace(failure.get());
+    }
+  }
+
+  /**
+   * Write trace to a file in binary format.
+   * 
+   * <p>
+   * The binary format comprises a header with thread information and a dictionary of yield points, 
+   * followed by trace items whose fields are encoded as variable-length integers. Binary trace
+   * files can be converted back to the text format using {@link #convert(File, CReport)}.
+   * </p>
+   * 
+   * @param file Output file.
+   * @param failure Optional failure that may have happened during execution.
+   * @param compress Compression flag.
+   * @throws IOException If an I/O error occurs.
+   * @since 0.5
+   */
+  public void saveBinary(File file, Optional<Throwable> failure, boolean compress) throws IOException {
+    try (CBinaryOutput out = new CBinaryOutput(file, compress)) {
+      out.writeVarInt(BINARY_MAGIC);
+      out.writeVarInt(BINARY_VERSION);
+      // Threads
+      out.writeVarInt(_threadNames.size());
+      for (Map.Entry<Integer, ThreadInfo> entry : _threadNames.entrySet()) {
+        ThreadInfo ti = entry.getValue();
+        out.writeVarInt(entry.getKey());
+        out.writeString(ti.getName());
+        out.writeString(ti.getClassName());
+      }
+      // Yield point dictionary (only for yield points in the trace, numbered in order of appearance)
+      int[] ypIndex = new int[CYieldPointRegistry.INSTANCE.size()];
+      ArrayList<CYieldPoint> dictionary = new ArrayList<>();
+      for (int i = 0; i < _size; i++) {
+        int id = _ypId[index(i)];
+        if (ypIndex[id] == 0) {
+          dictionary.add(CYieldPointRegistry.INSTANCE.get(id));
+          ypIndex[id] = dictionary.size();
+        }
+      }
+      out.writeVarInt(dictionary.size());
+      for (CYieldPoint yp : dictionary) {
+        out.writeString(yp.getSourceFile());
+        out.writeSignedVarInt(yp.getSourceLine());
+        out.writeString(yp.getSignature());
+      }
+      // Trace items
+      out.writeVarInt(_size);
+      for (int i = 0; i < _size; i++) {
+        int idx = index(i);
+        out.writeVarInt(_tid[idx]);
+        out.writeVarInt(_step[idx]);
+        out.writeVarInt(_soloSteps[idx]);
+        out.writeVarInt(_marker[idx]);
+        out.writeVarInt(ypIndex[_ypId[idx]] - 1);
+        out.writeSignedVarInt(_stage[idx]);
+      }
+      // Failure
+      if (failure.isPresent()) {
+        StringWriter sw = new StringWriter();
+        failure.get().printStackTrace(new PrintWriter(sw));
+        out.writeByte(1);
+        out.writeString(sw.toString());
+      } else {
+        out.writeByte(0);
+      }
+    }
+  }
+
+  /**
+   * Convert a binary trace file to text format.
+   * @param file Binary trace file.
+   * @param report Report to write the trace to.
+   * @throws IOException If an I/O error occurs or the file is not a valid binary trace file.
+   * @see #saveBinary(File, Optional, boolean)
+   * @since 0.5
+   */
+  public static void convert(File file, CReport report) throws IOException {
+    try (CBinaryInput in = new CBinaryInput(file)) {
+      if (in.readVarInt() != BINARY_MAGIC || in.readVarInt() != BINARY_VERSION) {
+        throw new IOException("Not a binary trace file: " + file);
+      }
+      beginThreadSection(report);
+      for (int n = in.readVarInt(); n > 0; n--) {
+        report.writeEntry(in.readVarInt(), in.readString(), in.readString());
+      }
+      int n = in.readVarInt();
+      String[] ypFile = new String[n];
+      int[] ypLine = new int[n];
+      String[] ypSig = new String[n];
+      for (int i = 0; i < n; i++) {
+        ypFile[i] = in.readString();
+        ypLine[i] = in.readSignedVarInt();
+        ypSig[i] = in.readString();
+      }
+      beginTraceSection(report);
+      n = in.readVarInt();
+      for (int i = 0; i < n; i++) {
+        int tid = in.readVarInt();
+        int step = in.readVarInt();
+        int soloSteps = in.readVarInt();
+        char marker = (char) in.readVarInt();
+        int yp = in.readVarInt();
+        int stage = in.readSignedVarInt();
+        writeTraceEntry(report, i, tid, step, soloSteps, marker, ypFile[yp], ypLine[yp], ypSig[yp], stage);
+      }
+      if (in.readByte() != 0) {
+        report.beginSection(FAILURE_SECTION);
+        report.dumpText(in.readString());
+      }
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private static void beginThreadSection(CReport report) {
+    report.beginSection("THREADS", "TID", "NAME", "CLASS");
+  }
+
+  @SuppressWarnings("javadoc")
+  private static void beginTraceSection(CReport report) {
     report.beginSection("EXECUTION TRACE", 
                         "#", 
                         "TID", 
@@ -160,31 +558,30 @@ public final class CTrace {
                         "LINE", 
                         "YIELD POINT", 
                         "STAGE"); 
-    for (TraceItem traceItem : _traceElements) {
-      CThreadLocation location = traceItem.getLocation();
-      CYieldPoint yp = location.getYieldPoint();
-      report.writeEntry(stepId, 
-                        traceItem.getThreadId(), 
-                        traceItem.getThreadStep(), 
-                        traceItem.getEventMarker(),
-                        yp.getSourceFile(), 
-                        yp.getSourceLine(), 
-                        yp.getSignature(), 
-                        location.getStage());
-      stepId++;
-    }
-    
-    if (failure.isPresent()) {
-      report.beginSection("STACK TRACE FOR FAILURE");
-      report.dumpStackTrace(failure.get());
-    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private static void writeTraceEntry(CReport report, int stepId, int tid, int step, int soloSteps, char marker, 
+                                      String sourceFile, int sourceLine, String signature, int stage) {
+    report.writeEntry(stepId, 
+                      tid, 
+                      soloSteps == 0 ? step : step + ".." + (step + soloSteps), 
+                      marker,
+                      sourceFile, 
+                      sourceLine, 
+                      signature, 
+                      stage);
   }
   
   /**
    * Reset.
+   * Trace arrays are kept for reuse.
    */
   public void reset() {
-    _traceElements.clear();
+    _head = 0;
+    _size = 0;
+    _decisionCount = 0;
+    _lastThread = -1;
     _threadNames.clear();
   }
 
@@ -227,71 +624,4 @@ public final class CTrace {
       return _className;
     }
   }
-  /**
-   * Inner class representing an item of a trace.
-   */
-  private static final class TraceItem {
-    /**
-     * Thread id.
-     */
-    private final int _threadId;
-
-    /**
-     * Thread step.
-     */
-    private final int _threadStep;
-
-    /**
-     * Type.
-     */
-    private final char _eventMarker;
-    
-    /**
-     * Yield point for thread.
-     */
-    private final CThreadLocation _location;
-
-    /**
-     * Constructs a new trace element.
-     * @param t Thread.
-     * @param type Type of element.
-     */
-    TraceItem(CThread t, EventType type)  {
-      this._threadId = t.getCID();
-      this._threadStep = t.getStep();
-      this._eventMarker = type != null ? type.getTraceMarker() : '-';
-      this._location = t.getLocation();
-    }
-    
-    /**
-     * Get thread id.
-     * @return The thread id for this step.
-     */
-    int getThreadId() {
-      return _threadId;
-    }
-
-    /**
-     * Get thread step.
-     * @return The thread step counter for this step.
-     */
-    int getThreadStep() {
-      return _threadStep;
-    }
-    
-    /**
-     * Get event type.
-     * @return Type of event.
-     */
-    char getEventMarker() {
-      return _eventMarker;
-    }
-    /**
-     * Get yield point.
-     * @return The thread step counter for this step.
-     */
-    CThreadLocation getLocation() {
-      return _location;
-    }
-  }
 }
@@ -18,10 +18,12 @@ package org.cooperari.core;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.util.Arrays;
 import java.util.EnumSet;
 
 import org.aspectj.lang.JoinPoint;
+import org.cooperari.core.util.CAsyncWriter;
 import org.cooperari.core.util.CLog;
 import org.cooperari.core.util.CReport;
 import org.cooperari.errors.CConfigurationError;
@@ -140,7 +142,7 @@ public enum CWorkspace {
     boolean assertionsEnabled = false;
     assert assertionsEnabled = true;
     if (assertionsEnabled) {
-      _debugLog = new CLog(new File(root, DEBUG_LOG_ID + LOG_SUFFIX), CLog.Option.WALLTIME_TIMESTAMPS);
+      _debugLog = new CLog(openAsync(new File(root, DEBUG_LOG_ID + LOG_SUFFIX)), CLog.Option.WALLTIME_TIMESTAMPS);
     }
     EnumSet<Option> optionSet = 
       (options != null && options.length > 0) ?
@@ -150,7 +152,7 @@ public enum CWorkspace {
     if (optionSet.contains(Option.LOG_TO_STDOUT)) {
       parentLog = CLog.SYSTEM_OUT;
     } 
-    _mainLog = new CLog(new File(root, MAIN_LOG_ID + LOG_SUFFIX), parentLog, CLog.Option.OMMIT_THREAD_INFO);
+    _mainLog = new CLog(openAsync(new File(root, MAIN_LOG_ID + LOG_SUFFIX)), parentLog, CLog.Option.OMMIT_THREAD_INFO);
     _root = root;
   }
 
@@ -187,6 +189,7 @@ public enum CWorkspace {
 
   /**
    * Create a log. 
+   * The log is written asynchronously (see {@link CAsyncWriter}).
    * @param dirName Name for the sub-directory in the workspace.
    * @param logName Name for the log.
    * @param options Log options.
@@ -196,11 +199,12 @@ public enum CWorkspace {
    */
   public CLog createLog(String dirName, String logName, CLog.Option... options) throws CConfigurationError, IOException {
     checkForInitialization();
-    return new CLog(createFile(dirName + "/" + logName + LOG_SUFFIX), options); 
+    return new CLog(openAsync(createFile(dirName + "/" + logName + LOG_SUFFIX)), options); 
   }
 
   /**
    * Create a report. 
+   * The report is written asynchronously (see {@link CAsyncWriter}).
    * @param dirName Name for the sub-directory in the workspace.
    * @param reportName Name for the report.
    * @return A {@link CReport} instance.
@@ -209,7 +213,19 @@ public enum CWorkspace {
    */
   public CReport createReport(String dirName, String reportName) throws CConfigurationError, IOException {
     checkForInitialization();
-    return new CReport(createFile(dirName + '/' + reportName + REPORT_SUFFIX)); 
+    File f = createFile(dirName + '/' + reportName + REPORT_SUFFIX);
+    return new CReport(f, CAsyncWriter.INSTANCE.open(f)); 
+  }
+
+  /**
+   * Open a print stream for a file, whose output is written asynchronously.
+   * @param f File.
+   * @return A print stream.
+   * @throws IOException If an I/O error occurs.
+   * @see CAsyncWriter
+   */
+  private static PrintStream openAsync(File f) throws IOException {
+    return new PrintStream(CAsyncWriter.INSTANCE.open(f));
   }
 
 
@@ -34,17 +34,17 @@ public final class CYieldPointImpl implements CYieldPoint {
   /**
    * Constant for thread initialization.
    */
-  public static final CYieldPoint THREAD_INITIALIZATION = new CYieldPointImpl(CYieldPoint.THREAD_INITIALIZATION_SIGNATURE, INTERNAL, 0);
+  public static final CYieldPoint THREAD_INITIALIZATION = CYieldPointRegistry.INSTANCE.register(CYieldPoint.THREAD_INITIALIZATION_SIGNATURE, INTERNAL, 0);
   
   /**
    * Constant for thread start yield point.
    */
-  public static final CYieldPoint THREAD_STARTED_YIELD_POINT = new CYieldPointImpl(CYieldPoint.THREAD_STARTED_SIGNATURE, INTERNAL, 0);
+  public static final CYieldPoint THREAD_STARTED_YIELD_POINT = CYieldPointRegistry.INSTANCE.register(CYieldPoint.THREAD_STARTED_SIGNATURE, INTERNAL, 0);
  
   /**
    * Constant for thread stop yield point.
    */
-  public static final CYieldPoint THREAD_TERMINATED_YIELD_POINT = new CYieldPointImpl(CYieldPoint.THREAD_TERMINATED_SIGNATURE, INTERNAL, 0);
+  public static final CYieldPoint THREAD_TERMINATED_YIELD_POINT = CYieldPointRegistry.INSTANCE.register(CYieldPoint.THREAD_TERMINATED_SIGNATURE, INTERNAL, 0);
   
   /**
    * Signature.
@@ -65,29 +65,33 @@ public final class CYieldPointImpl implements CYieldPoint {
    */
   private final int _hash;
 
+  /**
+   * Dense integer id.
+   */
+  private final int _id;
+
   /**
    * Constructs a yield point from supplied signature, file, and line.
+   * Yield points should be obtained through {@link CYieldPointRegistry}.
    * @param signature Signature.
    * @param file Source code file.
    * @param line Source code line.
+   * @param id Yield point id.
    */
-  public CYieldPointImpl(String signature, String file, int line) {
+  CYieldPointImpl(String signature, String file, int line, int id) {
     _signature = signature;
     _file = file;
     _line = line;
+    _id = id;
     _hash = signature.hashCode() ^ file.hashCode() ^ line;
   }
 
   /**
-   * Constructs a yield point from supplied AspectJ join point information
-   * @param jpsp Join point information.
+   * Derive signature for a join point.
+   * @param jpsp Join point static part.
+   * @return Yield point signature.
    */
-  CYieldPointImpl(JoinPoint.StaticPart jpsp) {
-    this(deriveSignature(jpsp), jpsp.getSourceLocation().getFileName(), jpsp.getSourceLocation().getLine());
-  }
-  
-  @SuppressWarnings("javadoc")
-  private static String deriveSignature(JoinPoint.StaticPart jpsp) {
+  static String deriveSignature(JoinPoint.StaticPart jpsp) {
     String kind = jpsp.getKind(); // note that String is internalized
     if (kind == JoinPoint.SYNCHRONIZATION_LOCK) {
       return MONITOR_ENTER_SIGNATURE;
@@ -104,6 +108,11 @@ public final class CYieldPointImpl implements CYieldPoint {
     return kind + '(' + s + ')';
   }
 
+  @Override
+  public int getId() {
+    return _id;
+  }
+
   @Override
   public String getSignature() {
     return _signature;
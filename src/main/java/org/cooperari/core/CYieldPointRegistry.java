@@ -0,0 +1,145 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.core;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.JoinPoint;
+import org.cooperari.core.aspectj.AgentFacade;
+
+/**
+ * Global registry of yield points.
+ * 
+ * <p>
+ * The registry keeps a canonical {@link CYieldPointImpl} instance per yield point,
+ * and assigns each yield point a dense integer id when it is first registered, 
+ * normally when a woven type is initialized. Ids are used for compact representations, e.g., coverage bit sets.
+ * Yield points for join points are cached per join point static part, such that 
+ * yield point lookup at runtime avoids string manipulation.
+ * </p>
+ * 
+ * Note that only a singleton instance of this type exists ({@link #INSTANCE}).
+ * 
+ * @since 0.5
+ */
+public enum CYieldPointRegistry {
+  /**
+   * Singleton instance.
+   */
+  INSTANCE;
+
+  /**
+   * Registered yield points, indexed by id.
+   */
+  private final ArrayList<CYieldPointImpl> _yieldPoints = new ArrayList<>();
+
+  /**
+   * Canonical instances for registered yield points.
+   */
+  private final HashMap<CYieldPointImpl, CYieldPointImpl> _canonical = new HashMap<>();
+
+  /**
+   * Ids of yield points per source file.
+   */
+  private final HashMap<String, BitSet> _sourceFiles = new HashMap<>();
+
+  /**
+   * Cache of yield points per join point static part.
+   */
+  private final ConcurrentHashMap<JoinPoint.StaticPart, CYieldPointImpl> _staticPartCache = new ConcurrentHashMap<>();
+
+  /**
+   * Register a yield point.
+   * If the yield point is already registered, the canonical instance is returned.
+   * @param signature Signature.
+   * @param file Source code file.
+   * @param line Source code line.
+   * @return Canonical yield point instance.
+   */
+  public synchronized CYieldPointImpl register(String signature, String file, int line) {
+    CYieldPointImpl key = new CYieldPointImpl(signature, file, line, -1);
+    CYieldPointImpl yp = _canonical.get(key);
+    if (yp == null) {
+      yp = new CYieldPointImpl(signature, file, line, _yieldPoints.size());
+      _yieldPoints.add(yp);
+      _canonical.put(yp, yp);
+      BitSet ids = _sourceFiles.get(file);
+      if (ids == null) {
+        ids = new BitSet();
+        _sourceFiles.put(file, ids);
+      }
+      ids.set(yp.getId());
+    }
+    return yp;
+  }
+
+  /**
+   * Get yield point for a join point.
+   * When a join point is first seen, the definitions of all yield points in
+   * the same woven type are recorded (see {@link AgentFacade#recordDefinitions(Class)}).
+   * @param jpsp Join point static part.
+   * @return Canonical yield point instance.
+   */
+  public CYieldPointImpl get(JoinPoint.StaticPart jpsp) {
+    CYieldPointImpl yp = _staticPartCache.get(jpsp);
+    if (yp == null) {
+      yp = register(CYieldPointImpl.deriveSignature(jpsp), 
+                    jpsp.getSourceLocation().getFileName(), 
+                    jpsp.getSourceLocation().getLine());
+      if (_staticPartCache.putIfAbsent(jpsp, yp) == null) {
+        Class<?> type = jpsp.getSourceLocation().getWithinType();
+        if (type != null) {
+          AgentFacade.INSTANCE.recordDefinitions(type);
+        }
+      }
+    }
+    return yp;
+  }
+
+  /**
+   * Get yield point by id.
+   * @param id Yield point id.
+   * @return Yield point for the given id.
+   * @throws IndexOutOfBoundsException If the id is invalid.
+   */
+  public synchronized CYieldPointImpl get(int id) {
+    return _yieldPoints.get(id);
+  }
+
+  /**
+   * Get number of registered yield points.
+   * @return Number of registered yield points (all ids are lower than this value).
+   */
+  public synchronized int size() {
+    return _yieldPoints.size();
+  }
+
+  /**
+   * Add ids of all yield points registered for a source file to a bit set.
+   * @param file Source file.
+   * @param ids Bit set to update.
+   */
+  public synchronized void addYieldPointsIn(String file, BitSet ids) {
+    BitSet fileIds = _sourceFiles.get(file);
+    if (fileIds != null) {
+      ids.or(fileIds);
+    }
+  }
+}
@@ -0,0 +1,88 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.core;
+
+import java.util.List;
+
+/**
+ * Replay of a recorded sequence of scheduling decisions.
+ * 
+ * <p>
+ * When an instance of this class is registered in a runtime environment, 
+ * a {@link CEngine} using that environment takes scheduling decisions from it 
+ * instead of using its scheduler.
+ * Replay is deterministic as long as the program under test is deterministic
+ * for a given sequence of scheduling decisions. Should the program diverge, 
+ * e.g., due to timed waits, remaining decisions pick the first ready thread.
+ * </p>
+ * 
+ * @see CTrace#recordDecision(CThread)
+ * @since 0.5
+ */
+final class DecisionReplay {
+
+  /**
+   * Decisions (thread ids).
+   */
+  private final int[] _decisions;
+
+  /**
+   * Index of next decision.
+   */
+  private int _next = 0;
+
+  /**
+   * Divergence flag.
+   */
+  private boolean _diverged = false;
+
+  /**
+   * Constructor.
+   * @param decisions Decisions to replay.
+   */
+  DecisionReplay(int[] decisions) {
+    _decisions = decisions;
+  }
+
+  /**
+   * Get next decision.
+   * @param readyThreads Ready threads (must not be empty).
+   * @return The thread to run next.
+   */
+  CThread next(List<CThread> readyThreads) {
+    if (!_diverged && _next < _decisions.length) {
+      int cid = _decisions[_next++];
+      for (CThread t : readyThreads) {
+        if (t.getCID() == cid) {
+          return t;
+        }
+      }
+      assert CWorkspace.debug("Replay diverged at decision %d", _next - 1);
+    }
+    _diverged = true;
+    return readyThreads.get(0);
+  }
+
+  /**
+   * Check if replay diverged from the recorded decisions.
+   * @return <code>true</code> if a decision could not be replayed, or
+   *    more decisions were required than those recorded.
+   */
+  boolean diverged() {
+    return _diverged;
+  }
+}
@@ -0,0 +1,241 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.core;
+
+import java.util.Arrays;
+
+import org.cooperari.core.scheduling.CThreadLocation;
+
+/**
+ * Spin-loop detector.
+ * 
+ * <p>
+ * The detector keeps track of the recent locations of each thread. A thread
+ * that repeatedly yields at locations it has recently visited (e.g., in a busy-wait loop
+ * such as <code>while (!flag) { }</code> or a CAS retry loop) is considered to be spinning,
+ * once the number of consecutive repeated steps reaches a threshold. 
+ * </p>
+ * 
+ * <p>
+ * Repeated steps only count as spinning if the thread makes no observable 
+ * change to the program state. A data write by the thread (see {@link COperation#isWrite()}) 
+ * resets its repeated step count, such that ordinary loops that make progress 
+ * are not deprioritized.
+ * </p>
+ * 
+ * <p>
+ * In the spirit of the fair scheduling approach of the CHESS tool, 
+ * a spinning thread should be given lower priority by the engine until some other thread 
+ * executes a step, given that only then the condition the thread 
+ * is spinning on may change. 
+ * </p>
+ * 
+ * @since 0.5
+ */
+final class SpinLoopDetector {
+
+  /**
+   * Spin information for a thread.
+   */
+  private static final class SpinInfo {
+    /** Recent locations, as a ring of location ids (see {@link SpinLoopDetector#locationId}). */
+    final long[] recent;
+    /** Number of valid entries in the ring. */
+    int size;
+    /** Ring position for the next location. */
+    int next;
+    /** Consecutive steps at recently visited locations. */
+    int repeats;
+    /** Spinning flag. */
+    boolean spinning;
+    /** Data write count of the thread at its last step. */
+    int writes;
+
+    /**
+     * Constructor.
+     * @param window Number of recent locations to track.
+     */
+    SpinInfo(int window) {
+      recent = new long[window];
+    }
+
+    /**
+     * Check if a location was recently visited.
+     * @param loc Location id.
+     * @return <code>true</code> if the location is in the ring.
+     */
+    boolean visited(long loc) {
+      for (int i = 0; i < size; i++) {
+        if (recent[i] == loc) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Add a location to the ring, overwriting the oldest one if the ring is full.
+     * @param loc Location id.
+     */
+    void add(long loc) {
+      recent[next] = loc;
+      next = next + 1 == recent.length ? 0 : next + 1;
+      if (size < recent.length) {
+        size++;
+      }
+    }
+  }
+
+  /**
+   * Threshold for number of repeated steps.
+   */
+  private final int _threshold;
+
+  /**
+   * Number of recent locations that are tracked per thread.
+   */
+  private final int _window;
+
+  /**
+   * Spin information per thread, indexed by thread id.
+   */
+  private SpinInfo[] _info = new SpinInfo[8];
+
+  /**
+   * Number of threads that are currently spinning.
+   */
+  private int _spinningThreads = 0;
+
+  /**
+   * Constructor.
+   * @param threshold Number of consecutive steps at recently visited locations
+   *        after which a thread is considered to be spinning.
+   */
+  SpinLoopDetector(int threshold) {
+    _threshold = threshold;
+    _window = threshold;
+  }
+
+  /**
+   * Check if a thread is spinning.
+   * @param t Thread.
+   * @return <code>true</code> if the thread is considered to be spinning.
+   */
+  boolean isSpinning(CThread t) {
+    if (_spinningThreads == 0) {
+      return false;
+    }
+    int cid = t.getCID();
+    return cid < _info.length && _info[cid] != null && _info[cid].spinning;
+  }
+
+  /**
+   * Get number of threads that are currently spinning.
+   * @return Number of spinning threads.
+   */
+  int spinningThreads() {
+    return _spinningThreads;
+  }
+
+  /**
+   * Handle a step by a thread.
+   * 
+   * <p>
+   * The step is taken into account to determine if the thread is spinning,
+   * that is, if it is at a recently visited location and executed no data writes
+   * since its previous step. If the thread is not spinning, the step is considered as progress that may 
+   * change the state other threads are spinning on, hence these are no longer
+   * considered to be spinning.
+   * </p>
+   * @param t Thread that executed the step (and is now at a new location).
+   */
+  void onStep(CThread t) {
+    int cid = t.getCID();
+    if (cid >= _info.length) {
+      _info = Arrays.copyOf(_info, Math.max(cid + 1, 2 * _info.length));
+    }
+    SpinInfo info = _info[cid];
+    if (t.isTerminated()) {
+      _info[cid] = null;
+      if (info != null && info.spinning) {
+        _spinningThreads--;
+      }
+      clearSpinning();
+      return;
+    }
+    if (info == null) {
+      info = new SpinInfo(_window);
+      _info[cid] = info;
+    }
+    CThreadLocation loc = t.getLocation();
+    long locId = locationId(loc);
+    int writes = t.getWriteCount();
+    boolean revisit = info.visited(locId);
+    if (revisit && writes == info.writes) {
+      info.repeats++;
+      if (!info.spinning && info.repeats >= _threshold) {
+        assert CWorkspace.debug("Thread %d is spinning at %s", t.getCID(), loc);
+        info.spinning = true;
+        _spinningThreads++;
+      }
+    } else {
+      // New location or data write since the last step. 
+      info.repeats = 0;
+      if (info.spinning) {
+        info.spinning = false;
+        _spinningThreads--;
+      }
+    }
+    info.writes = writes;
+    if (!revisit) {
+      info.add(locId);
+    }
+    if (!info.spinning) {
+      clearSpinning();
+    }
+  }
+
+  /**
+   * Clear the spinning status of all threads.
+   * 
+   * <p>
+   * The repeated step count of threads that were spinning is kept just below the threshold, such that 
+   * a thread that keeps on spinning is again considered to be spinning after a single step.
+   * </p>
+   */
+  private void clearSpinning() {
+    if (_spinningThreads == 0) {
+      return;
+    }
+    for (SpinInfo info : _info) {
+      if (info != null && info.spinning) {
+        info.spinning = false;
+        info.repeats = _threshold - 1;
+      }
+    }
+    _spinningThreads = 0;
+  }
+
+  /**
+   * Get identifier for a thread location.
+   * @param loc Location.
+   * @return A value that combines the yield point id and the stage of the location.
+   */
+  private static long locationId(CThreadLocation loc) {
+    return ((long) loc.getYieldPoint().getId() << 32) | (loc.getStage() & 0xFFFFFFFFL);
+  }
+}
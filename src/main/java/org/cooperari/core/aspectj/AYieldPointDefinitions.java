@@ -0,0 +1,46 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.core.aspectj;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Aspect that records the yield point definitions of woven types.
+ * 
+ * <p>
+ * Definitions are recorded once a woven type is initialized, when the join point
+ * information of the type is available (see {@link AgentFacade#recordDefinitions(Class)}).
+ * Yield points of a type are thus accounted for in coverage information, even if
+ * they are never reached.
+ * </p>
+ * 
+ * @since 0.5
+ */
+@Aspect
+public final class AYieldPointDefinitions {
+
+  /**
+   * Advice executed after the static initialization of a woven type.
+   * @param thisJoinPointStaticPart Join point static part.
+   */
+  @AfterReturning("staticinitialization(*) && !within(org.cooperari.core..*) && !within(org.cooperari.feature..*)")
+  public void afterStaticInitialization(JoinPoint.StaticPart thisJoinPointStaticPart) {
+    AgentFacade.INSTANCE.recordDefinitions(thisJoinPointStaticPart.getSignature().getDeclaringType());
+  }
+}
@@ -18,16 +18,20 @@ package org.cooperari.core.aspectj;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.aspectj.bridge.IMessage;
 import org.aspectj.lang.JoinPoint;
 import org.cooperari.CCoverage;
 import org.cooperari.core.CWorkspace;
-import org.cooperari.core.CYieldPointImpl;
+import org.cooperari.core.CYieldPointRegistry;
 import org.cooperari.core.scheduling.CYieldPoint;
+import org.cooperari.core.CCoverageDatabase;
 import org.cooperari.core.CCoverageLog;
 import org.cooperari.core.util.CLog;
 
@@ -53,6 +57,11 @@ public enum AgentFacade {
    */
   private final CCoverageLog _globalCoverageLog = new CCoverageLog();
 
+  /**
+   * Coverage database, with coverage information per test.
+   */
+  private final CCoverageDatabase _coverageDatabase = new CCoverageDatabase();
+
   /**
    * Ignore set (a few methods are instrumented but should not be considered yield points).
    */
@@ -84,12 +93,6 @@ public enum AgentFacade {
 
 
 
-  /**
-   * Compiled regular expression for {@link IMessage#WEAVEINFO} messages.
-   */
-  private static final Pattern WI_MSG_PATTERN = Pattern
-      .compile("^Join point '([^\\(]+)\\([^ ]+ (.+)\\)' in Type '.+' \\((.+):([0-9]+)\\).+");
-
   /**
    * Log id.
    */
@@ -118,46 +121,61 @@ public enum AgentFacade {
       }
       _agentLog.message(msg.toString());
     }
+  }
 
-    if (msg.getKind() == IMessage.WEAVEINFO) {
-      try {
-        Matcher matcher = WI_MSG_PATTERN.matcher(msg.getMessage());
-        if (matcher.find()) {
-          String kind = matcher.group(1);
-          String desc = matcher.group(2);
-          String signature;
-          if (kind.equals(JoinPoint.SYNCHRONIZATION_LOCK)) {
-            signature = CYieldPoint.MONITOR_ENTER_SIGNATURE;
-          } else if (kind.equals(JoinPoint.SYNCHRONIZATION_UNLOCK)) {
-            signature = CYieldPoint.MONITOR_EXIT_SIGNATURE;
-          } else if (kind.equals(JoinPoint.METHOD_CALL)) {
-            signature = uniformize(desc);
-          } else {
-            signature = kind + "(" + uniformize(desc) + ")";
-          }
-          if (_ignoreSet.contains(signature)) {
-            return;
-          }
-          String fileInfo = matcher.group(3);
-          int lineInfo = Integer.parseInt(matcher.group(4));
-          CYieldPointImpl yp = 
-              new CYieldPointImpl(signature, fileInfo, lineInfo);
-          synchronized (this) {
-            _globalCoverageLog.recordDefinition(yp);
+  /**
+   * Prefix for the names of the static fields holding join point information in woven classes.
+   */
+  private static final String TJP_FIELD_PREFIX = "ajc$tjp_";
+
+  /**
+   * Woven types for which yield point definitions have been recorded.
+   */
+  private final Set<Class<?>> _wovenTypes = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Record definitions for all yield points within a woven type.
+   * 
+   * <p>
+   * Yield point definitions are captured from the join point information 
+   * that the weaver stores in static fields of woven types, rather than from
+   * weaver messages. The method is called once the type is initialized 
+   * (see {@link AYieldPointDefinitions}), and again when a yield point in the type is first reached. 
+   * Subsequent calls for the same type are ignored.
+   * </p>
+   * 
+   * @param type Woven type.
+   * @see CYieldPointRegistry#get(JoinPoint.StaticPart)
+   * @since 0.5
+   */
+  public void recordDefinitions(Class<?> type) {
+    if (!_wovenTypes.add(type)) {
+      return;
+    }
+    ArrayList<CYieldPoint> list = new ArrayList<>();
+    try {
+      for (Field f : type.getDeclaredFields()) {
+        if (Modifier.isStatic(f.getModifiers()) 
+            && f.getName().startsWith(TJP_FIELD_PREFIX)
+            && JoinPoint.StaticPart.class.isAssignableFrom(f.getType())) {
+          f.setAccessible(true);
+          JoinPoint.StaticPart jpsp = (JoinPoint.StaticPart) f.get(null);
+          if (jpsp != null && !JoinPoint.STATICINITIALIZATION.equals(jpsp.getKind())) {
+            CYieldPoint yp = CYieldPointRegistry.INSTANCE.get(jpsp);
+            if (!_ignoreSet.contains(yp.getSignature())) {
+              list.add(yp);
+            }
           }
         }
-      } catch (Throwable e) {
-        handleError(e);
+      }
+    } catch (Throwable e) {
+      handleError(e);
+    }
+    synchronized (this) {
+      for (CYieldPoint yp : list) {
+        _globalCoverageLog.recordDefinition(yp);
       }
     }
-    // else {
-    //
-    // }
-  }
-
-  @SuppressWarnings("javadoc")
-  private String uniformize(String s) {
-    return s.replace("java.lang.", "").replace('$', '.');
   }
 
   /**
@@ -213,6 +231,29 @@ public enum AgentFacade {
     }
   }
 
+  /**
+   * Get coverage database.
+   * @return The coverage database for all tests executed so far.
+   * @since 0.5
+   */
+  public CCoverageDatabase getCoverageDatabase() {
+    return _coverageDatabase;
+  }
+
+  /**
+   * Save the coverage database to the workspace.
+   * 
+   * @throws IOException if an I/O error occurs.
+   * @return File object for the coverage database.
+   * @see CCoverageDatabase#DEFAULT_FILE_NAME
+   * @since 0.5
+   */
+  public File saveCoverageDatabase() throws IOException {
+    File file = new File(CWorkspace.INSTANCE.getRootDirectory(), CCoverageDatabase.DEFAULT_FILE_NAME);
+    _coverageDatabase.save(file);
+    return file;
+  }
+
   /**
    * Get global coverage log.
    * @return The global coverage log.
@@ -316,6 +316,8 @@ public final class WeavingConfiguration {
         wc.declareAspect(aspectClass);
       }
     }
+    // Yield point definitions
+    wc.declareAspect(AYieldPointDefinitions.class);
     // Handle inline aspects 
     wc.declareAspect(ACustomYieldPoint.class);
     List<CustomYieldPoint> list = new ArrayList<>();
@@ -0,0 +1,187 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.core.jfr;
+
+import org.cooperari.core.scheduling.CYieldPoint;
+
+/**
+ * Entry point for emitting Java Flight Recorder events.
+ * 
+ * <p>
+ * Events are only created if JFR is available in the running JVM, and
+ * only committed if enabled in the active recording settings 
+ * (all Cooperari events are disabled by default). 
+ * Event classes are only loaded once an event is first emitted, hence
+ * the methods of this class may be safely called in JVMs without JFR support.
+ * </p>
+ * 
+ * @since 0.5
+ */
+public final class CFlightRecorder {
+
+  /**
+   * Flag indicating if JFR is available.
+   */
+  private static final boolean AVAILABLE;
+
+  static {
+    boolean available;
+    try {
+      Class.forName("jdk.jfr.Event");
+      available = true;
+    } catch (ClassNotFoundException | LinkageError e) {
+      available = false;
+    }
+    AVAILABLE = available;
+  }
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private CFlightRecorder() {
+    
+  }
+
+  /**
+   * Emit scheduling decision event.
+   * @param cid Id of the thread selected to run.
+   * @param readyThreads Number of ready threads.
+   * @param preemption Virtual preemption flag.
+   */
+  public static void schedulingDecision(int cid, int readyThreads, boolean preemption) {
+    if (AVAILABLE) {
+      SchedulingDecisionEvent e = new SchedulingDecisionEvent();
+      if (e.shouldCommit()) {
+        e.cid = cid;
+        e.readyThreads = readyThreads;
+        e.preemption = preemption;
+        e.commit();
+      }
+    }
+  }
+
+  /**
+   * Begin yield event.
+   * @return An opaque event handle to use with {@link #yieldEnded}, or <code>null</code>
+   *         if the event is disabled.
+   */
+  public static Object yieldStarted() {
+    if (AVAILABLE) {
+      YieldEvent e = new YieldEvent();
+      if (e.isEnabled()) {
+        e.begin();
+        return e;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * End yield event.
+   * @param handle Handle returned by {@link #yieldStarted()}.
+   * @param cid Thread id.
+   * @param yp Yield point.
+   * @param operation Operation.
+   * @param solo Solo step flag.
+   */
+  public static void yieldEnded(Object handle, int cid, CYieldPoint yp, Object operation, boolean solo) {
+    if (handle != null) {
+      YieldEvent e = (YieldEvent) handle;
+      e.end();
+      if (e.shouldCommit()) {
+        e.cid = cid;
+        e.sourceFile = yp.getSourceFile();
+        e.sourceLine = yp.getSourceLine();
+        e.yieldPoint = yp.getSignature();
+        e.operation = operation.getClass().getSimpleName();
+        e.solo = solo;
+        e.commit();
+      }
+    }
+  }
+
+  /**
+   * Emit race event.
+   * @param cid Id of the thread that detected the race.
+   * @param yp Yield point for the access.
+   * @param location Description of the data location at stake.
+   */
+  public static void race(int cid, CYieldPoint yp, String location) {
+    if (AVAILABLE) {
+      RaceEvent e = new RaceEvent();
+      if (e.shouldCommit()) {
+        e.cid = cid;
+        e.sourceFile = yp.getSourceFile();
+        e.sourceLine = yp.getSourceLine();
+        e.field = location;
+        e.commit();
+      }
+    }
+  }
+
+  /**
+   * Emit deadlock event.
+   * @param kind Kind of deadlock.
+   * @param threads Number of threads involved.
+   */
+  public static void deadlock(String kind, int threads) {
+    if (AVAILABLE) {
+      DeadlockEvent e = new DeadlockEvent();
+      if (e.shouldCommit()) {
+        e.kind = kind;
+        e.threads = threads;
+        e.commit();
+      }
+    }
+  }
+
+  /**
+   * Begin trial event.
+   * @return An opaque event handle to use with {@link #trialEnded}, or <code>null</code>
+   *         if the event is disabled.
+   */
+  public static Object trialStarted() {
+    if (AVAILABLE) {
+      TrialEvent e = new TrialEvent();
+      if (e.isEnabled()) {
+        e.begin();
+        return e;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * End trial event.
+   * @param handle Handle returned by {@link #trialStarted()}.
+   * @param test Test name.
+   * @param trial Trial number.
+   * @param failed Failure flag.
+   */
+  public static void trialEnded(Object handle, String test, int trial, boolean failed) {
+    if (handle != null) {
+      TrialEvent e = (TrialEvent) handle;
+      e.end();
+      if (e.shouldCommit()) {
+        e.test = test;
+        e.trial = trial;
+        e.failed = failed;
+        e.commit();
+      }
+    }
+  }
+}
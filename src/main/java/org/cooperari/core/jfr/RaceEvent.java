@@ -0,0 +1,60 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Data race detected.
+ * 
+ * @since 0.5
+ */
+@Name("org.cooperari.Race")
+@Label("Data Race")
+@Description("Data race detected by Cooperari")
+@Category("Cooperari")
+@Enabled(false)
+public final class RaceEvent extends Event {
+  /**
+   * Id of the thread that detected the race.
+   */
+  @Label("Thread Id")
+  int cid;
+
+  /**
+   * Source file of the access.
+   */
+  @Label("Source File")
+  String sourceFile;
+
+  /**
+   * Source line of the access.
+   */
+  @Label("Source Line")
+  int sourceLine;
+
+  /**
+   * Field at stake.
+   */
+  @Label("Field")
+  String field;
+}
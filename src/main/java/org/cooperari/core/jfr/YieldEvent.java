@@ -0,0 +1,75 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Cooperative yield by a thread, lasting from the moment the thread
+ * reaches a yield point until it completes the associated operation.
+ * 
+ * @since 0.5
+ */
+@Name("org.cooperari.Yield")
+@Label("Cooperative Yield")
+@Description("Cooperative yield by a thread, until the operation for the yield point completes")
+@Category("Cooperari")
+@Enabled(false)
+@StackTrace(false)
+public final class YieldEvent extends Event {
+  /**
+   * Thread id.
+   */
+  @Label("Thread Id")
+  int cid;
+
+  /**
+   * Source file of the yield point.
+   */
+  @Label("Source File")
+  String sourceFile;
+
+  /**
+   * Source line of the yield point.
+   */
+  @Label("Source Line")
+  int sourceLine;
+
+  /**
+   * Signature of the yield point.
+   */
+  @Label("Yield Point")
+  String yieldPoint;
+
+  /**
+   * Operation type.
+   */
+  @Label("Operation")
+  String operation;
+
+  /**
+   * Solo step flag.
+   */
+  @Label("Solo Step")
+  boolean solo;
+}
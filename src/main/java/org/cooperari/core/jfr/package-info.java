@@ -0,0 +1,28 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+
+/**
+ * Java Flight Recorder events for Cooperari executions.
+ * 
+ * <p>
+ * All events are disabled by default, and must be enabled explicitly
+ * through JFR settings (e.g., <code>org.cooperari.Yield#enabled=true</code>).
+ * </p>
+ *
+ * @since 0.5
+ */
+package org.cooperari.core.jfr;
@@ -15,6 +15,10 @@
 //
 
 package org.cooperari.core.scheduling;
+import java.util.Collections;
+import java.util.Random;
+import java.util.Set;
+
 import org.cooperari.config.CMaxTrials;
 import org.cooperari.config.CTimeLimit;
 
@@ -24,7 +28,75 @@ import org.cooperari.config.CTimeLimit;
  * @since 0.2
  */
 public abstract class CScheduler {
+
+  /**
+   * Pseudo-random number generator.
+   * @since 0.5
+   */
+  protected final Random _rng = new Random(0);
+
+  /**
+   * Derive the seed for a test trial from a session seed.
+   * 
+   * <p>
+   * Distinct trials of the same session get well-spread seeds,
+   * allowing any trial to be reproduced in isolation, 
+   * regardless of the trials that executed before it.
+   * </p>
+   * 
+   * @param sessionSeed Session seed.
+   * @param trial Trial number.
+   * @return Seed for the trial.
+   * @since 0.5
+   */
+  public static long deriveSeed(long sessionSeed, int trial) {
+    // SplitMix64 finalizer.
+    long z = sessionSeed + trial * 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Reset the pseudo-random number generator of the scheduler.
+   * @param seed Seed.
+   * @since 0.5
+   */
+  public final void setSeed(long seed) {
+    _rng.setSeed(seed);
+  }
+
+  /**
+   * Create a scheduler for use by a concurrent test trial.
+   * 
+   * <p>
+   * The new scheduler shares any exploration state (e.g., 
+   * history of past decisions) with this one, but has its own
+   * pseudo-random number generator. Exploration state must
+   * thus be safe for concurrent use by several schedulers.
+   * </p>
+   * 
+   * @return A new scheduler.
+   * @since 0.5
+   */
+  public abstract CScheduler fork();
   
+  /**
+   * Get fingerprints of the decisions in the scheduler's history.
+   * 
+   * <p>
+   * Fingerprints are stable across JVMs, allowing histories of several JVMs
+   * exploring the same test to be merged.
+   * The base implementation returns an empty set, corresponding to a scheduler
+   * that keeps no history.
+   * </p>
+   * @return A set of decision fingerprints.
+   * @since 0.5
+   */
+  public Set<Long> getHistoryFingerprints() {
+    return Collections.emptySet();
+  }
+
   /**
    * Decide which thread should run next.
    * @param state Program state.
@@ -77,4 +149,22 @@ public abstract class CScheduler {
   public void onTestFinished() {
     
   }
-}
\ No newline at end of file
+
+  /**
+   * Callback method invoked after a test trial, reporting interleaving coverage feedback.
+   * 
+   * <p>
+   * Schedulers may use this information to steer exploration, e.g., by 
+   * deciding to stop when trials no longer cover new interleaving pairs.
+   * The base implementation does nothing.
+   * </p>
+   * 
+   * @param newPairs Number of interleaving pairs covered for the first time in the trial.
+   * @param totalPairs Total number of interleaving pairs covered so far.
+   * @see org.cooperari.CCoverage#getInterleavingPairs()
+   * @since 0.5
+   */
+  public void onInterleavingCoverage(int newPairs, int totalPairs) {
+    
+  }
+}
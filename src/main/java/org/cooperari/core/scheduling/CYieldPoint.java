@@ -48,6 +48,15 @@ public interface CYieldPoint extends Comparable<CYieldPoint> {
    */
   String THREAD_TERMINATED_SIGNATURE = "<terminated>";
 
+  /**
+   * Get dense integer id for the yield point.
+   * Distinct yield points have distinct ids, assigned in sequence from 0.
+   * 
+   * @return The id for the yield point.
+   * @since 0.5
+   */
+  int getId();
+
   /**
    * Get signature. This represents the point of execution that caused the
    * thread yield.
@@ -18,8 +18,10 @@ package org.cooperari.core.scheduling;
 
 import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.cooperari.core.CSharding;
 import org.cooperari.core.CWorkspace;
 import org.cooperari.core.util.CRawTuple;
 
@@ -37,45 +39,87 @@ import org.cooperari.core.util.CRawTuple;
  * looking for a decision that has not been made.
  * </p>
  * 
+ * <p>
+ * When test execution is sharded across several JVMs (see {@link CSharding}), the schedule
+ * space is partitioned among shards, as the decision logs of distinct shards are not shared.
+ * In each trial, the first decision with at least as many choices as shards is restricted
+ * to the choices assigned to the shard: for shard <code>k</code> out of <code>n</code> 
+ * these are choices <code>k</code>, <code>k+n</code>, <code>k+2n</code>, ...
+ * Schedules that go past that decision are then explored by a single shard only.
+ * </p>
+ * 
  * @since 0.2
  */
 final class Memini extends CScheduler {
 
   /**
-   * Pseudo-random number generator.
+   * Log of previous decisions (possibly shared with other schedulers).
    */
-  private Random _rng = new Random(0);
+  private final Set<CRawTuple> _log;
 
   /**
-   * Log of previous decisions.
+   * Number of new decisions recorded in the log during the current trial.
    */
-  private final HashSet<CRawTuple> _log = new HashSet<>();
+  private int _newDecisions = 0;
 
   /**
-   * Count of a log size when a trial starts.
+   * Set once the schedule space has been partitioned among shards in the current trial.
    */
-  private int _prevLogSize = 0;
+  private boolean _partitioned = true;
 
   /**
    * Constructor.
    */
   public Memini() {
+    this(ConcurrentHashMap.newKeySet());
+  }
+
+  /**
+   * Constructor for a scheduler with a shared decision log.
+   * @param log Decision log.
+   */
+  private Memini(Set<CRawTuple> log) {
+    _log = log;
+  }
+
+  @Override
+  public CScheduler fork() {
+    return new Memini(_log);
+  }
 
+  /**
+   * Get fingerprints of past decisions.
+   * The fingerprint of a decision is a 64-bit FNV-1a hash of its textual representation.
+   * @return Set of decision fingerprints.
+   */
+  @Override
+  public Set<Long> getHistoryFingerprints() {
+    HashSet<Long> set = new HashSet<>();
+    for (CRawTuple d : _log) {
+      String s = d.toString();
+      long h = 0xcbf29ce484222325L;
+      for (int i = 0; i < s.length(); i++) {
+        h = (h ^ s.charAt(i)) * 0x100000001b3L;
+      }
+      set.add(h);
+    }
+    return set;
   }
 
   @Override
   public void onTestStarted() {
-    _prevLogSize = _log.size();
+    _newDecisions = 0;
+    _partitioned = !CSharding.isActive();
   }
 
   @Override
   public void onTestFailure(Throwable failure) {
-    assert CWorkspace.debug("history: %d -> %d", _prevLogSize, _log.size());
+    assert CWorkspace.debug("history: %d (+%d)", _log.size(), _newDecisions);
   }
 
   @Override
   public void onTestFinished() {
-    assert CWorkspace.debug("history: %d -> %d", _prevLogSize, _log.size());
+    assert CWorkspace.debug("history: %d (+%d)", _log.size(), _newDecisions);
   }
 
 
@@ -86,8 +130,8 @@ final class Memini extends CScheduler {
    */
   @Override
   public boolean continueTrials() {
-    assert CWorkspace.debug("history: %d -> %d", _prevLogSize, _log.size());
-    return  _prevLogSize != _log.size();
+    assert CWorkspace.debug("history: %d (+%d)", _log.size(), _newDecisions);
+    return _newDecisions != 0;
   }
 
   /**
@@ -99,19 +143,34 @@ final class Memini extends CScheduler {
     final Object sig = state.getSignature();
     final List<? extends CProgramState.CElement> possibleChoices = state.readyElements();
     final int n = possibleChoices.size();
-    final int firstChoice = _rng.nextInt(n);
-    int choice = firstChoice;
+    int offset = 0;
+    int stride = 1;
+    if (!_partitioned && n >= CSharding.getCount()) {
+      _partitioned = true;
+      offset = CSharding.getIndex();
+      stride = CSharding.getCount();
+    }
+    final int m = (n - offset + stride - 1) / stride;
+    int choice = offset + stride * _rng.nextInt(m);
     int tries = 0;
     CRawTuple d;
     CThreadHandle t;
+    boolean isNew;
 
     do {
       t = state.select(choice, _rng);
       d = new CRawTuple(choice, sig);
-      choice = (choice + 1) % n;
+      choice += stride;
+      if (choice >= n) {
+        choice = offset;
+      }
       tries++;
-      assert CWorkspace.debug(_log.contains(d) + " " + d.toString());
-    } while (!_log.add(d) && tries < possibleChoices.size());
+      isNew = _log.add(d);
+      assert CWorkspace.debug(!isNew + " " + d.toString());
+    } while (!isNew && tries < m);
+    if (isNew) {
+      _newDecisions++;
+    }
     assert CWorkspace.debug("D"+d.toString());
 
     return t;
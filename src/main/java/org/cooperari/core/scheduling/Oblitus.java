@@ -16,8 +16,6 @@
 
 package org.cooperari.core.scheduling;
 
-import java.util.Random;
-
 /**
  * Memoryless scheduler.
  * 
@@ -27,24 +25,24 @@ import java.util.Random;
  * of past scheduling  decisions.
  * The scheduler's decisions are deterministic however.
  * The pseudo-random number generator that is employed internally 
- * is always initialized with a fixed seed at construction time.
+ * is initialized with a fixed seed at construction time, and
+ * is reset with a seed derived from the trial number for each trial.
  * </p>
  * 
  * @since 0.2
  */
 final class Oblitus extends CScheduler {
 
-  /**
-   * Pseudo-random number generator.
-   */
-  private Random _rng;
-
   /**
    * Constructor.
    */
   public Oblitus() {
-    // A fixed seed (0) is used for repeatable tests.
-    _rng = new Random(0); 
+
+  }
+
+  @Override
+  public CScheduler fork() {
+    return new Oblitus();
   }
 
 
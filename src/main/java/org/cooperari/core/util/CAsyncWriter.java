@@ -0,0 +1,319 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.core.util;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+
+import org.cooperari.errors.CInternalError;
+
+/**
+ * Asynchronous file writer.
+ * 
+ * <p>
+ * Output streams obtained through {@link #open(File)} hand over their data in chunks 
+ * to a background thread, which performs the actual file I/O in batches.
+ * The queue of pending chunks is bounded, so that producers block (rather 
+ * than accumulate data in memory indefinitely) when the background thread 
+ * cannot keep up. Data for each file is written in the same order it was 
+ * produced.
+ * </p>
+ * 
+ * <p>
+ * Files may not be fully written when the associated streams are closed.
+ * A call to {@link #flush()} waits until all pending data is written.
+ * Pending data is also flushed on JVM shutdown.
+ * </p>
+ * 
+ * Note that only a singleton instance of this type exists ({@link #INSTANCE}).
+ * 
+ * @since 0.5
+ */
+public enum CAsyncWriter {
+  /**
+   * Singleton instance.
+   */
+  INSTANCE;
+
+  /**
+   * Maximum number of pending chunks.
+   */
+  private static final int QUEUE_CAPACITY = 1024;
+
+  /**
+   * Chunk size for data handed over by output streams.
+   */
+  private static final int CHUNK_SIZE = 8192;
+
+  /**
+   * Buffer size for file output.
+   */
+  private static final int FILE_BUFFER_SIZE = 65536;
+
+  /**
+   * Queue of pending commands.
+   */
+  private final ArrayBlockingQueue<Command> _queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+  /**
+   * Background thread (started on demand).
+   */
+  private Thread _thread = null;
+
+  /**
+   * First I/O error in the background thread since the last flush, if any
+   * (only accessed by the background thread).
+   */
+  private IOException _error = null;
+
+  /**
+   * Open an output stream for the given file.
+   * The file is created (or truncated) synchronously, so that any 
+   * associated error is reported immediately.
+   * @param file Output file.
+   * @return An output stream whose data is written asynchronously to the file.
+   * @throws IOException If the file cannot be opened for writing.
+   */
+  public OutputStream open(File file) throws IOException {
+    Sink sink = new Sink(new BufferedOutputStream(new FileOutputStream(file), FILE_BUFFER_SIZE));
+    startIfNecessary();
+    return new AsyncOutputStream(sink);
+  }
+
+  /**
+   * Wait until all pending data is written.
+   * 
+   * <p>
+   * An I/O error in the background thread is reported once, by the 
+   * first flush that follows it, and does not affect subsequent flushes.
+   * </p>
+   * @throws CInternalError If an I/O error occurred in the background thread
+   *         since the previous flush.
+   */
+  public void flush() {
+    synchronized (this) {
+      if (_thread == null) {
+        return;
+      }
+    }
+    CountDownLatch latch = new CountDownLatch(1);
+    Command c = new Command(null, null, latch);
+    enqueue(c);
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      throw new CInternalError(e);
+    }
+    if (c._error != null) {
+      throw new CInternalError(c._error);
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private synchronized void startIfNecessary() {
+    if (_thread == null) {
+      _thread = new Thread(this::writerLoop, "CAsyncWriter");
+      _thread.setDaemon(true);
+      _thread.start();
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+        try {
+          flush();
+        } catch (CInternalError e) {
+          e.printStackTrace();
+        }
+      }, "CAsyncWriter-shutdown"));
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private void enqueue(Command c) {
+    try {
+      _queue.put(c);
+    } catch (InterruptedException e) {
+      throw new CInternalError(e);
+    }
+  }
+
+  /**
+   * Execution method for the background thread.
+   */
+  private void writerLoop() {
+    ArrayList<Command> batch = new ArrayList<>();
+    LinkedHashSet<Sink> dirty = new LinkedHashSet<>();
+    while (true) {
+      try {
+        batch.add(_queue.take());
+      } catch (InterruptedException e) {
+        return;
+      }
+      _queue.drainTo(batch);
+      for (Command c : batch) {
+        if (c._latch != null) {
+          flushAll(dirty);
+          c._error = _error;
+          _error = null;
+          c._latch.countDown();
+        } else if (c._data != null) {
+          try {
+            c._sink._out.write(c._data);
+            dirty.add(c._sink);
+          } catch (IOException e) {
+            reportError(e);
+          }
+        } else {
+          dirty.remove(c._sink);
+          try {
+            c._sink._out.close();
+          } catch (IOException e) {
+            reportError(e);
+          }
+        }
+      }
+      batch.clear();
+      flushAll(dirty);
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private void flushAll(LinkedHashSet<Sink> dirty) {
+    for (Sink s : dirty) {
+      try {
+        s._out.flush();
+      } catch (IOException e) {
+        reportError(e);
+      }
+    }
+    dirty.clear();
+  }
+
+  @SuppressWarnings("javadoc")
+  private void reportError(IOException e) {
+    if (_error == null) {
+      _error = e;
+    }
+  }
+
+  /**
+   * File output handled by the background thread.
+   */
+  private static final class Sink {
+    /** Output stream. */
+    final OutputStream _out;
+
+    @SuppressWarnings("javadoc")
+    Sink(OutputStream out) {
+      _out = out;
+    }
+  }
+
+  /**
+   * Command for the background thread: write data to a sink, 
+   * close a sink (<code>null</code> data), or signal a latch once all previous commands 
+   * have been processed, along with any I/O error since the previous latch.
+   */
+  private static final class Command {
+    /** Sink. */
+    final Sink _sink;
+    /** Data. */
+    final byte[] _data;
+    /** Latch. */
+    final CountDownLatch _latch;
+    /** I/O error to report through the latch (set by the background thread). */
+    IOException _error;
+
+    @SuppressWarnings("javadoc")
+    Command(Sink sink, byte[] data, CountDownLatch latch) {
+      _sink = sink;
+      _data = data;
+      _latch = latch;
+    }
+  }
+
+  /**
+   * Output stream that hands over data in chunks to the background thread.
+   */
+  private final class AsyncOutputStream extends OutputStream {
+    /** Sink. */
+    private final Sink _sink;
+    /** Buffer for current chunk. */
+    private byte[] _buf = new byte[CHUNK_SIZE];
+    /** Number of bytes in current chunk. */
+    private int _count = 0;
+    /** Closed flag. */
+    private boolean _closed = false;
+
+    @SuppressWarnings("javadoc")
+    AsyncOutputStream(Sink sink) {
+      _sink = sink;
+    }
+
+    @Override
+    public synchronized void write(int b) throws IOException {
+      if (_count == _buf.length) {
+        handOver();
+      }
+      _buf[_count++] = (byte) b;
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) throws IOException {
+      while (len > 0) {
+        if (_count == _buf.length) {
+          handOver();
+        }
+        int n = Math.min(len, _buf.length - _count);
+        System.arraycopy(b, off, _buf, _count, n);
+        _count += n;
+        off += n;
+        len -= n;
+      }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+      if (_count > 0) {
+        handOver();
+      }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+      if (!_closed) {
+        flush();
+        _closed = true;
+        enqueue(new Command(_sink, null, null));
+      }
+    }
+
+    @SuppressWarnings("javadoc")
+    private void handOver() throws IOException {
+      if (_closed) {
+        throw new IOException("Stream is closed.");
+      }
+      enqueue(new Command(_sink, Arrays.copyOf(_buf, _count), null));
+      _count = 0;
+    }
+  }
+}
@@ -0,0 +1,132 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.core.util;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compact binary input file.
+ * 
+ * @see CBinaryOutput
+ * @since 0.5
+ */
+public final class CBinaryInput implements Closeable {
+
+  /**
+   * Input stream.
+   */
+  private final InputStream _in;
+
+  /**
+   * Constructor.
+   * @param file Input file.
+   * @throws IOException If an I/O error occurs.
+   */
+  public CBinaryInput(File file) throws IOException {
+    InputStream in = new BufferedInputStream(Files.newInputStream(file.toPath()));
+    try {
+      int flag = in.read();
+      if (flag == 1) {
+        in = new InflaterInputStream(in);
+      } else if (flag != 0) {
+        throw new IOException("Invalid binary file: " + file);
+      }
+    } catch (IOException e) {
+      in.close();
+      throw e;
+    }
+    _in = in;
+  }
+
+  /**
+   * Read a byte.
+   * @return Byte value.
+   * @throws IOException If an I/O error occurs or the end of file is reached.
+   */
+  public int readByte() throws IOException {
+    int b = _in.read();
+    if (b < 0) {
+      throw new EOFException();
+    }
+    return b;
+  }
+
+  /**
+   * Read a non-negative integer written using variable-length encoding.
+   * @return The value.
+   * @throws IOException If an I/O error occurs.
+   * @see CBinaryOutput#writeVarInt(int)
+   */
+  public int readVarInt() throws IOException {
+    int v = 0;
+    for (int shift = 0; shift < 35; shift += 7) {
+      int b = readByte();
+      v |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return v;
+      }
+    }
+    throw new IOException("Malformed variable-length integer.");
+  }
+
+  /**
+   * Read a signed integer written using variable-length (zig-zag) encoding.
+   * @return The value.
+   * @throws IOException If an I/O error occurs.
+   * @see CBinaryOutput#writeSignedVarInt(int)
+   */
+  public int readSignedVarInt() throws IOException {
+    int v = readVarInt();
+    return (v >>> 1) ^ -(v & 1);
+  }
+
+  /**
+   * Read a string.
+   * @return The string.
+   * @throws IOException If an I/O error occurs.
+   * @see CBinaryOutput#writeString(String)
+   */
+  public String readString() throws IOException {
+    byte[] data = new byte[readVarInt()];
+    int pos = 0;
+    while (pos < data.length) {
+      int n = _in.read(data, pos, data.length - pos);
+      if (n < 0) {
+        throw new EOFException();
+      }
+      pos += n;
+    }
+    return new String(data, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Close the input file.
+   * @throws IOException If an I/O error occurs.
+   */
+  @Override
+  public void close() throws IOException {
+    _in.close();
+  }
+}
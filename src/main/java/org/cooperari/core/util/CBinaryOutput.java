@@ -0,0 +1,207 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.core.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+
+/**
+ * Compact binary output file.
+ * 
+ * <p>
+ * Data is encoded in an in-memory buffer, and spilled to disk through a file channel
+ * whenever the buffer fills up. Integers are written using variable-length encoding,
+ * and the data may optionally be compressed. The first byte of the file 
+ * indicates if the remaining contents are compressed or not.
+ * </p>
+ * 
+ * @see CBinaryInput
+ * @since 0.5
+ */
+public final class CBinaryOutput implements Closeable {
+
+  /**
+   * Default size for the in-memory buffer.
+   */
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  /**
+   * Output channel.
+   */
+  private final FileChannel _channel;
+
+  /**
+   * In-memory buffer for encoded data.
+   */
+  private final ByteBuffer _buffer;
+
+  /**
+   * Deflater, if compression is enabled.
+   */
+  private final Deflater _deflater;
+
+  /**
+   * Buffer for compressed data, if compression is enabled.
+   */
+  private final ByteBuffer _deflated;
+
+  /**
+   * Constructor.
+   * @param file Output file.
+   * @param compress Compression flag.
+   * @param bufferSize Size of in-memory buffer.
+   * @throws IOException If an I/O error occurs.
+   */
+  public CBinaryOutput(File file, boolean compress, int bufferSize) throws IOException {
+    _channel = FileChannel.open(file.toPath(), 
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    _buffer = ByteBuffer.allocate(Math.max(bufferSize, 16));
+    if (compress) {
+      _deflater = new Deflater(Deflater.BEST_SPEED);
+      _deflated = ByteBuffer.allocate(_buffer.capacity());
+    } else {
+      _deflater = null;
+      _deflated = null;
+    }
+    // Compression flag is always written uncompressed.
+    ByteBuffer flag = ByteBuffer.allocate(1);
+    flag.put((byte) (compress ? 1 : 0));
+    flag.flip();
+    writeFully(flag);
+  }
+
+  /**
+   * Constructor using the default buffer size.
+   * @param file Output file.
+   * @param compress Compression flag.
+   * @throws IOException If an I/O error occurs.
+   */
+  public CBinaryOutput(File file, boolean compress) throws IOException {
+    this(file, compress, DEFAULT_BUFFER_SIZE);
+  }
+
+  /**
+   * Write a byte.
+   * @param b Byte value.
+   * @throws IOException If an I/O error occurs.
+   */
+  public void writeByte(int b) throws IOException {
+    if (!_buffer.hasRemaining()) {
+      spill();
+    }
+    _buffer.put((byte) b);
+  }
+
+  /**
+   * Write a non-negative integer using variable-length encoding.
+   * @param v Value (interpreted as unsigned).
+   * @throws IOException If an I/O error occurs.
+   */
+  public void writeVarInt(int v) throws IOException {
+    while ((v & ~0x7F) != 0) {
+      writeByte((v & 0x7F) | 0x80);
+      v >>>= 7;
+    }
+    writeByte(v);
+  }
+
+  /**
+   * Write a signed integer using variable-length (zig-zag) encoding.
+   * @param v Value.
+   * @throws IOException If an I/O error occurs.
+   */
+  public void writeSignedVarInt(int v) throws IOException {
+    writeVarInt((v << 1) ^ (v >> 31));
+  }
+
+  /**
+   * Write a string, encoded in UTF-8 and preceded by its length.
+   * @param s String.
+   * @throws IOException If an I/O error occurs.
+   */
+  public void writeString(String s) throws IOException {
+    byte[] data = s.getBytes(StandardCharsets.UTF_8);
+    writeVarInt(data.length);
+    int pos = 0;
+    while (pos < data.length) {
+      if (!_buffer.hasRemaining()) {
+        spill();
+      }
+      int n = Math.min(_buffer.remaining(), data.length - pos);
+      _buffer.put(data, pos, n);
+      pos += n;
+    }
+  }
+
+  /**
+   * Spill buffered data to disk.
+   * @throws IOException If an I/O error occurs.
+   */
+  private void spill() throws IOException {
+    _buffer.flip();
+    if (_deflater == null) {
+      writeFully(_buffer);
+    } else {
+      _deflater.setInput(_buffer.array(), 0, _buffer.limit());
+      while (!_deflater.needsInput()) {
+        deflate();
+      }
+    }
+    _buffer.clear();
+  }
+
+  @SuppressWarnings("javadoc")
+  private void deflate() throws IOException {
+    _deflated.clear();
+    int n = _deflater.deflate(_deflated.array(), 0, _deflated.capacity());
+    _deflated.limit(n);
+    writeFully(_deflated);
+  }
+
+  @SuppressWarnings("javadoc")
+  private void writeFully(ByteBuffer b) throws IOException {
+    while (b.hasRemaining()) {
+      _channel.write(b);
+    }
+  }
+
+  /**
+   * Flush pending data and close the output file.
+   * @throws IOException If an I/O error occurs.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      spill();
+      if (_deflater != null) {
+        _deflater.finish();
+        while (!_deflater.finished()) {
+          deflate();
+        }
+        _deflater.end();
+      }
+    } finally {
+      _channel.close();
+    }
+  }
+}
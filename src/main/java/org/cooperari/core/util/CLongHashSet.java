@@ -0,0 +1,183 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.core.util;
+
+import java.util.Arrays;
+
+/**
+ * Hash set of <code>long</code> values using open addressing.
+ * 
+ * <p>
+ * Values are stored in a primitive array with linear probing, 
+ * hence no objects are allocated when adding values, unless the set must grow.
+ * </p>
+ * 
+ * @since 0.5
+ */
+public final class CLongHashSet {
+
+  /**
+   * Marker for empty slots (the actual value is tracked by {@link #_hasEmptyValue}).
+   */
+  private static final long EMPTY = 0L;
+
+  /**
+   * Slots.
+   */
+  private long[] _slots;
+
+  /**
+   * Number of values in the slots array.
+   */
+  private int _size = 0;
+
+  /**
+   * Flag indicating if {@link #EMPTY} value is in the set.
+   */
+  private boolean _hasEmptyValue = false;
+
+  /**
+   * Constructs an empty set.
+   */
+  public CLongHashSet() {
+    _slots = new long[64];
+  }
+
+  /**
+   * Get number of values in the set.
+   * @return Number of values.
+   */
+  public int size() {
+    return _hasEmptyValue ? _size + 1 : _size;
+  }
+
+  /**
+   * Test if value is in the set.
+   * @param v Value.
+   * @return <code>true</code> if the value is in the set.
+   */
+  public boolean contains(long v) {
+    if (v == EMPTY) {
+      return _hasEmptyValue;
+    }
+    int mask = _slots.length - 1;
+    for (int i = hash(v) & mask; _slots[i] != EMPTY; i = (i + 1) & mask) {
+      if (_slots[i] == v) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Add a value to the set.
+   * @param v Value.
+   * @return <code>true</code> if the value was not in the set.
+   */
+  public boolean add(long v) {
+    if (v == EMPTY) {
+      boolean added = !_hasEmptyValue;
+      _hasEmptyValue = true;
+      return added;
+    }
+    int mask = _slots.length - 1;
+    int i = hash(v) & mask;
+    while (_slots[i] != EMPTY) {
+      if (_slots[i] == v) {
+        return false;
+      }
+      i = (i + 1) & mask;
+    }
+    _slots[i] = v;
+    _size++;
+    if (2 * _size > _slots.length) {
+      rehash(2 * _slots.length);
+    }
+    return true;
+  }
+
+  /**
+   * Add all values of another set to this one.
+   * @param other Other set.
+   * @return Number of values added to this set.
+   */
+  public int addAll(CLongHashSet other) {
+    int added = 0;
+    if (other._hasEmptyValue && add(EMPTY)) {
+      added++;
+    }
+    for (long v : other._slots) {
+      if (v != EMPTY && add(v)) {
+        added++;
+      }
+    }
+    return added;
+  }
+
+  /**
+   * Get values in the set.
+   * @return A fresh array with all values in the set, in ascending order.
+   */
+  public long[] toArray() {
+    long[] values = new long[size()];
+    int n = 0;
+    if (_hasEmptyValue) {
+      values[n++] = EMPTY;
+    }
+    for (long v : _slots) {
+      if (v != EMPTY) {
+        values[n++] = v;
+      }
+    }
+    Arrays.sort(values);
+    return values;
+  }
+
+  /**
+   * Remove all values from the set.
+   */
+  public void clear() {
+    Arrays.fill(_slots, EMPTY);
+    _size = 0;
+    _hasEmptyValue = false;
+  }
+
+  @SuppressWarnings("javadoc")
+  private void rehash(int capacity) {
+    long[] old = _slots;
+    _slots = new long[capacity];
+    int mask = capacity - 1;
+    for (long v : old) {
+      if (v != EMPTY) {
+        int i = hash(v) & mask;
+        while (_slots[i] != EMPTY) {
+          i = (i + 1) & mask;
+        }
+        _slots[i] = v;
+      }
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private static int hash(long v) {
+    // Murmur3 finalizer.
+    v ^= v >>> 33;
+    v *= 0xff51afd7ed558ccdL;
+    v ^= v >>> 33;
+    return (int) v;
+  }
+}
@@ -18,6 +18,7 @@ package org.cooperari.core.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintStream;
 
 /**
@@ -47,6 +48,17 @@ public class CReport {
     _out = new PrintStream(file);
   }
 
+  /**
+   * Create a report associated to a given file, but using the given stream for output.
+   * @param file File associated to the report.
+   * @param out Output stream.
+   * @since 0.5
+   */
+  public CReport(File file, OutputStream out) {
+    _file = file;
+    _out = new PrintStream(out);
+  }
+
   /**
    * Get file associated to this report.
    * @return A {@link File} instance.
@@ -111,4 +123,13 @@ public class CReport {
     throwable.printStackTrace(_out);    
   }
 
+  /**
+   * Dump text verbatim to report.
+   * @param text The text.
+   * @since 0.5
+   */
+  public void dumpText(String text) {
+    _out.print(text);    
+  }
+
 }
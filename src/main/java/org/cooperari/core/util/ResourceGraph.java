@@ -16,21 +16,32 @@
 
 package org.cooperari.core.util;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.IdentityHashMap;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
-// TODO: implementation note w.r.t. IdentityHashMap
-// TODO: cycle handling can be simplified.
 /**
  * Generic class for graphs.
  * 
+ * <p>
+ * Nodes are compared by identity and internally mapped to <code>int</code> indices,
+ * with adjacency lists kept as <code>int</code> arrays in insertion order.
+ * While the graph is acyclic, a topological order of nodes is maintained incrementally 
+ * using the Pearce-Kelly algorithm: on edge insertion, only nodes whose position lies 
+ * between the positions of the edge endpoints are searched and reordered, 
+ * hence {@link #tryAddEdge(Object, Object)} checks for cycles without a full 
+ * graph traversal in the common case. If a cycle is introduced through {@link #addEdge(Object, Object)}, 
+ * the order is recomputed on demand once the graph becomes acyclic again.
+ * </p>
+ * 
+ * <p>
+ * Reference: D. J. Pearce and P. H. J. Kelly, "A dynamic topological sort algorithm for directed acyclic graphs",
+ * ACM Journal of Experimental Algorithmics 11, 2006.
+ * </p>
  * 
  * @param <T> Type for nodes.
  *  
@@ -40,23 +51,106 @@ import java.util.Set;
 public final class ResourceGraph<T> {
 
   /**
-   * Sucessor list. 
+   * Initial capacity for per-node arrays.
+   */
+  private static final int INITIAL_CAPACITY = 16;
+
+  /**
+   * Empty adjacency list.
+   */
+  private static final int[] NO_NODES = new int[0];
+
+  /**
+   * Node indices.
+   */
+  private final IdentityHashMap<T, Integer> _index = new IdentityHashMap<>();
+
+  /**
+   * Nodes per index.
+   */
+  private Object[] _nodes = new Object[INITIAL_CAPACITY];
+
+  /**
+   * Number of nodes.
+   */
+  private int _nodeCount = 0;
+
+  /**
+   * Successor lists per node.
+   */
+  private int[][] _succ = new int[INITIAL_CAPACITY][];
+
+  /**
+   * Successor count per node.
+   */
+  private int[] _succCount = new int[INITIAL_CAPACITY];
+
+  /**
+   * Predecessor lists per node.
+   */
+  private int[][] _pred = new int[INITIAL_CAPACITY][];
+
+  /**
+   * Predecessor count per node.
    */
-  private final Map<T, Set<T>> _edges = new IdentityHashMap<>();
+  private int[] _predCount = new int[INITIAL_CAPACITY];
 
+  /**
+   * Position of each node in the topological order.
+   */
+  private int[] _ord = new int[INITIAL_CAPACITY];
+
+  /**
+   * Indicates if {@link #_ord} is a valid topological order, i.e., if the graph is known to be acyclic.
+   */
+  private boolean _ordered = true;
+
+  /**
+   * Number of edges.
+   */
+  private int _edgeCount = 0;
+
+  /**
+   * Search marks per node, valid for the current search stamp.
+   */
+  private int[] _mark = new int[INITIAL_CAPACITY];
+
+  /**
+   * Current search stamp.
+   */
+  private int _stamp = 0;
+
+  /**
+   * Search stack (nodes), with room for one more node than the node capacity.
+   */
+  private int[] _stack = new int[INITIAL_CAPACITY + 1];
+
+  /**
+   * Search stack (next successor position per node).
+   */
+  private int[] _stackPos = new int[INITIAL_CAPACITY + 1];
+
+  /**
+   * Stack position of the last node of the cycle found by the last search, if any.
+   */
+  private int _cycleEnd;
+
+  /**
+   * Nodes found by the forward search in a reordering, followed by those found by the backward search.
+   */
+  private long[] _affected = new long[INITIAL_CAPACITY];
+
+  /**
+   * Topological order positions for reassignment in a reordering.
+   */
+  private int[] _pool = new int[INITIAL_CAPACITY];
 
   /**
    * Get number of edges.
    * @return Number of edges.
    */
   public int edges() {
-    int count = 0;
-    for (Set<T> set : _edges.values()) {
-      if (set != null) {
-        count += set.size();
-      }
-    }
-    return count;
+    return _edgeCount;
   }
   
 
@@ -67,7 +161,58 @@ public final class ResourceGraph<T> {
    * @return true if a new edge was created.
    */
   public boolean addEdge(T from, T to) {
-    return successors(from, true).add(to);
+    int x = index(from, true);
+    int y = index(to, true);
+    if (!link(x, y)) {
+      return false;
+    }
+    if (_ordered && _ord[y] <= _ord[x] && (x == y || forward(y, x))) {
+      _ordered = false;
+    }
+    return true;
+  }
+
+  /**
+   * Add an edge unless it closes a cycle.
+   * 
+   * <p>
+   * If the edge would close a cycle, the graph is left unchanged and the cycle
+   * is returned in the same format as {@link #findCycle(Object)} for the destination node, 
+   * i.e., as the path <code>to, ..., from, to</code>.
+   * </p>
+   * 
+   * @param from Source node.
+   * @param to Destination node.
+   * @return Empty list if the edge was added or already existed, otherwise the cycle 
+   *    that the edge would close.
+   * @since 0.5
+   */
+  public List<T> tryAddEdge(T from, T to) {
+    int x = index(from, true);
+    int y = index(to, true);
+    if (hasLink(x, y)) {
+      return Collections.emptyList();
+    }
+    if (x == y) {
+      _stack[0] = y;
+      _stack[1] = y;
+      return path(0, 1);
+    }
+    if (!_ordered && !sort()) {
+      // Graph has cycles already: add edge and search.
+      link(x, y);
+      List<T> cycle = findCycle(to);
+      if (!cycle.isEmpty()) {
+        unlink(x, y);
+      }
+      return cycle;
+    }
+    if (_ord[y] < _ord[x] && forward(y, x)) {
+      _stack[++_cycleEnd] = y;
+      return path(0, _cycleEnd);
+    }
+    link(x, y);
+    return Collections.emptyList();
   }
 
   /**
@@ -77,32 +222,21 @@ public final class ResourceGraph<T> {
    * @return true if edge exists.
    */
   public boolean hasEdge(T from, T to) {
-    return successors(from, false).contains(to);
+    int x = index(from, false);
+    int y = index(to, false);
+    return x >= 0 && y >= 0 && hasLink(x, y);
   }
 
   /**
    * Remove an edge.
    * @param from Source node.
    * @param to Destination node.
-   * @return true if a new edge was created.
+   * @return true if the edge existed.
    */
   public boolean removeEdge(T from, T to) {
-    return successors(from, false).remove(to);
-  }
-
-  @SuppressWarnings("javadoc")
-  private Set<T> successors(T node, boolean create) {
-    Set<T> sucSet = _edges.get(node);
-    if (sucSet == null) {
-      if (create) {
-        sucSet = new HashSet<>();
-        _edges.put(node, sucSet);
-      } else {
-        // Note: returned set is immutable.
-        sucSet = Collections.emptySet();
-      }
-    }
-    return sucSet;
+    int x = index(from, false);
+    int y = index(to, false);
+    return x >= 0 && y >= 0 && unlink(x, y);
   }
 
   /**
@@ -110,108 +244,337 @@ public final class ResourceGraph<T> {
    * @param node Node.
    * @return The set-view will contain all node successors.
    */
+  @SuppressWarnings("unchecked")
   public Set<T> successors(T node) {
-    return Collections.unmodifiableSet(successors(node,false));
+    int x = index(node, false);
+    if (x < 0) {
+      return Collections.emptySet();
+    }
+    LinkedHashSet<T> set = new LinkedHashSet<>();
+    for (int i = 0; i < _succCount[x]; i++) {
+      set.add((T) _nodes[_succ[x][i]]);
+    }
+    return Collections.unmodifiableSet(set);
   }
 
   /**
    * Check if there are cycles in the resource graph
-   * starting from a given node.
+   * reachable from a given node.
    * 
-   * Implementation note: classical breadth-first algorithm.
    * @param from Node
    * @return true if there are cycles. 
    */
   public boolean hasCycles(T from) {
-    HashSet<T> visited = new HashSet<>();
-    LinkedList<T> toVisit = new LinkedList<>();
-    toVisit.offer(from);
-    // Note (edrdo): breadth-first search preferred.
-    // In contrast getCycle operates depth first to avoid
-    // keeping more than one list as possible cycle.
-    do {
-      T elem = toVisit.remove();
-      Set<T> sucSet = successors(elem, false);
-      for (T suc : sucSet) {
-        if (visited.contains(suc)) {
-          return true;
-        }
-        visited.add(suc);
-        toVisit.offer(suc);
-      }
-    } while (! toVisit.isEmpty());
-    return false; 
+    return !findCycle(from).isEmpty();
   }
 
   /**
    * Tries to find a cycle in the resource graph.
+   * 
+   * Implementation note: depth-first search, following successors
+   * in insertion order.
+   * 
    * @param node Starting node
    * @return List of nodes originating from source node or
    *    empty list if no cycle found.
    */
   public List<T> findCycle(T node) {
-    // Use object both as list (insertion order) and visited record
-    // with O(1) cost.
-    LinkedHashSet<T> visited = new LinkedHashSet<T>();
-    T finalNode = findCycle(node, visited);
-    if (finalNode == null) {
+    int x = index(node, false);
+    if (x < 0 || _ordered) {
       return Collections.emptyList();
     }
-    // Path order will be the same as insertion order 
-    // guaranteed by LinkedHashSet.
-    Iterator<T> itr = visited.iterator();
-    while (! itr.next().equals(finalNode)) { 
-      // just advance
+    _stamp += 2;
+    int w = search(x);
+    if (w < 0) {
+      return Collections.emptyList();
     }
-    // Now build the path corresponding to the cycle.
-    LinkedList<T> cycle = new LinkedList<>();
-    cycle.add(finalNode);
-    while (itr.hasNext()) {
-      cycle.add(itr.next());
+    int from = 0;
+    while (_stack[from] != w) {
+      from++;
     }
-    cycle.add(finalNode);
-    return cycle;
+    return path(from, _cycleEnd);
   }
 
   /**
-   * Private method for finding cycles.
+   * Test if there are cycles in the resource graph.
+   * @return true if there are cycles in the resource graph.
+   */
+  public boolean hasCycles() {
+    if (_ordered) {
+      return false;
+    }
+    _stamp += 2;
+    for (int x = 0; x < _nodeCount; x++) {
+      if (_mark[x] != _stamp && search(x) >= 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get index for a node.
+   * @param node Node.
+   * @param create Create index if the node is not known.
+   * @return The node index, or <code>-1</code> if the node is not known and <code>create</code> is false.
+   */
+  private int index(T node, boolean create) {
+    Integer i = _index.get(node);
+    if (i != null) {
+      return i;
+    }
+    if (!create) {
+      return -1;
+    }
+    int x = _nodeCount++;
+    if (x == _nodes.length) {
+      int n = 2 * x;
+      _nodes = Arrays.copyOf(_nodes, n);
+      _succ = Arrays.copyOf(_succ, n);
+      _succCount = Arrays.copyOf(_succCount, n);
+      _pred = Arrays.copyOf(_pred, n);
+      _predCount = Arrays.copyOf(_predCount, n);
+      _ord = Arrays.copyOf(_ord, n);
+      _mark = Arrays.copyOf(_mark, n);
+      _stack = Arrays.copyOf(_stack, n + 1);
+      _stackPos = Arrays.copyOf(_stackPos, n + 1);
+      _affected = Arrays.copyOf(_affected, n);
+      _pool = Arrays.copyOf(_pool, n);
+    }
+    _nodes[x] = node;
+    _succ[x] = NO_NODES;
+    _pred[x] = NO_NODES;
+    _ord[x] = x;
+    _index.put(node, x);
+    return x;
+  }
+
+  @SuppressWarnings("javadoc")
+  private boolean hasLink(int x, int y) {
+    return find(_succ[x], _succCount[x], y) >= 0;
+  }
+
+  @SuppressWarnings("javadoc")
+  private boolean link(int x, int y) {
+    if (hasLink(x, y)) {
+      return false;
+    }
+    _succ[x] = append(_succ[x], _succCount[x]++, y);
+    _pred[y] = append(_pred[y], _predCount[y]++, x);
+    _edgeCount++;
+    return true;
+  }
+
+  @SuppressWarnings("javadoc")
+  private boolean unlink(int x, int y) {
+    int i = find(_succ[x], _succCount[x], y);
+    if (i < 0) {
+      return false;
+    }
+    System.arraycopy(_succ[x], i + 1, _succ[x], i, --_succCount[x] - i);
+    i = find(_pred[y], _predCount[y], x);
+    System.arraycopy(_pred[y], i + 1, _pred[y], i, --_predCount[y] - i);
+    _edgeCount--;
+    return true;
+  }
+
+  @SuppressWarnings("javadoc")
+  private static int find(int[] list, int size, int x) {
+    for (int i = 0; i < size; i++) {
+      if (list[i] == x) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @SuppressWarnings("javadoc")
+  private static int[] append(int[] list, int size, int x) {
+    if (size == list.length) {
+      list = Arrays.copyOf(list, Math.max(4, 2 * size));
+    }
+    list[size] = x;
+    return list;
+  }
+
+  /**
+   * Pearce-Kelly reordering for a new edge <code>x -&gt; y</code> such that <code>ord(y) &lt;= ord(x)</code>.
    * 
-   * Implementation note: classical depth-first with no twists.
+   * <p>
+   * Nodes reachable from <code>y</code> with position up to <code>ord(x)</code> are collected by a forward search, 
+   * and nodes reaching <code>x</code> with position from <code>ord(y)</code> by a backward search.
+   * The positions of both sets of nodes are then reassigned such that all nodes found 
+   * by the backward search precede those found by the forward search. 
+   * If the forward search reaches <code>x</code>, the edge closes a cycle: 
+   * no reordering takes place and the search stack holds the path from <code>y</code> to <code>x</code>, 
+   * ending at position {@link #_cycleEnd}.
+   * </p>
    * 
-   * If a cycle is detected the method returns the final 
-   * node in the cycle and the visited set will contain
-   * the current one plus all others (that can be iterated
-   * in insertion order). 
+   * @param y Destination node of the edge.
+   * @param x Source node of the edge.
+   * @return <code>true</code> if a cycle is found.
+   */
+  private boolean forward(int y, int x) {
+    int ub = _ord[x];
+    int lb = _ord[y];
+    int stamp = ++_stamp;
+    int count = 0;
+    // Forward search from y.
+    int sp = 0;
+    _stack[sp] = y;
+    _stackPos[sp++] = 0;
+    _mark[y] = stamp;
+    _affected[count++] = key(y);
+    while (sp > 0) {
+      int n = _stack[sp - 1];
+      int pos = _stackPos[sp - 1];
+      if (pos == _succCount[n]) {
+        sp--;
+        continue;
+      }
+      _stackPos[sp - 1]++;
+      int w = _succ[n][pos];
+      if (w == x) {
+        _stack[sp] = x;
+        _cycleEnd = sp;
+        return true;
+      }
+      if (_mark[w] != stamp && _ord[w] < ub) {
+        _mark[w] = stamp;
+        _affected[count++] = key(w);
+        _stack[sp] = w;
+        _stackPos[sp++] = 0;
+      }
+    }
+    int forwardCount = count;
+    // Backward search from x.
+    stamp = ++_stamp;
+    sp = 0;
+    _stack[sp++] = x;
+    _mark[x] = stamp;
+    _affected[count++] = key(x);
+    while (sp > 0) {
+      int n = _stack[--sp];
+      for (int i = 0; i < _predCount[n]; i++) {
+        int w = _pred[n][i];
+        if (_mark[w] != stamp && _ord[w] > lb) {
+          _mark[w] = stamp;
+          _affected[count++] = key(w);
+          _stack[sp++] = w;
+        }
+      }
+    }
+    // Reassign positions: backward nodes first, then forward nodes, each in their previous relative order.
+    Arrays.sort(_affected, 0, forwardCount);
+    Arrays.sort(_affected, forwardCount, count);
+    for (int i = 0; i < count; i++) {
+      _pool[i] = (int) (_affected[i] >>> 32);
+    }
+    Arrays.sort(_pool, 0, count);
+    int p = 0;
+    for (int i = forwardCount; i < count; i++) {
+      _ord[(int) _affected[i]] = _pool[p++];
+    }
+    for (int i = 0; i < forwardCount; i++) {
+      _ord[(int) _affected[i]] = _pool[p++];
+    }
+    return false;
+  }
+
+  @SuppressWarnings("javadoc")
+  private long key(int x) {
+    return ((long) _ord[x] << 32) | x;
+  }
+
+  /**
+   * Depth-first search for a cycle.
    * 
-   * @param node Current node.
-   * @param visited Visited nodes.
-   * @return The final node in the cycle or null if no cycle found
-   *   from current node.
-   */
-  private T findCycle(T node, LinkedHashSet<T> visited) {
-    if (visited.contains(node)) {
-      return node;
-    }
-    visited.add(node);
-    for (T suc : successors(node, false)) {
-      T finalNode = findCycle(suc, visited);
-      if (finalNode != null) {
-        return finalNode; // cycle found
+   * <p>
+   * Marks are relative to {@link #_stamp}: <code>_stamp - 1</code> for nodes in the search path,
+   * and <code>_stamp</code> for nodes fully explored.
+   * If a cycle is found, the search stack holds the search path followed by the returned node,
+   * at position {@link #_cycleEnd}.
+   * </p>
+   * 
+   * @param start Start node.
+   * @return The first node found twice in the search path, or <code>-1</code> if no cycle is found.
+   */
+  private int search(int start) {
+    int onPath = _stamp - 1;
+    int done = _stamp;
+    int sp = 0;
+    _stack[sp] = start;
+    _stackPos[sp++] = 0;
+    _mark[start] = onPath;
+    while (sp > 0) {
+      int n = _stack[sp - 1];
+      int pos = _stackPos[sp - 1];
+      if (pos == _succCount[n]) {
+        _mark[n] = done;
+        sp--;
+        continue;
+      }
+      _stackPos[sp - 1]++;
+      int w = _succ[n][pos];
+      if (_mark[w] == onPath) {
+        _stack[sp] = w;
+        _cycleEnd = sp;
+        return w;
+      }
+      if (_mark[w] != done) {
+        _mark[w] = onPath;
+        _stack[sp] = w;
+        _stackPos[sp++] = 0;
       }
     }
-    visited.remove(node);
-    return null; // no cycle
+    return -1;
   }
+
   /**
-   * Test if there are cycles in the resource graph.
-   * @return true if there are cycles in the resource graph.
+   * Recompute the topological order from scratch (Kahn's algorithm).
+   * @return <code>true</code> if the graph is acyclic, in which case the order becomes valid.
    */
-  public boolean hasCycles() {
-    for (T node : _edges.keySet()) {
-      if (hasCycles(node))
-        return true;
+  private boolean sort() {
+    int[] inDegree = Arrays.copyOf(_predCount, _nodeCount);
+    int[] queue = new int[_nodeCount];
+    int head = 0;
+    int tail = 0;
+    for (int x = 0; x < _nodeCount; x++) {
+      if (inDegree[x] == 0) {
+        queue[tail++] = x;
+      }
     }
-    return false;
+    while (head < tail) {
+      int x = queue[head++];
+      for (int i = 0; i < _succCount[x]; i++) {
+        int y = _succ[x][i];
+        if (--inDegree[y] == 0) {
+          queue[tail++] = y;
+        }
+      }
+    }
+    if (tail < _nodeCount) {
+      return false;
+    }
+    for (int i = 0; i < _nodeCount; i++) {
+      _ord[queue[i]] = i;
+    }
+    _ordered = true;
+    return true;
   }
 
+  /**
+   * Build a cycle path from the search stack.
+   * @param from Stack position of the first node.
+   * @param to Stack position of the last node (inclusive).
+   * @return The path.
+   */
+  @SuppressWarnings("unchecked")
+  private List<T> path(int from, int to) {
+    ArrayList<T> path = new ArrayList<>(to - from + 1);
+    for (int i = from; i <= to; i++) {
+      path.add((T) _nodes[_stack[i]]);
+    }
+    return path;
+  }
 }
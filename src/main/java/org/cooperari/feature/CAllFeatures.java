@@ -35,6 +35,7 @@ public final class CAllFeatures {
               new org.cooperari.feature.atomic.CAtomicObjectsFeature(),
               new org.cooperari.feature.data.CDataAccessFeature(),
               new org.cooperari.feature.monitor.CMonitorFeature(),
+              new org.cooperari.feature.locks.CLocksFeature(),
               new org.cooperari.feature.hotspots.CHotspotFeature(),
               new org.cooperari.feature.thread.CThreadFeature(),
               new org.cooperari.feature.threadrunner.CThreadRunnerFeature(),
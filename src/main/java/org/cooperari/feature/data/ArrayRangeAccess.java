@@ -0,0 +1,138 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+
+package org.cooperari.feature.data;
+
+import static org.cooperari.core.CRuntime.getRuntime;
+
+import java.lang.reflect.Array;
+
+import org.cooperari.core.COperation;
+import org.cooperari.core.CThread;
+
+/**
+ * Bulk array operation, reading a range of elements from a source array 
+ * and/or writing a range of elements of a destination array in a single step.
+ * 
+ * <p>
+ * Ranges that are invalid for the array at stake are ignored for race detection
+ * purposes, as the bulk operation itself will fail. If the source and destination arrays 
+ * are the same and the ranges overlap, a single write is signaled for their union.
+ * </p>
+ * 
+ * @see RaceDetector#beginReadRange(Object, int, int)
+ * @see RaceDetector#beginWriteRange(Object, int, int)
+ * @since 0.5
+ */
+public final class ArrayRangeAccess extends COperation<Void> {
+
+  /**
+   * Constructs the operation.
+   * @param src Source array (may be <code>null</code>).
+   * @param srcPos Starting position in the source array.
+   * @param dst Destination array (may be <code>null</code>).
+   * @param dstPos Starting position in the destination array.
+   * @param length Number of elements.
+   */
+  private ArrayRangeAccess(Object src, int srcPos, Object dst, int dstPos, int length) {
+    super(src, srcPos, dst, dstPos, length);
+    RaceDetector rd = getRuntime().get(RaceDetector.class);
+    if (rd != null) {
+      if (merge(src, srcPos, dst, dstPos, length)) {
+        int from = Math.min(srcPos, dstPos);
+        rd.beginWriteRange(dst, from, Math.max(srcPos, dstPos) + length);
+      } else {
+        if (valid(src, srcPos, length)) {
+          rd.beginReadRange(src, srcPos, srcPos + length);
+        }
+        if (valid(dst, dstPos, length)) {
+          rd.beginWriteRange(dst, dstPos, dstPos + length);
+        }
+      }
+    }
+  }
+
+  /**
+   * Test if the operation is a plain data access.
+   * @return <code>true</code>
+   */
+  @Override
+  public boolean isDataAccess() {
+    return true;
+  }
+
+  /**
+   * Test if the operation is a data write, which is always the case for the destination array.
+   * @return <code>true</code>
+   */
+  @Override
+  public boolean isWrite() {
+    return true;
+  }
+
+  /**
+   * Yield on bulk array operation.
+   * @param thisThread Current thread.
+   * @param src Source array (may be <code>null</code>).
+   * @param srcPos Starting position in the source array.
+   * @param dst Destination array (may be <code>null</code>).
+   * @param dstPos Starting position in the destination array.
+   * @param length Number of elements.
+   */
+  public static void before(CThread thisThread, Object src, int srcPos, Object dst, int dstPos, int length) {
+    thisThread.cYield(new ArrayRangeAccess(src, srcPos, dst, dstPos, length));
+  }
+
+  /**
+   * Execute actions after bulk array operation without yielding.
+   * @param thisThread Current thread.
+   * @param src Source array (may be <code>null</code>).
+   * @param srcPos Starting position in the source array.
+   * @param dst Destination array (may be <code>null</code>).
+   * @param dstPos Starting position in the destination array.
+   * @param length Number of elements.
+   */
+  public static void after(CThread thisThread, Object src, int srcPos, Object dst, int dstPos, int length) {
+    RaceDetector rd = getRuntime().get(RaceDetector.class);
+    if (rd != null) {
+      if (merge(src, srcPos, dst, dstPos, length)) {
+        int from = Math.min(srcPos, dstPos);
+        rd.endWriteRange(dst, from, Math.max(srcPos, dstPos) + length);
+      } else {
+        if (valid(src, srcPos, length)) {
+          rd.endReadRange(src, srcPos, srcPos + length);
+        }
+        if (valid(dst, dstPos, length)) {
+          rd.endWriteRange(dst, dstPos, dstPos + length);
+        }
+      }
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private static boolean merge(Object src, int srcPos, Object dst, int dstPos, int length) {
+    return src == dst 
+        && valid(src, srcPos, length) && valid(dst, dstPos, length) 
+        && Math.abs(srcPos - dstPos) < length;
+  }
+
+  @SuppressWarnings("javadoc")
+  private static boolean valid(Object array, int pos, int length) {
+    return array != null && array.getClass().isArray() 
+        && pos >= 0 && length > 0 && pos <= Array.getLength(array) - length;
+  }
+}
@@ -0,0 +1,161 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+
+package org.cooperari.feature.data;
+
+import java.util.Arrays;
+
+/**
+ * Index ranges of an array being accessed, with an associated <code>long</code> value per range.
+ * 
+ * <p>
+ * Ranges are half-open intervals <code>[from, to)</code> kept sorted by lower bound, 
+ * hence a search for ranges overlapping a given one stops at the first range 
+ * that starts past its upper bound. The same range may occur more than once.
+ * </p>
+ * 
+ * @since 0.5
+ */
+final class ArrayRanges {
+
+  /**
+   * Initial capacity.
+   */
+  private static final int INITIAL_CAPACITY = 4;
+
+  /**
+   * Lower bounds (inclusive).
+   */
+  private int[] _from = new int[INITIAL_CAPACITY];
+
+  /**
+   * Upper bounds (exclusive).
+   */
+  private int[] _to = new int[INITIAL_CAPACITY];
+
+  /**
+   * Values per range.
+   */
+  private long[] _values = new long[INITIAL_CAPACITY];
+
+  /**
+   * Number of ranges.
+   */
+  private int _size = 0;
+
+  /**
+   * Constructor.
+   */
+  ArrayRanges() { }
+
+  /**
+   * Get number of ranges.
+   * @return The number of ranges.
+   */
+  int size() {
+    return _size;
+  }
+
+  /**
+   * Get lower bound of a range.
+   * @param i Range index, in ascending order of lower bounds.
+   * @return The lower bound (inclusive).
+   */
+  int from(int i) {
+    return _from[i];
+  }
+
+  /**
+   * Get upper bound of a range.
+   * @param i Range index, in ascending order of lower bounds.
+   * @return The upper bound (exclusive).
+   */
+  int to(int i) {
+    return _to[i];
+  }
+
+  /**
+   * Get value of a range.
+   * @param i Range index.
+   * @return The value.
+   */
+  long get(int i) {
+    return _values[i];
+  }
+
+  /**
+   * Set value of a range.
+   * @param i Range index.
+   * @param value The value.
+   */
+  void set(int i, long value) {
+    _values[i] = value;
+  }
+
+  /**
+   * Add a range.
+   * @param from Lower bound (inclusive).
+   * @param to Upper bound (exclusive).
+   * @param value Value.
+   */
+  void add(int from, int to, long value) {
+    if (_size == _from.length) {
+      _from = Arrays.copyOf(_from, 2 * _size);
+      _to = Arrays.copyOf(_to, 2 * _size);
+      _values = Arrays.copyOf(_values, 2 * _size);
+    }
+    int i = _size;
+    while (i > 0 && _from[i - 1] > from) {
+      i--;
+    }
+    System.arraycopy(_from, i, _from, i + 1, _size - i);
+    System.arraycopy(_to, i, _to, i + 1, _size - i);
+    System.arraycopy(_values, i, _values, i + 1, _size - i);
+    _from[i] = from;
+    _to[i] = to;
+    _values[i] = value;
+    _size++;
+  }
+
+  /**
+   * Find a range.
+   * @param from Lower bound (inclusive).
+   * @param to Upper bound (exclusive).
+   * @param mask Mask for value bits that must match.
+   * @param bits Expected value bits under the mask.
+   * @return Index of a matching range, or <code>-1</code> if none exists.
+   */
+  int find(int from, int to, long mask, long bits) {
+    for (int i = 0; i < _size && _from[i] <= from; i++) {
+      if (_from[i] == from && _to[i] == to && (_values[i] & mask) == bits) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Remove a range.
+   * @param i Range index.
+   */
+  void remove(int i) {
+    _size--;
+    System.arraycopy(_from, i + 1, _from, i, _size - i);
+    System.arraycopy(_to, i + 1, _to, i, _size - i);
+    System.arraycopy(_values, i + 1, _values, i, _size - i);
+  }
+}
@@ -32,7 +32,7 @@ public final class CDataAccessFeature implements CFeature {
   public void init(CRuntime env) {
     CRaceDetection config = env.getConfiguration(CRaceDetection.class);
     if (config.value()) {
-      env.register(new RaceDetector(config));
+      env.register(RaceDetector.class, RaceDetector.create(config));
     } 
   }
 
@@ -27,9 +27,9 @@ public abstract class DataOperation extends COperation<Void> {
   /**
    * Constructs the operation.
    * @param theObject Object being accessed.
-   * @param dataKey Data key, a <code>String</code> object for field accesses or a <code>Integer</code> object for array accesses.
+   * @param dataKey Data key, a field id for field accesses (see {@link FieldIds}) or an index for array accesses.
    */
-  public DataOperation(Object theObject, Object dataKey) {
+  public DataOperation(Object theObject, int dataKey) {
     super(theObject, dataKey);
   }
 
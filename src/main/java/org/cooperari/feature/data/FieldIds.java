@@ -0,0 +1,103 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.feature.data;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+
+/**
+ * Interned field identifiers.
+ * 
+ * <p>
+ * Fields are mapped to dense <code>int</code> ids, 
+ * which are used as keys for data race detection in place of the names themselves.
+ * A field is identified by its declaring class and its name, hence fields with the same name in different 
+ * classes have distinct ids. The id for a field access join point is resolved once
+ * and then cached per {@link JoinPoint.StaticPart} instance.
+ * </p>
+ * 
+ * @since 0.5
+ */
+enum FieldIds {
+  /**
+   * Singleton instance.
+   */
+  INSTANCE;
+
+  /**
+   * Ids per qualified field name.
+   */
+  private final ConcurrentHashMap<String, Integer> _ids = new ConcurrentHashMap<>();
+
+  /**
+   * Ids per join point.
+   */
+  private final ConcurrentHashMap<JoinPoint.StaticPart, Integer> _staticPartCache = new ConcurrentHashMap<>();
+
+  /**
+   * Qualified field names indexed by id.
+   */
+  private final ArrayList<String> _names = new ArrayList<>();
+
+  /**
+   * Get id for the field accessed at a join point.
+   * @param jpsp Static part of a field access join point.
+   * @return The field id.
+   */
+  int get(JoinPoint.StaticPart jpsp) {
+    Integer id = _staticPartCache.get(jpsp);
+    if (id == null) {
+      Signature sig = jpsp.getSignature();
+      id = get(sig.getDeclaringTypeName() + '.' + sig.getName());
+      _staticPartCache.put(jpsp, id);
+    }
+    return id;
+  }
+
+  /**
+   * Get id for a field.
+   * @param qualifiedName Field name, qualified by the name of the declaring class.
+   * @return The field id.
+   */
+  int get(String qualifiedName) {
+    Integer id = _ids.get(qualifiedName);
+    return id != null ? id : intern(qualifiedName);
+  }
+
+  /**
+   * Get qualified field name for an id.
+   * @param id Field id.
+   * @return The field name, qualified by the name of the declaring class.
+   */
+  synchronized String name(int id) {
+    return _names.get(id);
+  }
+
+  @SuppressWarnings("javadoc")
+  private synchronized int intern(String name) {
+    Integer id = _ids.get(name);
+    if (id == null) {
+      id = _names.size();
+      _names.add(name);
+      _ids.put(name, id);
+    }
+    return id;
+  }
+}
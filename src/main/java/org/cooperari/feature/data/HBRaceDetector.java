@@ -0,0 +1,387 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.feature.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+import org.cooperari.config.CRaceDetection;
+import org.cooperari.core.CThread;
+import org.cooperari.core.CWorkspace;
+import org.cooperari.errors.CInternalError;
+
+/**
+ * Happens-before race detector, based on the FastTrack algorithm.
+ * 
+ * <p>
+ * Each thread and each synchronization object has a vector clock, 
+ * updated on synchronization events. Each data location keeps the epoch 
+ * (a clock value and a thread id) of its last write and, while reads are totally ordered, 
+ * the epoch of its last read; a full vector clock for reads is only kept for
+ * locations that are concurrently read by several threads. 
+ * Epochs are packed in <code>int</code> values, and both epochs for a location 
+ * are packed in a single <code>long</code> value held by a {@link ShadowMap}.
+ * Volatile field writes and reads act as release and acquire operations, respectively.
+ * Any two accesses in the observed execution that are not ordered by happens-before
+ * are reported as a race, regardless of whether they took place in the same step.
+ * The yield points of the last read and write of each location are kept in a separate
+ * {@link ShadowMap}, such that races can be aggregated by pairs of yield points.
+ * </p>
+ * 
+ * <p>
+ * Reference: C. Flanagan and S. N. Freund, "FastTrack: efficient and precise dynamic race detection", PLDI 2009.
+ * </p>
+ * 
+ * @see CRaceDetection.Mode#HB
+ * @since 0.5
+ */
+final class HBRaceDetector extends RaceDetector {
+
+  /**
+   * Number of bits for the thread id in an epoch.
+   */
+  private static final int TID_BITS = 8;
+
+  /**
+   * Maximum number of threads per trial.
+   */
+  private static final int MAX_THREADS = 1 << TID_BITS;
+
+  /**
+   * Mask for the thread id in an epoch.
+   */
+  private static final int TID_MASK = MAX_THREADS - 1;
+
+  /**
+   * Flag for read state indicating a read vector clock, whose index is given by the remaining bits. 
+   */
+  private static final int SHARED = 0x80000000;
+
+  /**
+   * Vector clocks per thread, indexed by thread id.
+   */
+  private int[][] _threadClocks = new int[16][];
+
+  /**
+   * Vector clocks per synchronization object.
+   */
+  private final IdentityHashMap<Object, int[]> _syncClocks = new IdentityHashMap<>();
+
+  /**
+   * Indices (plus one) in {@link #_volatileClocks} per volatile field.
+   */
+  private final ShadowMap _volatiles = new ShadowMap();
+
+  /**
+   * Vector clocks for volatile fields.
+   */
+  private final ArrayList<int[]> _volatileClocks = new ArrayList<>();
+
+  /**
+   * Write and read state per data location.
+   */
+  private final ShadowMap _shadow = new ShadowMap();
+
+  /**
+   * Yield points of the last write and read per data location, 
+   * packed as for {@link #_shadow} with ids shifted by one (<code>0</code> means none).
+   */
+  private final ShadowMap _sites = new ShadowMap();
+
+  /**
+   * Read vector clocks for locations read concurrently by several threads.
+   */
+  private final ArrayList<int[]> _readClocks = new ArrayList<>();
+
+  /**
+   * Indices of free entries in {@link #_readClocks}.
+   */
+  private int[] _freeReadClocks = new int[16];
+
+  /**
+   * Number of free entries in {@link #_readClocks}.
+   */
+  private int _freeReadClockCount = 0;
+
+  /**
+   * Constructor.
+   * @param config Configuration.
+   */
+  HBRaceDetector(CRaceDetection config) {
+    super(config);
+  }
+
+  @Override
+  public void startTestTrial() {
+    Arrays.fill(_threadClocks, null);
+    _syncClocks.clear();
+    _volatiles.clear();
+    _volatileClocks.clear();
+    _shadow.clear();
+    _sites.clear();
+    _readClocks.clear();
+    _freeReadClockCount = 0;
+  }
+
+  @Override
+  public void beginRead(Object o, int key) {
+    CThread t = (CThread) Thread.currentThread();
+    int tid = t.getCID();
+    int[] c = clock(tid);
+    int e = epoch(c, tid);
+    int slot = _shadow.findOrInsert(o, key);
+    long state = _shadow.get(slot);
+    int w = (int) (state >>> 32);
+    int r = (int) state;
+    if (r == e) {
+      return;
+    }
+    boolean race = !leq(w, c);
+    if ((r & SHARED) != 0) {
+      int index = r & ~SHARED;
+      int[] rc = ensureCapacity(_readClocks.get(index), tid);
+      rc[tid] = c[tid];
+      _readClocks.set(index, rc);
+    } else if (leq(r, c)) {
+      r = e;
+    } else {
+      int u = r & TID_MASK;
+      int[] rc = new int[Math.max(u, tid) + 1];
+      rc[u] = r >>> TID_BITS;
+      rc[tid] = c[tid];
+      r = SHARED | newReadClock(rc);
+    }
+    _shadow.set(slot, ((long) w << 32) | (r & 0xFFFFFFFFL));
+    assert CWorkspace.debug("HB read | %s %d", describe(o, key), tid);
+    long sites = exchangeSite(o, key, false);
+    if (race) {
+      recordRace(o, key, (int) (sites >>> 32) - 1);
+      reportRace(o, key);
+    }
+  }
+
+  @Override
+  public void endRead(Object o, int key) {
+    
+  }
+
+  @Override
+  public void beginWrite(Object o, int key) {
+    CThread t = (CThread) Thread.currentThread();
+    int tid = t.getCID();
+    int[] c = clock(tid);
+    int e = epoch(c, tid);
+    int slot = _shadow.findOrInsert(o, key);
+    long state = _shadow.get(slot);
+    int w = (int) (state >>> 32);
+    int r = (int) state;
+    if (w == e) {
+      return;
+    }
+    boolean writeRace = !leq(w, c);
+    boolean readRace;
+    if ((r & SHARED) != 0) {
+      int index = r & ~SHARED;
+      readRace = !leq(_readClocks.get(index), c);
+      freeReadClock(index);
+      r = 0;
+    } else {
+      readRace = !leq(r, c);
+    }
+    _shadow.set(slot, ((long) e << 32) | (r & 0xFFFFFFFFL));
+    assert CWorkspace.debug("HB write | %s %d", describe(o, key), tid);
+    long sites = exchangeSite(o, key, true);
+    if (writeRace || readRace) {
+      recordRace(o, key, (writeRace ? (int) (sites >>> 32) : (int) sites) - 1);
+      reportRace(o, key);
+    }
+  }
+
+  @Override
+  public void endWrite(Object o, int key) {
+    
+  }
+
+  @Override
+  public void onAcquire(CThread t, Object o) {
+    int[] l = _syncClocks.get(o);
+    if (l != null) {
+      int tid = t.getCID();
+      _threadClocks[tid] = join(clock(tid), l);
+    }
+  }
+
+  @Override
+  public void onRelease(CThread t, Object o) {
+    int tid = t.getCID();
+    int[] c = clock(tid);
+    // Join rather than replace: readers of a shared lock may release it in any
+    // order, and a subsequent exclusive acquisition is ordered after all of them.
+    // For exclusive releases this is the same, as the thread acquired the object before.
+    int[] l = _syncClocks.get(o);
+    _syncClocks.put(o, l == null ? c.clone() : join(l, c));
+    c[tid]++;
+  }
+
+  @Override
+  public void onSynchronizingAccess(CThread t, Object o) {
+    int tid = t.getCID();
+    int[] c = clock(tid);
+    int[] l = _syncClocks.get(o);
+    if (l != null) {
+      c = join(c, l);
+      _threadClocks[tid] = c;
+    }
+    _syncClocks.put(o, c.clone());
+    c[tid]++;
+  }
+
+  @Override
+  public void onVolatileRead(CThread t, Object o, int key) {
+    int slot = _volatiles.find(o, key);
+    if (slot >= 0) {
+      int tid = t.getCID();
+      _threadClocks[tid] = join(clock(tid), _volatileClocks.get((int) _volatiles.get(slot) - 1));
+    }
+  }
+
+  @Override
+  public void onVolatileWrite(CThread t, Object o, int key) {
+    int tid = t.getCID();
+    int[] c = clock(tid);
+    int slot = _volatiles.findOrInsert(o, key);
+    int index = (int) _volatiles.get(slot) - 1;
+    if (index < 0) {
+      _volatileClocks.add(c.clone());
+      _volatiles.set(slot, _volatileClocks.size());
+    } else {
+      _volatileClocks.set(index, join(_volatileClocks.get(index), c));
+    }
+    c[tid]++;
+  }
+
+  @Override
+  public void onThreadStart(CThread t, CThread child) {
+    int tid = t.getCID();
+    int[] c = clock(tid);
+    int cid = child.getCID();
+    _threadClocks[cid] = join(clock(cid), c);
+    c[tid]++;
+  }
+
+  @Override
+  public void onThreadJoin(CThread t, CThread joined) {
+    int tid = t.getCID();
+    _threadClocks[tid] = join(clock(tid), clock(joined.getCID()));
+  }
+
+  /**
+   * Set the yield point of the current thread as the last read or write site of a data location.
+   * @param o Object.
+   * @param key Data key.
+   * @param write Indicates a write.
+   * @return The previous sites for the data location.
+   */
+  private long exchangeSite(Object o, int key, boolean write) {
+    int slot = _sites.findOrInsert(o, key);
+    long sites = _sites.get(slot);
+    long site = currentSite() + 1;
+    _sites.set(slot, write ? (site << 32) | (sites & 0xFFFFFFFFL) : (sites & 0xFFFFFFFF00000000L) | site);
+    return sites;
+  }
+
+  /**
+   * Get vector clock for a thread, creating it if necessary.
+   * @param tid Thread id.
+   * @return The vector clock.
+   */
+  private int[] clock(int tid) {
+    if (tid >= MAX_THREADS) {
+      throw new CInternalError("Happens-before race detection supports at most " + MAX_THREADS + " threads.");
+    }
+    if (tid >= _threadClocks.length) {
+      _threadClocks = Arrays.copyOf(_threadClocks, Math.max(tid + 1, 2 * _threadClocks.length));
+    }
+    int[] c = _threadClocks[tid];
+    if (c == null) {
+      c = new int[tid + 1];
+      c[tid] = 1;
+      _threadClocks[tid] = c;
+    }
+    return c;
+  }
+
+  @SuppressWarnings("javadoc")
+  private int newReadClock(int[] rc) {
+    if (_freeReadClockCount > 0) {
+      int index = _freeReadClocks[--_freeReadClockCount];
+      _readClocks.set(index, rc);
+      return index;
+    }
+    _readClocks.add(rc);
+    return _readClocks.size() - 1;
+  }
+
+  @SuppressWarnings("javadoc")
+  private void freeReadClock(int index) {
+    _readClocks.set(index, null);
+    if (_freeReadClockCount == _freeReadClocks.length) {
+      _freeReadClocks = Arrays.copyOf(_freeReadClocks, 2 * _freeReadClockCount);
+    }
+    _freeReadClocks[_freeReadClockCount++] = index;
+  }
+
+  @SuppressWarnings("javadoc")
+  private static int epoch(int[] c, int tid) {
+    return (c[tid] << TID_BITS) | tid;
+  }
+
+  @SuppressWarnings("javadoc")
+  private static boolean leq(int epoch, int[] c) {
+    int tid = epoch & TID_MASK;
+    return (epoch >>> TID_BITS) <= (tid < c.length ? c[tid] : 0);
+  }
+
+  @SuppressWarnings("javadoc")
+  private static boolean leq(int[] a, int[] c) {
+    for (int i = 0; i < a.length; i++) {
+      if (a[i] > (i < c.length ? c[i] : 0)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @SuppressWarnings("javadoc")
+  private static int[] ensureCapacity(int[] c, int tid) {
+    return tid < c.length ? c : Arrays.copyOf(c, tid + 1);
+  }
+
+  @SuppressWarnings("javadoc")
+  private static int[] join(int[] a, int[] b) {
+    if (a.length < b.length) {
+      a = Arrays.copyOf(a, b.length);
+    }
+    for (int i = 0; i < b.length; i++) {
+      if (b[i] > a[i]) {
+        a[i] = b[i];
+      }
+    }
+    return a;
+  }
+}
@@ -0,0 +1,339 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.feature.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+import org.cooperari.config.CRaceDetection;
+import org.cooperari.core.CThread;
+import org.cooperari.core.CWorkspace;
+
+/**
+ * Lockset race detector, based on the Eraser algorithm.
+ * 
+ * <p>
+ * Each thread has a set of locks it currently holds, maintained from monitor 
+ * acquisition and release events. A data location is exclusive to the first thread 
+ * that accesses it; once accessed by another thread it becomes shared, 
+ * and its candidate lockset is refined on each access by intersection with the
+ * locks held by the accessing thread. A race is reported (once per location) when
+ * a location is shared, has been written while shared, and its candidate lockset becomes empty.
+ * Since the analysis does not depend on the interleaving of accesses, 
+ * locking discipline violations are reported even if the conflicting accesses are
+ * far apart in the execution.
+ * </p>
+ * 
+ * <p>
+ * Locksets are interned and identified by <code>int</code> indices, and 
+ * the state of a location (mode, owner thread, candidate lockset and report flag) is packed 
+ * in a single <code>long</code> value held by a {@link ShadowMap}.
+ * Locks are identified by objects rather than by {@link org.cooperari.feature.monitor.Monitor} ids, 
+ * since monitors are disposed of when no longer referenced.
+ * The yield point of the last access to each location is kept in a separate 
+ * {@link ShadowMap}, such that races can be aggregated by pairs of yield points.
+ * </p>
+ * 
+ * <p>
+ * Reference: S. Savage et al., "Eraser: a dynamic data race detector for multithreaded programs", ACM TOCS 15(4), 1997.
+ * </p>
+ * 
+ * @see CRaceDetection.Mode#LOCKSET
+ * @since 0.5
+ */
+final class LocksetRaceDetector extends RaceDetector {
+
+  /**
+   * Mode for locations accessed by a single thread.
+   */
+  private static final long EXCLUSIVE = 1L << 48;
+
+  /**
+   * Mode for locations read by several threads.
+   */
+  private static final long SHARED = 2L << 48;
+
+  /**
+   * Mode for locations written while shared.
+   */
+  private static final long SHARED_MODIFIED = 3L << 48;
+
+  /**
+   * Mask for location mode.
+   */
+  private static final long MODE_MASK = 3L << 48;
+
+  /**
+   * Flag for locations for which a race was reported.
+   */
+  private static final long REPORTED = 1L << 50;
+
+  /**
+   * Index of the empty lockset.
+   */
+  private static final int EMPTY = 0;
+
+  /**
+   * State per data location.
+   */
+  private final ShadowMap _shadow = new ShadowMap();
+
+  /**
+   * Yield point id of the last access per data location, shifted by one (<code>0</code> means none).
+   */
+  private final ShadowMap _sites = new ShadowMap();
+
+  /**
+   * Lockset currently held per thread, indexed by thread id.
+   */
+  private int[] _threadLocksets = new int[16];
+
+  /**
+   * Lock ids.
+   */
+  private final IdentityHashMap<Object, Integer> _lockIds = new IdentityHashMap<>();
+
+  /**
+   * Interned locksets, indexed by lockset index.
+   */
+  private final ArrayList<Lockset> _locksets = new ArrayList<>();
+
+  /**
+   * Lockset index per interned lockset.
+   */
+  private final HashMap<Lockset, Integer> _locksetIndex = new HashMap<>();
+
+  /**
+   * Constructor.
+   * @param config Configuration.
+   */
+  LocksetRaceDetector(CRaceDetection config) {
+    super(config);
+    intern(new int[0]);
+  }
+
+  @Override
+  public void startTestTrial() {
+    _shadow.clear();
+    _sites.clear();
+    Arrays.fill(_threadLocksets, EMPTY);
+    _lockIds.clear();
+    _locksets.clear();
+    _locksetIndex.clear();
+    intern(new int[0]);
+  }
+
+  @Override
+  public void beginRead(Object o, int key) {
+    access(o, key, false);
+  }
+
+  @Override
+  public void endRead(Object o, int key) {
+    
+  }
+
+  @Override
+  public void beginWrite(Object o, int key) {
+    access(o, key, true);
+  }
+
+  @Override
+  public void endWrite(Object o, int key) {
+    
+  }
+
+  @Override
+  public void onAcquire(CThread t, Object o) {
+    int tid = t.getCID();
+    int[] held = _locksets.get(lockset(tid)).locks();
+    int lock = lockId(o);
+    if (Arrays.binarySearch(held, lock) < 0) {
+      int[] locks = Arrays.copyOf(held, held.length + 1);
+      locks[held.length] = lock;
+      Arrays.sort(locks);
+      _threadLocksets[tid] = intern(locks);
+    }
+  }
+
+  @Override
+  public void onRelease(CThread t, Object o) {
+    int tid = t.getCID();
+    int[] held = _locksets.get(lockset(tid)).locks();
+    int pos = Arrays.binarySearch(held, lockId(o));
+    if (pos >= 0) {
+      int[] locks = new int[held.length - 1];
+      System.arraycopy(held, 0, locks, 0, pos);
+      System.arraycopy(held, pos + 1, locks, pos, locks.length - pos);
+      _threadLocksets[tid] = intern(locks);
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private void access(Object o, int key, boolean write) {
+    CThread t = (CThread) Thread.currentThread();
+    int tid = t.getCID();
+    int siteSlot = _sites.findOrInsert(o, key);
+    int otherSite = (int) _sites.get(siteSlot) - 1;
+    _sites.set(siteSlot, currentSite() + 1);
+    int slot = _shadow.findOrInsert(o, key);
+    long state = _shadow.get(slot);
+    long mode = state & MODE_MASK;
+    int lockset;
+    if (mode == 0L) {
+      _shadow.set(slot, EXCLUSIVE | ((long) tid << 32));
+      return;
+    } 
+    if (mode == EXCLUSIVE) {
+      if (((int) (state >>> 32) & 0xFFFF) == tid) {
+        return;
+      }
+      mode = write ? SHARED_MODIFIED : SHARED;
+      lockset = lockset(tid);
+    } else {
+      lockset = intersect((int) state, lockset(tid));
+      if (write) {
+        mode = SHARED_MODIFIED;
+      }
+    }
+    boolean race = mode == SHARED_MODIFIED && lockset == EMPTY && (state & REPORTED) == 0;
+    _shadow.set(slot, mode | (state & REPORTED) | (race ? REPORTED : 0L) | (lockset & 0xFFFFFFFFL));
+    assert CWorkspace.debug("LS access | %s %d %s", describe(o, key), tid, _locksets.get(lockset));
+    if (race) {
+      recordRace(o, key, otherSite);
+      reportRace(o, key);
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private int lockset(int tid) {
+    if (tid >= _threadLocksets.length) {
+      _threadLocksets = Arrays.copyOf(_threadLocksets, Math.max(tid + 1, 2 * _threadLocksets.length));
+    }
+    return _threadLocksets[tid];
+  }
+
+  @SuppressWarnings("javadoc")
+  private int lockId(Object o) {
+    Integer id = _lockIds.get(o);
+    if (id == null) {
+      id = _lockIds.size();
+      _lockIds.put(o, id);
+    }
+    return id;
+  }
+
+  /**
+   * Intersect two locksets. 
+   * No allocation takes place unless the result is a new proper subset of the first lockset.
+   * @param a Index of first lockset.
+   * @param b Index of second lockset.
+   * @return Index of the intersection.
+   */
+  private int intersect(int a, int b) {
+    if (a == b || a == EMPTY) {
+      return a;
+    }
+    if (b == EMPTY) {
+      return EMPTY;
+    }
+    int[] x = _locksets.get(a).locks();
+    int[] y = _locksets.get(b).locks();
+    int common = 0;
+    for (int i = 0, j = 0; i < x.length && j < y.length; ) {
+      if (x[i] == y[j]) {
+        common++; i++; j++;
+      } else if (x[i] < y[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    if (common == x.length) {
+      return a;
+    }
+    if (common == y.length) {
+      return b;
+    }
+    int[] z = new int[common];
+    for (int i = 0, j = 0, k = 0; k < common; ) {
+      if (x[i] == y[j]) {
+        z[k++] = x[i]; i++; j++;
+      } else if (x[i] < y[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return intern(z);
+  }
+
+  @SuppressWarnings("javadoc")
+  private int intern(int[] locks) {
+    Lockset ls = new Lockset(locks);
+    Integer index = _locksetIndex.get(ls);
+    if (index == null) {
+      index = _locksets.size();
+      _locksets.add(ls);
+      _locksetIndex.put(ls, index);
+    }
+    return index;
+  }
+
+  /**
+   * Lockset representation: a sorted array of lock ids.
+   */
+  private static final class Lockset {
+    /**
+     * Lock ids.
+     */
+    private final int[] _locks;
+
+    /**
+     * Constructor.
+     * @param locks Sorted array of lock ids.
+     */
+    Lockset(int[] locks) {
+      _locks = locks;
+    }
+
+    /**
+     * Get lock ids.
+     * @return Sorted array of lock ids.
+     */
+    int[] locks() {
+      return _locks;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Lockset && Arrays.equals(_locks, ((Lockset) o)._locks);
+    }
+
+    @Override
+    public int hashCode() {
+      return Arrays.hashCode(_locks);
+    }
+
+    @Override
+    public String toString() {
+      return Arrays.toString(_locks);
+    }
+  }
+}
@@ -0,0 +1,315 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.feature.data;
+
+import java.util.IdentityHashMap;
+
+import org.cooperari.config.CRaceDetection;
+import org.cooperari.core.CWorkspace;
+import org.cooperari.errors.CInternalError;
+
+/**
+ * Race detector for overlapping accesses.
+ * 
+ * <p>
+ * A race is detected when a data location is being written by a thread
+ * while other threads are reading or writing the same location within a step.
+ * The status of each location being accessed is kept in a {@link ShadowMap}
+ * as a <code>long</code> value packing the number of readers, the number of writers, 
+ * a race flag, and the yield point of the most recent access, 
+ * hence access bookkeeping requires no object allocation.
+ * </p>
+ * 
+ * <p>
+ * Accesses to ranges of array elements are kept per array in an {@link ArrayRanges} 
+ * structure, such that a bulk array operation costs a single range update regardless 
+ * of the number of elements. Element and range accesses to the same array are checked 
+ * against each other.
+ * </p>
+ * 
+ * @see CRaceDetection.Mode#OVERLAP
+ * @since 0.5
+ */
+final class OverlapRaceDetector extends RaceDetector {
+  /**
+   * Status increment for a reader.
+   */
+  private static final long READER = 1L;
+
+  /**
+   * Status increment for a writer.
+   */
+  private static final long WRITER = 1L << 16;
+
+  /**
+   * Status mask for reader and writer counts.
+   */
+  private static final long COUNT_MASK = 0xFFFFFFFFL;
+
+  /**
+   * Status flag for a race condition.
+   */
+  private static final long RACE = 1L << 32;
+
+  /**
+   * Bit offset of the yield point id (plus one) for the most recent access.
+   */
+  private static final int SITE_SHIFT = 33;
+
+  /**
+   * Status mask for the yield point id of the most recent access.
+   */
+  private static final long SITE_MASK = -1L << SITE_SHIFT;
+
+  /**
+   * Status of data locations being accessed.
+   */
+  private final ShadowMap _monitoring = new ShadowMap();
+
+  /**
+   * Range value flag for a write.
+   */
+  private static final long RANGE_WRITE = 1L;
+
+  /**
+   * Ranges of array elements being accessed, per array.
+   * Range values pack a write flag, the race flag and the yield point of the access.
+   */
+  private final IdentityHashMap<Object, ArrayRanges> _ranges = new IdentityHashMap<>();
+
+  /**
+   * Constructor.
+   * @param config Configuration.
+   */
+  OverlapRaceDetector(CRaceDetection config) {
+    super(config);
+  }
+
+  @Override
+  public void startTestTrial() {
+    _monitoring.clear();
+    _ranges.clear();
+  }
+
+  @Override
+  public void beginRead(Object o, int key) {
+    int slot = _monitoring.findOrInsert(o, key);
+    long status = _monitoring.get(slot);
+    if (writers(status) > 0) {
+      status |= RACE;
+      recordRace(o, key, site(status));
+    }
+    if (!_ranges.isEmpty() && checkRanges(o, key, key + 1, false)) {
+      status |= RACE;
+    }
+    status += READER;
+    _monitoring.set(slot, withSite(status));
+    assert CWorkspace.debug("begin read | %s %s", describe(o, key), toString(status));
+  }
+
+  @Override
+  public void endRead(Object o, int key) {
+    int slot = _monitoring.find(o, key);
+    if (slot < 0 || readers(_monitoring.get(slot)) == 0) {
+      throw new CInternalError();
+    }
+    endAccess(o, key, slot, _monitoring.get(slot) - READER);
+  }
+
+  @Override
+  public void beginWrite(Object o, int key) {
+    int slot = _monitoring.findOrInsert(o, key);
+    long status = _monitoring.get(slot);
+    if ((status & COUNT_MASK) != 0) {
+      status |= RACE;
+      recordRace(o, key, site(status));
+    }
+    if (!_ranges.isEmpty() && checkRanges(o, key, key + 1, true)) {
+      status |= RACE;
+    }
+    status += WRITER;
+    _monitoring.set(slot, withSite(status));
+    assert CWorkspace.debug("begin write | %s %s", describe(o, key), toString(status));
+  }
+
+  @Override
+  public void endWrite(Object o, int key) {
+    int slot = _monitoring.find(o, key);
+    if (slot < 0 || writers(_monitoring.get(slot)) == 0) {
+      throw new CInternalError();
+    }
+    endAccess(o, key, slot, _monitoring.get(slot) - WRITER);
+  }
+
+  @Override
+  public void beginReadRange(Object array, int from, int to) {
+    beginRange(array, from, to, false);
+  }
+
+  @Override
+  public void endReadRange(Object array, int from, int to) {
+    endRange(array, from, to, false);
+  }
+
+  @Override
+  public void beginWriteRange(Object array, int from, int to) {
+    beginRange(array, from, to, true);
+  }
+
+  @Override
+  public void endWriteRange(Object array, int from, int to) {
+    endRange(array, from, to, true);
+  }
+
+  @SuppressWarnings("javadoc")
+  private void beginRange(Object array, int from, int to, boolean write) {
+    boolean race = checkRanges(array, from, to, write);
+    if (_monitoring.size() > 0) {
+      race |= checkElements(array, from, to, write);
+    }
+    ArrayRanges ranges = _ranges.get(array);
+    if (ranges == null) {
+      ranges = new ArrayRanges();
+      _ranges.put(array, ranges);
+    }
+    ranges.add(from, to, withSite((write ? RANGE_WRITE : 0L) | (race ? RACE : 0L)));
+    assert CWorkspace.debug("begin range | %s [%d,%d) %s %s", describe(array, from), from, to, write, race);
+  }
+
+  @SuppressWarnings("javadoc")
+  private void endRange(Object array, int from, int to, boolean write) {
+    ArrayRanges ranges = _ranges.get(array);
+    int i = ranges != null ? ranges.find(from, to, RANGE_WRITE, write ? RANGE_WRITE : 0L) : -1;
+    if (i < 0) {
+      throw new CInternalError();
+    }
+    boolean race = (ranges.get(i) & RACE) != 0;
+    ranges.remove(i);
+    if (ranges.size() == 0) {
+      _ranges.remove(array);
+    }
+    assert CWorkspace.debug("end range | %s [%d,%d) %s %s", describe(array, from), from, to, write, race);
+    if (race) {
+      reportRace(array, from);
+    }
+  }
+
+  /**
+   * Check an access against the ranges of an array being accessed, 
+   * flagging conflicting ranges.
+   * @param o Object.
+   * @param from Lower bound of the access (inclusive).
+   * @param to Upper bound of the access (exclusive).
+   * @param write Indicates a write.
+   * @return <code>true</code> if the access conflicts with some range.
+   */
+  private boolean checkRanges(Object o, int from, int to, boolean write) {
+    ArrayRanges ranges = _ranges.get(o);
+    if (ranges == null) {
+      return false;
+    }
+    boolean race = false;
+    for (int i = 0; i < ranges.size() && ranges.from(i) < to; i++) {
+      long value = ranges.get(i);
+      if (ranges.to(i) > from && (write || (value & RANGE_WRITE) != 0)) {
+        ranges.set(i, value | RACE);
+        recordRace(o, Math.max(from, ranges.from(i)), site(value));
+        race = true;
+      }
+    }
+    return race;
+  }
+
+  /**
+   * Check a range access against the elements of an array being accessed, 
+   * flagging conflicting elements.
+   * Elements are looked up individually for small ranges, otherwise all 
+   * locations being accessed are scanned.
+   * @param array Array.
+   * @param from Lower bound of the range (inclusive).
+   * @param to Upper bound of the range (exclusive).
+   * @param write Indicates a write.
+   * @return <code>true</code> if the range conflicts with some element.
+   */
+  private boolean checkElements(Object array, int from, int to, boolean write) {
+    boolean race = false;
+    if (to - from <= _monitoring.capacity()) {
+      for (int i = from; i < to; i++) {
+        int slot = _monitoring.find(array, i);
+        if (slot >= 0) {
+          race |= checkElement(array, slot, write);
+        }
+      }
+    } else {
+      for (int slot = 0; slot < _monitoring.capacity(); slot++) {
+        if (_monitoring.object(slot) == array && _monitoring.key(slot) >= from && _monitoring.key(slot) < to) {
+          race |= checkElement(array, slot, write);
+        }
+      }
+    }
+    return race;
+  }
+
+  @SuppressWarnings("javadoc")
+  private boolean checkElement(Object array, int slot, boolean write) {
+    long status = _monitoring.get(slot);
+    if (write || writers(status) > 0) {
+      _monitoring.set(slot, status | RACE);
+      recordRace(array, _monitoring.key(slot), site(status));
+      return true;
+    }
+    return false;
+  }
+
+  @SuppressWarnings("javadoc")
+  private void endAccess(Object o, int key, int slot, long status) {
+    if ((status & COUNT_MASK) == 0) {
+      _monitoring.remove(slot);
+    } else {
+      _monitoring.set(slot, status);
+    }
+    assert CWorkspace.debug("end access | %s %s", describe(o, key), toString(status));
+    if ((status & RACE) != 0) {
+      reportRace(o, key);
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private static int site(long status) {
+    return (int) (status >>> SITE_SHIFT) - 1;
+  }
+
+  @SuppressWarnings("javadoc")
+  private static long withSite(long status) {
+    return (status & ~SITE_MASK) | ((long) (currentSite() + 1) << SITE_SHIFT);
+  }
+
+  @SuppressWarnings("javadoc")
+  private static int readers(long status) {
+    return (int) (status & 0xFFFF);
+  }
+
+  @SuppressWarnings("javadoc")
+  private static int writers(long status) {
+    return (int) ((status >>> 16) & 0xFFFF);
+  }
+
+  @SuppressWarnings("javadoc")
+  private static String toString(long status) {
+    return String.format("[%s,%d,%d]", (status & RACE) != 0, readers(status), writers(status));
+  }
+}
@@ -17,27 +17,34 @@
 package org.cooperari.feature.data;
 
 
-import java.util.HashMap;
-
 import org.cooperari.config.CRaceDetection;
+import org.cooperari.core.CRaceLog;
 import org.cooperari.core.CRuntime;
 import org.cooperari.core.CThread;
 import org.cooperari.core.CTrace;
 import org.cooperari.core.CWorkspace;
-import org.cooperari.errors.CInternalError;
+import org.cooperari.core.jfr.CFlightRecorder;
+import org.cooperari.core.scheduling.CYieldPoint;
 import org.cooperari.errors.CRaceError;
 
 
 /**
  * Race detector.
+ * 
+ * <p>
+ * Data accesses are signaled through {@link #beginRead(Object, int)}, {@link #endRead(Object, int)},
+ * {@link #beginWrite(Object, int)} and {@link #endWrite(Object, int)}, where a data location is 
+ * identified by an object and a key, the latter being a field id or an array index.
+ * Accesses to ranges of array elements are signaled through the <code>*Range</code> methods.
+ * Accesses to volatile fields are not data accesses, and are signaled as synchronization events.
+ * Synchronization events are signaled through the <code>on*</code> methods, which
+ * do nothing by default. The detection strategy is selected by {@link CRaceDetection#mode()}
+ * (see {@link #create(CRaceDetection)}).
+ * </p>
  *
  * @since 0.2
  */
-public class RaceDetector {
-  /**
-   * Internal state.
-   */
-  private final HashMap<Data, Status> _monitoring = new HashMap<>();
+public abstract class RaceDetector {
 
   /**
    * Exception throwing flag.
@@ -48,291 +55,284 @@ public class RaceDetector {
    * Constructor.
    * @param config Configuration.
    */
-  public RaceDetector(CRaceDetection config) {
+  protected RaceDetector(CRaceDetection config) {
     _throwRaceErrors = config.throwErrors(); 
-    assert CWorkspace.debug("RD initialized | throwErrors=%s", _throwRaceErrors);
+    assert CWorkspace.debug("RD initialized | mode=%s throwErrors=%s", config.mode(), _throwRaceErrors);
+  }
+
+  /**
+   * Create a race detector.
+   * @param config Configuration.
+   * @return A race detector for the mode specified by the configuration.
+   * @since 0.5
+   */
+  public static RaceDetector create(CRaceDetection config) {
+    switch (config.mode()) {
+      case HB:
+        return new HBRaceDetector(config);
+      case LOCKSET:
+        return new LocksetRaceDetector(config);
+      default:
+        return new OverlapRaceDetector(config);
+    }
   }
 
   /**
    * Signal beginning of read access.
    * @param o Object.
-   * @param key Data key.
+   * @param key Data key, a field id or an array index.
    */
-  public void beginRead(Object o, Object key) {
-    beginRead(new Data(o, key));
-  }
+  public abstract void beginRead(Object o, int key);
 
   /**
    * Signal end of read access.
    * @param o Object.
-   * @param key Data key.
+   * @param key Data key, a field id or an array index.
    */
-  public void endRead(Object o, Object key) {
-    endRead(new Data(o, key));
-  }
+  public abstract void endRead(Object o, int key);
 
   /**
    * Signal beginning of write access.
    * @param o Object.
-   * @param key Data key.
+   * @param key Data key, a field id or an array index.
    */
-  public void beginWrite(Object o, Object key) {
-    beginWrite(new Data(o,key));
-  }
+  public abstract void beginWrite(Object o, int key);
 
   /**
    * Signal end of write access to object field.
    * @param o Object.
-   * @param key Data key.
+   * @param key Data key, a field id or an array index.
    */
-  public void endWrite(Object o, Object key) {
-    endWrite(new Data(o,key));
-  }
-
-
-
-  @SuppressWarnings("javadoc")
-  private void beginRead(Data d) {
-    Status status = _monitoring.get(d);
-    if (status == null) {
-      status = new Status();
-      _monitoring.put(d, status);
-    } 
-    status.incrementReaders();
-    assert CWorkspace.debug("begin read | %s %s", d, status);
-  }
+  public abstract void endWrite(Object o, int key);
 
-  @SuppressWarnings("javadoc")
-  private void endRead(Data d) {
-    Status status = _monitoring.get(d);
-    if (status == null || status.readers() == 0) {
-      throw new CInternalError();
-    }
-
-    if (status.decrementReaders() == 0) {
-      _monitoring.remove(d);
-    } 
-    assert CWorkspace.debug("end read | %s %s", d, status);
-
-    if (status.raceCondition()){
-      reportRace(d);
+  /**
+   * Signal beginning of read access to a range of array elements.
+   * The base implementation signals a read for each element in the range.
+   * @param array Array.
+   * @param from Lower bound of the range (inclusive).
+   * @param to Upper bound of the range (exclusive).
+   * @since 0.5
+   */
+  public void beginReadRange(Object array, int from, int to) {
+    for (int i = from; i < to; i++) {
+      beginRead(array, i);
     }
   }
 
- 
-  @SuppressWarnings("javadoc")
-  private void beginWrite(Data d) {
-    Status status = _monitoring.get(d);
-    if (status == null) {
-      status = new Status();
-      _monitoring.put(d, status);
+  /**
+   * Signal end of read access to a range of array elements.
+   * The base implementation signals the end of a read for each element in the range.
+   * @param array Array.
+   * @param from Lower bound of the range (inclusive).
+   * @param to Upper bound of the range (exclusive).
+   * @since 0.5
+   */
+  public void endReadRange(Object array, int from, int to) {
+    for (int i = from; i < to; i++) {
+      endRead(array, i);
     }
-    status.incrementWriters();
-    assert CWorkspace.debug("begin write | %s %s", d, status);
-
   }
 
-  @SuppressWarnings("javadoc")
-  private void endWrite(Data d) {
-    Status status = _monitoring.get(d);
-    if (status == null || status.writers() == 0) {
-      throw new CInternalError();
-    }
-    if (status.decrementWriters() == 0) {
-      _monitoring.remove(d);
-    } 
-    assert CWorkspace.debug("end write | %s %s", d, status);
-    if (status.raceCondition()){
-      reportRace(d);
+  /**
+   * Signal beginning of write access to a range of array elements.
+   * The base implementation signals a write for each element in the range.
+   * @param array Array.
+   * @param from Lower bound of the range (inclusive).
+   * @param to Upper bound of the range (exclusive).
+   * @since 0.5
+   */
+  public void beginWriteRange(Object array, int from, int to) {
+    for (int i = from; i < to; i++) {
+      beginWrite(array, i);
     }
   }
 
-  @SuppressWarnings("javadoc")
-  private void reportRace(Data d) {
-    CThread t = (CThread) Thread.currentThread();
-    CTrace trace = CRuntime.getRuntime().get(CTrace.class);
-    trace.record(t, CTrace.EventType.RACE);
-    if (_throwRaceErrors) {
-      String msg = 
-          String.format
-          ("Race: %s at %s:%d over %s.%s", 
-              t.getName(), 
-              t.getLocation().getYieldPoint().getSourceFile(),
-              t.getLocation().getYieldPoint().getSourceLine(),
-              d._object.getClass().getCanonicalName(), 
-              d._key);
-      throw new CRaceError(msg);
+  /**
+   * Signal end of write access to a range of array elements.
+   * The base implementation signals the end of a write for each element in the range.
+   * @param array Array.
+   * @param from Lower bound of the range (inclusive).
+   * @param to Upper bound of the range (exclusive).
+   * @since 0.5
+   */
+  public void endWriteRange(Object array, int from, int to) {
+    for (int i = from; i < to; i++) {
+      endWrite(array, i);
     }
   }
 
   /**
-   * Field representation, and (object, field name) name pair.
+   * Signal the start of a test trial.
+   * The base implementation does nothing.
+   * @since 0.5
    */
-  private static class Data {
-    /**
-     * Object.
-     */
-    private Object _object;
-    /**
-     * Key (field name or array index).
-     */
-    private Object _key;
-    /**
-     * Cached hash code.
-     */
-    private int _hash;
-    /**
-     * Constructor.
-     * @param object Object.
-     * @param key Data access key.
-     */
-    public Data(Object object, Object key) {
-      _object = object;
-      _key = key;
-      _hash = System.identityHashCode(_object) ^ key.hashCode();
-    }
-
-    /*
-     * (non-Javadoc)
-     * @see java.lang.Object#toString()
-     */
-    @Override
-    public String toString() {
-      return new StringBuilder()
-      .append(_object.getClass())
-      .append('(')
-      .append(_hash)
-      .append(')')
-      .append(',')
-      .append(_key)
-      .toString();
+  public void startTestTrial() {
+    
+  }
 
-    }
-    /*
-     * (non-Javadoc)
-     * @see java.lang.Object#equals(java.lang.Object)
-     */
-    @Override
-    public boolean equals(Object o) {
-      if (!(o instanceof Data))
-        return false;
+  /**
+   * Signal that a thread acquired the monitor of an object.
+   * The base implementation does nothing.
+   * @param t Thread.
+   * @param o Object.
+   * @since 0.5
+   */
+  public void onAcquire(CThread t, Object o) {
+    
+  }
 
-      Data d = (Data) o;
+  /**
+   * Signal that a thread is about to release the monitor of an object.
+   * The base implementation does nothing.
+   * @param t Thread.
+   * @param o Object.
+   * @since 0.5
+   */
+  public void onRelease(CThread t, Object o) {
+    
+  }
 
-      return  _object == d._object && _key.equals(d._key);
-    }
+  /**
+   * Signal a synchronizing access to an object, e.g., an operation over an atomic object.
+   * The base implementation does nothing.
+   * @param t Thread.
+   * @param o Object.
+   * @since 0.5
+   */
+  public void onSynchronizingAccess(CThread t, Object o) {
+    
+  }
 
-    /*
-     * (non-Javadoc)
-     * @see java.lang.Object#hashCode()
-     */
-    @Override
-    public int hashCode() {
-      return _hash;
-    }
+  /**
+   * Signal a read of a volatile field, which is not tracked as a data access.
+   * The base implementation does nothing.
+   * @param t Thread.
+   * @param o Object.
+   * @param key Field id.
+   * @since 0.5
+   */
+  public void onVolatileRead(CThread t, Object o, int key) {
+    
   }
+
   /**
-   * Status information per field.
+   * Signal a write to a volatile field, which is not tracked as a data access.
+   * The base implementation does nothing.
+   * @param t Thread.
+   * @param o Object.
+   * @param key Field id.
+   * @since 0.5
    */
-  private static class Status {
-    /**
-     * Number of readers.
-     */
-    private int _readers;
-    /**
-     * Number of writers.
-     */
-    private int _writers;
-    /**
-     * Race flag.
-     */
-    private boolean _race;
+  public void onVolatileWrite(CThread t, Object o, int key) {
+    
+  }
 
-    /**
-     * Constructor.
-     */
-    public Status() {
-      _readers = 0;
-      _writers = 0;
-      _race = false;
-    }
-    /*
-     * (non-Javadoc)
-     * @see java.lang.Object#toString()
-     */
-    @Override
-    public String toString() {
-      return new StringBuilder()
-      .append("[")
-      .append(_race)
-      .append(',')
-      .append(_readers)
-      .append(',')
-      .append(_writers)
-      .append(']')
-      .toString();
-    }
-    /**
-     * Increment number of writers.
-     */
-    public void incrementWriters() {
-      if (_writers != 0 || _readers != 0) {
-        _race = true;
-      }
-      _writers++;
-    }
+  /**
+   * Signal that a thread started another thread.
+   * The base implementation does nothing.
+   * @param t Thread.
+   * @param child Thread that was started.
+   * @since 0.5
+   */
+  public void onThreadStart(CThread t, CThread child) {
+    
+  }
 
-    /**
-     * Increment number of writers.
-     */
-    public void incrementReaders() {
-      _readers++;
-      if (_writers > 0) {
-        _race = true;
-      }
-    }
+  /**
+   * Signal that a thread joined another (terminated) thread.
+   * The base implementation does nothing.
+   * @param t Thread.
+   * @param joined Thread that was joined.
+   * @since 0.5
+   */
+  public void onThreadJoin(CThread t, CThread joined) {
+    
+  }
 
-    /**
-     * Decrement number of readers.
-     * @return Updated reference count (readers + writers).
-     */
-    public int decrementReaders() {
-      _readers --;
-      return _readers + _writers;
+  /**
+   * Record a race for the current thread in the race log of the runtime, if any.
+   * 
+   * <p>
+   * This only serves the purpose of aggregating races across trials (see {@link CRaceLog}),
+   * and should be complemented by a call to {@link #reportRace(Object, int)}.
+   * </p>
+   * 
+   * @param o Object.
+   * @param key Data key.
+   * @param otherSite Id of the yield point for the conflicting access, or <code>-1</code> if unknown.
+   * @since 0.5
+   */
+  protected final void recordRace(Object o, int key, int otherSite) {
+    CRaceLog log = CRuntime.getRuntime().get(CRaceLog.class);
+    if (log != null) {
+      log.record(location(o, key), currentSite(), otherSite);
     }
+  }
 
-    /**
-     * Decrement number of readers.
-     * @return Updated reference count (readers + writers).
-     */
-    public int decrementWriters() {
-      _writers --;
-      return _readers + _writers;
-    }
+  /**
+   * Get the id of the yield point being executed by the current thread.
+   * @return A yield point id.
+   * @since 0.5
+   */
+  protected static int currentSite() {
+    return currentYieldPoint((CThread) Thread.currentThread()).getId();
+  }
 
-    /**
-     * Get number of readers.
-     * @return Reader count.
-     */
-    public int readers() {
-      return _readers;
-    }
+  /**
+   * Get the yield point being executed by a thread.
+   * @param t Thread.
+   * @return The yield point intercepted last by the thread, which may 
+   *         differ from the yield point of its location in solo steps.
+   */
+  private static CYieldPoint currentYieldPoint(CThread t) {
+    return t.getYieldPoint() != null ? t.getYieldPoint() : t.getLocation().getYieldPoint();
+  }
 
-    /**
-     * Get number of writers.
-     * @return Writer count.
-     */
-    public int writers() {
-      return _writers;
+  /**
+   * Report a race for the current thread.
+   * @param o Object.
+   * @param key Data key.
+   * @throws CRaceError If the detector is configured to throw errors.
+   */
+  protected final void reportRace(Object o, int key) {
+    CThread t = (CThread) Thread.currentThread();
+    CTrace trace = CRuntime.getRuntime().get(CTrace.class);
+    trace.record(t, CTrace.EventType.RACE);
+    CYieldPoint yp = currentYieldPoint(t);
+    CFlightRecorder.race(t.getCID(), yp, describe(o, key));
+    if (_throwRaceErrors) {
+      String msg = 
+          String.format
+          ("Race: %s at %s:%d over %s", 
+              t.getName(), 
+              yp.getSourceFile(),
+              yp.getSourceLine(),
+              describe(o, key));
+      throw new CRaceError(msg);
     }
+  }
 
-    /**
-     * Check if race condition occurred.
-     * @return Race condition flag.
-     */
-    public boolean raceCondition() {
-      return _race;
-    }
+  /**
+   * Get a data location identifier for race aggregation purposes.
+   * @param o Object.
+   * @param key Data key.
+   * @return The same as {@link #describe(Object, int)}, except that array indices are omitted.
+   * @since 0.5
+   */
+  static String location(Object o, int key) {
+    return o.getClass().isArray() ? 
+        o.getClass().getCanonicalName() : FieldIds.INSTANCE.name(key);
+  }
 
+  /**
+   * Get a description of a data location.
+   * @param o Object.
+   * @param key Data key.
+   * @return A string of the form <code>class.field</code> (with the declaring class of the field)
+   * or <code>class.index</code> (for arrays).
+   */
+  static String describe(Object o, int key) {
+    return o.getClass().isArray() ? 
+        o.getClass().getCanonicalName() + '.' + key : FieldIds.INSTANCE.name(key);
   }
 }
@@ -30,9 +30,9 @@ public final class Read extends DataOperation {
   /**
    * Constructs the operation.
    * @param object Object.
-   * @param key Data key.
+   * @param key Data key, a field id or an array index.
    */
-  private Read(Object object, Object key) {
+  private Read(Object object, int key) {
     super(object, key);
     if (object != null) {
       RaceDetector rd = getRuntime().get(RaceDetector.class);
@@ -42,13 +42,22 @@ public final class Read extends DataOperation {
     }
   }
 
+  /**
+   * Test if the operation is a plain data access.
+   * @return <code>true</code>
+   */
+  @Override
+  public boolean isDataAccess() {
+    return true;
+  }
+
   /**
    * Yield on data read.
    * @param thisThread Current thread.
    * @param object Object.
-   * @param key Data key.
+   * @param key Data key, a field id or an array index.
    */
-  public static void before(CThread thisThread, Object object, Object key) {
+  public static void before(CThread thisThread, Object object, int key) {
     thisThread.cYield(new Read(object, key));
   }
   
@@ -56,9 +65,9 @@ public final class Read extends DataOperation {
    * Execute actions after data read without yielding.
    * @param thisThread Current thread.
    * @param object Object.
-   * @param key Data key.
+   * @param key Data key, a field id or an array index.
    */
-  public static void after(CThread thisThread, Object object, Object key) {
+  public static void after(CThread thisThread, Object object, int key) {
     RaceDetector rd = getRuntime().get(RaceDetector.class);
     if (rd != null) {
       rd.endRead(object, key);
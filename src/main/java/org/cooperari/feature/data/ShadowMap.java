@@ -0,0 +1,244 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.feature.data;
+
+import java.util.Arrays;
+
+/**
+ * Shadow state for data locations, held in an open-addressing hash table.
+ * 
+ * <p>
+ * A data location is identified by an object, compared by identity, and an <code>int</code> key 
+ * (a field id or an array index). Each location has an associated <code>long</code> value, 
+ * whose meaning is up to the client. Locations are accessed through slot indices, 
+ * so that a value may be read and updated with a single lookup. 
+ * No objects are allocated, except when the table grows.
+ * </p>
+ * 
+ * <p>
+ * The table uses linear probing, and entries are removed by backward shifting, 
+ * without tombstones. Slot indices are only valid until the next insertion or removal.
+ * </p>
+ * 
+ * @since 0.5
+ */
+final class ShadowMap {
+
+  /**
+   * Initial capacity (must be a power of 2).
+   */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * Objects per slot (<code>null</code> for empty slots).
+   */
+  private Object[] _objects = new Object[INITIAL_CAPACITY];
+
+  /**
+   * Keys per slot.
+   */
+  private int[] _keys = new int[INITIAL_CAPACITY];
+
+  /**
+   * Hash codes per slot.
+   */
+  private int[] _hashes = new int[INITIAL_CAPACITY];
+
+  /**
+   * Values per slot.
+   */
+  private long[] _values = new long[INITIAL_CAPACITY];
+
+  /**
+   * Number of entries.
+   */
+  private int _size = 0;
+
+  /**
+   * Constructor.
+   */
+  ShadowMap() { }
+
+  /**
+   * Get number of entries.
+   * @return The number of entries in the table.
+   */
+  int size() {
+    return _size;
+  }
+
+  /**
+   * Get table capacity.
+   * Slots range from <code>0</code> to <code>capacity() - 1</code>, and 
+   * {@link #object(int)} is <code>null</code> for empty slots.
+   * @return The number of slots in the table.
+   */
+  int capacity() {
+    return _objects.length;
+  }
+
+  /**
+   * Find the slot for a location.
+   * @param o Object.
+   * @param key Key.
+   * @return The slot index, or a negative value if the location is not in the table.
+   */
+  int find(Object o, int key) {
+    int h = hash(o, key);
+    int mask = _objects.length - 1;
+    for (int i = h & mask; ; i = (i + 1) & mask) {
+      Object x = _objects[i];
+      if (x == null) {
+        return -1;
+      }
+      if (x == o && _keys[i] == key) {
+        return i;
+      }
+    }
+  }
+
+  /**
+   * Find the slot for a location, inserting the location with a value of <code>0</code> if necessary.
+   * @param o Object.
+   * @param key Key.
+   * @return The slot index.
+   */
+  int findOrInsert(Object o, int key) {
+    int h = hash(o, key);
+    int mask = _objects.length - 1;
+    int i = h & mask;
+    for (Object x = _objects[i]; x != null; x = _objects[i]) {
+      if (x == o && _keys[i] == key) {
+        return i;
+      }
+      i = (i + 1) & mask;
+    }
+    if (2 * (_size + 1) > _objects.length) {
+      grow();
+      return findOrInsert(o, key);
+    }
+    _objects[i] = o;
+    _keys[i] = key;
+    _hashes[i] = h;
+    _values[i] = 0L;
+    _size++;
+    return i;
+  }
+
+  /**
+   * Get object for a slot.
+   * @param slot Slot index.
+   * @return The object at stake, or <code>null</code> if the slot is empty.
+   */
+  Object object(int slot) {
+    return _objects[slot];
+  }
+
+  /**
+   * Get key for a slot.
+   * @param slot Slot index.
+   * @return The key at stake.
+   */
+  int key(int slot) {
+    return _keys[slot];
+  }
+
+  /**
+   * Get value for a slot.
+   * @param slot Slot index.
+   * @return The value.
+   */
+  long get(int slot) {
+    return _values[slot];
+  }
+
+  /**
+   * Set value for a slot.
+   * @param slot Slot index.
+   * @param value The new value.
+   */
+  void set(int slot, long value) {
+    _values[slot] = value;
+  }
+
+  /**
+   * Remove the entry at a slot.
+   * @param slot Slot index.
+   */
+  void remove(int slot) {
+    int mask = _objects.length - 1;
+    int i = slot;
+    for (int j = (i + 1) & mask; _objects[j] != null; j = (j + 1) & mask) {
+      int h = _hashes[j] & mask;
+      // Move entry at j to i unless its home slot lies cyclically in (i, j].
+      if (i <= j ? (h <= i || h > j) : (h <= i && h > j)) {
+        _objects[i] = _objects[j];
+        _keys[i] = _keys[j];
+        _hashes[i] = _hashes[j];
+        _values[i] = _values[j];
+        i = j;
+      }
+    }
+    _objects[i] = null;
+    _size--;
+  }
+
+  /**
+   * Remove all entries.
+   */
+  void clear() {
+    if (_size > 0) {
+      Arrays.fill(_objects, null);
+      _size = 0;
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private void grow() {
+    Object[] objects = _objects;
+    int[] keys = _keys;
+    int[] hashes = _hashes;
+    long[] values = _values;
+    int n = 2 * objects.length;
+    int mask = n - 1;
+    _objects = new Object[n];
+    _keys = new int[n];
+    _hashes = new int[n];
+    _values = new long[n];
+    for (int j = 0; j < objects.length; j++) {
+      if (objects[j] != null) {
+        int i = hashes[j] & mask;
+        while (_objects[i] != null) {
+          i = (i + 1) & mask;
+        }
+        _objects[i] = objects[j];
+        _keys[i] = keys[j];
+        _hashes[i] = hashes[j];
+        _values[i] = values[j];
+      }
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private static int hash(Object o, int key) {
+    int h = System.identityHashCode(o) * 0x9E3779B9 + key;
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    return h;
+  }
+}
@@ -0,0 +1,86 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+
+package org.cooperari.feature.data;
+
+import static org.cooperari.core.CRuntime.getRuntime;
+
+import org.cooperari.core.CThread;
+
+/**
+ * Volatile field read operation.
+ * 
+ * <p>
+ * Unlike {@link Read}, the access is not tracked for race detection, 
+ * but signaled to the race detector as a synchronization event 
+ * (see {@link RaceDetector#onVolatileRead(CThread, Object, int)}).
+ * </p>
+ * 
+ * @since 0.5
+ */
+public final class VolatileRead extends DataOperation {
+
+  /**
+   * Thread.
+   */
+  private final CThread _thread;
+
+  /**
+   * Object.
+   */
+  private final Object _object;
+
+  /**
+   * Field id.
+   */
+  private final int _key;
+
+  /**
+   * Constructs the operation.
+   * @param thisThread Current thread.
+   * @param object Object.
+   * @param key Field id.
+   */
+  private VolatileRead(CThread thisThread, Object object, int key) {
+    super(object, key);
+    _thread = thisThread;
+    _object = object;
+    _key = key;
+  }
+
+  /**
+   * Execute the operation by signaling the read to the race detector,
+   * right before the read takes place.
+   */
+  @Override
+  public void execute() {
+    RaceDetector rd = getRuntime().get(RaceDetector.class);
+    if (rd != null) {
+      rd.onVolatileRead(_thread, _object, _key);
+    }
+  }
+
+  /**
+   * Yield on volatile field read.
+   * @param thisThread Current thread.
+   * @param object Object.
+   * @param key Field id.
+   */
+  public static void before(CThread thisThread, Object object, int key) {
+    thisThread.cYield(new VolatileRead(thisThread, object, key));
+  }
+}
@@ -0,0 +1,96 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+
+package org.cooperari.feature.data;
+
+import static org.cooperari.core.CRuntime.getRuntime;
+
+import org.cooperari.core.CThread;
+
+/**
+ * Volatile field write operation.
+ * 
+ * <p>
+ * Unlike {@link Write}, the access is not tracked for race detection, 
+ * but signaled to the race detector as a synchronization event 
+ * (see {@link RaceDetector#onVolatileWrite(CThread, Object, int)}).
+ * </p>
+ * 
+ * @since 0.5
+ */
+public final class VolatileWrite extends DataOperation {
+
+  /**
+   * Thread.
+   */
+  private final CThread _thread;
+
+  /**
+   * Object.
+   */
+  private final Object _object;
+
+  /**
+   * Field id.
+   */
+  private final int _key;
+
+  /**
+   * Constructs the operation.
+   * @param thisThread Current thread.
+   * @param object Object.
+   * @param key Field id.
+   */
+  private VolatileWrite(CThread thisThread, Object object, int key) {
+    super(object, key);
+    _thread = thisThread;
+    _object = object;
+    _key = key;
+  }
+
+  /**
+   * Test if the operation is a data write.
+   * @return <code>true</code>
+   */
+  @Override
+  public boolean isWrite() {
+    return true;
+  }
+
+  /**
+   * Execute the operation by signaling the write to the race detector.
+   * This takes place once the thread is scheduled, so that synchronization
+   * events reach the race detector in the order of the actual accesses.
+   */
+  @Override
+  public void execute() {
+    RaceDetector rd = getRuntime().get(RaceDetector.class);
+    if (rd != null) {
+      rd.onVolatileWrite(_thread, _object, _key);
+    }
+  }
+
+  /**
+   * Yield on volatile field write.
+   * @param thisThread Current thread.
+   * @param object Object.
+   * @param key Field id.
+   */
+  public static void before(CThread thisThread, Object object, int key) {
+    thisThread.cYield(new VolatileWrite(thisThread, object, key));
+  }
+}
@@ -29,9 +29,9 @@ public final class Write extends DataOperation {
   /**
    * Constructs the operation.
    * @param object Object.
-   * @param key Data key.
+   * @param key Data key, a field id or an array index.
    */
-  public Write(Object object, Object key) {
+  public Write(Object object, int key) {
     super(object, key);
     if (object != null) {
       RaceDetector rd = getRuntime().get(RaceDetector.class);
@@ -41,13 +41,31 @@ public final class Write extends DataOperation {
     }
   }
 
+  /**
+   * Test if the operation is a plain data access.
+   * @return <code>true</code>
+   */
+  @Override
+  public boolean isDataAccess() {
+    return true;
+  }
+
+  /**
+   * Test if the operation is a data write.
+   * @return <code>true</code>
+   */
+  @Override
+  public boolean isWrite() {
+    return true;
+  }
+
   /**
    * Yield on data write.
    * @param thisThread Current thread.
    * @param object Object.
-   * @param key Data key.
+   * @param key Data key, a field id or an array index.
    */
-  public static void before(CThread thisThread, Object object, Object key) {
+  public static void before(CThread thisThread, Object object, int key) {
     thisThread.cYield(new Write(object, key));
   }
   
@@ -55,9 +73,9 @@ public final class Write extends DataOperation {
    * Execute actions after data write without yielding.
    * @param thisThread Current thread.
    * @param object Object.
-   * @param key Data key.
+   * @param key Data key, a field id or an array index.
    */
-  public static void after(CThread thisThread, Object object, Object key) {
+  public static void after(CThread thisThread, Object object, int key) {
     RaceDetector rd = getRuntime().get(RaceDetector.class);
     if (rd != null) {
       rd.endWrite(object, key);
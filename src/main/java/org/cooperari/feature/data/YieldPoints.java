@@ -17,130 +17,204 @@
 package org.cooperari.feature.data;
 
 
+import java.lang.reflect.Array;
+
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.After;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
+import org.aspectj.lang.annotation.Pointcut;
 import org.cooperari.core.CThread;
 
 /**
  * AspectJ instrumentation for data access yield points.
  * 
+ * <p>
+ * Fields are classified at weave time according to their modifiers. 
+ * Accesses to <code>final</code> fields are not yield points, 
+ * accesses to <code>volatile</code> fields are yield points handled as synchronization
+ * (see {@link VolatileRead} and {@link VolatileWrite}), and accesses to other (plain) fields
+ * are yield points subject to race detection (see {@link Read} and {@link Write}).
+ * </p>
+ * 
  * @since 0.2
  */
 @Aspect
 public class YieldPoints {
 
   /**
-   * Constant used to denote a static field access.
+   * Constant used as the object for static field accesses. 
+   * Static fields are distinguished by their field ids (see {@link FieldIds}).
    */
   private static final String STATIC_FIELD = "<static>";
+
+  /**
+   * Pointcut for code of the Cooperari runtime, including aspects.
+   * Field accesses in this code are not yield points; otherwise 
+   * field access advice would apply to the field accesses it performs itself.
+   */
+  @Pointcut("within(org.cooperari.core..*) || within(org.cooperari.feature..*)")
+  public void runtimeCode() { }
   
   /**
-   * Advice executed before static field read accesses.
+   * Advice executed before static field read accesses (plain fields only).
    * @param thisJoinPoint Join point.
    */
-  @Before("get(static * *.*)")
+  @Before("get(static !final !volatile * *.*) && !runtimeCode()")
   public void beforeGetStaticField(JoinPoint thisJoinPoint) {
     CThread t = CThread.intercept(thisJoinPoint);
     if (t != null) {
-      Read.before(t, STATIC_FIELD, thisJoinPoint.getSignature().getName());
+      Read.before(t, STATIC_FIELD, FieldIds.INSTANCE.get(thisJoinPoint.getStaticPart()));
     }
   }
   
   /**
-   * Advice executed after static field read accesses.
+   * Advice executed after static field read accesses (plain fields only).
    * @param thisJoinPoint Join point.
    */
-  @After("get(static * *.*)")
+  @After("get(static !final !volatile * *.*) && !runtimeCode()")
   public void afterGetStaticField(JoinPoint thisJoinPoint) {
     CThread t = CThread.self();
     if (t != null) {
-      Read.after(t, STATIC_FIELD, thisJoinPoint.getSignature().getName());
+      Read.after(t, STATIC_FIELD, FieldIds.INSTANCE.get(thisJoinPoint.getStaticPart()));
     }
   }
   
   /**
-   * Advice executed before field read accesses.
+   * Advice executed before field read accesses (plain fields only).
    * @param thisJoinPoint Join point.
    * @param o Target object.
    */
-  @Before("get(* *.*) && target(o)")
+  @Before("get(!final !volatile * *.*) && target(o) && !runtimeCode()")
   public void beforeGetField(JoinPoint thisJoinPoint, Object o) {
     CThread t = CThread.intercept(thisJoinPoint);
     if (o != null && t != null) {
-      Read.before(t, o, thisJoinPoint.getSignature().getName());
+      Read.before(t, o, FieldIds.INSTANCE.get(thisJoinPoint.getStaticPart()));
     }
   }
   
   /**
-   * Advice executed after field read accesses.
+   * Advice executed after field read accesses (plain fields only).
    * @param thisJoinPoint Join point.
    * @param o Target object.
    */
-  @After("get(* *.*) && target(o)")
+  @After("get(!final !volatile * *.*) && target(o) && !runtimeCode()")
   public void afterGetField(JoinPoint thisJoinPoint, Object o) {
     if (o == null) {
       throw new NullPointerException();
     }
     CThread t = CThread.self();
     if (t != null) {
-      Read.after(t, o, thisJoinPoint.getSignature().getName());
+      Read.after(t, o, FieldIds.INSTANCE.get(thisJoinPoint.getStaticPart()));
     }
   }
   
   /**
-   * Advice executed before static field write accesses.
+   * Advice executed before static field write accesses (plain fields only).
    * @param thisJoinPoint Join point.
    */
-  @Before("set(static * *.*)")
+  @Before("set(static !final !volatile * *.*) && !runtimeCode()")
   public void beforeSetStaticField(JoinPoint thisJoinPoint) {
     CThread t = CThread.intercept(thisJoinPoint);
     if (t != null) {
-      Write.before(t, STATIC_FIELD, thisJoinPoint.getSignature().getName());
+      Write.before(t, STATIC_FIELD, FieldIds.INSTANCE.get(thisJoinPoint.getStaticPart()));
     }
   }
   
   /**
-   * Advice executed after static field write accesses.
+   * Advice executed after static field write accesses (plain fields only).
    * @param thisJoinPoint Join point.
    */
-  @After("set(static * *.*)")
+  @After("set(static !final !volatile * *.*) && !runtimeCode()")
   public void afterSetStaticField(JoinPoint thisJoinPoint) {
     CThread t = CThread.self();
     if (t != null) {
-      Write.after(t, STATIC_FIELD, thisJoinPoint.getSignature().getName());
+      Write.after(t, STATIC_FIELD, FieldIds.INSTANCE.get(thisJoinPoint.getStaticPart()));
     }
   }
   /**
-   * Advice executed before field write accesses.
+   * Advice executed before field write accesses (plain fields only).
    * @param thisJoinPoint Join point.
    * @param o Target object.
    */
-  @Before("set(* *.*) && target(o)")
+  @Before("set(!final !volatile * *.*) && target(o) && !runtimeCode()")
   public void beforeSetField(JoinPoint thisJoinPoint, Object o) {
     CThread t = CThread.intercept(thisJoinPoint);
     if (o != null && t != null) {
-      Write.before(t, o, thisJoinPoint.getSignature().getName());
+      Write.before(t, o, FieldIds.INSTANCE.get(thisJoinPoint.getStaticPart()));
     }
   }
   
   /**
-   * Advice executed after field write accesses.
+   * Advice executed after field write accesses (plain fields only).
    * @param thisJoinPoint Join point.
    * @param o Target object.
    */
-  @After("set(* *.*) && target(o)")
+  @After("set(!final !volatile * *.*) && target(o) && !runtimeCode()")
   public void afterSetField(JoinPoint thisJoinPoint, Object o) {
     if (o == null) {
       throw new NullPointerException();
     }
     CThread t = CThread.self();
     if (t != null) {
-      Write.after(t, o, thisJoinPoint.getSignature().getName());
+      Write.after(t, o, FieldIds.INSTANCE.get(thisJoinPoint.getStaticPart()));
+    }
+  }
+
+
+  /**
+   * Advice executed before static volatile field read accesses.
+   * @param thisJoinPoint Join point.
+   * @since 0.5
+   */
+  @Before("get(static volatile * *.*) && !runtimeCode()")
+  public void beforeGetStaticVolatileField(JoinPoint thisJoinPoint) {
+    CThread t = CThread.intercept(thisJoinPoint);
+    if (t != null) {
+      VolatileRead.before(t, STATIC_FIELD, FieldIds.INSTANCE.get(thisJoinPoint.getStaticPart()));
+    }
+  }
+
+  /**
+   * Advice executed before volatile field read accesses.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @since 0.5
+   */
+  @Before("get(volatile * *.*) && target(o) && !runtimeCode()")
+  public void beforeGetVolatileField(JoinPoint thisJoinPoint, Object o) {
+    CThread t = CThread.intercept(thisJoinPoint);
+    if (o != null && t != null) {
+      VolatileRead.before(t, o, FieldIds.INSTANCE.get(thisJoinPoint.getStaticPart()));
     }
   }
 
+  /**
+   * Advice executed before static volatile field write accesses.
+   * @param thisJoinPoint Join point.
+   * @since 0.5
+   */
+  @Before("set(static volatile * *.*) && !runtimeCode()")
+  public void beforeSetStaticVolatileField(JoinPoint thisJoinPoint) {
+    CThread t = CThread.intercept(thisJoinPoint);
+    if (t != null) {
+      VolatileWrite.before(t, STATIC_FIELD, FieldIds.INSTANCE.get(thisJoinPoint.getStaticPart()));
+    }
+  }
+
+  /**
+   * Advice executed before volatile field write accesses.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @since 0.5
+   */
+  @Before("set(volatile * *.*) && target(o) && !runtimeCode()")
+  public void beforeSetVolatileField(JoinPoint thisJoinPoint, Object o) {
+    CThread t = CThread.intercept(thisJoinPoint);
+    if (o != null && t != null) {
+      VolatileWrite.before(t, o, FieldIds.INSTANCE.get(thisJoinPoint.getStaticPart()));
+    }
+  }
   
   /**
    * Advice executed before {@code org.cooperari.CArray.cRead()}.
@@ -200,4 +274,105 @@ public class YieldPoints {
       Write.after(t, array, index);
     }
   }
+
+  /**
+   * Advice executed before {@code System.arraycopy()}.
+   * @param thisJoinPoint Join point.
+   * @param src Source array.
+   * @param srcPos Starting position in the source array.
+   * @param dst Destination array.
+   * @param dstPos Starting position in the destination array.
+   * @param length Number of elements.
+   * @since 0.5
+   */
+  @Before("call(void java.lang.System.arraycopy(Object,int,Object,int,int)) && args(src,srcPos,dst,dstPos,length)")
+  public void beforeArrayCopy(JoinPoint thisJoinPoint, Object src, int srcPos, Object dst, int dstPos, int length) {
+    CThread t = CThread.intercept(thisJoinPoint);
+    if (t != null) {
+      ArrayRangeAccess.before(t, src, srcPos, dst, dstPos, length);
+    }
+  }
+
+  /**
+   * Advice executed after {@code System.arraycopy()}.
+   * @param thisJoinPoint Join point.
+   * @param src Source array.
+   * @param srcPos Starting position in the source array.
+   * @param dst Destination array.
+   * @param dstPos Starting position in the destination array.
+   * @param length Number of elements.
+   * @since 0.5
+   */
+  @After("call(void java.lang.System.arraycopy(Object,int,Object,int,int)) && args(src,srcPos,dst,dstPos,length)")
+  public void afterArrayCopy(JoinPoint thisJoinPoint, Object src, int srcPos, Object dst, int dstPos, int length) {
+    CThread t = CThread.self();
+    if (t != null) {
+      ArrayRangeAccess.after(t, src, srcPos, dst, dstPos, length);
+    }
+  }
+
+  /**
+   * Advice executed before {@code Arrays.fill()} and {@code Arrays.sort()} over whole arrays.
+   * @param thisJoinPoint Join point.
+   * @param array Array.
+   * @since 0.5
+   */
+  @Before("(call(void java.util.Arrays.fill(*,*)) || call(void java.util.Arrays.sort(*)) || call(void java.util.Arrays.sort(*,java.util.Comparator))) && args(array,..)")
+  public void beforeArrayUpdate(JoinPoint thisJoinPoint, Object array) {
+    CThread t = CThread.intercept(thisJoinPoint);
+    if (t != null) {
+      ArrayRangeAccess.before(t, null, 0, array, 0, length(array));
+    }
+  }
+
+  /**
+   * Advice executed after {@code Arrays.fill()} and {@code Arrays.sort()} over whole arrays.
+   * @param thisJoinPoint Join point.
+   * @param array Array.
+   * @since 0.5
+   */
+  @After("(call(void java.util.Arrays.fill(*,*)) || call(void java.util.Arrays.sort(*)) || call(void java.util.Arrays.sort(*,java.util.Comparator))) && args(array,..)")
+  public void afterArrayUpdate(JoinPoint thisJoinPoint, Object array) {
+    CThread t = CThread.self();
+    if (t != null) {
+      ArrayRangeAccess.after(t, null, 0, array, 0, length(array));
+    }
+  }
+
+  /**
+   * Advice executed before {@code Arrays.fill()} and {@code Arrays.sort()} over array ranges.
+   * @param thisJoinPoint Join point.
+   * @param array Array.
+   * @param from Lower bound of the range (inclusive).
+   * @param to Upper bound of the range (exclusive).
+   * @since 0.5
+   */
+  @Before("(call(void java.util.Arrays.fill(*,int,int,*)) || call(void java.util.Arrays.sort(*,int,int)) || call(void java.util.Arrays.sort(*,int,int,java.util.Comparator))) && args(array,from,to,..)")
+  public void beforeArrayRangeUpdate(JoinPoint thisJoinPoint, Object array, int from, int to) {
+    CThread t = CThread.intercept(thisJoinPoint);
+    if (t != null) {
+      ArrayRangeAccess.before(t, null, 0, array, from, to - from);
+    }
+  }
+
+  /**
+   * Advice executed after {@code Arrays.fill()} and {@code Arrays.sort()} over array ranges.
+   * @param thisJoinPoint Join point.
+   * @param array Array.
+   * @param from Lower bound of the range (inclusive).
+   * @param to Upper bound of the range (exclusive).
+   * @since 0.5
+   */
+  @After("(call(void java.util.Arrays.fill(*,int,int,*)) || call(void java.util.Arrays.sort(*,int,int)) || call(void java.util.Arrays.sort(*,int,int,java.util.Comparator))) && args(array,from,to,..)")
+  public void afterArrayRangeUpdate(JoinPoint thisJoinPoint, Object array, int from, int to) {
+    CThread t = CThread.self();
+    if (t != null) {
+      ArrayRangeAccess.after(t, null, 0, array, from, to - from);
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private static int length(Object array) {
+    return array != null && array.getClass().isArray() ? Array.getLength(array) : 0;
+  }
 }
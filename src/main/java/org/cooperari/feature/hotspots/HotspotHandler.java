@@ -17,6 +17,7 @@
 package org.cooperari.feature.hotspots;
 
 import java.util.HashSet;
+import java.util.Set;
 
 import org.cooperari.config.CAlways;
 import org.cooperari.config.CNever;
@@ -112,6 +113,30 @@ public final class HotspotHandler {
     }
   }
 
+  /**
+   * Merge session-wide state from another handler, used by concurrent trials
+   * of the same test session. 
+   * 
+   * <p>
+   * After the call, a {@link CSometimes} hotspot is considered to be reached 
+   * if it was reached by trials of either handler.
+   * </p>
+   * @param other The other handler.
+   * @since 0.5
+   */
+  public void mergeSessionState(HotspotHandler other) {
+    _sHotspots.retainAll(other._sHotspots);
+  }
+
+  /**
+   * Get {@link CSometimes} hotspots that have not been reached so far.
+   * @return A copy of the set of unreached hotspots.
+   * @since 0.5
+   */
+  public Set<String> getUnreachedSometimesHotspots() {
+    return new HashSet<>(_sHotspots);
+  }
+
   /**
    * Method that should be called at the end of a test session.
    * @throws CHotspotError if one or more {@link CSometimes} hotspots have not been reached.
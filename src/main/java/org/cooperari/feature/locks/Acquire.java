@@ -0,0 +1,229 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.feature.locks;
+
+import static org.cooperari.core.CRuntime.getRuntime;
+import static org.cooperari.core.CThreadState.CBLOCKED;
+import static org.cooperari.core.CThreadState.CREADY;
+import static org.cooperari.core.CThreadState.CTIMED_WAITING;
+
+import org.cooperari.core.CThread;
+import org.cooperari.core.CThreadState;
+import org.cooperari.feature.data.RaceDetector;
+import org.cooperari.feature.monitor.DeadlockDetector;
+
+/**
+ * Lock acquisition operation.
+ * 
+ * <p>
+ * The operation covers plain, interruptible, non-blocking, and timed 
+ * acquisitions, in either exclusive or shared mode. 
+ * Plain and interruptible acquisitions in exclusive mode are subject to 
+ * deadlock detection, as for monitors. Non-blocking and timed acquisitions
+ * cannot deadlock, but the acquired lock is still accounted for
+ * in subsequent acquisitions by the same thread.
+ * </p>
+ * 
+ * @since 0.5
+ */
+final class Acquire extends LockOperation<Boolean> {
+
+  /**
+   * Plain acquisition.
+   */
+  private static final int BLOCKING = 0;
+
+  /**
+   * Interruptible acquisition.
+   */
+  private static final int INTERRUPTIBLE = 1;
+
+  /**
+   * Non-blocking acquisition.
+   */
+  private static final int TRY = 2;
+
+  /**
+   * Timed (and interruptible) acquisition.
+   */
+  private static final int TIMED = 3;
+
+  /**
+   * Acquisition mode.
+   */
+  private final boolean _shared;
+
+  /**
+   * Acquisition kind.
+   */
+  private final int _kind;
+
+  /**
+   * Deadline for timed acquisitions.
+   */
+  private final long _deadline;
+
+  /**
+   * Set if acquisition intent was signaled for deadlock detection.
+   */
+  private final boolean _intent;
+
+  /**
+   * Set if the lock was acquired.
+   */
+  private boolean _acquired;
+
+  /**
+   * Set if the thread was interrupted.
+   */
+  private boolean _interrupted;
+
+  /**
+   * Constructor.
+   * @param t Thread.
+   * @param l Lock.
+   * @param shared Acquisition mode.
+   * @param kind Acquisition kind.
+   * @param timeout Timeout in nanoseconds (timed acquisitions only).
+   */
+  private Acquire(CThread t, VirtualLock l, boolean shared, int kind, long timeout) {
+    super(t, l);
+    _shared = shared;
+    _kind = kind;
+    _deadline = kind == TIMED ? System.nanoTime() + timeout : 0L;
+    DeadlockDetector dd = getRuntime().get(DeadlockDetector.class);
+    _intent = dd != null && !shared && (kind == BLOCKING || kind == INTERRUPTIBLE) && l.getOwner() != t;
+    if (_intent) {
+      dd.onMonitorEnter(t, l);
+    }
+  }
+
+  /**
+   * Get operation state.
+   * @return {@link CThreadState#CREADY} if the lock can be acquired, the operation
+   * is non-blocking, or (for interruptible and timed acquisitions) the thread is interrupted 
+   * or the deadline expired; {@link CThreadState#CTIMED_WAITING} for
+   * pending timed acquisitions, and {@link CThreadState#CBLOCKED} otherwise.
+   */
+  @Override
+  public CThreadState getState() {
+    if (_kind == TRY || _lock.canAcquire(_thread, _shared)) {
+      return CREADY;
+    }
+    if (_kind != BLOCKING && _thread.getInterruptStatus()) {
+      return CREADY;
+    }
+    if (_kind == TIMED) {
+      return System.nanoTime() - _deadline >= 0 ? CREADY : CTIMED_WAITING;
+    }
+    return CBLOCKED;
+  }
+
+  /**
+   * Complete operation by acquiring the lock if possible.
+   */
+  @Override
+  public void execute() {
+    if ((_kind == INTERRUPTIBLE || _kind == TIMED) && _thread.testAndClearInterruptStatus()) {
+      _interrupted = true;
+    } else if (_lock.canAcquire(_thread, _shared)) {
+      _acquired = true;
+      if (_lock.acquire(_thread, _shared)) {
+        RaceDetector rd = getRuntime().get(RaceDetector.class);
+        if (rd != null) {
+          rd.onAcquire(_thread, _lock);
+        }
+        if (!_shared && (_kind == TRY || _kind == TIMED)) {
+          DeadlockDetector dd = getRuntime().get(DeadlockDetector.class);
+          if (dd != null) {
+            dd.onResourceAcquired(_thread, _lock);
+          }
+        }
+      }
+    } 
+    if (_intent && !_acquired) {
+      DeadlockDetector dd = getRuntime().get(DeadlockDetector.class);
+      if (dd != null) {
+        dd.onResourceRelease(_thread, _lock);
+      }
+    }
+  }
+
+  /**
+   * Get operation result.
+   * @return <code>true</code> if the lock was acquired.
+   */
+  @Override
+  public Boolean getResult() {
+    return _acquired;
+  }
+
+  /**
+   * Acquire a lock, blocking until it is available.
+   * @param t This thread.
+   * @param l Lock.
+   * @param shared Acquisition mode.
+   */
+  static void lock(CThread t, VirtualLock l, boolean shared) {
+    t.cYield(new Acquire(t, l, shared, BLOCKING, 0L));
+  }
+
+  /**
+   * Acquire a lock, blocking until it is available or the thread is interrupted.
+   * @param t This thread.
+   * @param l Lock.
+   * @param shared Acquisition mode.
+   * @throws InterruptedException If the thread is interrupted.
+   */
+  static void lockInterruptibly(CThread t, VirtualLock l, boolean shared) throws InterruptedException {
+    Acquire op = new Acquire(t, l, shared, INTERRUPTIBLE, 0L);
+    t.cYield(op);
+    if (op._interrupted) {
+      throw new InterruptedException();
+    }
+  }
+
+  /**
+   * Acquire a lock only if it is available.
+   * @param t This thread.
+   * @param l Lock.
+   * @param shared Acquisition mode.
+   * @return <code>true</code> if the lock was acquired.
+   */
+  static boolean tryLock(CThread t, VirtualLock l, boolean shared) {
+    return t.cYield(new Acquire(t, l, shared, TRY, 0L));
+  }
+
+  /**
+   * Acquire a lock, blocking until it is available, the thread is interrupted,
+   * or a timeout expires.
+   * @param t This thread.
+   * @param l Lock.
+   * @param shared Acquisition mode.
+   * @param timeout Timeout in nanoseconds.
+   * @return <code>true</code> if the lock was acquired.
+   * @throws InterruptedException If the thread is interrupted.
+   */
+  static boolean tryLockNanos(CThread t, VirtualLock l, boolean shared, long timeout) throws InterruptedException {
+    Acquire op = new Acquire(t, l, shared, TIMED, timeout);
+    boolean acquired = t.cYield(op);
+    if (op._interrupted) {
+      throw new InterruptedException();
+    }
+    return acquired;
+  }
+}
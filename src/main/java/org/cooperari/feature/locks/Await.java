@@ -0,0 +1,350 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.feature.locks;
+
+import static org.cooperari.core.CBlockingOperationEvent.INTERRUPTION_EVENT;
+import static org.cooperari.core.CBlockingOperationEvent.TIMEOUT_EVENT;
+import static org.cooperari.core.CRuntime.getRuntime;
+import static org.cooperari.core.CThreadState.CBLOCKED;
+import static org.cooperari.core.CThreadState.CREADY;
+import static org.cooperari.core.CThreadState.CTIMED_WAITING;
+import static org.cooperari.core.CThreadState.CWAITING;
+
+import org.cooperari.core.CBlockingOperationEvent;
+import org.cooperari.core.COperation;
+import org.cooperari.core.CThread;
+import org.cooperari.core.CThreadState;
+import org.cooperari.feature.data.RaceDetector;
+import org.cooperari.feature.locks.VirtualCondition.Waiter;
+
+/**
+ * Operations for <code>Condition.await()</code> and its variants.
+ * 
+ * @since 0.5
+ */
+final class Await {
+
+  /**
+   * Private constructor to avoid unintended construction.
+   */
+  private Await() { }
+
+  /**
+   * Operation for the ownership release step.
+   */
+  private static final class ReleaseOwnership extends LockOperation<Integer> {
+    /**
+     * Condition.
+     */
+    private final VirtualCondition _condition;
+
+    /**
+     * Result. 
+     */
+    private int _result = -1;
+
+    /**
+     * Waiter record.
+     */
+    private Waiter _waiter;
+
+    /**
+     * Constructor.
+     * @param t Thread.
+     * @param c Condition.
+     */
+    ReleaseOwnership(CThread t, VirtualCondition c) {
+      super(t, c.getLock());
+      _condition = c;
+    }
+
+    /**
+     * Complete operation.
+     */
+    @Override
+    public void execute() {
+      if (_lock.getOwner() != _thread) {
+        throw new IllegalMonitorStateException("Lock is not owned by current thread.");
+      }
+      RaceDetector rd = getRuntime().get(RaceDetector.class);
+      if (rd != null) {
+        rd.onRelease(_thread, _lock);
+      }
+      _result = _lock.relinquish(_thread);
+      _waiter = _condition.enqueue(_thread);
+    }
+
+    /**
+     * Get operation result.
+     * @return The hold count before relinquishing.
+     */
+    @Override
+    public Integer getResult() {
+      return _result;
+    }
+  }
+
+  /**
+   * Operation for the signal step.
+   */
+  private static final class AwaitSignal extends LockOperation<CBlockingOperationEvent> {
+    /**
+     * Condition.
+     */
+    private final VirtualCondition _condition;
+
+    /**
+     * Waiter record.
+     */
+    private final Waiter _waiter;
+
+    /**
+     * Indicates a timed wait.
+     */
+    private final boolean _timed;
+
+    /**
+     * Deadline for timed waits.
+     */
+    private final long _deadline;
+
+    /**
+     * Indicates an interruptible wait.
+     */
+    private final boolean _interruptible;
+
+    /**
+     * Hold count.
+     */
+    private final int _holdCount;
+
+    /**
+     * Possible event during operation.
+     */
+    private CBlockingOperationEvent _event = null;
+
+    /**
+     * Constructor.
+     * @param t Thread.
+     * @param c Condition.
+     * @param w Waiter record.
+     * @param interruptible Indicates an interruptible wait.
+     * @param timed Indicates a timed wait.
+     * @param deadline Deadline for timed waits.
+     * @param holdCount Hold count.
+     */
+    AwaitSignal(CThread t, VirtualCondition c, Waiter w, boolean interruptible, boolean timed, long deadline, int holdCount) {
+      super(t, c.getLock());
+      _condition = c;
+      _waiter = w;
+      _interruptible = interruptible;
+      _timed = timed;
+      _deadline = deadline;
+      _holdCount = holdCount;
+      if (interruptible) {
+        t.enableSpuriousWakeups();
+      }
+    }
+
+    /**
+     * Get operation state.
+     * @return {@link CThreadState#CWAITING} or {@link CThreadState#CTIMED_WAITING} (for timed waits)
+     * until either: (1) the thread is signaled, (2) the deadline expires (for timed waits); 
+     * (3) the thread is interrupted or receives a (simulated) spurious wakeup (for interruptible waits).
+     * The state will be {@link CThreadState#CREADY} in cases (1)-(3).
+     */
+    @Override
+    public CThreadState getState() {
+      if (_event != null || _waiter.isSignaled()) {
+        return CREADY;
+      }
+      if (_interruptible) {
+        CBlockingOperationEvent e = _thread.testAndClearWakeupEvents();
+        if (e != null) {
+          _event = e;
+          return CREADY;
+        }
+      }
+      if (_timed) {
+        if (System.nanoTime() - _deadline >= 0) {
+          _event = TIMEOUT_EVENT;
+          return CREADY;
+        } 
+        return CTIMED_WAITING;
+      }  
+      return CWAITING;
+    }
+
+    /**
+     * Get abort operation.
+     * The abort operation will re-acquire the lock.
+     * @return A {@link RegainOwnership} operation.
+     */
+    @Override
+    public COperation<Void> getAbortOperation() {
+      return new RegainOwnership(_thread, _condition, _waiter, _holdCount);
+    }
+
+    /**
+     * Get yield point stage.
+     * @return <code>1</code>
+     */
+    @Override
+    public int getStage() {
+      return 1;
+    }
+
+    /**
+     * Complete operation, cancelling the wait if the thread was not signaled.
+     */
+    @Override
+    public void execute() {
+      if (_event != null && !_condition.cancel(_waiter)) {
+        // Signaled meanwhile: the signal takes precedence.
+        if (_event == INTERRUPTION_EVENT) {
+          _thread.triggerInterrupt();
+        }
+        _event = null;
+      }
+    }
+
+    /**
+     * Get operation result. 
+     * @return <code>null</code> if the thread was signaled, the completion event otherwise.
+     */
+    @Override 
+    public CBlockingOperationEvent getResult() {
+      return _event;
+    }
+  }
+
+  /**
+   * Operation for the ownership re-acquisition step.
+   */
+  private static final class RegainOwnership extends LockOperation<Void> {
+    /**
+     * Condition.
+     */
+    private final VirtualCondition _condition;
+
+    /**
+     * Waiter record to cancel, if any.
+     */
+    private final Waiter _waiter;
+
+    /**
+     * Hold count for lock re-acquisition. 
+     */
+    private final int _holdCount;
+
+    /**
+     * Constructor.
+     * @param t Thread.
+     * @param c Condition.
+     * @param w Waiter record to cancel or <code>null</code>.
+     * @param holdCount Hold count on ownership release.
+     */
+    RegainOwnership(CThread t, VirtualCondition c, Waiter w, int holdCount) {
+      super(t, c.getLock());
+      _condition = c;
+      _waiter = w;
+      _holdCount = holdCount;
+    }
+
+    /**
+     * Get operation state.
+     * @return <code>CREADY</code> when the lock is available,  <code>CBLOCKED</code> otherwise.
+     */
+    @Override
+    public CThreadState getState() {
+      return _lock.canAcquire(_thread, false) ? CREADY : CBLOCKED;
+    }
+
+    /**
+     * Get yield point stage.
+     * @return <code>2</code>
+     */
+    @Override
+    public int getStage() {
+      return 2;
+    }
+
+    /**
+     * Complete by re-acquiring the lock.
+     */
+    @Override
+    public void execute() {
+      if (_waiter != null) {
+        _condition.cancel(_waiter);
+      }
+      _lock.reacquire(_thread, _holdCount);
+      RaceDetector rd = getRuntime().get(RaceDetector.class);
+      if (rd != null) {
+        rd.onAcquire(_thread, _lock);
+      }
+    }
+  }
+
+  /**
+   * Execute a wait on a condition.
+   * <p>
+   * As for <code>Object.wait()</code>, this comprises three yield points in order, all of them implemented through distinct operations:
+   * <ol>
+   * <li>Release ownership of the lock.</li>
+   * <li>Wait until one of the following happens:
+   * <ul>
+   * <li>The thread is signaled;</li>
+   * <li>For timed waits, the deadline expires;</li>
+   * <li>For interruptible waits, the thread receives an interrupt or 
+   *   a (simulated) spurious wakeup;</li>
+   * </ul>
+   * <li>Regain ownership of the lock.</li>
+   * </ol>
+   * @param t Current thread.
+   * @param c Condition.
+   * @param interruptible Indicates an interruptible wait.
+   * @param timed Indicates a timed wait.
+   * @param timeout Timeout in nanoseconds (for timed waits).
+   * @return Remaining time in nanoseconds for timed waits, a value less or equal 
+   *   to <code>0</code> if the wait timed out; <code>0</code> for untimed waits.
+   * @throws IllegalMonitorStateException If the lock is not held by the thread.
+   * @throws InterruptedException If an interruptible wait is interrupted.
+   */
+  static long execute(CThread t, VirtualCondition c, boolean interruptible, boolean timed, long timeout) 
+      throws IllegalMonitorStateException, InterruptedException {
+    long deadline = timed ? System.nanoTime() + timeout : 0L;
+    
+    // Release ownership
+    ReleaseOwnership r = new ReleaseOwnership(t, c);
+    int holdCount = t.cYield(r);
+    
+    // Await signal.
+    CBlockingOperationEvent e = t.cYield(new AwaitSignal(t, c, r._waiter, interruptible, timed, deadline, holdCount));
+    
+    // Regain ownership.
+    t.cYield(new RegainOwnership(t, c, null, holdCount));
+    
+    if (e == INTERRUPTION_EVENT) {
+      throw new InterruptedException();
+    }
+    if (!timed) {
+      return 0L;
+    }
+    long remaining = deadline - System.nanoTime();
+    return e == TIMEOUT_EVENT ? Math.min(remaining, 0L) : Math.max(remaining, 1L);
+  }
+}
@@ -0,0 +1,163 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.feature.locks;
+
+import static org.cooperari.core.CRuntime.getRuntime;
+import static org.cooperari.feature.locks.VirtualLock.READ_STAMP;
+import static org.cooperari.feature.locks.VirtualLock.STAMP_MODE_MASK;
+import static org.cooperari.feature.locks.VirtualLock.WRITE_STAMP;
+
+import org.cooperari.core.CThread;
+import org.cooperari.feature.data.RaceDetector;
+import org.cooperari.feature.monitor.DeadlockDetector;
+
+/**
+ * Stamp conversion operation for <code>StampedLock</code>
+ * (<code>tryConvertToWriteLock</code>, <code>tryConvertToReadLock</code>, 
+ * and <code>tryConvertToOptimisticRead</code>).
+ * 
+ * @since 0.5
+ */
+final class Convert extends LockOperation<Long> {
+
+  /**
+   * Stamp to convert.
+   */
+  private final long _stamp;
+
+  /**
+   * Target mode: {@link VirtualLock#WRITE_STAMP}, {@link VirtualLock#READ_STAMP}, 
+   * or <code>0</code> for optimistic reads.
+   */
+  private final long _target;
+
+  /**
+   * Result.
+   */
+  private long _result;
+
+  /**
+   * Constructor.
+   * @param t Thread.
+   * @param l Lock.
+   * @param stamp Stamp to convert.
+   * @param target Target mode.
+   */
+  private Convert(CThread t, VirtualLock l, long stamp, long target) {
+    super(t, l);
+    _stamp = stamp;
+    _target = target;
+  }
+
+  /**
+   * Complete operation by converting the stamp, if possible.
+   */
+  @Override
+  public void execute() {
+    long mode = _stamp & STAMP_MODE_MASK;
+    if (mode == STAMP_MODE_MASK) {
+      _result = 0L;
+      return;
+    }
+    if (mode == _target) {
+      boolean valid = mode == 0L ? _lock.validate(_stamp) : _lock.holds(_stamp, mode == READ_STAMP);
+      _result = valid ? _stamp : 0L;
+      return;
+    }
+    _result = 0L;
+    if (mode == WRITE_STAMP) {
+      if (!_lock.holds(_stamp, false)) {
+        return;
+      }
+      release(false);
+    } else if (mode == READ_STAMP) {
+      if (!_lock.holds(_stamp, true) || (_target == WRITE_STAMP && (_lock.getReadCount() != 1 || _lock.isLocked()))) {
+        return;
+      }
+      release(true);
+    } else if (!_lock.validate(_stamp) || !_lock.canAcquire(_thread, _target == READ_STAMP)) {
+      return;
+    }
+    if (_target == WRITE_STAMP) {
+      acquire(false);
+      _result = _lock.getStamp(false);
+    } else if (_target == READ_STAMP) {
+      acquire(true);
+      _result = _lock.getStamp(true);
+    } else {
+      _result = _lock.getOptimisticStamp();
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private void acquire(boolean shared) {
+    _lock.acquire(_thread, shared);
+    boolean wasHeld = (_stamp & STAMP_MODE_MASK) != 0L;
+    if (!wasHeld) {
+      RaceDetector rd = getRuntime().get(RaceDetector.class);
+      if (rd != null) {
+        rd.onAcquire(_thread, _lock);
+      }
+    }
+    if (!shared) {
+      DeadlockDetector dd = getRuntime().get(DeadlockDetector.class);
+      if (dd != null) {
+        dd.onResourceAcquired(_thread, _lock);
+      }
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private void release(boolean shared) {
+    CThread owner = _lock.getOwner();
+    _lock.release(_thread, shared);
+    if (_target == 0L) {
+      RaceDetector rd = getRuntime().get(RaceDetector.class);
+      if (rd != null) {
+        rd.onRelease(_thread, _lock);
+      }
+    }
+    if (!shared) {
+      DeadlockDetector dd = getRuntime().get(DeadlockDetector.class);
+      if (dd != null) {
+        dd.onResourceRelease(owner, _lock);
+      }
+    }
+  }
+
+  /**
+   * Get operation result.
+   * @return The new stamp, or <code>0</code> if the conversion failed.
+   */
+  @Override
+  public Long getResult() {
+    return _result;
+  }
+
+  /**
+   * Execute a conversion.
+   * @param t This thread.
+   * @param l Lock.
+   * @param stamp Stamp to convert.
+   * @param target Target mode: {@link VirtualLock#WRITE_STAMP}, {@link VirtualLock#READ_STAMP}, 
+   *    or <code>0</code> for optimistic reads.
+   * @return The new stamp, or <code>0</code> if the conversion failed.
+   */
+  static long execute(CThread t, VirtualLock l, long stamp, long target) {
+    return t.cYield(new Convert(t, l, stamp, target));
+  }
+}
@@ -0,0 +1,51 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.feature.locks;
+
+import org.cooperari.core.COperation;
+import org.cooperari.core.CThread;
+
+/**
+ * Base class for lock operations.
+ * 
+ * @since 0.5
+ *
+ * @param <T> Type for operation result.
+ */
+abstract class LockOperation<T> extends COperation<T> {
+  /**
+   * Thread.
+   */
+  protected final CThread _thread;
+
+  /**
+   * Lock.
+   */
+  protected final VirtualLock _lock;
+
+  /**
+   * Constructor.
+   * @param t thread
+   * @param l Lock.
+   */ 
+  protected LockOperation(CThread t, VirtualLock l) {
+    super(l);
+    _thread = t;
+    _lock = l;
+  }
+
+}
@@ -0,0 +1,180 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.feature.locks;
+
+import static org.cooperari.core.util.UnsafeVMOperations.UNSAFE;
+
+import java.util.WeakHashMap;
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+
+import org.cooperari.core.CWorkspace;
+
+/**
+ * Pool of virtual lock and condition states.
+ * 
+ * <p>
+ * A <code>ReentrantReadWriteLock</code> shares its state with the
+ * read and write lock views it hands out, and a <code>Condition</code> is
+ * bound to the lock that created it. To resolve these associations
+ * regardless of where the views or conditions were created, 
+ * <code>ReentrantLock</code> and <code>ReentrantReadWriteLock</code> states
+ * are keyed by the internal synchronizer object they (and their views and conditions) refer to.
+ * <code>StampedLock</code> states are keyed by the lock itself.
+ * </p>
+ * 
+ * <p>
+ * Keys are weakly referenced, hence states are discarded along with locks
+ * and conditions that become unreachable.
+ * If the synchronizer fields cannot be resolved in the running JVM, 
+ * no locks are virtualized.
+ * </p>
+ * 
+ * @since 0.5
+ */
+public final class LockPool {
+
+  /**
+   * Field offset for <code>ReentrantLock.sync</code>.
+   */
+  private static final long RL_SYNC = offset(ReentrantLock.class, "sync");
+
+  /**
+   * Field offset for <code>ReentrantReadWriteLock.sync</code>.
+   */
+  private static final long RRWL_SYNC = offset(ReentrantReadWriteLock.class, "sync");
+
+  /**
+   * Field offset for <code>ReentrantReadWriteLock.ReadLock.sync</code>.
+   */
+  private static final long READ_LOCK_SYNC = offset(ReentrantReadWriteLock.ReadLock.class, "sync");
+
+  /**
+   * Field offset for <code>ReentrantReadWriteLock.WriteLock.sync</code>.
+   */
+  private static final long WRITE_LOCK_SYNC = offset(ReentrantReadWriteLock.WriteLock.class, "sync");
+
+  /**
+   * Field offset for the enclosing synchronizer of a condition object.
+   */
+  private static final long CONDITION_SYNC = offset(AbstractQueuedSynchronizer.ConditionObject.class, "this$0");
+
+  /**
+   * Indicates if lock virtualization is supported.
+   */
+  private static final boolean SUPPORTED = 
+      RL_SYNC >= 0 && RRWL_SYNC >= 0 && READ_LOCK_SYNC >= 0 && WRITE_LOCK_SYNC >= 0 && CONDITION_SYNC >= 0;
+
+  /**
+   * Lock states.
+   */
+  private final WeakHashMap<Object, VirtualLock> _locks = new WeakHashMap<>();
+
+  /**
+   * Condition states.
+   */
+  private final WeakHashMap<Object, VirtualCondition> _conditions = new WeakHashMap<>();
+
+  /**
+   * Lock id counter.
+   */
+  private int _counter = 0;
+
+  /**
+   * Constructor.
+   */
+  public LockPool() {
+    if (!SUPPORTED) {
+      CWorkspace.log("Lock virtualization is not supported in this JVM.");
+    }
+  }
+
+  /**
+   * Get lock state for an object.
+   * @param o Object, a <code>ReentrantLock</code>, a <code>ReentrantReadWriteLock</code>
+   *  (or one of its views), or a <code>StampedLock</code>.
+   * @return Lock state, or <code>null</code> if <code>o</code> is not a virtualized lock.
+   */
+  @SuppressWarnings("restriction")
+  VirtualLock get(Object o) {
+    if (!SUPPORTED) {
+      return null;
+    }
+    if (o instanceof ReentrantLock) {
+      return get(UNSAFE.getObject(o, RL_SYNC), true);
+    }
+    if (o instanceof ReentrantReadWriteLock.ReadLock) {
+      return get(UNSAFE.getObject(o, READ_LOCK_SYNC), true);
+    }
+    if (o instanceof ReentrantReadWriteLock.WriteLock) {
+      return get(UNSAFE.getObject(o, WRITE_LOCK_SYNC), true);
+    }
+    if (o instanceof ReentrantReadWriteLock) {
+      return get(UNSAFE.getObject(o, RRWL_SYNC), true);
+    }
+    if (o instanceof StampedLock) {
+      return get(o, false);
+    }
+    return null;
+  }
+
+  /**
+   * Get condition state for an object.
+   * @param o Object.
+   * @return Condition state, or <code>null</code> if <code>o</code> is not 
+   *  a condition created by a virtualized lock.
+   */
+  @SuppressWarnings("restriction")
+  VirtualCondition getCondition(Object o) {
+    if (!SUPPORTED || o.getClass() != AbstractQueuedSynchronizer.ConditionObject.class) {
+      return null;
+    }
+    VirtualCondition c = _conditions.get(o);
+    if (c == null) {
+      Object sync = UNSAFE.getObject(o, CONDITION_SYNC);
+      Class<?> owner = sync.getClass().getEnclosingClass();
+      if (owner != ReentrantLock.class && owner != ReentrantReadWriteLock.class) {
+        // The condition belongs to a non-virtualized synchronizer.
+        return null;
+      }
+      c = new VirtualCondition(get(sync, true));
+      _conditions.put(o, c);
+    }
+    return c;
+  }
+
+  @SuppressWarnings("javadoc")
+  private VirtualLock get(Object key, boolean reentrant) {
+    VirtualLock l = _locks.get(key);
+    if (l == null) {
+      l = new VirtualLock(_counter++, reentrant);
+      _locks.put(key, l);
+    }
+    return l;
+  }
+
+  @SuppressWarnings({ "javadoc", "restriction" })
+  private static long offset(Class<?> c, String field) {
+    try {
+      return UNSAFE.objectFieldOffset(c.getDeclaredField(field));
+    } catch (NoSuchFieldException | RuntimeException e) {
+      return -1L;
+    }
+  }
+}
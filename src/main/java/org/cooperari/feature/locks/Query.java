@@ -0,0 +1,212 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.feature.locks;
+
+import org.cooperari.core.CThread;
+import org.cooperari.errors.CInternalError;
+
+/**
+ * Lock state query operation (e.g. <code>ReentrantLock.isLocked()</code> or
+ * <code>StampedLock.validate()</code>).
+ * 
+ * <p>
+ * The query to evaluate is identified by an integer code rather than a function
+ * object, since the operation is instantiated from within an aspect and the
+ * AspectJ compiler does not handle lambda expressions there.
+ * </p>
+ * 
+ * @since 0.5
+ */
+final class Query extends LockOperation<Object> {
+
+  /**
+   * Query code: is the lock held by the calling thread?
+   */
+  private static final int IS_HELD_BY_THREAD = 0;
+
+  /**
+   * Query code: exclusive hold count of the calling thread.
+   */
+  private static final int HOLD_COUNT = 1;
+
+  /**
+   * Query code: is the lock held in exclusive mode?
+   */
+  private static final int IS_LOCKED = 2;
+
+  /**
+   * Query code: number of shared holds.
+   */
+  private static final int READ_COUNT = 3;
+
+  /**
+   * Query code: shared hold count of the calling thread.
+   */
+  private static final int READ_HOLD_COUNT = 4;
+
+  /**
+   * Query code: is the lock held in shared mode?
+   */
+  private static final int IS_READ_LOCKED = 5;
+
+  /**
+   * Query code: optimistic read stamp.
+   */
+  private static final int OPTIMISTIC_STAMP = 6;
+
+  /**
+   * Query code: stamp validation.
+   */
+  private static final int VALIDATE = 7;
+
+  /**
+   * Query code.
+   */
+  private final int _query;
+
+  /**
+   * Query argument (stamp for validation queries, ignored otherwise).
+   */
+  private final long _arg;
+
+  /**
+   * Constructor.
+   * @param t Thread.
+   * @param l Lock.
+   * @param query Query code.
+   * @param arg Query argument.
+   */
+  private Query(CThread t, VirtualLock l, int query, long arg) {
+    super(t, l);
+    _query = query;
+    _arg = arg;
+  }
+
+  /**
+   * Get result by evaluating the query over the lock state.
+   * @return Query result.
+   */
+  @Override
+  public Object getResult() {
+    switch (_query) {
+      case IS_HELD_BY_THREAD:
+        return _lock.getOwner() == _thread;
+      case HOLD_COUNT:
+        return _lock.getHoldCount(_thread);
+      case IS_LOCKED:
+        return _lock.isLocked();
+      case READ_COUNT:
+        return _lock.getReadCount();
+      case READ_HOLD_COUNT:
+        return _lock.getReadHoldCount(_thread);
+      case IS_READ_LOCKED:
+        return _lock.getReadCount() > 0;
+      case OPTIMISTIC_STAMP:
+        return _lock.getOptimisticStamp();
+      case VALIDATE:
+        return _lock.validate(_arg);
+      default:
+        throw new CInternalError("Invalid lock query: " + _query);
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private static Object execute(CThread t, VirtualLock l, int query, long arg) {
+    return t.cYield(new Query(t, l, query, arg));
+  }
+
+  /**
+   * Test if a lock is held by the calling thread.
+   * @param t This thread.
+   * @param l Lock.
+   * @return <code>true</code> if <code>t</code> owns <code>l</code>.
+   */
+  static boolean isHeldByCurrentThread(CThread t, VirtualLock l) {
+    return (Boolean) execute(t, l, IS_HELD_BY_THREAD, 0L);
+  }
+
+  /**
+   * Get exclusive hold count of the calling thread.
+   * @param t This thread.
+   * @param l Lock.
+   * @return Hold count.
+   */
+  static int getHoldCount(CThread t, VirtualLock l) {
+    return (Integer) execute(t, l, HOLD_COUNT, 0L);
+  }
+
+  /**
+   * Test if a lock is held in exclusive mode.
+   * @param t This thread.
+   * @param l Lock.
+   * @return <code>true</code> if some thread owns <code>l</code>.
+   */
+  static boolean isLocked(CThread t, VirtualLock l) {
+    return (Boolean) execute(t, l, IS_LOCKED, 0L);
+  }
+
+  /**
+   * Get number of shared holds.
+   * @param t This thread.
+   * @param l Lock.
+   * @return Read count.
+   */
+  static int getReadCount(CThread t, VirtualLock l) {
+    return (Integer) execute(t, l, READ_COUNT, 0L);
+  }
+
+  /**
+   * Get shared hold count of the calling thread.
+   * @param t This thread.
+   * @param l Lock.
+   * @return Read hold count.
+   */
+  static int getReadHoldCount(CThread t, VirtualLock l) {
+    return (Integer) execute(t, l, READ_HOLD_COUNT, 0L);
+  }
+
+  /**
+   * Test if a lock is held in shared mode.
+   * @param t This thread.
+   * @param l Lock.
+   * @return <code>true</code> if there are shared holds on <code>l</code>.
+   */
+  static boolean isReadLocked(CThread t, VirtualLock l) {
+    return (Boolean) execute(t, l, IS_READ_LOCKED, 0L);
+  }
+
+  /**
+   * Get an optimistic read stamp.
+   * @param t This thread.
+   * @param l Lock.
+   * @return Stamp (zero if the lock is held in exclusive mode).
+   */
+  static long getOptimisticStamp(CThread t, VirtualLock l) {
+    return (Long) execute(t, l, OPTIMISTIC_STAMP, 0L);
+  }
+
+  /**
+   * Validate a stamp.
+   * @param t This thread.
+   * @param l Lock.
+   * @param stamp Stamp.
+   * @return <code>true</code> if no exclusive acquisition took place since <code>stamp</code> was issued.
+   */
+  static boolean validate(CThread t, VirtualLock l, long stamp) {
+    return (Boolean) execute(t, l, VALIDATE, stamp);
+  }
+}
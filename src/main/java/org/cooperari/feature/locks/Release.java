@@ -0,0 +1,157 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.feature.locks;
+
+import static org.cooperari.core.CRuntime.getRuntime;
+
+import org.cooperari.core.CThread;
+import org.cooperari.feature.data.RaceDetector;
+import org.cooperari.feature.monitor.DeadlockDetector;
+
+/**
+ * Lock release operation.
+ * 
+ * @since 0.5
+ */
+final class Release extends LockOperation<Boolean> {
+
+  /**
+   * Constant for unstamped releases.
+   */
+  private static final long NO_STAMP = -1L;
+
+  /**
+   * Release mode.
+   */
+  private final boolean _shared;
+
+  /**
+   * Stamp to validate (stamped locks only).
+   */
+  private final long _stamp;
+
+  /**
+   * Set for non-throwing variants.
+   */
+  private final boolean _try;
+
+  /**
+   * Set if the lock was released.
+   */
+  private boolean _released;
+
+  /**
+   * Constructor.
+   * @param t Thread.
+   * @param l Lock.
+   * @param shared Release mode.
+   * @param stamp Stamp to validate or {@link #NO_STAMP}.
+   * @param tryRelease Indicates a non-throwing release.
+   */
+  private Release(CThread t, VirtualLock l, boolean shared, long stamp, boolean tryRelease) {
+    super(t, l);
+    _shared = shared;
+    _stamp = stamp;
+    _try = tryRelease;
+  }
+
+  /**
+   * Complete operation by releasing the lock.
+   * @throws IllegalMonitorStateException If the lock is not held as required.
+   */
+  @Override
+  public void execute() throws IllegalMonitorStateException {
+    if (_stamp != NO_STAMP && !_lock.holds(_stamp, _shared)) {
+      throw new IllegalMonitorStateException("Stamp does not match the lock state.");
+    }
+    if (_try && (_shared ? _lock.getReadCount() == 0 : !_lock.isLocked())) {
+      return;
+    }
+    CThread owner = _lock.getOwner();
+    _released = true;
+    if (_lock.release(_thread, _shared)) {
+      RaceDetector rd = getRuntime().get(RaceDetector.class);
+      if (rd != null) {
+        rd.onRelease(_thread, _lock);
+      }
+      if (!_shared) {
+        DeadlockDetector dd = getRuntime().get(DeadlockDetector.class);
+        if (dd != null) {
+          dd.onResourceRelease(owner, _lock);
+        }
+      }
+    }
+  }
+
+  /**
+   * Get operation result.
+   * @return <code>true</code> if the lock was released.
+   */
+  @Override
+  public Boolean getResult() {
+    return _released;
+  }
+
+  /**
+   * Release a lock.
+   * @param t This thread.
+   * @param l Lock.
+   * @param shared Release mode.
+   * @throws IllegalMonitorStateException If the lock is not held by the thread in the given mode.
+   */
+  static void unlock(CThread t, VirtualLock l, boolean shared) throws IllegalMonitorStateException {
+    t.cYield(new Release(t, l, shared, NO_STAMP, false));
+  }
+
+  /**
+   * Release a stamped lock.
+   * @param t This thread.
+   * @param l Lock.
+   * @param stamp Stamp.
+   * @throws IllegalMonitorStateException If the stamp does not match the lock state.
+   */
+  static void unlockStamp(CThread t, VirtualLock l, long stamp) throws IllegalMonitorStateException {
+    long mode = stamp & VirtualLock.STAMP_MODE_MASK;
+    if (mode != VirtualLock.READ_STAMP && mode != VirtualLock.WRITE_STAMP) {
+      throw new IllegalMonitorStateException("Invalid stamp.");
+    }
+    unlockStampInMode(t, l, mode == VirtualLock.READ_STAMP, stamp);
+  }
+
+  /**
+   * Release a stamped lock in a given mode.
+   * @param t This thread.
+   * @param l Lock.
+   * @param shared Release mode.
+   * @param stamp Stamp.
+   * @throws IllegalMonitorStateException If the stamp does not match the lock state.
+   */
+  static void unlockStampInMode(CThread t, VirtualLock l, boolean shared, long stamp) throws IllegalMonitorStateException {
+    t.cYield(new Release(t, l, shared, stamp, false));
+  }
+
+  /**
+   * Release a stamped lock in a given mode if it is held, regardless of the owner.
+   * @param t This thread.
+   * @param l Lock.
+   * @param shared Release mode.
+   * @return <code>true</code> if the lock was released.
+   */
+  static boolean tryUnlock(CThread t, VirtualLock l, boolean shared) {
+    return t.cYield(new Release(t, l, shared, NO_STAMP, true));
+  }
+}
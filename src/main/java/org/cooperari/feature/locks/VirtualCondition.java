@@ -0,0 +1,139 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.feature.locks;
+
+import java.util.ArrayDeque;
+
+import org.cooperari.core.CThread;
+import org.cooperari.core.CWorkspace;
+
+/**
+ * Virtual state of a <code>java.util.concurrent.locks.Condition</code>.
+ * 
+ * <p>
+ * Waiters are kept in FIFO order, and signals are delivered to 
+ * the longest-waiting thread, in line with the implementation of 
+ * conditions in <code>AbstractQueuedSynchronizer</code>.
+ * </p>
+ * 
+ * @since 0.5
+ */
+final class VirtualCondition {
+
+  /**
+   * Waiter record.
+   */
+  static final class Waiter {
+    /**
+     * Waiting thread.
+     */
+    private final CThread _thread;
+
+    /**
+     * Signal flag.
+     */
+    private boolean _signaled;
+
+    /**
+     * Constructor.
+     * @param t Waiting thread.
+     */
+    Waiter(CThread t) {
+      _thread = t;
+    }
+
+    /**
+     * Test if waiter has been signaled.
+     * @return <code>true</code> if waiter has been signaled.
+     */
+    boolean isSignaled() {
+      return _signaled;
+    }
+  }
+
+  /**
+   * Associated lock.
+   */
+  private final VirtualLock _lock;
+
+  /**
+   * Waiters that have not been signaled yet.
+   */
+  private final ArrayDeque<Waiter> _waiters = new ArrayDeque<>();
+
+  /**
+   * Constructor.
+   * @param lock Associated lock.
+   */
+  VirtualCondition(VirtualLock lock) {
+    _lock = lock;
+  }
+
+  /**
+   * Get associated lock.
+   * @return The lock for this condition.
+   */
+  VirtualLock getLock() {
+    return _lock;
+  }
+
+  /**
+   * Enqueue a waiter.
+   * @param t Waiting thread.
+   * @return The waiter record.
+   */
+  Waiter enqueue(CThread t) {
+    Waiter w = new Waiter(t);
+    _waiters.addLast(w);
+    assert CWorkspace.debug("await | %s %d", _lock, _waiters.size());
+    return w;
+  }
+
+  /**
+   * Cancel a wait, e.g. due to a timeout or an interrupt.
+   * @param w Waiter.
+   * @return <code>true</code> if the waiter was removed, 
+   *    <code>false</code> if it was signaled meanwhile.
+   */
+  boolean cancel(Waiter w) {
+    return !w._signaled && _waiters.remove(w);
+  }
+
+  /**
+   * Signal the longest-waiting thread, if any.
+   */
+  void signalOne() {
+    Waiter w = _waiters.pollFirst();
+    if (w != null) {
+      w._signaled = true;
+      assert CWorkspace.debug("signal | %s %s", _lock, w._thread.getName());
+    } else {
+      assert CWorkspace.debug("signal (lost) | %s", _lock);
+    }
+  }
+
+  /**
+   * Signal all waiting threads.
+   */
+  void signalAll() {
+    for (Waiter w : _waiters) {
+      w._signaled = true;
+    }
+    _waiters.clear();
+    assert CWorkspace.debug("signalAll | %s", _lock);
+  }
+}
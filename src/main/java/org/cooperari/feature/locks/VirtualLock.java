@@ -0,0 +1,337 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.feature.locks;
+
+import java.util.IdentityHashMap;
+
+import org.cooperari.core.CThread;
+import org.cooperari.core.CWorkspace;
+import org.cooperari.errors.CInternalError;
+import org.cooperari.feature.monitor.Resource;
+
+/**
+ * Virtual state of a <code>java.util.concurrent.locks</code> lock.
+ * 
+ * <p>
+ * The same representation is used for <code>ReentrantLock</code>,
+ * <code>ReentrantReadWriteLock</code> and <code>StampedLock</code> instances.
+ * A lock may be held in exclusive (write) mode by a single owner thread, 
+ * or in shared (read) mode by any number of threads. Plain reentrant locks 
+ * are only ever held in exclusive mode. Holds are reentrant except for 
+ * stamped locks, in which case the lock also maintains an epoch 
+ * that is advanced on every write lock acquisition and release, 
+ * and that is used to issue and validate stamps.
+ * </p>
+ * 
+ * @since 0.5
+ */
+final class VirtualLock implements Resource {
+
+  /**
+   * Stamp mode bit for write locks.
+   */
+  static final long WRITE_STAMP = 1L;
+
+  /**
+   * Stamp mode bit for read locks.
+   */
+  static final long READ_STAMP = 2L;
+
+  /**
+   * Stamp mode mask. Optimistic read stamps have no mode bits set.
+   */
+  static final long STAMP_MODE_MASK = 3L;
+
+  /**
+   * Identifier.
+   */
+  private final int _id;
+
+  /**
+   * Indicates if holds are reentrant.
+   */
+  private final boolean _reentrant;
+
+  /**
+   * Owner thread, when locked in exclusive mode.
+   */
+  private CThread _owner;
+
+  /**
+   * Exclusive hold count.
+   */
+  private int _holdCount;
+
+  /**
+   * Total number of shared holds.
+   */
+  private int _readCount;
+
+  /**
+   * Shared hold counts per thread (reentrant locks only, allocated on first use).
+   */
+  private IdentityHashMap<CThread, Integer> _readHolds;
+
+  /**
+   * Epoch for stamp issuing and validation.
+   */
+  private long _epoch = 1L;
+
+  /**
+   * Constructor.
+   * @param id Lock id.
+   * @param reentrant Indicates if holds are reentrant.
+   */
+  VirtualLock(int id, boolean reentrant) {
+    _id = id;
+    _reentrant = reentrant;
+    assert CWorkspace.debug("lock ctor| %s", toString());
+  }
+
+  @Override
+  public long getId() {
+    return _id;
+  }
+
+  @Override
+  public CThread getOwner() {
+    return _owner;
+  }
+
+  /**
+   * Test if the lock is held in exclusive mode.
+   * @return <code>true</code> if some thread owns the lock.
+   */
+  boolean isLocked() {
+    return _owner != null;
+  }
+
+  /**
+   * Get exclusive hold count for a thread.
+   * @param t Thread.
+   * @return Number of exclusive holds by <code>t</code>.
+   */
+  int getHoldCount(CThread t) {
+    return _owner == t ? _holdCount : 0;
+  }
+
+  /**
+   * Get total number of shared holds.
+   * @return Number of shared holds.
+   */
+  int getReadCount() {
+    return _readCount;
+  }
+
+  /**
+   * Get shared hold count for a thread.
+   * @param t Thread.
+   * @return Number of shared holds by <code>t</code>, always <code>0</code> for stamped locks.
+   */
+  int getReadHoldCount(CThread t) {
+    Integer n = _readHolds != null ? _readHolds.get(t) : null;
+    return n != null ? n : 0;
+  }
+
+  /**
+   * Test if a thread may acquire the lock without blocking.
+   * @param t Thread.
+   * @param shared Acquisition mode.
+   * @return <code>true</code> if <code>t</code> may acquire the lock. 
+   */
+  boolean canAcquire(CThread t, boolean shared) {
+    if (_owner != null && (_owner != t || !_reentrant)) {
+      return false;
+    }
+    return shared || _readCount == 0;
+  }
+
+  /**
+   * Acquire the lock.
+   * @param t Thread that is allowed to acquire the lock.
+   * @param shared Acquisition mode.
+   * @return <code>true</code> if this is the first hold of <code>t</code> in the given mode.
+   */
+  boolean acquire(CThread t, boolean shared) {
+    if (!canAcquire(t, shared)) {
+      throw new CInternalError();
+    }
+    boolean first;
+    if (shared) {
+      _readCount++;
+      if (_reentrant) {
+        if (_readHolds == null) {
+          _readHolds = new IdentityHashMap<>();
+        }
+        first = _readHolds.merge(t, 1, Integer::sum) == 1;
+      } else {
+        first = true;
+      }
+    } else {
+      if (_owner == null) {
+        _owner = t;
+        _epoch++;
+      }
+      first = ++_holdCount == 1;
+    }
+    assert CWorkspace.debug("acquire | %s", toString());
+    return first;
+  }
+
+  /**
+   * Release the lock.
+   * For reentrant locks the releasing thread must hold the lock in the given mode.
+   * For stamped locks, callers are expected to validate the stamp beforehand.
+   * @param t Releasing thread.
+   * @param shared Release mode.
+   * @return <code>true</code> if this was the last hold of <code>t</code> in the given mode.
+   * @throws IllegalMonitorStateException If the lock is not held as required.
+   */
+  boolean release(CThread t, boolean shared) throws IllegalMonitorStateException {
+    boolean last;
+    if (shared) {
+      if (_reentrant) {
+        int n = getReadHoldCount(t);
+        if (n == 0) {
+          throw new IllegalMonitorStateException("Read lock is not held by current thread.");
+        }
+        if (n == 1) {
+          _readHolds.remove(t);
+        } else {
+          _readHolds.put(t, n - 1);
+        }
+        last = n == 1;
+      } else {
+        if (_readCount == 0) {
+          throw new IllegalMonitorStateException("Lock is not read-locked.");
+        }
+        last = true;
+      }
+      _readCount--;
+    } else {
+      if (_owner == null || (_reentrant && _owner != t)) {
+        throw new IllegalMonitorStateException("Lock is not owned by current thread.");
+      }
+      last = --_holdCount == 0;
+      if (last) {
+        _owner = null;
+        _epoch++;
+      }
+    }
+    assert CWorkspace.debug("release | %s", toString());
+    return last;
+  }
+
+  /**
+   * Relinquish all exclusive holds, as for a condition wait.
+   * @param t Thread that must be the owner.
+   * @return Hold count of the thread before relinquishing.
+   */
+  int relinquish(CThread t) {
+    if (_owner != t) {
+      throw new CInternalError();
+    }
+    int prevHoldCount = _holdCount;
+    _owner = null;
+    _holdCount = 0;
+    _epoch++;
+    assert CWorkspace.debug("relinquish | %s", toString());
+    return prevHoldCount;
+  }
+
+  /**
+   * Re-acquire exclusive ownership, as when returning from a condition wait.
+   * @param t Thread that will reacquire ownership.
+   * @param holdCount Hold count to re-establish.
+   */
+  void reacquire(CThread t, int holdCount) {
+    if (!canAcquire(t, false) || _owner != null) {
+      throw new CInternalError();
+    }
+    _owner = t;
+    _holdCount = holdCount;
+    _epoch++;
+    assert CWorkspace.debug("reacquire | %s", toString());
+  }
+
+  // STAMPS
+
+  /**
+   * Get stamp for the current hold in the given mode.
+   * @param shared Mode.
+   * @return A read or write stamp.
+   */
+  long getStamp(boolean shared) {
+    return (_epoch << 2) | (shared ? READ_STAMP : WRITE_STAMP);
+  }
+
+  /**
+   * Get an optimistic read stamp.
+   * @return A stamp for later validation, or <code>0</code> if the lock is write-locked.
+   */
+  long getOptimisticStamp() {
+    return _owner == null ? _epoch << 2 : 0L;
+  }
+
+  /**
+   * Validate a stamp, i.e., check that the lock has not been write-locked
+   * since the stamp was issued.
+   * @param stamp Stamp.
+   * @return <code>true</code> if the stamp is valid.
+   */
+  boolean validate(long stamp) {
+    return stamp != 0L && (stamp >>> 2) == _epoch;
+  }
+
+  /**
+   * Test if a stamp corresponds to a current hold in the given mode.
+   * @param stamp Stamp.
+   * @param shared Mode.
+   * @return <code>true</code> if the lock is held in the mode of the stamp and the stamp is valid.
+   */
+  boolean holds(long stamp, boolean shared) {
+    return validate(stamp) 
+        && (stamp & STAMP_MODE_MASK) == (shared ? READ_STAMP : WRITE_STAMP)
+        && (shared ? _readCount > 0 : _owner != null);
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    return new StringBuilder()
+    .append('#')
+    .append(_id)
+    .append("[O=")
+    .append(_owner != null ? _owner.getCID() : -1)
+    .append(' ')
+    .append('C')
+    .append('=')
+    .append(_holdCount)
+    .append(' ')
+    .append('R')
+    .append('=')
+    .append(_readCount)
+    .append(' ')
+    .append('E')
+    .append('=')
+    .append(_epoch)
+    .append(']').toString();
+  }
+}
@@ -0,0 +1,684 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.feature.locks;
+
+import static org.cooperari.core.CRuntime.getRuntime;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.cooperari.core.CThread;
+
+/**
+ * AspectJ instrumentation for <code>java.util.concurrent.locks</code> operations.
+ * 
+ * <p>
+ * Calls on <code>ReentrantLock</code>, <code>ReentrantReadWriteLock</code> (and its read and write locks),
+ * <code>StampedLock</code>, and conditions created by the former locks are executed
+ * over a virtual lock state in cooperative threads, rather than
+ * through the actual lock implementations. 
+ * Calls on other lock implementations, and calls made by non-cooperative threads, proceed normally.
+ * </p>
+ * 
+ * @since 0.5
+ */
+@Aspect
+public final class YieldPoints {
+
+  // LOCK INTERFACE
+
+  /**
+   * Around advice executed in place of <code>Lock.lock()</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(void java.util.concurrent.locks.Lock+.lock()) && target(o)")
+  public void aroundLock(ProceedingJoinPoint thisJoinPoint, Object o) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      Acquire.lock(t, l, isShared(o));
+    } else {
+      thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>Lock.lockInterruptibly()</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @throws InterruptedException In accordance to <code>Lock.lockInterruptibly()</code>.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(void java.util.concurrent.locks.Lock+.lockInterruptibly()) && target(o)")
+  public void aroundLockInterruptibly(ProceedingJoinPoint thisJoinPoint, Object o) throws InterruptedException, Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      Acquire.lockInterruptibly(t, l, isShared(o));
+    } else {
+      thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>Lock.tryLock()</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @return <code>true</code> if the lock was acquired.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(boolean java.util.concurrent.locks.Lock+.tryLock()) && target(o)")
+  public boolean aroundTryLock(ProceedingJoinPoint thisJoinPoint, Object o) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      return Acquire.tryLock(t, l, isShared(o));
+    } else {
+      return (Boolean) thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>Lock.tryLock(long,TimeUnit)</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @param time First argument for <code>Lock.tryLock(long,TimeUnit)</code>.
+   * @param unit Second argument for <code>Lock.tryLock(long,TimeUnit)</code>.
+   * @return <code>true</code> if the lock was acquired.
+   * @throws InterruptedException In accordance to <code>Lock.tryLock(long,TimeUnit)</code>.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(boolean java.util.concurrent.locks.Lock+.tryLock(long,java.util.concurrent.TimeUnit)) && target(o) && args(time,unit)")
+  public boolean aroundTryLock(ProceedingJoinPoint thisJoinPoint, Object o, long time, TimeUnit unit) throws InterruptedException, Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      return Acquire.tryLockNanos(t, l, isShared(o), unit.toNanos(time));
+    } else {
+      return (Boolean) thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>Lock.unlock()</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(void java.util.concurrent.locks.Lock+.unlock()) && target(o)")
+  public void aroundUnlock(ProceedingJoinPoint thisJoinPoint, Object o) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      Release.unlock(t, l, isShared(o));
+    } else {
+      thisJoinPoint.proceed();
+    }
+  }
+
+  // LOCK STATE QUERIES
+
+  /**
+   * Around advice executed in place of <code>ReentrantLock.isHeldByCurrentThread()</code>
+   * and <code>ReentrantReadWriteLock.WriteLock.isHeldByCurrentThread()</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @return <code>true</code> if the current thread holds the lock.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("(call(boolean java.util.concurrent.locks.ReentrantLock+.isHeldByCurrentThread())"
+      + " || call(boolean java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock+.isHeldByCurrentThread())"
+      + " || call(boolean java.util.concurrent.locks.ReentrantReadWriteLock+.isWriteLockedByCurrentThread()))"
+      + " && target(o)")
+  public boolean aroundIsHeldByCurrentThread(ProceedingJoinPoint thisJoinPoint, Object o) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      return Query.isHeldByCurrentThread(t, l);
+    } else {
+      return (Boolean) thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>ReentrantLock.getHoldCount()</code>,
+   * <code>ReentrantReadWriteLock.WriteLock.getHoldCount()</code>, and
+   * <code>ReentrantReadWriteLock.getWriteHoldCount()</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @return Number of holds of the lock by the current thread.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("(call(int java.util.concurrent.locks.ReentrantLock+.getHoldCount())"
+      + " || call(int java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock+.getHoldCount())"
+      + " || call(int java.util.concurrent.locks.ReentrantReadWriteLock+.getWriteHoldCount()))"
+      + " && target(o)")
+  public int aroundGetHoldCount(ProceedingJoinPoint thisJoinPoint, Object o) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      return Query.getHoldCount(t, l);
+    } else {
+      return (Integer) thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>ReentrantLock.isLocked()</code>,
+   * <code>ReentrantReadWriteLock.isWriteLocked()</code>, and <code>StampedLock.isWriteLocked()</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @return <code>true</code> if the lock is held in exclusive mode.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("(call(boolean java.util.concurrent.locks.ReentrantLock+.isLocked())"
+      + " || call(boolean java.util.concurrent.locks.ReentrantReadWriteLock+.isWriteLocked())"
+      + " || call(boolean java.util.concurrent.locks.StampedLock+.isWriteLocked()))"
+      + " && target(o)")
+  public boolean aroundIsLocked(ProceedingJoinPoint thisJoinPoint, Object o) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      return Query.isLocked(t, l);
+    } else {
+      return (Boolean) thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>ReentrantReadWriteLock.getReadLockCount()</code>
+   * and <code>StampedLock.getReadLockCount()</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @return Number of read holds for the lock.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("(call(int java.util.concurrent.locks.ReentrantReadWriteLock+.getReadLockCount())"
+      + " || call(int java.util.concurrent.locks.StampedLock+.getReadLockCount()))"
+      + " && target(o)")
+  public int aroundGetReadLockCount(ProceedingJoinPoint thisJoinPoint, Object o) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      return Query.getReadCount(t, l);
+    } else {
+      return (Integer) thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>ReentrantReadWriteLock.getReadHoldCount()</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @return Number of read holds of the lock by the current thread.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(int java.util.concurrent.locks.ReentrantReadWriteLock+.getReadHoldCount()) && target(o)")
+  public int aroundGetReadHoldCount(ProceedingJoinPoint thisJoinPoint, Object o) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      return Query.getReadHoldCount(t, l);
+    } else {
+      return (Integer) thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>StampedLock.isReadLocked()</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @return <code>true</code> if the lock is held in shared mode.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(boolean java.util.concurrent.locks.StampedLock+.isReadLocked()) && target(o)")
+  public boolean aroundIsReadLocked(ProceedingJoinPoint thisJoinPoint, Object o) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      return Query.isReadLocked(t, l);
+    } else {
+      return (Boolean) thisJoinPoint.proceed();
+    }
+  }
+
+  // CONDITIONS
+
+  /**
+   * Around advice executed in place of <code>Condition.await()</code>.
+   * @param thisJoinPoint Join point.
+   * @param c Target condition.
+   * @throws InterruptedException In accordance to <code>Condition.await()</code>.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(void java.util.concurrent.locks.Condition+.await()) && target(c)")
+  public void aroundAwait(ProceedingJoinPoint thisJoinPoint, Object c) throws InterruptedException, Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualCondition vc = virtualCondition(t, c);
+    if (vc != null) {
+      Await.execute(t, vc, true, false, 0L);
+    } else {
+      thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>Condition.awaitUninterruptibly()</code>.
+   * @param thisJoinPoint Join point.
+   * @param c Target condition.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(void java.util.concurrent.locks.Condition+.awaitUninterruptibly()) && target(c)")
+  public void aroundAwaitUninterruptibly(ProceedingJoinPoint thisJoinPoint, Object c) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualCondition vc = virtualCondition(t, c);
+    if (vc != null) {
+      Await.execute(t, vc, false, false, 0L);
+    } else {
+      thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>Condition.awaitNanos(long)</code>.
+   * @param thisJoinPoint Join point.
+   * @param c Target condition.
+   * @param nanos Argument for <code>Condition.awaitNanos(long)</code>.
+   * @return An estimate of the remaining wait time, in accordance to <code>Condition.awaitNanos(long)</code>.
+   * @throws InterruptedException In accordance to <code>Condition.awaitNanos(long)</code>.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(long java.util.concurrent.locks.Condition+.awaitNanos(long)) && target(c) && args(nanos)")
+  public long aroundAwaitNanos(ProceedingJoinPoint thisJoinPoint, Object c, long nanos) throws InterruptedException, Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualCondition vc = virtualCondition(t, c);
+    if (vc != null) {
+      return Await.execute(t, vc, true, true, nanos);
+    } else {
+      return (Long) thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>Condition.await(long,TimeUnit)</code>.
+   * @param thisJoinPoint Join point.
+   * @param c Target condition.
+   * @param time First argument for <code>Condition.await(long,TimeUnit)</code>.
+   * @param unit Second argument for <code>Condition.await(long,TimeUnit)</code>.
+   * @return <code>false</code> if the waiting time elapsed.
+   * @throws InterruptedException In accordance to <code>Condition.await(long,TimeUnit)</code>.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(boolean java.util.concurrent.locks.Condition+.await(long,java.util.concurrent.TimeUnit)) && target(c) && args(time,unit)")
+  public boolean aroundAwait(ProceedingJoinPoint thisJoinPoint, Object c, long time, TimeUnit unit) throws InterruptedException, Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualCondition vc = virtualCondition(t, c);
+    if (vc != null) {
+      return Await.execute(t, vc, true, true, unit.toNanos(time)) > 0L;
+    } else {
+      return (Boolean) thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>Condition.awaitUntil(Date)</code>.
+   * @param thisJoinPoint Join point.
+   * @param c Target condition.
+   * @param deadline Argument for <code>Condition.awaitUntil(Date)</code>.
+   * @return <code>false</code> if the deadline elapsed.
+   * @throws InterruptedException In accordance to <code>Condition.awaitUntil(Date)</code>.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(boolean java.util.concurrent.locks.Condition+.awaitUntil(java.util.Date)) && target(c) && args(deadline)")
+  public boolean aroundAwaitUntil(ProceedingJoinPoint thisJoinPoint, Object c, Date deadline) throws InterruptedException, Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualCondition vc = virtualCondition(t, c);
+    if (vc != null) {
+      long timeout = TimeUnit.MILLISECONDS.toNanos(deadline.getTime() - System.currentTimeMillis());
+      return Await.execute(t, vc, true, true, timeout) > 0L;
+    } else {
+      return (Boolean) thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>Condition.signal()</code>.
+   * @param thisJoinPoint Join point.
+   * @param c Target condition.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(void java.util.concurrent.locks.Condition+.signal()) && target(c)")
+  public void aroundSignal(ProceedingJoinPoint thisJoinPoint, Object c) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualCondition vc = virtualCondition(t, c);
+    if (vc != null) {
+      Signal.execute(t, vc, false);
+    } else {
+      thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>Condition.signalAll()</code>.
+   * @param thisJoinPoint Join point.
+   * @param c Target condition.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(void java.util.concurrent.locks.Condition+.signalAll()) && target(c)")
+  public void aroundSignalAll(ProceedingJoinPoint thisJoinPoint, Object c) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualCondition vc = virtualCondition(t, c);
+    if (vc != null) {
+      Signal.execute(t, vc, true);
+    } else {
+      thisJoinPoint.proceed();
+    }
+  }
+
+  // STAMPED LOCKS
+
+  /**
+   * Around advice executed in place of <code>StampedLock.writeLock()</code> 
+   * and <code>StampedLock.readLock()</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @return Stamp.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("(call(long java.util.concurrent.locks.StampedLock+.writeLock())"
+      + " || call(long java.util.concurrent.locks.StampedLock+.readLock()))"
+      + " && target(o)")
+  public long aroundStampedLock(ProceedingJoinPoint thisJoinPoint, Object o) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      boolean shared = isReadStampSignature(thisJoinPoint);
+      Acquire.lock(t, l, shared);
+      return l.getStamp(shared);
+    } else {
+      return (Long) thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>StampedLock.writeLockInterruptibly()</code> 
+   * and <code>StampedLock.readLockInterruptibly()</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @return Stamp.
+   * @throws InterruptedException In accordance to <code>StampedLock.writeLockInterruptibly()</code>.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("(call(long java.util.concurrent.locks.StampedLock+.writeLockInterruptibly())"
+      + " || call(long java.util.concurrent.locks.StampedLock+.readLockInterruptibly()))"
+      + " && target(o)")
+  public long aroundStampedLockInterruptibly(ProceedingJoinPoint thisJoinPoint, Object o) throws InterruptedException, Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      boolean shared = isReadStampSignature(thisJoinPoint);
+      Acquire.lockInterruptibly(t, l, shared);
+      return l.getStamp(shared);
+    } else {
+      return (Long) thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>StampedLock.tryWriteLock()</code> 
+   * and <code>StampedLock.tryReadLock()</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @return Stamp, or <code>0</code> if the lock was not acquired.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("(call(long java.util.concurrent.locks.StampedLock+.tryWriteLock())"
+      + " || call(long java.util.concurrent.locks.StampedLock+.tryReadLock()))"
+      + " && target(o)")
+  public long aroundStampedTryLock(ProceedingJoinPoint thisJoinPoint, Object o) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      boolean shared = isReadStampSignature(thisJoinPoint);
+      return Acquire.tryLock(t, l, shared) ? l.getStamp(shared) : 0L;
+    } else {
+      return (Long) thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>StampedLock.tryWriteLock(long,TimeUnit)</code> 
+   * and <code>StampedLock.tryReadLock(long,TimeUnit)</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @param time First argument for the call.
+   * @param unit Second argument for the call.
+   * @return Stamp, or <code>0</code> if the lock was not acquired.
+   * @throws InterruptedException In accordance to <code>StampedLock.tryWriteLock(long,TimeUnit)</code>.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("(call(long java.util.concurrent.locks.StampedLock+.tryWriteLock(long,java.util.concurrent.TimeUnit))"
+      + " || call(long java.util.concurrent.locks.StampedLock+.tryReadLock(long,java.util.concurrent.TimeUnit)))"
+      + " && target(o) && args(time,unit)")
+  public long aroundStampedTryLock(ProceedingJoinPoint thisJoinPoint, Object o, long time, TimeUnit unit) throws InterruptedException, Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      boolean shared = isReadStampSignature(thisJoinPoint);
+      return Acquire.tryLockNanos(t, l, shared, unit.toNanos(time)) ? l.getStamp(shared) : 0L;
+    } else {
+      return (Long) thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>StampedLock.unlockWrite(long)</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @param stamp Stamp.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(void java.util.concurrent.locks.StampedLock+.unlockWrite(long)) && target(o) && args(stamp)")
+  public void aroundUnlockWrite(ProceedingJoinPoint thisJoinPoint, Object o, long stamp) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      Release.unlockStampInMode(t, l, false, stamp);
+    } else {
+      thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>StampedLock.unlockRead(long)</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @param stamp Stamp.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(void java.util.concurrent.locks.StampedLock+.unlockRead(long)) && target(o) && args(stamp)")
+  public void aroundUnlockRead(ProceedingJoinPoint thisJoinPoint, Object o, long stamp) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      Release.unlockStampInMode(t, l, true, stamp);
+    } else {
+      thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>StampedLock.unlock(long)</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @param stamp Stamp.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(void java.util.concurrent.locks.StampedLock+.unlock(long)) && target(o) && args(stamp)")
+  public void aroundUnlockStamp(ProceedingJoinPoint thisJoinPoint, Object o, long stamp) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      Release.unlockStamp(t, l, stamp);
+    } else {
+      thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>StampedLock.tryUnlockWrite()</code> 
+   * and <code>StampedLock.tryUnlockRead()</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @return <code>true</code> if the lock was held and released.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("(call(boolean java.util.concurrent.locks.StampedLock+.tryUnlockWrite())"
+      + " || call(boolean java.util.concurrent.locks.StampedLock+.tryUnlockRead()))"
+      + " && target(o)")
+  public boolean aroundTryUnlock(ProceedingJoinPoint thisJoinPoint, Object o) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      return Release.tryUnlock(t, l, isReadStampSignature(thisJoinPoint));
+    } else {
+      return (Boolean) thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>StampedLock.tryOptimisticRead()</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @return Optimistic read stamp, or <code>0</code> if the lock is write-locked.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(long java.util.concurrent.locks.StampedLock+.tryOptimisticRead()) && target(o)")
+  public long aroundTryOptimisticRead(ProceedingJoinPoint thisJoinPoint, Object o) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      return Query.getOptimisticStamp(t, l);
+    } else {
+      return (Long) thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>StampedLock.validate(long)</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @param stamp Stamp.
+   * @return <code>true</code> if the lock has not been write-locked since the stamp was issued.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(boolean java.util.concurrent.locks.StampedLock+.validate(long)) && target(o) && args(stamp)")
+  public boolean aroundValidate(ProceedingJoinPoint thisJoinPoint, Object o, long stamp) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      return Query.validate(t, l, stamp);
+    } else {
+      return (Boolean) thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>StampedLock.tryConvertToWriteLock(long)</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @param stamp Stamp.
+   * @return Write stamp, or <code>0</code> if the conversion failed.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(long java.util.concurrent.locks.StampedLock+.tryConvertToWriteLock(long)) && target(o) && args(stamp)")
+  public long aroundTryConvertToWriteLock(ProceedingJoinPoint thisJoinPoint, Object o, long stamp) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      return Convert.execute(t, l, stamp, VirtualLock.WRITE_STAMP);
+    } else {
+      return (Long) thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>StampedLock.tryConvertToReadLock(long)</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @param stamp Stamp.
+   * @return Read stamp, or <code>0</code> if the conversion failed.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(long java.util.concurrent.locks.StampedLock+.tryConvertToReadLock(long)) && target(o) && args(stamp)")
+  public long aroundTryConvertToReadLock(ProceedingJoinPoint thisJoinPoint, Object o, long stamp) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      return Convert.execute(t, l, stamp, VirtualLock.READ_STAMP);
+    } else {
+      return (Long) thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of <code>StampedLock.tryConvertToOptimisticRead(long)</code>.
+   * @param thisJoinPoint Join point.
+   * @param o Target object.
+   * @param stamp Stamp.
+   * @return Optimistic read stamp, or <code>0</code> if the conversion failed.
+   * @throws Throwable In accordance to <code>ProceedingJoinPoint.proceed()</code>.
+   */
+  @Around("call(long java.util.concurrent.locks.StampedLock+.tryConvertToOptimisticRead(long)) && target(o) && args(stamp)")
+  public long aroundTryConvertToOptimisticRead(ProceedingJoinPoint thisJoinPoint, Object o, long stamp) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    VirtualLock l = virtualLock(t, o);
+    if (l != null) {
+      return Convert.execute(t, l, stamp, 0L);
+    } else {
+      return (Long) thisJoinPoint.proceed();
+    }
+  }
+
+  // AUXILIARY METHODS
+
+  @SuppressWarnings("javadoc")
+  private static VirtualLock virtualLock(CThread t, Object o) {
+    return t != null ? getRuntime().get(LockPool.class).get(o) : null;
+  }
+
+  @SuppressWarnings("javadoc")
+  private static VirtualCondition virtualCondition(CThread t, Object c) {
+    return t != null ? getRuntime().get(LockPool.class).getCondition(c) : null;
+  }
+
+  @SuppressWarnings("javadoc")
+  private static boolean isShared(Object o) {
+    return o instanceof ReentrantReadWriteLock.ReadLock;
+  }
+
+  @SuppressWarnings("javadoc")
+  private static boolean isReadStampSignature(ProceedingJoinPoint jp) {
+    return jp.getSignature().getName().toLowerCase().contains("read");
+  }
+}
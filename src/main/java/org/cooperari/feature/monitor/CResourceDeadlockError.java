@@ -34,17 +34,17 @@ public class CResourceDeadlockError extends CDeadlockError {
    * Constructor.
    * 
    * @param t Thread where deadlock is detected.
-   * @param cycle Monitor cycle due to the deadlock.
+   * @param cycle Resource cycle due to the deadlock.
    */
-  public CResourceDeadlockError(CThread t, List<Monitor> cycle) {
+  public CResourceDeadlockError(CThread t, List<? extends Resource> cycle) {
     super(formatMessage(t, cycle));
   }
 
   @SuppressWarnings("javadoc")
-  private static String formatMessage(CThread t, List<Monitor> cycle) {
+  private static String formatMessage(CThread t, List<? extends Resource> cycle) {
     StringBuilder sb = new StringBuilder();
-    Iterator<Monitor> itr = cycle.iterator();
-    Monitor m = itr.next();
+    Iterator<? extends Resource> itr = cycle.iterator();
+    Resource m = itr.next();
     format(t, m, sb);
     while (itr.hasNext()) {
       sb.append(' ').append('>').append(' ');
@@ -55,7 +55,7 @@ public class CResourceDeadlockError extends CDeadlockError {
   }
 
   @SuppressWarnings("javadoc")
-  private static void format(CThread t, Monitor m, StringBuilder sb) {
+  private static void format(CThread t, Resource m, StringBuilder sb) {
     CThreadLocation pc = t.getLocation();
     sb.append('L').append(m.getId()).append('/').append(t.getName())
         .append('/').append(pc.getYieldPoint().getSourceFile()).append(':')
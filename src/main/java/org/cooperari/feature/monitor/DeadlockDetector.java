@@ -24,11 +24,13 @@ import org.cooperari.config.CDetectResourceDeadlocks;
 import org.cooperari.core.CRuntime;
 import org.cooperari.core.CThread;
 import org.cooperari.core.CTrace;
+import org.cooperari.core.jfr.CFlightRecorder;
 import org.cooperari.core.util.ResourceGraph;
 
 
 /**
- * Monitor acquisition deadlock detector.
+ * Resource acquisition deadlock detector, covering monitors and
+ * other lock resources (e.g., <code>java.util.concurrent.locks</code> locks).
  * 
  * @since 0.2
  */
@@ -37,12 +39,12 @@ public class DeadlockDetector {
   /**
    * Resource graph.
    */
-  private final ResourceGraph<Monitor> _graph = new ResourceGraph<>();
+  private final ResourceGraph<Resource> _graph = new ResourceGraph<>();
 
   /**
    * Lock chain per thread.
    */
-  private final IdentityHashMap<CThread, LinkedList<Monitor>> _lockChain = new IdentityHashMap<>();
+  private final IdentityHashMap<CThread, LinkedList<Resource>> _lockChain = new IdentityHashMap<>();
 
   /**
    * Constructs a new deadlock detector.
@@ -56,22 +58,21 @@ public class DeadlockDetector {
    * Signal monitor acquisition intent by given thread.
    * 
    * @param t The acquiring thread.
-   * @param m The monitor.
+   * @param m The monitor (or other lock resource).
    */
-  public void onMonitorEnter(CThread t, Monitor m) {
-    LinkedList<Monitor> chain = _lockChain.get(t);
+  public void onMonitorEnter(CThread t, Resource m) {
+    LinkedList<Resource> chain = _lockChain.get(t);
     if (chain == null) {
       chain = new LinkedList<>();
       chain.add(m);
       _lockChain.put(t, chain);
     } else {
-      Monitor from = chain.getLast();
-      _graph.addEdge(from, m);
-      List<Monitor> deadlock = _graph.findCycle(m);
+      Resource from = chain.getLast();
+      List<Resource> deadlock = _graph.tryAddEdge(from, m);
       if (!deadlock.isEmpty()) {
-        _graph.removeEdge(from, m);
         CResourceDeadlockError error = new CResourceDeadlockError(t, deadlock);
-        for (Monitor m2 : deadlock) {
+        CFlightRecorder.deadlock("resource", deadlock.size());
+        for (Resource m2 : deadlock) {
           CThread t2 = m2.getOwner();
           CRuntime.getRuntime().get(CTrace.class).record(t2, CTrace.EventType.DEADLOCK);
           if (t2 != t) {
@@ -92,13 +93,62 @@ public class DeadlockDetector {
    * @param t The releasing thread.
    */
   public void onMonitorExit(CThread t) {
-    LinkedList<Monitor> chain = _lockChain.get(t);
+    LinkedList<Resource> chain = _lockChain.get(t);
 
-    Monitor m = chain.removeLast();
+    Resource m = chain.removeLast();
     if (!chain.isEmpty()) {
       _graph.removeEdge(chain.getLast(), m);
     } else {
       _lockChain.remove(t);
     }
   }
+
+  /**
+   * Signal that a thread acquired a resource without blocking
+   * (e.g., through a <code>tryLock()</code> call). The resource 
+   * is added to the thread's lock chain, but no resource 
+   * dependency is recorded since the acquisition could not deadlock. 
+   * 
+   * @param t The acquiring thread.
+   * @param r The resource.
+   * @since 0.5
+   */
+  public void onResourceAcquired(CThread t, Resource r) {
+    LinkedList<Resource> chain = _lockChain.get(t);
+    if (chain == null) {
+      chain = new LinkedList<>();
+      _lockChain.put(t, chain);
+    } 
+    chain.addLast(r);
+  }
+
+  /**
+   * Signal the release of a specific resource by a thread. Unlike 
+   * {@link #onMonitorExit(CThread)}, the resource need not be
+   * the last one acquired by the thread (e.g., for hand-over-hand locking).
+   * When the resource sits in between two others in the lock chain, 
+   * the dependency between these two is preserved.
+   * 
+   * @param t The owner thread.
+   * @param r The resource.
+   * @since 0.5
+   */
+  public void onResourceRelease(CThread t, Resource r) {
+    LinkedList<Resource> chain = _lockChain.get(t);
+    int i = chain != null ? chain.lastIndexOf(r) : -1;
+    if (i < 0) {
+      return;
+    }
+    Resource prev = i > 0 ? chain.get(i - 1) : null;
+    Resource next = i < chain.size() - 1 ? chain.get(i + 1) : null;
+    chain.remove(i);
+    boolean prevEdge = prev != null && _graph.removeEdge(prev, r);
+    boolean nextEdge = next != null && _graph.removeEdge(r, next);
+    if (prevEdge && nextEdge) {
+      _graph.addEdge(prev, next);
+    }
+    if (chain.isEmpty()) {
+      _lockChain.remove(t);
+    }
+  }
 }
@@ -22,6 +22,7 @@ import static org.cooperari.core.CThreadState.CREADY;
 
 import org.cooperari.core.CThread;
 import org.cooperari.core.CThreadState;
+import org.cooperari.feature.data.RaceDetector;
 
 /**
  * Monitor enter operation (lock acquisition).
@@ -66,6 +67,12 @@ final class Enter extends MonitorOperation<Void> {
   @Override
   public void execute() {
     _monitor.enter(_thread);
+    if (_monitor.getOwnerLockCount() == 1) {
+      RaceDetector rd = getRuntime().get(RaceDetector.class);
+      if (rd != null) {
+        rd.onAcquire(_thread, _monitor.getObject());
+      }
+    }
   }
   
   /**
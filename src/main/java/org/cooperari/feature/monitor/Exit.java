@@ -19,6 +19,7 @@ package org.cooperari.feature.monitor;
 import static org.cooperari.core.CRuntime.getRuntime;
 
 import org.cooperari.core.CThread;
+import org.cooperari.feature.data.RaceDetector;
 
 /**
  * Monitor exit operation (lock release).
@@ -42,11 +43,17 @@ final class Exit extends MonitorOperation<Void> {
    */
   @Override
   public void execute() {
+    if (_monitor.getOwner() == _thread && _monitor.getOwnerLockCount() == 1) {
+      RaceDetector rd = getRuntime().get(RaceDetector.class);
+      if (rd != null) {
+        rd.onRelease(_thread, _monitor.getObject());
+      }
+    }
     _monitor.exit();
     if (_monitor.getOwner() != _thread) {
       DeadlockDetector dd = getRuntime().get(DeadlockDetector.class);
       if (dd != null) {
-        dd.onMonitorExit(_thread);
+        dd.onResourceRelease(_thread, _monitor);
       }
     }
   }
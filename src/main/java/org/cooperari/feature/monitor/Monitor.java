@@ -18,9 +18,6 @@ package org.cooperari.feature.monitor;
 
 import static org.cooperari.core.util.UnsafeVMOperations.UNSAFE;
 
-import java.util.LinkedList;
-import java.util.Queue;
-
 import org.cooperari.core.CThread;
 import org.cooperari.core.CWorkspace;
 import org.cooperari.errors.CInternalError;
@@ -30,7 +27,7 @@ import org.cooperari.errors.CInternalError;
  * 
  * @since 0.1
  */
-public final class Monitor {
+public final class Monitor implements Resource {
   /**
    * Instance representing an invalid monitor, 
    * when monitor operations involve the null reference.
@@ -45,11 +42,11 @@ public final class Monitor {
   /**
    * Identifier.
    */
-  private final int _id;
+  private int _id;
   /**
    * Object that this monitor associates to.
    */
-  private final Object _theObject;
+  private Object _theObject;
   /**
    * Owner thread, when locked.
    */
@@ -71,9 +68,18 @@ public final class Monitor {
    */
   private int _notifyEpoch;
   /**
-   * Notification queue.
+   * Notification queue, a ring buffer of notification sequence numbers 
+   * (allocated on first use).
+   */
+  private int[] _notifications;
+  /**
+   * Head of notification queue.
    */
-  private Queue<Integer> _notifications;
+  private int _notificationsHead;
+  /**
+   * Number of queued notifications.
+   */
+  private int _notificationsSize;
 
   // BASIC METHODS
   /**
@@ -87,6 +93,26 @@ public final class Monitor {
     assert CWorkspace.debug("mon ctor| %s", toString());
   }
 
+  /**
+   * Reset the monitor for reuse, clearing all state except for the notification
+   * queue buffer.
+   * @param id New id for the monitor.
+   * @param object New object the monitor relates to.
+   * @see MonitorPool
+   * @since 0.5
+   */
+  void reset(int id, Object object) {
+    _id = id;
+    _theObject = object;
+    _owner = null;
+    _ownerLockCount = 0;
+    _refCount = 0;
+    _waitCount = 0;
+    _notifyEpoch = 0;
+    _notificationsHead = 0;
+    _notificationsSize = 0;
+  }
+
   /**
    * Get monitor id.
    * @return Monitor id.
@@ -228,7 +254,12 @@ public final class Monitor {
    * @return Sequence number for removed notification.
    */
   public int consumeNotification() {
-    int seq = _notifications.remove();
+    if (_notificationsSize == 0) {
+      throw new CInternalError();
+    }
+    int seq = _notifications[_notificationsHead];
+    _notificationsHead = (_notificationsHead + 1) & (_notifications.length - 1);
+    _notificationsSize--;
     assert CWorkspace.debug("consume | %s", toString());
     return seq;
   }
@@ -240,11 +271,8 @@ public final class Monitor {
   public void notifyOneThread() {
     if (_waitCount > 0) {
       assert CWorkspace.debug("1 out of %d threads will be awakened", _waitCount);
-      if (_notifications == null) {
-        _notifications = new LinkedList<>();
-      }
       _waitCount --;
-      _notifications.offer(_notifyEpoch);
+      offerNotification(_notifyEpoch);
       _notifyEpoch ++;
       assert CWorkspace.debug("notify (1) | %s", toString());
     } else {
@@ -257,11 +285,8 @@ public final class Monitor {
    */
   public void notifyAllThreads() {
     if (_waitCount > 0) {
-      if (_notifications == null) {
-        _notifications = new LinkedList<>();
-      }
       for (int i=0; i != _waitCount; i++) {
-        _notifications.offer(_notifyEpoch);
+        offerNotification(_notifyEpoch);
       }
       _waitCount = 0;
       _notifyEpoch ++;
@@ -277,9 +302,28 @@ public final class Monitor {
    * @return <code>true</code> iff such a notification exists.
    */
   public boolean availableNotification(int seq) {
-    return _notifications != null
-        && _notifications.size() > 0 
-        && _notifications.peek() >= seq;  
+    return _notificationsSize > 0 
+        && _notifications[_notificationsHead] >= seq;  
+  }
+
+  /**
+   * Add a notification to the tail of the notification queue.
+   * @param seq Sequence number.
+   */
+  private void offerNotification(int seq) {
+    if (_notifications == null) {
+      _notifications = new int[4];
+    } else if (_notificationsSize == _notifications.length) {
+      // Grow, unwrapping the ring buffer.
+      int[] a = new int[2 * _notificationsSize];
+      int n = _notificationsSize - _notificationsHead;
+      System.arraycopy(_notifications, _notificationsHead, a, 0, n);
+      System.arraycopy(_notifications, 0, a, n, _notificationsHead);
+      _notifications = a;
+      _notificationsHead = 0;
+    }
+    _notifications[(_notificationsHead + _notificationsSize) & (_notifications.length - 1)] = seq;
+    _notificationsSize++;
   }
 
   // COMPLEMENTARY METHODS
@@ -313,7 +357,7 @@ public final class Monitor {
     .append(' ')
     .append('Q')
     .append('=')
-    .append(_notifications == null ? 0 : _notifications.size())
+    .append(_notificationsSize)
     .append(']').toString();
   }    
 }
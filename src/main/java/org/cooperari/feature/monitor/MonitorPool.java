@@ -16,21 +16,53 @@
 
 package org.cooperari.feature.monitor;
 
-import java.util.IdentityHashMap;
+import java.util.Arrays;
 
 import org.cooperari.core.CWorkspace;
 
 /**
  * Runtime pool for {@link Monitor} objects.
  * 
+ * <p>
+ * Monitors are kept in an open-addressing table keyed by object identity, 
+ * using linear probing and removal by backward shifting.
+ * Disposed monitors are kept in a free list for reuse, hence
+ * monitor lookup, creation and disposal normally require no object allocation.
+ * </p>
+ * 
  * @since 0.2
  */
 public final class MonitorPool {
 
   /**
-   * Object-to-monitor map.
+   * Initial table capacity (must be a power of 2).
    */
-  private final IdentityHashMap<Object, Monitor> _pool = new IdentityHashMap<>();
+  private static final int INITIAL_CAPACITY = 64;
+
+  /**
+   * Objects per slot (<code>null</code> for empty slots).
+   */
+  private Object[] _objects = new Object[INITIAL_CAPACITY];
+
+  /**
+   * Monitors per slot.
+   */
+  private Monitor[] _monitors = new Monitor[INITIAL_CAPACITY];
+
+  /**
+   * Number of monitors in the table.
+   */
+  private int _size = 0;
+
+  /**
+   * Disposed monitors available for reuse.
+   */
+  private Monitor[] _free = new Monitor[16];
+
+  /**
+   * Number of disposed monitors available for reuse.
+   */
+  private int _freeCount = 0;
   
   /**
    * Monitor id counter.
@@ -64,19 +96,36 @@ public final class MonitorPool {
       // Null reference does not have an associated monitor.
       return Monitor.NULL;
     }
-    Monitor m = _pool.get(o);
-    if (create) {
-      if (m == null) {
-        m = new Monitor(_counter++, o);
-        _pool.put(o, m);
-        assert CWorkspace.debug("monitor %d created", m.getId());
-      } else {
-        m.addReference();
+    int mask = _objects.length - 1;
+    int slot = System.identityHashCode(o) & mask;
+    Object x;
+    while ((x = _objects[slot]) != null) {
+      if (x == o) {
+        Monitor m = _monitors[slot];
+        if (create) {
+          m.addReference();
+        }
+        return m;
       }
+      slot = (slot + 1) & mask;
     }
-    if (m == null) {
+    if (!create) {
       return Monitor.UNREFERENCED_MONITOR;
     }
+    Monitor m;
+    if (_freeCount > 0) {
+      m = _free[--_freeCount];
+      _free[_freeCount] = null;
+      m.reset(_counter++, o);
+    } else {
+      m = new Monitor(_counter++, o);
+    }
+    _objects[slot] = o;
+    _monitors[slot] = m;
+    if (++_size > (_objects.length >>> 1)) {
+      grow();
+    }
+    assert CWorkspace.debug("monitor %d created", m.getId());
     return m;
   }
 
@@ -89,16 +138,73 @@ public final class MonitorPool {
   public void release(Monitor m) {
     if (m.removeReference() == 0) {
       assert CWorkspace.debug("disposed of monitor " + m.getId());
-      _pool.remove(m.getObject());
+      remove(m.getObject());
+      m.reset(-1, null);
+      if (_freeCount == _free.length) {
+        _free = Arrays.copyOf(_free, 2 * _freeCount);
+      }
+      _free[_freeCount++] = m;
     }
   }
   
   /**
    * Get monitor count.
-   * @return The number of monitors currently stored.
+   * @return The number of monitors created so far.
    */
   public int monitorCount() {
     return _counter;
   }
 
+  /**
+   * Remove the monitor for an object from the table.
+   * @param o Object.
+   */
+  private void remove(Object o) {
+    int mask = _objects.length - 1;
+    int slot = System.identityHashCode(o) & mask;
+    while (_objects[slot] != o) {
+      if (_objects[slot] == null) {
+        return;
+      }
+      slot = (slot + 1) & mask;
+    }
+    // Backward shift deletion.
+    int hole = slot;
+    int next = (hole + 1) & mask;
+    Object x;
+    while ((x = _objects[next]) != null) {
+      int home = System.identityHashCode(x) & mask;
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        _objects[hole] = x;
+        _monitors[hole] = _monitors[next];
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    _objects[hole] = null;
+    _monitors[hole] = null;
+    _size--;
+  }
+
+  /**
+   * Double the capacity of the table.
+   */
+  private void grow() {
+    Object[] objects = _objects;
+    Monitor[] monitors = _monitors;
+    _objects = new Object[2 * objects.length];
+    _monitors = new Monitor[2 * objects.length];
+    int mask = _objects.length - 1;
+    for (int i = 0; i < objects.length; i++) {
+      if (objects[i] != null) {
+        int slot = System.identityHashCode(objects[i]) & mask;
+        while (_objects[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        _objects[slot] = objects[i];
+        _monitors[slot] = monitors[i];
+      }
+    }
+  }
+
 }
@@ -0,0 +1,40 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.feature.monitor;
+
+import org.cooperari.core.CThread;
+
+/**
+ * Lock resource tracked by the {@link DeadlockDetector}.
+ * 
+ * @see Monitor
+ * @since 0.5
+ */
+public interface Resource {
+
+  /**
+   * Get resource id.
+   * @return Resource id.
+   */
+  long getId();
+
+  /**
+   * Get owner thread.
+   * @return Owner thread or null if the resource is not (exclusively) locked.
+   */
+  CThread getOwner();
+}
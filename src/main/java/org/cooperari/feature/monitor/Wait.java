@@ -29,6 +29,7 @@ import org.cooperari.core.CBlockingOperationEvent;
 import org.cooperari.core.COperation;
 import org.cooperari.core.CThread;
 import org.cooperari.core.CThreadState;
+import org.cooperari.feature.data.RaceDetector;
 
 
 
@@ -73,6 +74,10 @@ public final class Wait {
       if (_monitor.getOwner() != _thread) {
         throw new IllegalMonitorStateException("Monitor is not owned by current thread.");
       }
+      RaceDetector rd = getRuntime().get(RaceDetector.class);
+      if (rd != null) {
+        rd.onRelease(_thread, _monitor.getObject());
+      }
       _result = _monitor.relinquish(_thread, true);
     }
 
@@ -234,6 +239,10 @@ public final class Wait {
     @Override
     public void execute() {
       _monitor.reacquire(_thread, _lockCount);
+      RaceDetector rd = getRuntime().get(RaceDetector.class);
+      if (rd != null) {
+        rd.onAcquire(_thread, _monitor.getObject());
+      }
     }
   }
 
@@ -42,4 +42,15 @@ public final class CThreadFeature implements CFeature {
   static CThread getCThread(Thread t) {
     return CRuntime.getRuntime().get(CThreadMappings.class).getCThread(t);
   }
+
+  /**
+   * Shortcut method that invokes {@link CThreadMappings#findCThread(Thread)} on the thread mappings object
+   * registered for the current runtime.
+   * @param t Thread
+   * @return A {@link CThread} instance, or <code>null</code> if <code>t</code> has no cooperative counterpart.
+   * @since 0.5
+   */
+  static CThread findCThread(Thread t) {
+    return CRuntime.getRuntime().get(CThreadMappings.class).findCThread(t);
+  }
 }
@@ -0,0 +1,146 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.feature.thread;
+
+import static org.cooperari.core.CThreadState.CREADY;
+import static org.cooperari.core.CThreadState.CTIMED_WAITING;
+import static org.cooperari.core.CThreadState.CWAITING;
+
+import org.cooperari.core.CThread;
+import org.cooperari.core.CThreadState;
+
+/**
+ * Cooperative operation for <code>LockSupport.park()</code> and its variants.
+ * 
+ * <p>
+ * Only calls to <code>LockSupport</code> in woven (application) code are 
+ * virtualized. Synchronizers in <code>java.util.concurrent</code> that are built on
+ * <code>AbstractQueuedSynchronizer</code>, such as <code>CountDownLatch</code> or 
+ * <code>Semaphore</code>, park threads from within JDK code, which is not woven,
+ * hence a cooperative thread blocked on them really blocks, and is not seen as blocked by the engine.
+ * Locks and conditions in <code>java.util.concurrent.locks</code> are virtualized 
+ * at the level of their API (see {@link org.cooperari.feature.locks}).
+ * </p>
+ * 
+ * @since 0.5
+ */
+public final class Park extends ThreadOperation<Void> {
+  /**
+   * This thread.
+   */
+  private final CThread _thisThread;
+
+  /**
+   * Indicates a timed park.
+   */
+  private final boolean _timed;
+
+  /**
+   * Park deadline in nanoseconds (<code>System.nanoTime()</code> wall time), for timed parks.
+   */
+  private final long _deadline;
+
+  /**
+   * Set when the thread may resume.
+   */
+  private boolean _ready;
+
+  /**
+   * Constructor.
+   * 
+   * @param thisThread Current thread.
+   * @param timed Indicates a timed park.
+   * @param timeout Timeout in nanoseconds, for timed parks.
+   */
+  private Park(CThread thisThread, boolean timed, long timeout) {
+    super();
+    _thisThread = thisThread;
+    _timed = timed;
+    _deadline = timed ? System.nanoTime() + timeout : 0L;
+    thisThread.enableSpuriousWakeups();
+  }
+
+  /**
+   * Get state.
+   * 
+   * @return {@link CThreadState#CREADY} if the park permit is available, 
+   *         the thread is interrupted, the thread receives a (simulated) spurious wakeup,
+   *         or the deadline expires for timed parks;
+   *         {@link CThreadState#CTIMED_WAITING} or {@link CThreadState#CWAITING} otherwise.
+   */
+  @Override
+  public CThreadState getState() {
+    if (_ready) {
+      return CREADY;
+    }
+    // Note: the interrupt status is tested before wakeup events so that it is not cleared.
+    if (_thisThread.getParkPermit() 
+        || _thisThread.getInterruptStatus()
+        || _thisThread.testAndClearWakeupEvents() != null) {
+      _ready = true;
+      return CREADY;
+    }
+    if (_timed) {
+      if (System.nanoTime() - _deadline >= 0) {
+        _ready = true;
+        return CREADY;
+      }
+      return CTIMED_WAITING;
+    }
+    return CWAITING;
+  }
+
+  /**
+   * Complete operation by consuming the park permit, if available.
+   */
+  @Override
+  public void execute() {
+    _thisThread.testAndClearParkPermit();
+  }
+
+  /**
+   * Execute park operation.
+   * 
+   * @param thisThread This thread.
+   * @param blocker Blocker object (may be <code>null</code>).
+   * @param timed Indicates a timed park.
+   * @param timeout Timeout in nanoseconds, for timed parks.
+   */
+  public static void execute(CThread thisThread, Object blocker, boolean timed, long timeout) {
+    thisThread.setParkBlocker(blocker);
+    try {
+      thisThread.cYield(new Park(thisThread, timed, timeout));
+    } finally {
+      thisThread.setParkBlocker(null);
+    }
+  }
+
+  /**
+   * Get the blocker object of a thread, as for <code>LockSupport.getBlocker()</code>.
+   * The call does not define a yield point.
+   * 
+   * @param thread Target thread.
+   * @return Blocker object, or <code>null</code> if there is none.
+   */
+  public static Object getBlocker(Thread thread) {
+    if (thread == null) {
+      throw new NullPointerException();
+    }
+    CThread t = CThreadFeature.findCThread(thread);
+    return t != null ? t.getParkBlocker() : null;
+  }
+}
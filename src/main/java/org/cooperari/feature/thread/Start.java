@@ -16,7 +16,10 @@
 
 package org.cooperari.feature.thread;
 
+import static org.cooperari.core.CRuntime.getRuntime;
+
 import org.cooperari.core.CThread;
+import org.cooperari.feature.data.RaceDetector;
 
 /**
  * Cooperative operation for {@link Thread#start()}.
@@ -57,7 +60,11 @@ public final class Start extends ThreadOperation<Void> {
     if (_threadToStart.getState() != Thread.State.NEW) {
       throw new IllegalThreadStateException("Thread already started");
     }
-    _thisThread.getEngine().createNewThread(_threadToStart, null);
+    CThread child = _thisThread.getEngine().createNewThread(_threadToStart, null);
+    RaceDetector rd = getRuntime().get(RaceDetector.class);
+    if (rd != null) {
+      rd.onThreadStart(_thisThread, child);
+    }
   }
 
 
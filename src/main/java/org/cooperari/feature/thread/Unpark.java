@@ -0,0 +1,68 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.feature.thread;
+
+import java.util.concurrent.locks.LockSupport;
+
+import org.cooperari.core.CThread;
+
+/**
+ * Cooperative operation for <code>LockSupport.unpark()</code>.
+ * 
+ * @since 0.5
+ */
+public final class Unpark extends ThreadOperation<Void> {
+  /**
+   * Thread to unpark.
+   */
+  private final CThread _targetThread;
+
+  /**
+   * Constructor.
+   * @param targetThread Thread to unpark.
+   */ 
+  private Unpark(CThread targetThread) {
+    super(targetThread);
+    _targetThread = targetThread;
+  }
+
+  /**
+   * Complete by making the park permit of the target thread available.
+   */
+  @Override
+  public void execute() {
+    _targetThread.grantParkPermit();
+  }
+
+  /**
+   * Execute unpark operation.
+   * If the target thread has no cooperative counterpart (e.g., it has not been started),
+   * <code>LockSupport.unpark()</code> is called directly.
+   * @param thisThread This thread.
+   * @param targetThread Thread to unpark (may be <code>null</code>, in which case the call has no effect).
+   */
+  public static void execute(CThread thisThread, Thread targetThread) {
+    if (targetThread != null) {
+      CThread t = CThreadFeature.findCThread(targetThread);
+      if (t != null) {
+        thisThread.cYield(new Unpark(t));
+      } else {
+        LockSupport.unpark(targetThread);
+      }
+    }
+  }
+}
@@ -16,6 +16,9 @@
 
 package org.cooperari.feature.thread;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
@@ -26,6 +29,12 @@ import org.cooperari.errors.CInternalError;
 /**
  * {@link java.lang.Thread} yield points.
  * 
+ * <p>
+ * Calls to {@link LockSupport} park and unpark methods are also yield points, but
+ * only when made from woven code; see {@link Park} for the implications on 
+ * <code>java.util.concurrent</code> synchronizers.
+ * </p>
+ * 
  * @since 0.2
  */
 @Aspect
@@ -273,6 +282,133 @@ public class YieldPoints {
     }
   }
 
+  /**
+   * Around advice executed in place of {@link LockSupport#park()}.
+   * @param thisJoinPoint Join point.
+   * @throws Throwable In accordance to {@link ProceedingJoinPoint#proceed()}.
+   */
+  @Around("call(void java.util.concurrent.locks.LockSupport.park())")
+  public void aroundPark(ProceedingJoinPoint thisJoinPoint) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    if (t != null) {
+      Park.execute(t, null, false, 0L);
+    } else {
+      thisJoinPoint.proceed();
+    }
+  }
+
+  /**
+   * Around advice executed in place of {@link LockSupport#park(Object)}.
+   * @param thisJoinPoint Join point.
+   * @param blocker Argument for {@link LockSupport#park(Object)}.
+   * @throws Throwable In accordance to {@link ProceedingJoinPoint#proceed()}.
+   */
+  @Around("call(void java.util.concurrent.locks.LockSupport.park(Object)) && args(blocker)")
+  public void aroundPark(ProceedingJoinPoint thisJoinPoint, Object blocker) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    if (t != null) {
+      Park.execute(t, blocker, false, 0L);
+    } else {
+      thisJoinPoint.proceed(new Object[]{ blocker });
+    }
+  }
+
+  /**
+   * Around advice executed in place of {@link LockSupport#parkNanos(long)}.
+   * @param thisJoinPoint Join point.
+   * @param nanos Argument for {@link LockSupport#parkNanos(long)}.
+   * @throws Throwable In accordance to {@link ProceedingJoinPoint#proceed()}.
+   */
+  @Around("call(void java.util.concurrent.locks.LockSupport.parkNanos(long)) && args(nanos)")
+  public void aroundParkNanos(ProceedingJoinPoint thisJoinPoint, long nanos) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    if (t != null) {
+      Park.execute(t, null, true, nanos);
+    } else {
+      thisJoinPoint.proceed(new Object[]{ nanos });
+    }
+  }
+
+  /**
+   * Around advice executed in place of {@link LockSupport#parkNanos(Object,long)}.
+   * @param thisJoinPoint Join point.
+   * @param blocker First argument for {@link LockSupport#parkNanos(Object,long)}.
+   * @param nanos Second argument for {@link LockSupport#parkNanos(Object,long)}.
+   * @throws Throwable In accordance to {@link ProceedingJoinPoint#proceed()}.
+   */
+  @Around("call(void java.util.concurrent.locks.LockSupport.parkNanos(Object,long)) && args(blocker,nanos)")
+  public void aroundParkNanos(ProceedingJoinPoint thisJoinPoint, Object blocker, long nanos) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    if (t != null) {
+      Park.execute(t, blocker, true, nanos);
+    } else {
+      thisJoinPoint.proceed(new Object[]{ blocker, nanos });
+    }
+  }
+
+  /**
+   * Around advice executed in place of {@link LockSupport#parkUntil(long)}.
+   * @param thisJoinPoint Join point.
+   * @param deadline Argument for {@link LockSupport#parkUntil(long)}.
+   * @throws Throwable In accordance to {@link ProceedingJoinPoint#proceed()}.
+   */
+  @Around("call(void java.util.concurrent.locks.LockSupport.parkUntil(long)) && args(deadline)")
+  public void aroundParkUntil(ProceedingJoinPoint thisJoinPoint, long deadline) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    if (t != null) {
+      Park.execute(t, null, true, TimeUnit.MILLISECONDS.toNanos(deadline - System.currentTimeMillis()));
+    } else {
+      thisJoinPoint.proceed(new Object[]{ deadline });
+    }
+  }
+
+  /**
+   * Around advice executed in place of {@link LockSupport#parkUntil(Object,long)}.
+   * @param thisJoinPoint Join point.
+   * @param blocker First argument for {@link LockSupport#parkUntil(Object,long)}.
+   * @param deadline Second argument for {@link LockSupport#parkUntil(Object,long)}.
+   * @throws Throwable In accordance to {@link ProceedingJoinPoint#proceed()}.
+   */
+  @Around("call(void java.util.concurrent.locks.LockSupport.parkUntil(Object,long)) && args(blocker,deadline)")
+  public void aroundParkUntil(ProceedingJoinPoint thisJoinPoint, Object blocker, long deadline) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    if (t != null) {
+      Park.execute(t, blocker, true, TimeUnit.MILLISECONDS.toNanos(deadline - System.currentTimeMillis()));
+    } else {
+      thisJoinPoint.proceed(new Object[]{ blocker, deadline });
+    }
+  }
+
+  /**
+   * Around advice executed in place of {@link LockSupport#unpark(Thread)}.
+   * @param thisJoinPoint Join point.
+   * @param thread Argument for {@link LockSupport#unpark(Thread)}.
+   * @throws Throwable In accordance to {@link ProceedingJoinPoint#proceed()}.
+   */
+  @Around("call(void java.util.concurrent.locks.LockSupport.unpark(Thread)) && args(thread)")
+  public void aroundUnpark(ProceedingJoinPoint thisJoinPoint, Thread thread) throws Throwable {
+    CThread t = CThread.intercept(thisJoinPoint);
+    if (t != null) {
+      Unpark.execute(t, thread);
+    } else {
+      thisJoinPoint.proceed(new Object[]{ thread });
+    }
+  }
+
+  /**
+   * Around advice executed in place of {@link LockSupport#getBlocker(Thread)}.
+   * The call does not define a yield point, but is virtualized if executed by a cooperative thread.
+   * @param thisJoinPoint Join point.
+   * @param thread Argument for {@link LockSupport#getBlocker(Thread)}.
+   * @return The blocker object for the thread, if any.
+   * @throws Throwable In accordance to {@link ProceedingJoinPoint#proceed()}.
+   */
+  @Around("call(Object java.util.concurrent.locks.LockSupport.getBlocker(Thread)) && args(thread)")
+  public Object aroundGetBlocker(ProceedingJoinPoint thisJoinPoint, Thread thread) throws Throwable {
+    CThread t = CThread.self();
+    return t != null ? Park.getBlocker(thread) : thisJoinPoint.proceed(new Object[]{ thread });
+  }
+
   /**
    * Around advice executed in place of {@link CSystem#sendSpuriousWakeup(Thread)}.
    * @param thisJoinPoint Join point.
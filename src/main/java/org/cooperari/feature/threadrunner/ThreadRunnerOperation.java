@@ -28,6 +28,7 @@ import org.cooperari.core.CRuntime;
 import org.cooperari.core.CThread;
 import org.cooperari.core.CThreadState;
 import org.cooperari.core.CUncaughtExceptionHandler;
+import org.cooperari.feature.data.RaceDetector;
 
 /**
  * Thread runner operation.
@@ -58,7 +59,7 @@ final class ThreadRunnerOperation extends COperation<Void> {
         }
       }
     }
-    thisThread.cYield(new ThreadRunnerOperation(runnables));
+    thisThread.cYield(new ThreadRunnerOperation(thisThread, runnables));
   }
   /**
    * Uncaught exception handler.
@@ -70,15 +71,34 @@ final class ThreadRunnerOperation extends COperation<Void> {
    */
   private final LinkedList<CThread> _threadList = new LinkedList<>();
 
+  /**
+   * All threads created by the operation.
+   */
+  private final CThread[] _threads;
+
+  /**
+   * Thread that executes the operation.
+   */
+  private final CThread _thisThread;
+
   /**
    * Create service.
+   * @param thisThread Current thread.
    * @param runnables Array of {@link Runnable} instances for the threads for execute.
    */
-  private ThreadRunnerOperation(Runnable[] runnables) {
+  private ThreadRunnerOperation(CThread thisThread, Runnable[] runnables) {
     CRuntime rt = CRuntime.getRuntime();
     CEngine s = rt.get(CEngine.class);
+    RaceDetector rd = rt.get(RaceDetector.class);
+    _thisThread = thisThread;
+    _threads = new CThread[runnables.length];
     for (int i = 0; i < runnables.length; i++) {
-      _threadList.add(s.createNewThread(runnables[i], _excHandler));
+      CThread t = s.createNewThread(runnables[i], _excHandler);
+      _threads[i] = t;
+      _threadList.add(t);
+      if (rd != null) {
+        rd.onThreadStart(_thisThread, t);
+      }
     }
   }
   
@@ -108,12 +128,19 @@ final class ThreadRunnerOperation extends COperation<Void> {
 
   /**
    * Complete the operation. 
-   * This results in a call to {@link CUncaughtExceptionHandler#rethrowExceptionsIfAny() rethrowExceptionsIfAny()}
+   * All threads created by the operation are joined for the purpose of race detection,
+   * and this results in a call to {@link CUncaughtExceptionHandler#rethrowExceptionsIfAny() rethrowExceptionsIfAny()}
    * for the internal {@link CUncaughtExceptionHandler} object.
    * @see CUncaughtExceptionHandler#rethrowExceptionsIfAny()
    */
   @Override
   public void execute() {
+    RaceDetector rd = CRuntime.getRuntime().get(RaceDetector.class);
+    if (rd != null) {
+      for (CThread t : _threads) {
+        rd.onThreadJoin(_thisThread, t);
+      }
+    }
     _excHandler.rethrowExceptionsIfAny();
   }
 }
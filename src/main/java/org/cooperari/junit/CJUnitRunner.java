@@ -21,6 +21,11 @@ import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.cooperari.CSystem;
 import org.cooperari.CTest;
@@ -59,6 +64,7 @@ import org.junit.runners.model.Statement;
  * </pre>
  * 
  * @see CPreemptiveOnly
+ * @see CParallelMethods
  * @since 0.2
  */
 public final class CJUnitRunner extends BlockJUnit4ClassRunner {
@@ -85,6 +91,12 @@ public final class CJUnitRunner extends BlockJUnit4ClassRunner {
    */
   private static final String FALLBACK_WORSPACE_DIR = "cooperari-test-data";
 
+  /**
+   * Scheduler for parallel execution of test methods (<code>null</code> if not enabled).
+   * @see CParallelMethods
+   */
+  private final ParallelRunnerScheduler _parallelScheduler;
+
   /**
    * Constructs a new runner.
    * @param testClass Test class.
@@ -92,7 +104,15 @@ public final class CJUnitRunner extends BlockJUnit4ClassRunner {
    */
   public CJUnitRunner(Class<?> testClass) throws InitializationError {
     super(testClass);
-    super.setScheduler(JRUNNER_SCHEDULER);
+    CParallelMethods pm = testClass.getAnnotation(CParallelMethods.class);
+    if (pm != null && CSystem.inCooperativeMode()) {
+      _parallelScheduler = new ParallelRunnerScheduler(
+          pm.value() > 0 ? pm.value() : Runtime.getRuntime().availableProcessors());
+      super.setScheduler(_parallelScheduler);
+    } else {
+      _parallelScheduler = null;
+      super.setScheduler(JRUNNER_SCHEDULER);
+    }
     try {
       CWorkspace.INSTANCE.initializeIfNecessary(new File(FALLBACK_WORSPACE_DIR));
     } catch (IOException e) {
@@ -102,47 +122,71 @@ public final class CJUnitRunner extends BlockJUnit4ClassRunner {
 
   /**
    * Callback method to execute a test method.
+   * 
+   * <p>
+   * If parallel execution is enabled (see {@link CParallelMethods}), the test session
+   * is submitted for concurrent execution, and JUnit notifications for the method
+   * are deferred until all methods have been scheduled. 
+   * </p>
    * @param fm Method to run.
    * @param notifier Notifier instance.
    */
   @Override
   protected void runChild(FrameworkMethod fm, RunNotifier notifier) {
+    Runnable action = prepareChild(fm, notifier);
+    if (_parallelScheduler != null) {
+      _parallelScheduler.defer(action);
+    } else {
+      action.run();
+    }
+  }
+
+  /**
+   * Prepare the execution of a test method.
+   * @param fm Method to run.
+   * @param notifier Notifier instance.
+   * @return Action that notifies JUnit of test execution, obtaining test results
+   * in the process.
+   */
+  private Runnable prepareChild(FrameworkMethod fm, RunNotifier notifier) {
     Description desc = describeChild(fm);
     if (fm.getAnnotation(Ignore.class) != null) {
       // @Ignore annotation for method
-      notifier.fireTestIgnored(desc); 
-      return;
+      return () -> notifier.fireTestIgnored(desc); 
     }
 
     if (fm.getAnnotation(CPreemptiveOnly.class) != null) {
       // Run test only once using the standard runner and preemptive semantics
-      super.runChild(fm, notifier);
-      return;
+      return () -> super.runChild(fm, notifier);
     }
     
     if (!CSystem.inCooperativeMode() && fm.getAnnotation(CCooperativeOnly.class) != null) {
       // @Ignore annotation for method
-      notifier.fireTestIgnored(desc); 
-      return;
+      return () -> notifier.fireTestIgnored(desc); 
     }
 
-    notifier.fireTestStarted(desc);
-
     if (fm.getAnnotation(Test.class).timeout() > 0) {
       // timeout attribute not honored for now
-      notifier.fireTestFailure(new Failure(desc, new CConfigurationError("'timeout' attribute is not honored for @Test. Sorry :(")));
-      return;
+      return () -> {
+        notifier.fireTestStarted(desc);
+        notifier.fireTestFailure(new Failure(desc, new CConfigurationError("'timeout' attribute is not honored for @Test. Sorry :(")));
+      };
     }
 
     CTest ctest = new MethodRunner(fm, createJUnitStatement(fm, false)); 
-    CTestResult result = CSession.executeTest(ctest);
-    CTestResultPool.INSTANCE.setTestResult(desc, result);
-    if (result.failed()) {
-      notifier.fireTestFailure(new Failure(desc, result.getFailure()));
-    } else {
-      notifier.fireTestFinished(desc);
-    }
-
+    Future<CTestResult> future = 
+        _parallelScheduler != null ? _parallelScheduler.submit(ctest) : null;
+    return () -> {
+      notifier.fireTestStarted(desc);
+      CTestResult result = 
+          future != null ? ParallelRunnerScheduler.await(future) : CSession.executeTest(ctest);
+      CTestResultPool.INSTANCE.setTestResult(desc, result);
+      if (result.failed()) {
+        notifier.fireTestFailure(new Failure(desc, result.getFailure()));
+      } else {
+        notifier.fireTestFinished(desc);
+      }
+    };
   }
 
   /**
@@ -166,6 +210,91 @@ public final class CJUnitRunner extends BlockJUnit4ClassRunner {
     }
   }
 
+  /**
+   * JUnit runner scheduler for parallel execution of test methods.
+   * 
+   * <p>
+   * Test sessions are submitted to a bounded thread pool as methods are scheduled.
+   * Deferred notification actions are then executed in scheduling order once
+   * all methods have been scheduled.
+   * </p>
+   * 
+   * @see CParallelMethods
+   * @since 0.5
+   */
+  private static final class ParallelRunnerScheduler implements RunnerScheduler {
+    /**
+     * Thread pool.
+     */
+    private final ExecutorService _pool;
+
+    /**
+     * Deferred actions.
+     */
+    private final ArrayList<Runnable> _deferred = new ArrayList<>();
+
+    /**
+     * Constructor.
+     * @param threads Number of threads.
+     */
+    ParallelRunnerScheduler(int threads) {
+      _pool = Executors.newFixedThreadPool(threads, r -> {
+        Thread t = new Thread(r, "CJUnitRunner-worker");
+        t.setDaemon(true);
+        return t;
+      });
+    }
+
+    /**
+     * Submit a test for execution.
+     * @param test Test.
+     * @return Future for the test result.
+     */
+    Future<CTestResult> submit(CTest test) {
+      return _pool.submit(() -> CSession.executeTest(test, false));
+    }
+
+    /**
+     * Wait for a test result.
+     * @param future Future for the test result.
+     * @return The test result.
+     */
+    static CTestResult await(Future<CTestResult> future) {
+      try {
+        return future.get();
+      } catch (ExecutionException e) {
+        throw new CInternalError("Error executing test session", e.getCause());
+      } catch (InterruptedException e) {
+        throw new CInternalError(e);
+      }
+    }
+
+    /**
+     * Defer an action until all methods have been scheduled.
+     * @param action Action.
+     */
+    void defer(Runnable action) {
+      _deferred.add(action);
+    }
+
+    @Override
+    public void schedule(Runnable childStatement) {
+      childStatement.run();
+    }
+
+    @Override
+    public void finished() {
+      try {
+        for (Runnable action : _deferred) {
+          action.run();
+        }
+      } finally {
+        _deferred.clear();
+        _pool.shutdown();
+      }
+    }
+  }
+
   /**
    * Method runner thread.
    * @since 0.2 
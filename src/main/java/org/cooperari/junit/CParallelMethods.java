@@ -0,0 +1,62 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.junit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+
+/**
+ * Annotation to indicate that the test methods of a JUnit test class
+ * may execute concurrently.
+ * 
+ * <p>
+ * A {@link CJUnitRunner} instance for a class marked with this annotation
+ * executes the cooperative test sessions for the class' test methods on a bounded pool of threads.
+ * Each test session uses its own runtime environment(s), but test sessions for
+ * distinct methods should not interfere with each other through shared state 
+ * (e.g., static fields of the test class). 
+ * JUnit notifications are still delivered in the usual order, 
+ * one test method after the other.
+ * </p>
+ *
+ * <p><b>Example use</b></p>
+ * <pre>
+ * import org.junit.runner.RunWith;
+ * import org.cooperari.CJUnitRunner;
+ * ...
+ * &#064;RunWith(CJUnitRunner.class)
+ * &#064;CParallelMethods(4)
+ * public class MyTestClass {
+ *   ...
+ * }
+ * </pre>
+ * 
+ * @see CJUnitRunner
+ * @since 0.5
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface CParallelMethods {
+  /**
+   * @return Maximum number of test methods executing concurrently. A value lower or equal to 0 stands for
+   *         the number of available processors.
+   */
+  int value() default 0;
+}
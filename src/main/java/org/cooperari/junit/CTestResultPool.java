@@ -30,6 +30,8 @@ import org.junit.runner.Description;
  * <li>A single-element enumeration scheme enforces the singleton pattern.</li>
  * <li>A {@link java.util.WeakHashMap} is used internally so that garbage entries 
  * for old tests can be automatically reclaimed by the JVM.</li>
+ * <li>Access to the pool is synchronized, given that test results may be 
+ * set concurrently (see {@link CParallelMethods}).</li>
  * </ul>
  * 
  * 
@@ -55,7 +57,7 @@ public enum CTestResultPool {
    * @return The {@link CTestResult} entry for the JUnit test description if available. The description
    * should refer to an executed test.
    */
-  public CTestResult getTestResult(Description description) {
+  public synchronized CTestResult getTestResult(Description description) {
     return _map.get(description);
   }
   
@@ -65,7 +67,7 @@ public enum CTestResultPool {
    * @param result Cooperative test result.
    * should refer to an executed test.
    */
-  public void setTestResult(Description description, CTestResult result) {
+  public synchronized void setTestResult(Description description, CTestResult result) {
     _map.put(description, result);
   }
 }
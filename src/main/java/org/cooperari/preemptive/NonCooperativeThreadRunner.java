@@ -24,7 +24,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.cooperari.errors.CDeadlockError;
 import org.cooperari.errors.CInternalError;
-import org.cooperari.core.CSession;
+import org.cooperari.core.CRuntime;
 import org.cooperari.core.CWorkspace;
 
 /**
@@ -51,6 +51,11 @@ public class NonCooperativeThreadRunner implements UncaughtExceptionHandler {
    */
   private final AtomicBoolean _sync;
 
+  /**
+   * Runtime environment of the creating thread (may be <code>null</code>).
+   */
+  private final CRuntime _runtime;
+
   /**
    * Uncaught exception. 
    * TODO: should be a list
@@ -63,6 +68,7 @@ public class NonCooperativeThreadRunner implements UncaughtExceptionHandler {
    */
   public NonCooperativeThreadRunner(Runnable[] rv) {
     _threads = new Thread[rv.length];
+    _runtime = CRuntime.getRuntime();
     _sync = new AtomicBoolean(false);
     _uncaughtException = null;
     for (int i = 0; i < rv.length; i++) {
@@ -163,7 +169,9 @@ public class NonCooperativeThreadRunner implements UncaughtExceptionHandler {
       CWorkspace.debug("%s starting!", getName());
 
       // Initialization barrier.
-      CSession.getRuntime().join();
+      if (_runtime != null) {
+        _runtime.join();
+      }
       while (! _sync.get()) {
         try { Thread.sleep(1); } catch(Throwable e) { }
       }
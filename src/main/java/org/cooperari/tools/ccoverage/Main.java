@@ -0,0 +1,111 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.tools.ccoverage;
+
+import java.io.File;
+import java.util.Map;
+
+import org.cooperari.CCoverage;
+import org.cooperari.core.CCoverageDatabase;
+
+/**
+ * Main class for the <code>ccoverage</code> utility program, 
+ * that queries and merges coverage database files.
+ * 
+ * <p>Usage:</p>
+ * <ul>
+ * <li><code>ccoverage [-by test|class|file] database_file ...</code>: 
+ * lists coverage per test (default), test class or source file, for the merged contents of the
+ * given database files;</li>
+ * <li><code>ccoverage -merge output_file database_file ...</code>: 
+ * merges the given database files into the output file.</li>
+ * </ul>
+ * 
+ * @see CCoverageDatabase
+ * @since 0.5
+ */
+public final class Main {
+
+  /**
+   * Program entry point. 
+   * 
+   * @param args Arguments (see class description).
+   */
+  public static void main(String[] args) {
+    String by = "test";
+    File output = null;
+    int index = 0;
+    if (args.length >= 2 && args[0].equals("-by")) {
+      by = args[1];
+      index = 2;
+    } else if (args.length >= 2 && args[0].equals("-merge")) {
+      output = new File(args[1]);
+      index = 2;
+    }
+    if (index == args.length || !(by.equals("test") || by.equals("class") || by.equals("file"))) {
+      System.out.println("Usage: ccoverage [-by test|class|file] database_file ...");
+      System.out.println("       ccoverage -merge output_file database_file ...");
+      System.exit(1);
+    }
+    try {
+      CCoverageDatabase db = new CCoverageDatabase();
+      for (int i = index; i < args.length; i++) {
+        db.load(new File(args[i]));
+      }
+      if (output != null) {
+        db.save(output);
+        System.out.printf("Merged %d files (%d tests) into '%s'.%n", 
+            args.length - index, db.size(), output.getAbsolutePath());
+        return;
+      }
+      Map<String, CCoverage> entries;
+      switch (by) {
+        case "class":
+          entries = db.byClass();
+          break;
+        case "file":
+          entries = db.bySourceFile();
+          break;
+        default:
+          entries = db.byTest();
+          break;
+      }
+      for (Map.Entry<String, CCoverage> e : entries.entrySet()) {
+        print(e.getKey(), e.getValue());
+      }
+      print("(all)", db.global());
+    } catch (Exception e) {
+      System.out.println("Error processing coverage database: " + e.getMessage());
+      System.exit(1);
+    }
+  }
+
+  @SuppressWarnings("javadoc")
+  private static void print(String key, CCoverage c) {
+    System.out.printf("%-60s %5.1f %% (%d / %d yp, %d ip)%n", 
+        key, c.getCoverageRate(), c.getCoveredYieldPoints(), c.getTotalYieldPoints(), 
+        c.getInterleavingPairs());
+  }
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private Main() {
+    
+  }
+
+}
@@ -104,9 +104,12 @@ public class CJUnitRunListener extends RunListener {
           ci.getCoverageRate(),
           ci.getCoveredYieldPoints(),
           ci.getTotalYieldPoints());
+      _out.printf("Interleaving coverage: %d ip%n", ci.getInterleavingPairs());
       try {
         File report = CSystem.generateGlobalCoverageReport();
         _out.printf("Global coverage report: '%s'%n", IO.fullPath(report));
+        File db = CSystem.saveCoverageDatabase();
+        _out.printf("Coverage database: '%s'%n", IO.fullPath(db));
       }
       catch (IOException e) {
         throw new CInternalError(e);
@@ -160,9 +163,10 @@ public class CJUnitRunListener extends RunListener {
       _out.printf("    > trials: %d time: %d ms", 
           result.trials(), result.getExecutionTime());
     } else {
-      _out.printf("    > trials: %d time: %d ms coverage: %4.1f %% (%d / %d yp)", 
+      _out.printf("    > trials: %d time: %d ms coverage: %4.1f %% (%d / %d yp, %d ip)", 
           result.trials(), result.getExecutionTime(),
-          result.getCoverageRate(), result.getCoveredYieldPoints(), result.getTotalYieldPoints());
+          result.getCoverageRate(), result.getCoveredYieldPoints(), result.getTotalYieldPoints(),
+          result.getInterleavingPairs());
 
       if (result.failed() && result.getFailureTrace() != null) {
         _out.println();
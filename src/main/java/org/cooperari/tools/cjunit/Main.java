@@ -18,11 +18,16 @@ package org.cooperari.tools.cjunit;
 
 import java.io.File;
 import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
 
 import org.cooperari.CSystem;
+import org.cooperari.core.CSharding;
 import org.cooperari.core.CWorkspace;
+import org.junit.runner.Description;
 import org.junit.runner.JUnitCore;
 import org.junit.runner.Result;
+import org.junit.runner.notification.Failure;
 
 /**
  * Main class for the <code>cjunit</code> utility program.
@@ -39,7 +44,7 @@ public final class Main {
   /**
    * Exit code when some tests failed.
    */
-  private static final int SOME_TESTS_FAILED = 1;
+  static final int SOME_TESTS_FAILED = 1;
   
   /**
    * Exit code for invalid arguments.
@@ -66,6 +71,10 @@ public final class Main {
    * 
    * <p>This behaves like <code>main</code> but can be invoked programmatically.</p>
    * 
+   * <p>Arguments: <code>workspace_dir [-j|-jvms n] test_class ...</code>.
+   * The <code>-jvms</code> option sets the number of worker JVMs used for 
+   * sharded execution (see {@link CSharding}).</p>
+   * 
    * @param args Program arguments.
    * @param out Output stream.
    * @return A suggested program exit code, <code>0</code> for normal termination,
@@ -77,15 +86,54 @@ public final class Main {
         out.println("Invalid arguments!");
         return INVALID_ARGUMENTS;
       }
+      File workspaceDir = new File(args[0]);
+      int jvms = 1;
+      File shardResults = null;
+      int index = 1;
+      while (index < args.length && args[index].charAt(0) == '-') {
+        String arg = args[index++];
+        switch (arg.substring(1)) {
+          case "j":
+          case "jvms":
+            try {
+              jvms = Integer.parseInt(args[index++]);
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+              jvms = 0;
+            }
+            if (jvms < 1) {
+              out.printf("Invalid number of JVMs for '%s'.%n", arg);
+              return INVALID_ARGUMENTS;
+            }
+            break;
+          case "shard":
+            // Internal option used for worker JVMs: -shard index/count results_file
+            try {
+              String[] shard = args[index++].split("/");
+              CSharding.configure(Integer.parseInt(shard[0]), Integer.parseInt(shard[1]));
+              shardResults = new File(args[index++]);
+            } catch (RuntimeException e) {
+              out.printf("Invalid shard specification for '%s'.%n", arg);
+              return INVALID_ARGUMENTS;
+            }
+            break;
+          default:
+            out.printf("Invalid argument '%s'.%n", arg);
+            return INVALID_ARGUMENTS;
+        }
+      }
+      if (index == args.length) {
+        out.println("Invalid arguments!");
+        return INVALID_ARGUMENTS;
+      }
       
       if (! CWorkspace.INSTANCE.isInitialized()) {
-        CWorkspace.INSTANCE.initialize(new File(args[0]));
+        CWorkspace.INSTANCE.initialize(workspaceDir);
       }
       
-      Class<?>[] classes = new Class<?>[args.length-1];
-      for (int i = 1; i < args.length; i++) {
+      Class<?>[] classes = new Class<?>[args.length-index];
+      for (int i = index; i < args.length; i++) {
         try {
-          classes[i-1] = Class.forName(args[i]);
+          classes[i-index] = Class.forName(args[i]);
         }
         catch (ClassNotFoundException e) {
           out.println(args[i] + ": class not found!");
@@ -95,11 +143,30 @@ public final class Main {
       
       if (! CSystem.inCooperativeMode()) {
         out.println("Execution will be preemptive, AspectJ LTW is not active.");
+        jvms = 1;
+      }
+
+      if (jvms > 1) {
+        long startTime = System.currentTimeMillis();
+        ShardedExecution se = new ShardedExecution(workspaceDir, jvms, 
+            Arrays.asList(args).subList(index, args.length));
+        List<CSharding.Result> results = se.execute();
+        int failures = se.report(results, System.currentTimeMillis() - startTime, out);
+        return failures == 0 ? ALL_TESTS_PASSED : SOME_TESTS_FAILED;
       }
       
       JUnitCore juc = new JUnitCore();
       juc.addListener(new CJUnitRunListener(System.out));
       Result r = juc.run(classes);   
+      if (shardResults != null) {
+        for (Failure f : r.getFailures()) {
+          Description d = f.getDescription();
+          CSharding.recordFailure(d.getClassName() != null ? d.getClassName().replace('$', '.') : "", 
+              d.getMethodName() != null ? d.getMethodName() : d.getDisplayName(), 
+              f.getException());
+        }
+        CSharding.saveResults(shardResults);
+      }
       return r.getFailureCount() == 0 ? ALL_TESTS_PASSED : SOME_TESTS_FAILED;
     } 
     catch (Throwable e) {
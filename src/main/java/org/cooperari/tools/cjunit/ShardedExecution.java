@@ -0,0 +1,291 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.tools.cjunit;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.cooperari.CVersion;
+import org.cooperari.core.CCoverageDatabase;
+import org.cooperari.core.CCoverageLog;
+import org.cooperari.core.CSharding;
+import org.cooperari.core.util.IO;
+
+/**
+ * Sharded test execution for <code>cjunit</code>.
+ * 
+ * <p>
+ * The tests are executed by several worker JVMs, each one 
+ * started with the same JVM arguments (hence the same load-time weaving setup) and classpath as 
+ * the current JVM, and assigned a distinct shard (see {@link CSharding}).
+ * Each worker uses a sub-directory of the workspace for its own data, and 
+ * writes its results to a file once it terminates. 
+ * The results from all workers are then merged and reported, along with
+ * JUnit failures reported by workers and workers that terminate abnormally, and
+ * the coverage databases of all workers are merged into a single one
+ * (see {@link CCoverageDatabase}).
+ * </p>
+ * 
+ * @since 0.5
+ */
+final class ShardedExecution {
+
+  /**
+   * Workspace directory.
+   */
+  private final File _workspaceDir;
+
+  /**
+   * Number of worker JVMs.
+   */
+  private final int _workers;
+
+  /**
+   * Test class names.
+   */
+  private final List<String> _classNames;
+
+  /**
+   * JUnit failures reported by workers that are not accounted for by failed test sessions, per test.
+   */
+  private final LinkedHashMap<String, CSharding.Failure> _failures = new LinkedHashMap<>();
+
+  /**
+   * Errors for workers that terminated abnormally.
+   */
+  private final ArrayList<String> _workerErrors = new ArrayList<>();
+
+  /**
+   * Constructor.
+   * @param workspaceDir Workspace directory.
+   * @param workers Number of worker JVMs.
+   * @param classNames Test class names.
+   */
+  ShardedExecution(File workspaceDir, int workers, List<String> classNames) {
+    _workspaceDir = workspaceDir;
+    _workers = workers;
+    _classNames = classNames;
+  }
+
+  /**
+   * Get the results file for a shard.
+   * @param shard Shard index.
+   * @return File object.
+   */
+  private File resultsFile(int shard) {
+    return new File(_workspaceDir, "shard-" + shard + ".results");
+  }
+
+  /**
+   * Launch worker JVMs and wait for them to terminate.
+   * 
+   * <p>
+   * Worker JVMs that are still running when this method returns, e.g., if the current thread 
+   * is interrupted, or when the current JVM shuts down are destroyed.
+   * </p>
+   * 
+   * @return Results of all workers, merged per test in order of execution.
+   * @throws IOException If an I/O error occurs.
+   * @throws InterruptedException If the current thread is interrupted while waiting for workers.
+   */
+  List<CSharding.Result> execute() throws IOException, InterruptedException {
+    String javaCmd = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    List<String> jvmArgs = ManagementFactory.getRuntimeMXBean().getInputArguments();
+    Process[] procs = new Process[_workers];
+    Thread cleanup = new Thread(() -> destroy(procs));
+    Runtime.getRuntime().addShutdownHook(cleanup);
+    try {
+      for (int k = 0; k < _workers; k++) {
+        ArrayList<String> cmd = new ArrayList<>();
+        cmd.add(javaCmd);
+        cmd.addAll(jvmArgs);
+        cmd.add("-classpath");
+        cmd.add(System.getProperty("java.class.path"));
+        cmd.add(Main.class.getName());
+        cmd.add(new File(_workspaceDir, "shard-" + k).getPath());
+        cmd.add("-shard");
+        cmd.add(k + "/" + _workers);
+        cmd.add(resultsFile(k).getPath());
+        cmd.addAll(_classNames);
+        resultsFile(k).delete();
+        procs[k] = new ProcessBuilder(cmd)
+            .redirectErrorStream(true)
+            .redirectOutput(new File(_workspaceDir, "shard-" + k + ".out"))
+            .start();
+      }
+      LinkedHashMap<String, CSharding.Result> merged = new LinkedHashMap<>();
+      ArrayList<CSharding.Failure> failures = new ArrayList<>();
+      for (int k = 0; k < _workers; k++) {
+        int exitCode = procs[k].waitFor();
+        File out = new File(_workspaceDir, "shard-" + k + ".out");
+        File f = resultsFile(k);
+        if (!f.exists()) {
+          throw new IOException(String.format("Worker %d did not produce results (exit code %d), see '%s'.",
+              k, exitCode, IO.fullPath(out)));
+        }
+        int failuresBefore = failures.size();
+        boolean sessionFailures = false;
+        for (CSharding.Result r : CSharding.loadResults(f, failures)) {
+          sessionFailures |= r.failed();
+          String key = r.getSuiteName() + '.' + r.getName();
+          CSharding.Result prev = merged.putIfAbsent(key, r);
+          if (prev != null) {
+            prev.merge(r);
+          }
+        }
+        boolean reported = sessionFailures || failures.size() > failuresBefore;
+        if (exitCode != 0 && (exitCode != Main.SOME_TESTS_FAILED || !reported)) {
+          _workerErrors.add(String.format("Worker %d terminated with exit code %d, see '%s'.",
+              k, exitCode, IO.fullPath(out)));
+        }
+      }
+      ArrayList<CSharding.Result> results = new ArrayList<>(merged.values());
+      for (CSharding.Result r : results) {
+        r.complete();
+      }
+      for (CSharding.Failure jf : failures) {
+        String key = jf.getSuiteName() + '.' + jf.getName();
+        CSharding.Result r = merged.get(key);
+        if (r == null || !r.failed()) {
+          _failures.putIfAbsent(key, jf);
+        }
+      }
+      return results;
+    } finally {
+      destroy(procs);
+      try {
+        Runtime.getRuntime().removeShutdownHook(cleanup);
+      } catch (IllegalStateException e) {
+        // JVM is already shutting down.
+      }
+    }
+  }
+
+  /**
+   * Destroy worker JVMs that are still running.
+   * @param procs Worker processes (entries may be <code>null</code>).
+   */
+  private static void destroy(Process[] procs) {
+    for (Process p : procs) {
+      if (p != null && p.isAlive()) {
+        p.destroyForcibly();
+      }
+    }
+  }
+
+  /**
+   * Report merged results.
+   * 
+   * <p>
+   * Besides failed test sessions, JUnit failures reported by workers and 
+   * workers that terminated abnormally are reported as failures.
+   * </p>
+   * 
+   * @param results Merged results.
+   * @param elapsed Elapsed time for execution.
+   * @param out Output stream.
+   * @return Number of failures.
+   * @throws IOException If an I/O error occurs.
+   */
+  int report(List<CSharding.Result> results, long elapsed, PrintStream out) throws IOException {
+    out.printf("== Cooperari %s - JUnit test execution - mode: cooperative (%d JVMs) ==%n", 
+        CVersion.ID, _workers);
+    String currentSuite = "";
+    int executed = results.size();
+    ArrayList<String> details = new ArrayList<>();
+    LinkedHashMap<String, CSharding.Failure> otherFailures = new LinkedHashMap<>(_failures);
+    CCoverageLog global = new CCoverageLog();
+    for (CSharding.Result r : results) {
+      if (!r.getSuiteName().equals(currentSuite)) {
+        currentSuite = r.getSuiteName();
+        out.println(currentSuite);
+      }
+      out.printf("  %-55s ", r.getName());
+      CSharding.Failure jf = otherFailures.remove(r.getSuiteName() + '.' + r.getName());
+      if (r.failed()) {
+        out.printf("[failed: %s]%n", r.getFailureClass());
+        details.add(String.format("%s(%s)%n%s", r.getName(), r.getSuiteName(), r.getFailureStackTrace()));
+      } else if (jf != null) {
+        out.printf("[failed: %s]%n", jf.getFailureClass());
+        details.add(String.format("%s(%s)%n%s", jf.getName(), jf.getSuiteName(), jf.getFailureStackTrace()));
+      } else {
+        out.println("[passed]");
+      }
+      CCoverageLog clog = r.getCoverageLog();
+      global.merge(clog);
+      out.printf("    > trials: %d time: %d ms coverage: %4.1f %% (%d / %d yp) decisions: %d", 
+          r.trials(), r.getExecutionTime(),
+          clog.getCoverageRate(), clog.getCoveredYieldPoints(), clog.getTotalYieldPoints(),
+          r.getHistorySize());
+      if (r.failed() && r.getFailureTrace() != null) {
+        out.println();
+        out.printf("    > failure trace (trial %d): '%s'", r.getFailedTrial(), IO.fullPath(r.getFailureTrace()));
+      }
+      out.println();
+    }
+    // Failures of tests that were not executed as test sessions.
+    for (CSharding.Failure jf : otherFailures.values()) {
+      if (!jf.getSuiteName().equals(currentSuite)) {
+        currentSuite = jf.getSuiteName();
+        out.println(currentSuite);
+      }
+      out.printf("  %-55s [failed: %s]%n", jf.getName(), jf.getFailureClass());
+      details.add(String.format("%s(%s)%n%s", jf.getName(), jf.getSuiteName(), jf.getFailureStackTrace()));
+      executed++;
+    }
+    if (details.size() > 0) {
+      out.println("== Failure details ==");
+      int i = 0;
+      for (String d : details) {
+        out.printf("%d) %s", ++i, d);
+      }
+    }
+    if (_workerErrors.size() > 0) {
+      out.println("== Worker errors ==");
+      for (String e : _workerErrors) {
+        out.println(e);
+      }
+    }
+    int failures = details.size() + _workerErrors.size();
+    out.println("== Summary ==");
+    out.printf("Executed: %d; Failed: %d; Execution time: %d ms%n", 
+        executed, failures, elapsed);
+    out.println("== Yield point coverage ==");
+    out.printf("Coverage rate: %4.1f %% (%d / %d yp)%n", 
+        global.getCoverageRate(),
+        global.getCoveredYieldPoints(),
+        global.getTotalYieldPoints());
+    File report = global.produceCoverageReport(".", "all_yield_points");
+    out.printf("Global coverage report: '%s'%n", IO.fullPath(report));
+    CCoverageDatabase db = new CCoverageDatabase();
+    for (int k = 0; k < _workers; k++) {
+      File f = new File(new File(_workspaceDir, "shard-" + k), CCoverageDatabase.DEFAULT_FILE_NAME);
+      if (f.exists()) {
+        db.load(f);
+      }
+    }
+    File dbFile = new File(_workspaceDir, CCoverageDatabase.DEFAULT_FILE_NAME);
+    db.save(dbFile);
+    out.printf("Coverage database: '%s' (%d ip)%n", IO.fullPath(dbFile), db.global().getInterleavingPairs());
+    return failures;
+  }
+}
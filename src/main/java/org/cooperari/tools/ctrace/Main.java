@@ -0,0 +1,76 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.tools.ctrace;
+
+import java.io.File;
+
+import org.cooperari.core.CTrace;
+import org.cooperari.core.util.CReport;
+
+/**
+ * Main class for the <code>ctrace</code> utility program, 
+ * that converts binary trace files to text format.
+ * 
+ * @since 0.5
+ */
+public final class Main {
+
+  /**
+   * Program entry point. 
+   * 
+   * @param args Arguments: binary trace file and, optionally, the output file.
+   *   If the output file is not specified, the output is written to a file with the same name
+   *   as the input file, but with a <code>.trace.log</code> suffix instead of <code>.ctrace</code>.
+   */
+  public static void main(String[] args) {
+    if (args.length < 1 || args.length > 2) {
+      System.out.println("Usage: ctrace binary_trace_file [output_file]");
+      System.exit(1);
+    }
+    File input = new File(args[0]);
+    File output;
+    if (args.length == 2) {
+      output = new File(args[1]);
+    } else {
+      String name = input.getName();
+      if (name.endsWith(CTrace.BINARY_SUFFIX)) {
+        name = name.substring(0, name.length() - CTrace.BINARY_SUFFIX.length());
+      }
+      output = new File(input.getAbsoluteFile().getParentFile(), name + ".trace.log");
+    }
+    try {
+      CReport report = new CReport(output);
+      try {
+        CTrace.convert(input, report);
+      } finally {
+        report.close();
+      }
+      System.out.printf("Trace written to '%s'.%n", output.getAbsolutePath());
+    } catch (Exception e) {
+      System.out.println("Error converting trace file: " + e.getMessage());
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Private constructor to prevent instantiation.
+   */
+  private Main() {
+    
+  }
+
+}
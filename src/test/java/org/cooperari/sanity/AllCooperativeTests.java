@@ -20,7 +20,9 @@ import org.cooperari.sanity.feature.atomic.AtomicTestSuite;
 import org.cooperari.sanity.feature.data.DataTestSuite;
 import org.cooperari.sanity.feature.hotspot.HotspotTestSuite;
 import org.cooperari.sanity.feature.junit.CJUnitRunnerSanityTestSuite;
+import org.cooperari.sanity.feature.locks.LocksTestSuite;
 import org.cooperari.sanity.feature.monitors.MonitorTestSuite;
+import org.cooperari.sanity.feature.session.SessionTestSuite;
 import org.cooperari.sanity.feature.thread.ThreadTestSuite;
 import org.cooperari.sanity.feature.threadrunner.ThreadRunnerSuite;
 import org.junit.runner.RunWith;
@@ -35,8 +37,10 @@ import org.junit.runners.Suite.SuiteClasses;
     DataTestSuite.class,
     AtomicTestSuite.class, 
     MonitorTestSuite.class, 
+    LocksTestSuite.class,
     ThreadTestSuite.class,
-    ThreadRunnerSuite.class
+    ThreadRunnerSuite.class,
+    SessionTestSuite.class
     })
 public class AllCooperativeTests {
 
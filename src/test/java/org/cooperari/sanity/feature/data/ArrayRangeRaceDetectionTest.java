@@ -0,0 +1,152 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+
+package org.cooperari.sanity.feature.data;
+
+import static org.cooperari.CArray.cRead;
+import static org.cooperari.CSystem.hotspot;
+
+import java.util.Arrays;
+
+import org.cooperari.CSystem;
+import org.cooperari.config.CNever;
+import org.cooperari.config.CRaceDetection;
+import org.cooperari.config.CSometimes;
+import org.cooperari.errors.CRaceError;
+import org.cooperari.junit.CJUnitRunner;
+import org.junit.Before;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@SuppressWarnings("javadoc")
+@RunWith(CJUnitRunner.class)
+@CRaceDetection(value=true, throwErrors=true)
+public class ArrayRangeRaceDetectionTest {
+
+  private static final int N = 16;
+
+  static int[] A;
+  static int[] B;
+
+  @Before
+  public void init() {
+    A = new int[N];
+    B = new int[N];
+  }
+
+  private static Runnable fill(final int from, final int to) {
+    return new Runnable() {
+      @Override
+      public void run() {
+        try {
+          Arrays.fill(A, from, to, 1);
+        } catch (CRaceError e) {
+          hotspot("fill");
+        }
+      }
+    };
+  }
+
+  private static Runnable copy(final int[] src, final int srcPos, final int[] dst, final int dstPos, final int length) {
+    return new Runnable() {
+      @Override
+      public void run() {
+        try {
+          System.arraycopy(src, srcPos, dst, dstPos, length);
+        } catch (CRaceError e) {
+          hotspot("copy");
+        }
+      }
+    };
+  }
+
+  private static Runnable read(final int index) {
+    return new Runnable() {
+      @Override
+      public void run() {
+        try {
+          @SuppressWarnings("unused")
+          int dummy = cRead(A, index);
+        } catch (CRaceError e) {
+          hotspot("read");
+        }
+      }
+    };
+  }
+
+  private static final Runnable SORT = new Runnable() {
+    @Override
+    public void run() {
+      try {
+        Arrays.sort(A);
+      } catch (CRaceError e) {
+        hotspot("sort");
+      }
+    }
+  };
+
+  @Test
+  @CNever({"fill"})
+  public void testNoRaceDisjointFills() {
+    CSystem.forkAndJoin(fill(0, N / 2), fill(N / 2, N));
+  }
+
+  @Test
+  @CNever({"copy"})
+  public void testNoRaceConcurrentCopiesFromSameSource() {
+    CSystem.forkAndJoin(copy(A, 0, B, 0, N / 2), copy(A, 0, B, N / 2, N / 2));
+  }
+
+  @Test
+  @CNever({"copy"})
+  public void testNoRaceOverlappingCopyWithinArray() {
+    CSystem.forkAndJoin(copy(A, 0, A, 1, N - 1));
+  }
+
+  @Test
+  @CNever({"fill", "read"})
+  public void testNoRaceElementOutsideRange() {
+    CSystem.forkAndJoin(fill(0, N / 2), read(N / 2));
+  }
+
+  @Test
+  @CSometimes({"fill"})
+  public void testRaceOverlappingFills() {
+    CSystem.forkAndJoin(fill(0, N / 2 + 1), fill(N / 2, N));
+  }
+
+  @Test
+  @CSometimes({"fill", "read"})
+  public void testRaceElementInRange() {
+    CSystem.forkAndJoin(fill(0, N), read(N - 1));
+  }
+
+  @Test
+  @CSometimes({"copy", "fill"})
+  public void testRaceCopyAndFill() {
+    CSystem.forkAndJoin(copy(A, 0, B, 0, N), fill(0, N));
+  }
+
+  @Test
+  @CSometimes({"sort", "read"})
+  public void testRaceSortAndRead() {
+    CSystem.forkAndJoin(SORT, read(0));
+  }
+}
@@ -20,6 +20,7 @@ package org.cooperari.sanity.feature.data;
 import static org.cooperari.CSystem.hotspot;
 
 import org.cooperari.CSystem;
+import org.cooperari.config.CNever;
 import org.cooperari.config.CRaceDetection;
 import org.cooperari.config.CSometimes;
 import org.cooperari.errors.CRaceError;
@@ -36,7 +37,15 @@ import org.junit.runners.MethodSorters;
 @CRaceDetection(value=true,throwErrors=true)
 public class FieldRaceDetectionTest {
 
-  static Data SHARED = new Data();
+  static class Cell {
+    int x;
+  }
+
+  static Cell SHARED = new Cell();
+
+  static Data VOLATILE = new Data();
+
+  static final Cell FINAL_CELL = new Cell();
   
   private static final Runnable WRITER = 
     new Runnable() {
@@ -62,6 +71,32 @@ public class FieldRaceDetectionTest {
           } 
         };
 
+    private static final Runnable VOLATILE_WRITER = 
+        new Runnable() {
+          @Override
+          public void run() {
+            try {
+              VOLATILE.x = 1;  
+            } catch(CRaceError e) {
+              hotspot("volatile");
+            }
+          } 
+        };
+
+    private static final Runnable VOLATILE_READER = 
+        new Runnable() {
+          @SuppressWarnings("unused")
+          @Override
+          public void run() {
+            try {
+              int x = VOLATILE.x;
+              Cell c = FINAL_CELL;
+            } catch(CRaceError e) {
+              hotspot("volatile");
+            }
+          } 
+        };
+
     @Test
     public void testNoRace() {
       CSystem.forkAndJoin(READER);
@@ -104,7 +139,10 @@ public class FieldRaceDetectionTest {
     public void testReadWriteRace3() {
       CSystem.forkAndJoin(READER, READER, READER, WRITER, WRITER, WRITER);
     }
-    
-   
-    
+
+    @Test
+    @CNever({"volatile"})
+    public void testNoRaceOnVolatile() {
+      CSystem.forkAndJoin(VOLATILE_READER, VOLATILE_READER, VOLATILE_WRITER, VOLATILE_WRITER);
+    }
   }
@@ -0,0 +1,247 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.feature.data;
+
+
+import static org.cooperari.CSystem.hotspot;
+
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.cooperari.CSystem;
+import org.cooperari.config.CAlways;
+import org.cooperari.config.CNever;
+import org.cooperari.config.CRaceDetection;
+import org.cooperari.errors.CRaceError;
+import org.cooperari.junit.CJUnitRunner;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@SuppressWarnings("javadoc")
+@RunWith(CJUnitRunner.class)
+@CRaceDetection(value=true,throwErrors=true,mode=CRaceDetection.Mode.HB)
+public class HBRaceDetectionTest {
+
+  static class Cell {
+    int x;
+  }
+
+  static Cell SHARED = new Cell();
+
+  static class A {
+    static int x;
+  }
+
+  static class B {
+    static int x;
+  }
+
+  static final Object LOCK = new Object();
+
+  static final ReentrantReadWriteLock RW_LOCK = new ReentrantReadWriteLock();
+
+  static volatile boolean READY;
+
+  private static final Runnable WRITER = 
+    new Runnable() {
+      @Override
+      public void run() {
+        try {
+          SHARED.x = 1;  
+        } catch(CRaceError e) {
+          hotspot("race");
+        }
+      } 
+    };
+
+  private static final Runnable READER = 
+    new Runnable() {
+      @SuppressWarnings("unused")
+      @Override
+      public void run() {
+        try {
+          int x = SHARED.x;
+        } catch(CRaceError e) {
+          hotspot("race");
+        }
+      } 
+    };
+
+  private static final Runnable SYNC_WRITER = 
+    new Runnable() {
+      @Override
+      public void run() {
+        try {
+          synchronized (LOCK) {
+            SHARED.x = 1;
+          }
+        } catch(CRaceError e) {
+          hotspot("race");
+        }
+      } 
+    };
+
+  private static final Runnable SYNC_READER = 
+    new Runnable() {
+      @SuppressWarnings("unused")
+      @Override
+      public void run() {
+        try {
+          synchronized (LOCK) {
+            int x = SHARED.x;
+          }
+        } catch(CRaceError e) {
+          hotspot("race");
+        }
+      } 
+    };
+
+  private static final Runnable RW_WRITER = 
+    new Runnable() {
+      @Override
+      public void run() {
+        try {
+          RW_LOCK.writeLock().lock();
+          try {
+            SHARED.x = 1;
+          } finally {
+            RW_LOCK.writeLock().unlock();
+          }
+        } catch(CRaceError e) {
+          hotspot("race");
+        }
+      } 
+    };
+
+  private static final Runnable RW_READER = 
+    new Runnable() {
+      @SuppressWarnings("unused")
+      @Override
+      public void run() {
+        try {
+          RW_LOCK.readLock().lock();
+          try {
+            int x = SHARED.x;
+          } finally {
+            RW_LOCK.readLock().unlock();
+          }
+        } catch(CRaceError e) {
+          hotspot("race");
+        }
+      } 
+    };
+
+  @Test
+  @CNever("race")
+  public void testNoRace() {
+    CSystem.forkAndJoin(READER, READER, READER);
+  }
+
+  @Test
+  @CNever("race")
+  public void testNoRaceWithLock() {
+    CSystem.forkAndJoin(SYNC_READER, SYNC_WRITER, SYNC_WRITER);
+  }
+
+  @Test
+  @CNever("race")
+  public void testNoRaceWithReadWriteLock() {
+    CSystem.forkAndJoin(RW_READER, RW_READER, RW_WRITER);
+  }
+
+  @Test
+  @CNever("race")
+  public void testNoRaceWithForkAndJoin() {
+    SHARED.x = 1;
+    CSystem.forkAndJoin(WRITER);
+    CSystem.forkAndJoin(READER, READER);
+    SHARED.x = 2;
+  }
+
+  @Test
+  @CAlways("race")
+  public void testReadWriteRace() {
+    CSystem.forkAndJoin(READER, WRITER);
+  }
+
+  @Test
+  @CAlways("race")
+  public void testWriteWriteRace() {
+    CSystem.forkAndJoin(WRITER, WRITER);
+  }
+
+  @Test
+  @CAlways("race")
+  public void testRaceWithPartialLocking() {
+    CSystem.forkAndJoin(SYNC_WRITER, WRITER);
+  }
+
+  @Test
+  @CNever("race")
+  public void testNoRaceOnStaticFieldsWithSameName() {
+    CSystem.forkAndJoin(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          A.x = 1;
+        } catch(CRaceError e) {
+          hotspot("race");
+        }
+      }
+    }, new Runnable() {
+      @Override
+      public void run() {
+        try {
+          B.x = 1;
+        } catch(CRaceError e) {
+          hotspot("race");
+        }
+      }
+    });
+  }
+
+  @Test
+  @CNever("race")
+  public void testNoRaceWithVolatilePublication() {
+    READY = false;
+    CSystem.forkAndJoin(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          SHARED.x = 1;
+          READY = true;
+        } catch(CRaceError e) {
+          hotspot("race");
+        }
+      }
+    }, new Runnable() {
+      @SuppressWarnings("unused")
+      @Override
+      public void run() {
+        try {
+          if (READY) {
+            int x = SHARED.x;
+          }
+        } catch(CRaceError e) {
+          hotspot("race");
+        }
+      }
+    });
+  }
+}
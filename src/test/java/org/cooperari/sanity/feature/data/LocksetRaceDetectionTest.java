@@ -0,0 +1,159 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.feature.data;
+
+
+import static org.cooperari.CSystem.hotspot;
+
+import org.cooperari.CSystem;
+import org.cooperari.config.CAlways;
+import org.cooperari.config.CNever;
+import org.cooperari.config.CRaceDetection;
+import org.cooperari.errors.CRaceError;
+import org.cooperari.junit.CJUnitRunner;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@SuppressWarnings("javadoc")
+@RunWith(CJUnitRunner.class)
+@CRaceDetection(value=true,throwErrors=true,mode=CRaceDetection.Mode.LOCKSET)
+public class LocksetRaceDetectionTest {
+
+  static class Cell {
+    int x;
+  }
+
+  static Cell SHARED = new Cell();
+
+  static final Object LOCK = new Object();
+
+  static final Object OTHER_LOCK = new Object();
+
+  private static final Runnable WRITER = 
+    new Runnable() {
+      @Override
+      public void run() {
+        try {
+          SHARED.x = 1;  
+        } catch(CRaceError e) {
+          hotspot("race");
+        }
+      } 
+    };
+
+  private static final Runnable READER = 
+    new Runnable() {
+      @SuppressWarnings("unused")
+      @Override
+      public void run() {
+        try {
+          int x = SHARED.x;
+        } catch(CRaceError e) {
+          hotspot("race");
+        }
+      } 
+    };
+
+  private static final Runnable SYNC_WRITER = 
+    new Runnable() {
+      @Override
+      public void run() {
+        try {
+          synchronized (LOCK) {
+            SHARED.x = 1;
+          }
+        } catch(CRaceError e) {
+          hotspot("race");
+        }
+      } 
+    };
+
+  private static final Runnable SYNC_READER = 
+    new Runnable() {
+      @SuppressWarnings("unused")
+      @Override
+      public void run() {
+        try {
+          synchronized (LOCK) {
+            int x = SHARED.x;
+          }
+        } catch(CRaceError e) {
+          hotspot("race");
+        }
+      } 
+    };
+
+  private static final Runnable OTHER_SYNC_WRITER = 
+    new Runnable() {
+      @Override
+      public void run() {
+        try {
+          synchronized (OTHER_LOCK) {
+            SHARED.x = 1;
+          }
+        } catch(CRaceError e) {
+          hotspot("race");
+        }
+      } 
+    };
+
+  @Test
+  @CNever("race")
+  public void testNoRace() {
+    CSystem.forkAndJoin(READER, READER, READER);
+  }
+
+  @Test
+  @CNever("race")
+  public void testNoRaceWithLock() {
+    CSystem.forkAndJoin(SYNC_READER, SYNC_WRITER, SYNC_WRITER);
+  }
+
+  @Test
+  @CNever("race")
+  public void testNoRaceWithNestedLocks() {
+    CSystem.forkAndJoin(SYNC_WRITER, new Runnable() {
+      @Override
+      public void run() {
+        try {
+          synchronized (OTHER_LOCK) {
+            synchronized (LOCK) {
+              SHARED.x = 2;
+            }
+          }
+        } catch(CRaceError e) {
+          hotspot("race");
+        }
+      }
+    });
+  }
+
+  @Test
+  @CAlways("race")
+  public void testRaceWithDifferentLocks() {
+    CSystem.forkAndJoin(SYNC_WRITER, SYNC_WRITER, OTHER_SYNC_WRITER, OTHER_SYNC_WRITER);
+  }
+
+  @Test
+  @CAlways("race")
+  public void testRaceWithPartialLocking() {
+    CSystem.forkAndJoin(SYNC_WRITER, SYNC_READER, READER, WRITER);
+  }
+}
@@ -22,7 +22,8 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @SuppressWarnings("javadoc")
 @RunWith(Suite.class)
-@SuiteClasses({ CJUnitRunnerSanityTest1.class, CJUnitRunnerSanityTest2.class })
+@SuiteClasses({ CJUnitRunnerSanityTest1.class, CJUnitRunnerSanityTest2.class, CParallelMethodsTest.class, 
+  ShardedExecutionTest.class })
 public class CJUnitRunnerSanityTestSuite {
 
 }
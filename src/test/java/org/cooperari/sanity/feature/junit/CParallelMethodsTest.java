@@ -0,0 +1,89 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.feature.junit;
+
+import static org.cooperari.CSystem.hotspot;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.cooperari.CSystem;
+import org.cooperari.config.CMaxTrials;
+import org.cooperari.config.CSometimes;
+import org.cooperari.junit.CJUnitRunner;
+import org.cooperari.junit.CParallelMethods;
+import org.junit.AfterClass;
+import org.junit.FixMethodOrder;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@SuppressWarnings({ "javadoc" })
+@RunWith(CJUnitRunner.class)
+@CParallelMethods(3)
+public class CParallelMethodsTest {
+  private static final int TEST_METHODS = 4;
+  private static final Set<String> EXECUTED = ConcurrentHashMap.newKeySet();
+
+  @AfterClass
+  public static void tearDownAfterClass() {
+    assertEquals("test methods executed", TEST_METHODS, EXECUTED.size());
+  }
+
+  private static Runnable reach(String id) {
+    return () -> hotspot(id);
+  }
+
+  @Test
+  @CMaxTrials(5)
+  @CSometimes("a")
+  public void test1() {
+    CSystem.forkAndJoin(reach("a"), reach("b"));
+    EXECUTED.add("test1");
+  }
+
+  @Test
+  @CMaxTrials(5)
+  @CSometimes("b")
+  public void test2() {
+    CSystem.forkAndJoin(reach("a"), reach("b"));
+    EXECUTED.add("test2");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  @CMaxTrials(5)
+  public void test3() {
+    CSystem.forkAndJoin(reach("c"));
+    EXECUTED.add("test3");
+    throw new IllegalStateException();
+  }
+
+  @Test
+  @Ignore
+  public void test4() {
+
+  }
+
+  @Test
+  @CMaxTrials(1)
+  public void test5() {
+    EXECUTED.add("test5");
+  }
+}
@@ -0,0 +1,53 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.feature.junit;
+
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+
+import org.cooperari.tools.cjunit.Main;
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class ShardedExecutionTest {
+
+  // Not a test by itself, executed by worker JVMs with the plain JUnit runner.
+  public static class PlainFailure {
+    @Test
+    public void test() {
+      fail("plain failure");
+    }
+  }
+
+  @Test
+  public void testPlainFailureInWorker() throws IOException {
+    File dir = Files.createTempDirectory("cjunit-shards").toFile();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    int exitCode = Main.execute(new String[] { dir.getPath(), "-jvms", "2", PlainFailure.class.getName() }, 
+        new PrintStream(bytes, true));
+    String output = bytes.toString();
+    assertNotEquals(output, 0, exitCode);
+    assertTrue(output, output.contains("Executed: 1; Failed: 1"));
+  }
+}
@@ -0,0 +1,126 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.feature.locks;
+
+import static org.cooperari.CSystem.hotspot;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.cooperari.CSystem;
+import org.cooperari.config.CAlways;
+import org.cooperari.config.CNever;
+import org.cooperari.errors.CWaitDeadlockError;
+import org.cooperari.junit.CCooperativeOnly;
+import org.cooperari.junit.CJUnitRunner;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@SuppressWarnings("javadoc")
+@RunWith(CJUnitRunner.class)
+public class ConditionTest {
+
+  private static final ReentrantLock LOCK = new ReentrantLock();
+  private static final Condition READY = LOCK.newCondition();
+  private static boolean ready;
+
+  @Test
+  public final void testTimedAwait() {
+    LOCK.lock();
+    try {
+      assertTrue(READY.awaitNanos(1000L) <= 0L);
+      assertFalse(READY.await(1, TimeUnit.MILLISECONDS));
+      assertTrue(LOCK.isHeldByCurrentThread());
+    } catch (InterruptedException e) {
+      fail("unexpected interrupt");
+    } finally {
+      LOCK.unlock();
+    }
+  }
+
+  @Test(expected=IllegalMonitorStateException.class)
+  public final void testSignalWithoutLock() {
+    READY.signal();
+  }
+
+  private static final Runnable AWAIT_READY = new Runnable() {
+    public void run() {
+      LOCK.lock();
+      try {
+        while (!ready) {
+          READY.await();
+        }
+        hotspot("DONE");
+      } catch (InterruptedException e) {
+        hotspot("INT");
+      } finally {
+        LOCK.unlock();
+      }
+    }
+  };
+
+  private static final Runnable SIGNAL_READY = new Runnable() {
+    public void run() {
+      LOCK.lock();
+      try {
+        ready = true;
+        READY.signalAll();
+      } finally {
+        LOCK.unlock();
+      }
+    }
+  };
+
+  @Test @CAlways("DONE") @CNever("INT")
+  public final void testAwaitAndSignal() {
+    ready = false;
+    CSystem.forkAndJoin(AWAIT_READY, AWAIT_READY, SIGNAL_READY);
+  }
+
+  private static final Runnable AWAIT_FOREVER = new Runnable() {
+    public void run() {
+      LOCK.lock();
+      try {
+        READY.await();
+        hotspot("DONE");
+      } catch (InterruptedException e) {
+        hotspot("INT");
+      } finally {
+        LOCK.unlock();
+      }
+    }
+  };
+
+  @Test(expected=CWaitDeadlockError.class) @CCooperativeOnly @CNever({"INT","DONE"})
+  public final void testBlockingAwait() {
+    CSystem.forkAndJoin(AWAIT_FOREVER, AWAIT_FOREVER);
+  }
+
+  @Test @CCooperativeOnly @CAlways("INT") @CNever("DONE")
+  public final void testInterruptDuringAwait() {
+    Thread t = new Thread(AWAIT_FOREVER);
+    t.start();
+    t.interrupt();
+  }
+}
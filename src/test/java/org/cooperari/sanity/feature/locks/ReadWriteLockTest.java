@@ -0,0 +1,162 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.feature.locks;
+
+import static org.cooperari.CSystem.hotspot;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+
+import org.cooperari.CSystem;
+import org.cooperari.config.CNever;
+import org.cooperari.config.CSometimes;
+import org.cooperari.junit.CJUnitRunner;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@SuppressWarnings("javadoc")
+@RunWith(CJUnitRunner.class)
+public class ReadWriteLockTest {
+
+  private static final ReentrantReadWriteLock RW = new ReentrantReadWriteLock();
+  private static final Lock R = RW.readLock();
+  private static final Lock W = RW.writeLock();
+  private static final StampedLock SL = new StampedLock();
+  private static int x, y;
+
+  @Test
+  public final void testDowngrade() {
+    W.lock();
+    assertTrue(RW.isWriteLockedByCurrentThread());
+    R.lock();
+    W.unlock();
+    assertFalse(RW.isWriteLocked());
+    assertEquals(1, RW.getReadLockCount());
+    assertEquals(1, RW.getReadHoldCount());
+    assertFalse(W.tryLock());
+    R.unlock();
+    assertEquals(0, RW.getReadLockCount());
+  }
+
+  private static final Runnable READER = new Runnable() {
+    public void run() {
+      R.lock();
+      try {
+        if (RW.getReadLockCount() == 2) {
+          hotspot("shared");
+        }
+        if (x != y) {
+          hotspot("inconsistent");
+        }
+      } finally {
+        R.unlock();
+      }
+    }
+  };
+
+  private static final Runnable WRITER = new Runnable() {
+    public void run() {
+      W.lock();
+      try {
+        x++;
+        y++;
+      } finally {
+        W.unlock();
+      }
+    }
+  };
+
+  @Test @CSometimes("shared") @CNever("inconsistent")
+  public final void testReadersAndWriter() {
+    CSystem.forkAndJoin(READER, READER, WRITER);
+  }
+
+  @Test
+  public final void testStamps() {
+    long s = SL.tryOptimisticRead();
+    assertNotEquals(0L, s);
+    assertTrue(SL.validate(s));
+    long w = SL.writeLock();
+    assertTrue(SL.isWriteLocked());
+    assertFalse(SL.validate(s));
+    assertEquals(0L, SL.tryOptimisticRead());
+    assertEquals(0L, SL.tryReadLock());
+    long r = SL.tryConvertToReadLock(w);
+    assertNotEquals(0L, r);
+    assertTrue(SL.isReadLocked());
+    w = SL.tryConvertToWriteLock(r);
+    assertNotEquals(0L, w);
+    SL.unlock(w);
+    assertFalse(SL.isWriteLocked());
+    assertFalse(SL.isReadLocked());
+  }
+
+  @Test(expected=IllegalMonitorStateException.class)
+  public final void testInvalidStamp() {
+    long s = SL.readLock();
+    try {
+      SL.unlockWrite(s);
+    } finally {
+      SL.unlockRead(s);
+    }
+  }
+
+  private static final Runnable OPTIMISTIC_READER = new Runnable() {
+    public void run() {
+      long s = SL.tryOptimisticRead();
+      int a = x, b = y;
+      if (!SL.validate(s)) {
+        hotspot("invalidated");
+        s = SL.readLock();
+        try {
+          a = x;
+          b = y;
+        } finally {
+          SL.unlockRead(s);
+        }
+      }
+      if (a != b) {
+        hotspot("inconsistent");
+      }
+    }
+  };
+
+  private static final Runnable STAMPED_WRITER = new Runnable() {
+    public void run() {
+      long s = SL.writeLock();
+      try {
+        x++;
+        y++;
+      } finally {
+        SL.unlockWrite(s);
+      }
+    }
+  };
+
+  @Test @CSometimes("invalidated") @CNever("inconsistent")
+  public final void testOptimisticRead() {
+    CSystem.forkAndJoin(OPTIMISTIC_READER, STAMPED_WRITER);
+  }
+}
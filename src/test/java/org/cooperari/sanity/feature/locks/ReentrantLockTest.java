@@ -0,0 +1,204 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.feature.locks;
+
+import static org.cooperari.CSystem.hotspot;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.cooperari.CSystem;
+import org.cooperari.config.CNever;
+import org.cooperari.config.CSometimes;
+import org.cooperari.feature.monitor.CResourceDeadlockError;
+import org.cooperari.junit.CJUnitRunner;
+import org.cooperari.sanity.feature.Data;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@SuppressWarnings("javadoc")
+@RunWith(CJUnitRunner.class)
+public class ReentrantLockTest {
+
+  private static final ReentrantLock A = new ReentrantLock();
+  private static final ReentrantLock B = new ReentrantLock();
+  private static final Data SD = new Data();
+  private static int counter;
+
+  @Test
+  public final void testNestedLock() {
+    ReentrantLock l = new ReentrantLock();
+    assertFalse(l.isLocked());
+    assertEquals(0, l.getHoldCount());
+    l.lock();
+    assertTrue(l.isHeldByCurrentThread());
+    l.lock();
+    assertEquals(2, l.getHoldCount());
+    l.unlock();
+    assertEquals(1, l.getHoldCount());
+    assertTrue(l.isLocked());
+    l.unlock();
+    assertFalse(l.isLocked());
+    assertFalse(l.isHeldByCurrentThread());
+  }
+
+  @Test(expected=IllegalMonitorStateException.class)
+  public final void testUnlockWithoutLock() {
+    new ReentrantLock().unlock();
+  }
+
+  private static final Runnable INCREMENT = new Runnable() {
+    public void run() {
+      A.lock();
+      try {
+        int v = counter;
+        hotspot("locked");
+        counter = v + 1;
+      } finally {
+        A.unlock();
+      }
+    }
+  };
+
+  @Test
+  public final void testMutualExclusion() {
+    counter = 0;
+    CSystem.forkAndJoin(INCREMENT, INCREMENT, INCREMENT);
+    assertEquals(3, counter);
+  }
+
+  private static final Runnable TRY_LOCK = new Runnable() {
+    public void run() {
+      if (A.tryLock()) {
+        try {
+          hotspot("acquired");
+        } finally {
+          A.unlock();
+        }
+      } else {
+        hotspot("busy");
+      }
+    }
+  };
+
+  @Test @CSometimes({"acquired", "busy"})
+  public final void testTryLock() {
+    CSystem.forkAndJoin(TRY_LOCK, TRY_LOCK);
+  }
+
+  private static final Runnable[] DEADLOCK_FOR_SURE = {
+    new Runnable() {
+      public void run() {
+        A.lock();
+        try {
+          while (SD.x == 0) { }
+          B.lock();
+          B.unlock();
+        } catch (CResourceDeadlockError e) {
+          hotspot("deadlock1");
+        } finally {
+          A.unlock();
+        }
+      }
+    },
+    new Runnable() {
+      public void run() {
+        B.lock();
+        try {
+          SD.x = 1;
+          A.lock();
+          A.unlock();
+        } catch (CResourceDeadlockError e) {
+          hotspot("deadlock2");
+        } finally {
+          B.unlock();
+        }
+      }
+    }
+  };
+
+  @Test @CSometimes({"deadlock1", "deadlock2"})
+  public final void testDeadlock() {
+    SD.x = 0;
+    CSystem.forkAndJoin(DEADLOCK_FOR_SURE);
+  }
+
+  private static final Runnable[] MIXED_DEADLOCK = {
+    new Runnable() {
+      public void run() {
+        synchronized (SD) {
+          try {
+            A.lock();
+            A.unlock();
+          } catch (CResourceDeadlockError e) {
+            hotspot("deadlock");
+          }
+        }
+      }
+    },
+    new Runnable() {
+      public void run() {
+        A.lock();
+        try {
+          synchronized (SD) { }
+        } catch (CResourceDeadlockError e) {
+          hotspot("deadlock");
+        } finally {
+          A.unlock();
+        }
+      }
+    }
+  };
+
+  @Test @CSometimes("deadlock")
+  public final void testMixedDeadlock() {
+    CSystem.forkAndJoin(MIXED_DEADLOCK);
+  }
+
+  private static final Runnable[] HAND_OVER_HAND = {
+    new Runnable() {
+      public void run() {
+        A.lock();
+        B.lock();
+        A.unlock();
+        B.unlock();
+      }
+    },
+    new Runnable() {
+      public void run() {
+        A.lock();
+        B.lock();
+        A.unlock();
+        B.unlock();
+      }
+    }
+  };
+
+  @Test @CNever("deadlock")
+  public final void testHandOverHand() {
+    try {
+      CSystem.forkAndJoin(HAND_OVER_HAND);
+    } catch (CResourceDeadlockError e) {
+      hotspot("deadlock");
+    }
+  }
+}
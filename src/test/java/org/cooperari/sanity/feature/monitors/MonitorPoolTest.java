@@ -0,0 +1,108 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.feature.monitors;
+
+import static org.cooperari.core.CRuntime.getRuntime;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.cooperari.CSystem;
+import org.cooperari.config.CMaxTrials;
+import org.cooperari.feature.monitor.Monitor;
+import org.cooperari.feature.monitor.MonitorPool;
+import org.cooperari.junit.CJUnitRunner;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@SuppressWarnings("javadoc")
+@RunWith(CJUnitRunner.class)
+@CMaxTrials(5)
+public class MonitorPoolTest {
+
+  // More monitors than the initial capacity of the pool.
+  private static final int N = 200;
+
+  private static Object[] objects(int n) {
+    Object[] objs = new Object[n];
+    for (int i = 0; i < n; i++) {
+      objs[i] = new Object();
+    }
+    return objs;
+  }
+
+  private static Set<Monitor> identitySet() {
+    return Collections.newSetFromMap(new IdentityHashMap<>());
+  }
+
+  // Check that the first 'held' objects have a monitor locked once, and the others have no monitor.
+  private static void assertHeld(Object[] objs, int held) {
+    if (CSystem.inCooperativeMode()) {
+      MonitorPool pool = getRuntime().get(MonitorPool.class);
+      for (int i = 0; i < objs.length; i++) {
+        Monitor m = pool.get(objs[i]);
+        if (i < held) {
+          assertSame(objs[i], m.getObject());
+          assertEquals(1, m.getOwnerLockCount());
+        } else {
+          assertSame(Monitor.UNREFERENCED_MONITOR, m);
+        }
+      }
+    }
+  }
+
+  // Lock objs[i..] in nested fashion, checking the pool on every acquisition and release.
+  private static void lockAll(Object[] objs, int i, Set<Monitor> monitors) {
+    assertHeld(objs, i);
+    if (i < objs.length) {
+      synchronized (objs[i]) {
+        if (CSystem.inCooperativeMode()) {
+          monitors.add(getRuntime().get(MonitorPool.class).get(objs[i]));
+        }
+        lockAll(objs, i + 1, monitors);
+      }
+      assertHeld(objs, i);
+    }
+  }
+
+  @Test
+  public void test1() {
+    lockAll(objects(N), 0, identitySet());
+  }
+
+  @Test
+  public void test2() {
+    Set<Monitor> first = identitySet(), second = identitySet();
+    lockAll(objects(N), 0, first);
+    lockAll(objects(N), 0, second);
+    // Monitors disposed in the first round are reused in the second.
+    assertEquals(first, second);
+  }
+
+  @Test
+  public void test3() {
+    CSystem.forkAndJoin(
+        () -> lockAll(objects(N / 2), 0, identitySet()),
+        () -> lockAll(objects(N / 2), 0, identitySet()));
+  }
+}
@@ -22,7 +22,7 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @SuppressWarnings("javadoc")
 @RunWith(Suite.class)
-@SuiteClasses({ MonitorLockingTest.class, ResourceDeadlockTest.class,
+@SuiteClasses({ MonitorLockingTest.class, MonitorPoolTest.class, ResourceDeadlockTest.class,
     WaitAndNotifyTest.class })
 public class MonitorTestSuite {
 
@@ -0,0 +1,132 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.feature.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.AnnotatedElement;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.cooperari.CSystem;
+import org.cooperari.CTest;
+import org.cooperari.CTestResult;
+import org.cooperari.config.CMaxTrials;
+import org.cooperari.config.CTraceOptions;
+import org.cooperari.core.CSession;
+import org.cooperari.core.CTrace;
+import org.cooperari.core.CWorkspace;
+import org.cooperari.core.util.CAsyncWriter;
+import org.cooperari.core.util.CReport;
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class DecisionsOnlyTraceTest {
+
+  // Test configurations. With the (default) fixed session seed, sessions 
+  // for the same test explore the same schedules regardless of trace options.
+  @CMaxTrials(100)
+  private static class FullTrace { }
+
+  @CMaxTrials(100)
+  @CTraceOptions(decisionsOnly=true)
+  private static class DecisionsOnly { }
+
+  @CMaxTrials(100)
+  @CTraceOptions(decisionsOnly=true, binary=true)
+  private static class DecisionsOnlyBinary { }
+
+  static class Cell {
+    int x;
+  }
+
+  private static void increment(Cell c) {
+    synchronized (c) {
+      c.x++;
+    }
+  }
+
+  private static final class LostUpdate implements CTest {
+    private final AnnotatedElement _config;
+
+    LostUpdate(AnnotatedElement config) {
+      _config = config;
+    }
+
+    @Override
+    public String getName() {
+      return "LostUpdate_" + ((Class<?>) _config).getSimpleName();
+    }
+
+    @Override
+    public String getSuiteName() {
+      return DecisionsOnlyTraceTest.class.getName();
+    }
+
+    @Override
+    public AnnotatedElement getConfiguration() {
+      return _config;
+    }
+
+    @Override
+    public void run() {
+      Cell c = new Cell();
+      CSystem.forkAndJoin(() -> c.x++, () -> c.x++, () -> increment(c));
+      assertEquals(3, c.x);
+    }
+  }
+
+  private static CTestResult execute(Class<?> config) {
+    CTestResult r = CSession.executeTest(new LostUpdate(config));
+    assertTrue("Lost update not found.", r.failed());
+    assertNotNull(r.getFailureTrace());
+    assertEquals(0, r.getReplayDivergences());
+    return r;
+  }
+
+  private static String contents(File traceFile) throws IOException {
+    return new String(Files.readAllBytes(traceFile.toPath()), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testTextTrace() throws IOException {
+    CTestResult expected = execute(FullTrace.class);
+    CTestResult actual = execute(DecisionsOnly.class);
+    assertEquals(expected.trials(), actual.trials());
+    assertEquals(contents(expected.getFailureTrace()), contents(actual.getFailureTrace()));
+  }
+
+  @Test
+  public void testBinaryTrace() throws IOException {
+    CTestResult expected = execute(FullTrace.class);
+    CTestResult actual = execute(DecisionsOnlyBinary.class);
+    assertEquals(expected.trials(), actual.trials());
+    CReport report = CWorkspace.INSTANCE.createReport(DecisionsOnlyTraceTest.class.getName(), "converted.trace");
+    try {
+      CTrace.convert(actual.getFailureTrace(), report);
+    } finally {
+      report.close();
+    }
+    // Reports are written asynchronously.
+    CAsyncWriter.INSTANCE.flush();
+    assertEquals(contents(expected.getFailureTrace()), contents(report.getFile()));
+  }
+}
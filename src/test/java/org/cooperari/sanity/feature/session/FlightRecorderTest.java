@@ -0,0 +1,188 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.feature.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.AnnotatedElement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.cooperari.CSystem;
+import org.cooperari.CTest;
+import org.cooperari.CTestResult;
+import org.cooperari.config.CMaxTrials;
+import org.cooperari.config.CRaceDetection;
+import org.cooperari.core.CSession;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class FlightRecorderTest {
+
+  private static final String[] EVENTS = { 
+    "org.cooperari.SchedulingDecision",
+    "org.cooperari.Yield",
+    "org.cooperari.Race",
+    "org.cooperari.Deadlock",
+    "org.cooperari.Trial"
+  };
+
+  @BeforeClass
+  public static void checkJFR() {
+    boolean available;
+    try {
+      Class.forName("jdk.jfr.Recording");
+      available = true;
+    } catch (ClassNotFoundException e) {
+      available = false;
+    }
+    assumeTrue(available);
+  }
+
+  // HB race detection reports the race in every trial, regardless of the schedule.
+  @CMaxTrials(5)
+  @CRaceDetection(mode=CRaceDetection.Mode.HB)
+  private static class Config { }
+
+  static class Cell {
+    int x;
+  }
+
+  private static final class SimpleTest implements CTest {
+    private final String _name;
+    private final Runnable _body;
+
+    SimpleTest(String name, Runnable body) {
+      _name = name;
+      _body = body;
+    }
+
+    @Override
+    public String getName() {
+      return _name;
+    }
+
+    @Override
+    public String getSuiteName() {
+      return FlightRecorderTest.class.getName();
+    }
+
+    @Override
+    public AnnotatedElement getConfiguration() {
+      return Config.class;
+    }
+
+    @Override
+    public void run() {
+      _body.run();
+    }
+  }
+
+  private static void race() {
+    Cell c = new Cell();
+    CSystem.forkAndJoin(() -> c.x++, () -> c.x++);
+  }
+
+  private static void waitForever() {
+    Object o = new Object();
+    synchronized (o) {
+      try {
+        o.wait();
+      } catch (InterruptedException e) { 
+        throw new RuntimeException(e);
+      }
+    }
+  }
+
+  private static Map<String, List<RecordedEvent>> record(boolean enable, List<CTestResult> results, CTest... tests) throws IOException {
+    File file = File.createTempFile("cooperari", ".jfr");
+    file.deleteOnExit();
+    try (Recording r = new Recording()) {
+      if (enable) {
+        for (String e : EVENTS) {
+          r.enable(e);
+        }
+      }
+      r.start();
+      for (CTest t : tests) {
+        results.add(CSession.executeTest(t));
+      }
+      r.stop();
+      r.dump(file.toPath());
+    }
+    Map<String, List<RecordedEvent>> events = new HashMap<>();
+    for (RecordedEvent e : RecordingFile.readAllEvents(file.toPath())) {
+      String name = e.getEventType().getName();
+      if (name.startsWith("org.cooperari.")) {
+        events.computeIfAbsent(name, k -> new ArrayList<>()).add(e);
+      }
+    }
+    return events;
+  }
+
+  @Test
+  public void testEventsDisabledByDefault() throws IOException {
+    Map<String, List<RecordedEvent>> events = record(false, new ArrayList<>(), new SimpleTest("race", FlightRecorderTest::race));
+    assertTrue(events.keySet().toString(), events.isEmpty());
+  }
+
+  @Test
+  public void testEvents() throws IOException {
+    SimpleTest raceTest = new SimpleTest("race", FlightRecorderTest::race);
+    SimpleTest deadlockTest = new SimpleTest("deadlock", FlightRecorderTest::waitForever);
+    List<CTestResult> results = new ArrayList<>();
+    Map<String, List<RecordedEvent>> events = record(true, results, raceTest, deadlockTest);
+    for (String e : EVENTS) {
+      assertTrue(e, events.containsKey(e));
+    }
+    // One trial event per trial: all trials of the race test pass, 
+    // the single trial of the deadlock test fails.
+    assertFalse(results.get(0).failed());
+    assertTrue(results.get(1).failed());
+    int raceTrials = 0, deadlockTrials = 0;
+    for (RecordedEvent e : events.get("org.cooperari.Trial")) {
+      if (e.getString("test").equals("race")) {
+        raceTrials++;
+        assertFalse(e.getBoolean("failed"));
+      } else {
+        deadlockTrials++;
+        assertTrue(e.getBoolean("failed"));
+      }
+    }
+    assertEquals(results.get(0).trials(), raceTrials);
+    assertEquals(results.get(1).trials(), deadlockTrials);
+    for (RecordedEvent e : events.get("org.cooperari.Race")) {
+      assertEquals("FlightRecorderTest.java", e.getString("sourceFile"));
+    }
+    for (RecordedEvent e : events.get("org.cooperari.Deadlock")) {
+      assertEquals("wait", e.getString("kind"));
+      assertEquals(1, e.getInt("threads"));
+    }
+  }
+}
@@ -0,0 +1,101 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.feature.session;
+
+import static org.cooperari.CSystem.hotspot;
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.cooperari.CSystem;
+import org.cooperari.config.CMaxTrials;
+import org.cooperari.config.CRaceDetection;
+import org.cooperari.config.CScheduling;
+import org.cooperari.config.CSometimes;
+import org.cooperari.config.CTrialParallelism;
+import org.cooperari.core.scheduling.CSchedulerFactory;
+import org.cooperari.errors.CRaceError;
+import org.cooperari.junit.CJUnitRunner;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@SuppressWarnings("javadoc")
+@RunWith(CJUnitRunner.class)
+@CTrialParallelism(4)
+public class ParallelTrialsTest {
+
+  private static final AtomicInteger TRIALS = new AtomicInteger();
+
+  static class Cell {
+    int x;
+  }
+
+  private static final Cell SHARED = new Cell();
+
+  private static final Runnable WRITER = 
+      new Runnable() {
+    @Override
+    public void run() {
+      try {
+        SHARED.x = 1;  
+      } catch(CRaceError e) {
+        hotspot("writer");
+      }
+    } 
+  };
+
+  private static final Runnable READER = 
+      new Runnable() {
+    @SuppressWarnings("unused")
+    @Override
+    public void run() {
+      try {
+        int x = SHARED.x;
+      } catch(CRaceError e) {
+        hotspot("reader");
+      }
+    } 
+  };
+
+  @Test
+  @CMaxTrials(10)
+  @CScheduling(schedulerFactory=CSchedulerFactory.OBLITUS)
+  public void test1() {
+    TRIALS.incrementAndGet();
+    CSystem.forkAndJoin(READER, WRITER);
+  }
+
+  @Test
+  @CMaxTrials(1)
+  public void test2() {
+    assertEquals(10, TRIALS.get());
+  }
+
+  // Memoryless scheduling with per-trial seeds: the outcome of each trial 
+  // does not depend on which worker executes it or in what order.
+  @Test
+  @CMaxTrials(100)
+  @CScheduling(schedulerFactory=CSchedulerFactory.OBLITUS)
+  @CRaceDetection(value=true,throwErrors=true)
+  @CSometimes({"reader", "writer"})
+  public void test3() {
+    CSystem.forkAndJoin(READER, WRITER);
+  }
+}
@@ -0,0 +1,80 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.feature.session;
+
+import static org.junit.Assert.assertEquals;
+
+import org.cooperari.CSystem;
+import org.cooperari.config.CMaxTrials;
+import org.cooperari.config.CScheduling;
+import org.cooperari.junit.CJUnitRunner;
+import org.cooperari.sanity.feature.Data;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@SuppressWarnings("javadoc")
+@RunWith(CJUnitRunner.class)
+@CMaxTrials(10)
+public class SoloStepsTest {
+
+  private static final int N = 1000;
+
+  private static void setup(Data d) {
+    for (int i = 0; i < N; i++) {
+      d.x++;
+    }
+  }
+
+  private static void lockedIncrement(Data d) {
+    synchronized (d) {
+      setup(d);
+    }
+  }
+
+  @Test
+  public void test1() {
+    Data d = new Data();
+    setup(d);
+    assertEquals(N, d.x);
+  }
+
+  @Test
+  @CScheduling(soloSteps=false)
+  public void test2() {
+    Data d = new Data();
+    setup(d);
+    assertEquals(N, d.x);
+  }
+
+  @Test
+  public void test3() {
+    Data d = new Data();
+    CSystem.forkAndJoin(() -> lockedIncrement(d), () -> lockedIncrement(d));
+    assertEquals(2 * N, d.x);
+  }
+
+  @Test
+  @CScheduling(soloSteps=false)
+  public void test4() {
+    Data d = new Data();
+    CSystem.forkAndJoin(() -> lockedIncrement(d), () -> lockedIncrement(d));
+    assertEquals(2 * N, d.x);
+  }
+}
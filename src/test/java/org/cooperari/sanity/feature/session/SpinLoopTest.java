@@ -0,0 +1,118 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.feature.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.cooperari.CSystem;
+import org.cooperari.config.CMaxTrials;
+import org.cooperari.config.CScheduling;
+import org.cooperari.junit.CJUnitRunner;
+import org.cooperari.sanity.feature.Data;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@SuppressWarnings("javadoc")
+@RunWith(CJUnitRunner.class)
+@CMaxTrials(10)
+public class SpinLoopTest {
+
+  private static void busyWait(Data flag) {
+    while (flag.x == 0) { }
+  }
+
+  private static int countingBusyWait(Data flag) {
+    int n = 0;
+    while (flag.x == 0) { 
+      n++;
+    }
+    return n;
+  }
+
+  static class Cell {
+    int x;
+  }
+
+  private static void casIncrement(AtomicInteger counter) {
+    int v;
+    do {
+      v = counter.get();
+    } while (!counter.compareAndSet(v, v + 1));
+  }
+
+  @Test
+  @CScheduling(spinThreshold=8)
+  public void test1() {
+    Data flag = new Data();
+    CSystem.forkAndJoin(() -> busyWait(flag), () -> busyWait(flag), () -> flag.x = 1);
+  }
+
+  @Test
+  @CScheduling(spinThreshold=1)
+  public void test2() {
+    Data flag = new Data();
+    CSystem.forkAndJoin(() -> busyWait(flag), () -> flag.x = 1);
+  }
+
+  @Test
+  @CScheduling(spinThreshold=8)
+  public void test3() {
+    AtomicInteger counter = new AtomicInteger();
+    CSystem.forkAndJoin(() -> casIncrement(counter), () -> casIncrement(counter), () -> casIncrement(counter));
+    assertEquals(3, counter.get());
+  }
+
+  @Test
+  @CScheduling(spinThreshold=1)
+  public void test4() {
+    // The spinning thread is scheduled at most once per step of the writer.
+    Data flag = new Data();
+    Cell cell = new Cell();
+    int[] spins = new int[1];
+    CSystem.forkAndJoin(() -> spins[0] = countingBusyWait(flag), () -> {
+      cell.x = 1;
+      cell.x = 2;
+      cell.x = 3;
+      flag.x = 1;
+    });
+    assertTrue("spins: " + spins[0], spins[0] <= 5);
+  }
+
+  @Test
+  @CScheduling(spinThreshold=1)
+  public void test5() {
+    // Same as test4, but the writer is a loop. It writes data on every
+    // iteration, hence it is not spinning, and the spinning thread is 
+    // still scheduled at most once per step of the writer.
+    Data flag = new Data();
+    Cell cell = new Cell();
+    int[] spins = new int[1];
+    CSystem.forkAndJoin(() -> spins[0] = countingBusyWait(flag), () -> {
+      for (int i = 1; i <= 3; i++) {
+        cell.x = i;
+      }
+      flag.x = 1;
+    });
+    assertTrue("spins: " + spins[0], spins[0] <= 5);
+  }
+}
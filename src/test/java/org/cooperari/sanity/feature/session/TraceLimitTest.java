@@ -0,0 +1,131 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.feature.session;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.AnnotatedElement;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cooperari.CSystem;
+import org.cooperari.CTest;
+import org.cooperari.CTestResult;
+import org.cooperari.config.CMaxTrials;
+import org.cooperari.config.CTraceOptions;
+import org.cooperari.core.CSession;
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class TraceLimitTest {
+
+  private static final int LIMIT = 100;
+
+  // Test configurations. With the (default) fixed session seed, sessions 
+  // for the same test follow the same schedule regardless of trace options.
+  @CMaxTrials(1)
+  private static class Unbounded { }
+
+  @CMaxTrials(1)
+  @CTraceOptions(limit=LIMIT)
+  private static class Limited { }
+
+  @CMaxTrials(1)
+  @CTraceOptions(limit=100000)
+  private static class LargeLimit { }
+
+  static class Cell {
+    int x;
+  }
+
+  private static void increment(Cell c) {
+    for (int i = 0; i < 300; i++) {
+      c.x++;
+    }
+  }
+
+  private static final class LongTrace implements CTest {
+    private final AnnotatedElement _config;
+
+    LongTrace(AnnotatedElement config) {
+      _config = config;
+    }
+
+    @Override
+    public String getName() {
+      return "LongTrace_" + ((Class<?>) _config).getSimpleName();
+    }
+
+    @Override
+    public String getSuiteName() {
+      return TraceLimitTest.class.getName();
+    }
+
+    @Override
+    public AnnotatedElement getConfiguration() {
+      return _config;
+    }
+
+    @Override
+    public void run() {
+      Cell c = new Cell();
+      CSystem.forkAndJoin(() -> increment(c), () -> increment(c), () -> increment(c));
+      // Fail so that the trace is saved.
+      fail("end of trace");
+    }
+  }
+
+  // Trace entries without their index (traces saved from a ring buffer are numbered from 0).
+  private static List<String> steps(Class<?> config) throws IOException {
+    CTestResult r = CSession.executeTest(new LongTrace(config));
+    File traceFile = r.getFailureTrace();
+    assertNotNull(traceFile);
+    List<String> lines = Files.readAllLines(traceFile.toPath(), StandardCharsets.UTF_8);
+    int start = lines.indexOf("# EXECUTION TRACE");
+    assertTrue(start >= 0);
+    List<String> steps = new ArrayList<>();
+    for (String line : lines.subList(start + 2, lines.size())) {
+      if (line.startsWith("#")) {
+        break;
+      }
+      steps.add(line.substring(line.indexOf('\t') + 1));
+    }
+    return steps;
+  }
+
+  @Test
+  public void testUnbounded() throws IOException {
+    List<String> expected = steps(Unbounded.class);
+    // More steps than the initial capacity of unbounded traces.
+    assertTrue(expected.size() > 1024);
+    assertEquals(expected, steps(LargeLimit.class));
+  }
+
+  @Test
+  public void testLimited() throws IOException {
+    List<String> expected = steps(Unbounded.class);
+    List<String> actual = steps(Limited.class);
+    assertEquals(expected.subList(expected.size() - LIMIT, expected.size()), actual);
+  }
+}
@@ -0,0 +1,53 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.feature.session;
+
+import static org.junit.Assert.assertEquals;
+
+import org.cooperari.CCoverage;
+import org.cooperari.config.CMaxTrials;
+import org.cooperari.core.aspectj.AgentFacade;
+import org.cooperari.junit.CJUnitRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@SuppressWarnings("javadoc")
+@RunWith(CJUnitRunner.class)
+@CMaxTrials(1)
+public class YieldPointDefinitionsTest {
+
+  static class Idle {
+    int x;
+
+    synchronized void update() {
+      x++;
+    }
+  }
+
+  @Test
+  public void testIdleClass() throws ClassNotFoundException {
+    // The yield points of a woven type are defined once the type is initialized,
+    // and remain uncovered if they are never reached.
+    CCoverage global = AgentFacade.INSTANCE.getGlobalCoverageLog();
+    int total = global.getTotalYieldPoints();
+    int covered = global.getCoveredYieldPoints();
+    Class.forName(Idle.class.getName());
+    // Monitor enter, field get and set, and monitor exit on normal and exceptional paths.
+    assertEquals(total + 5, global.getTotalYieldPoints());
+    assertEquals(covered, global.getCoveredYieldPoints());
+  }
+}
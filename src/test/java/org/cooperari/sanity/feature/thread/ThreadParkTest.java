@@ -0,0 +1,99 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.feature.thread;
+
+import static org.cooperari.CSystem.hotspot;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.locks.LockSupport;
+
+import org.cooperari.CSystem;
+import org.cooperari.config.CAlways;
+import org.cooperari.config.CNever;
+import org.cooperari.errors.CWaitDeadlockError;
+import org.cooperari.junit.CCooperativeOnly;
+import org.cooperari.junit.CJUnitRunner;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.MethodSorters;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+@SuppressWarnings("javadoc")
+@RunWith(CJUnitRunner.class)
+public class ThreadParkTest {
+
+  private static volatile boolean ready;
+
+  @Test
+  public final void testPermitBeforePark() {
+    LockSupport.unpark(Thread.currentThread());
+    LockSupport.park();
+    assertNull(LockSupport.getBlocker(Thread.currentThread()));
+  }
+
+  @Test
+  public final void testParkNanos() {
+    final long DELTA = 1000000L;
+    long t = System.nanoTime();
+    LockSupport.parkNanos(this, DELTA);
+    assertTrue(System.nanoTime() - t >= DELTA);
+  }
+
+  @Test
+  public final void testParkWhenInterrupted() {
+    Thread.currentThread().interrupt();
+    LockSupport.park();
+    assertTrue(Thread.interrupted());
+  }
+
+  @Test @CAlways("DONE")
+  public final void testParkAndUnpark() {
+    ready = false;
+    final Thread parker = new Thread() {
+      public void run() { 
+        while (!ready) {
+          LockSupport.park(ThreadParkTest.class);
+        }
+        hotspot("DONE");
+      }
+    };
+    parker.start();
+    ready = true;
+    LockSupport.unpark(parker);
+  }
+
+  private static final Runnable PARK_FOREVER = new Runnable() {
+    public void run() {
+      LockSupport.park();
+      hotspot("DONE");
+    }
+  };
+
+  @Test(expected=CWaitDeadlockError.class) @CCooperativeOnly @CNever("DONE")
+  public final void testBlockingPark() {
+    CSystem.forkAndJoin(PARK_FOREVER, PARK_FOREVER);
+  }
+
+  @Test @CCooperativeOnly @CAlways("DONE")
+  public final void testInterruptDuringPark() {
+    Thread t = new Thread(PARK_FOREVER);
+    t.start();
+    t.interrupt();
+  }
+}
@@ -27,7 +27,8 @@ import org.junit.runners.Suite.SuiteClasses;
   ThreadSleepTest.class,
   ThreadStopTest.class, 
   ThreadStartTest.class,
-  ThreadJoinTest.class })
+  ThreadJoinTest.class,
+  ThreadParkTest.class })
 public class ThreadTestSuite {
 
 }
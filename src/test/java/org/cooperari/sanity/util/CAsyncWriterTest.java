@@ -0,0 +1,108 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.cooperari.core.util.CAsyncWriter;
+import org.cooperari.errors.CInternalError;
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class CAsyncWriterTest {
+
+  private static final int LINES = 10000;
+
+  private static File tempFile() throws IOException {
+    File f = File.createTempFile("casync", ".txt");
+    f.deleteOnExit();
+    return f;
+  }
+
+  private static String expected(String prefix) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < LINES; i++) {
+      sb.append(prefix).append(i).append('\n');
+    }
+    return sb.toString();
+  }
+
+  private static String contents(File f) throws IOException {
+    return new String(Files.readAllBytes(f.toPath()), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testInterleavedStreams() throws IOException {
+    File f1 = tempFile(), f2 = tempFile();
+    try (PrintStream out1 = new PrintStream(CAsyncWriter.INSTANCE.open(f1));
+         PrintStream out2 = new PrintStream(CAsyncWriter.INSTANCE.open(f2))) {
+      for (int i = 0; i < LINES; i++) {
+        out1.print("a" + i + "\n");
+        out2.print("b" + i + "\n");
+        if (i % 100 == 0) {
+          out1.flush();
+        }
+      }
+    }
+    CAsyncWriter.INSTANCE.flush();
+    assertEquals(expected("a"), contents(f1));
+    assertEquals(expected("b"), contents(f2));
+  }
+
+  @Test
+  public void testFlushWithoutClose() throws IOException {
+    File f = tempFile();
+    PrintStream out = new PrintStream(CAsyncWriter.INSTANCE.open(f));
+    for (int i = 0; i < LINES; i++) {
+      out.print("c" + i + "\n");
+    }
+    out.flush();
+    CAsyncWriter.INSTANCE.flush();
+    assertEquals(expected("c"), contents(f));
+    out.close();
+  }
+
+  @Test
+  public void testWriteAfterFailedWrite() throws IOException {
+    // Writes to /dev/full fail with "No space left on device".
+    File full = new File("/dev/full");
+    assumeTrue(full.canWrite());
+    try (PrintStream out = new PrintStream(CAsyncWriter.INSTANCE.open(full))) {
+      out.print(expected("d"));
+    }
+    try {
+      CAsyncWriter.INSTANCE.flush();
+      fail("Expected an error.");
+    } catch (CInternalError e) {
+      assertEquals(IOException.class, e.getCause().getClass());
+    }
+    File f = tempFile();
+    try (PrintStream out = new PrintStream(CAsyncWriter.INSTANCE.open(f))) {
+      out.print(expected("e"));
+    }
+    CAsyncWriter.INSTANCE.flush();
+    assertEquals(expected("e"), contents(f));
+  }
+}
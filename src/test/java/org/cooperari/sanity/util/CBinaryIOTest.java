@@ -0,0 +1,87 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.cooperari.core.util.CBinaryInput;
+import org.cooperari.core.util.CBinaryOutput;
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class CBinaryIOTest {
+
+  private static final int[] INTS = { 
+    0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, -1, Integer.MIN_VALUE 
+  };
+
+  private static final String[] STRINGS = { 
+    "", "a", "cooperari", "ção", new String(new char[1000]).replace('\0', 'x') 
+  };
+
+  private void roundTrip(boolean compress, int bufferSize) throws IOException {
+    File f = File.createTempFile("cbinary", ".bin");
+    f.deleteOnExit();
+    try (CBinaryOutput out = new CBinaryOutput(f, compress, bufferSize)) {
+      for (int i = 0; i < 100; i++) {
+        for (int v : INTS) {
+          out.writeVarInt(v);
+          out.writeSignedVarInt(v);
+        }
+        for (String s : STRINGS) {
+          out.writeString(s);
+        }
+        out.writeByte(i);
+      }
+    }
+    try (CBinaryInput in = new CBinaryInput(f)) {
+      for (int i = 0; i < 100; i++) {
+        for (int v : INTS) {
+          assertEquals("varint", v, in.readVarInt());
+          assertEquals("signed varint", v, in.readSignedVarInt());
+        }
+        for (String s : STRINGS) {
+          assertEquals("string", s, in.readString());
+        }
+        assertEquals("byte", i, in.readByte());
+      }
+    }
+  }
+
+  @Test
+  public void testUncompressed() throws IOException {
+    roundTrip(false, CBinaryOutput.DEFAULT_BUFFER_SIZE);
+  }
+
+  @Test
+  public void testCompressed() throws IOException {
+    roundTrip(true, CBinaryOutput.DEFAULT_BUFFER_SIZE);
+  }
+
+  @Test
+  public void testSpillUncompressed() throws IOException {
+    roundTrip(false, 16);
+  }
+
+  @Test
+  public void testSpillCompressed() throws IOException {
+    roundTrip(true, 16);
+  }
+}
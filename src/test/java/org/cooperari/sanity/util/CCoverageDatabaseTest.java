@@ -0,0 +1,97 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+
+import org.cooperari.CCoverage;
+import org.cooperari.core.CCoverageDatabase;
+import org.cooperari.core.CCoverageLog;
+import org.cooperari.core.CYieldPointRegistry;
+import org.cooperari.core.scheduling.CYieldPoint;
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class CCoverageDatabaseTest {
+
+  private static CYieldPoint yp(String file, int line) {
+    return CYieldPointRegistry.INSTANCE.register("sig", file, line);
+  }
+
+  private static File save(CCoverageDatabase db) throws IOException {
+    File f = File.createTempFile("ccoverage", CCoverageDatabase.SUFFIX);
+    f.deleteOnExit();
+    db.save(f);
+    return f;
+  }
+
+  @Test
+  public void testSaveAndMerge() throws IOException {
+    CYieldPoint a = yp("CCoverageDatabaseTest-A.java", 1);
+    CYieldPoint b = yp("CCoverageDatabaseTest-A.java", 2);
+    CYieldPoint c = yp("CCoverageDatabaseTest-B.java", 1);
+
+    CCoverageLog log1 = new CCoverageLog();
+    log1.markAsCovered(a);
+    log1.recordDefinition(b);
+    log1.recordInterleaving(a.getId(), a.getId());
+    CCoverageDatabase db1 = new CCoverageDatabase();
+    db1.record("S1", "t1", log1);
+
+    CCoverageLog log2 = new CCoverageLog();
+    log2.markAsCovered(b);
+    log2.markAsCovered(c);
+    log2.recordInterleaving(b.getId(), c.getId());
+    CCoverageLog log3 = new CCoverageLog();
+    log3.recordDefinition(c);
+    CCoverageDatabase db2 = new CCoverageDatabase();
+    db2.record("S1", "t1", log2);
+    db2.record("S2", "t2", log3);
+
+    CCoverageDatabase db = new CCoverageDatabase();
+    db.load(save(db1));
+    db.load(save(db2));
+    assertEquals(2, db.size());
+
+    Map<String, CCoverage> byTest = db.byTest();
+    CCoverage t1 = byTest.get("S1.t1");
+    assertEquals(3, t1.getTotalYieldPoints());
+    assertEquals(3, t1.getCoveredYieldPoints());
+    assertEquals(2, t1.getInterleavingPairs());
+    CCoverage t2 = byTest.get("S2.t2");
+    assertEquals(1, t2.getTotalYieldPoints());
+    assertEquals(0, t2.getCoveredYieldPoints());
+
+    assertEquals(2, db.byClass().size());
+
+    Map<String, CCoverage> byFile = db.bySourceFile();
+    assertEquals(2, byFile.get("CCoverageDatabaseTest-A.java").getTotalYieldPoints());
+    assertEquals(2, byFile.get("CCoverageDatabaseTest-A.java").getInterleavingPairs());
+    assertEquals(1, byFile.get("CCoverageDatabaseTest-B.java").getCoveredYieldPoints());
+
+    CCoverageDatabase copy = new CCoverageDatabase();
+    copy.load(save(db));
+    CCoverageLog global = copy.global();
+    assertEquals(3, global.getTotalYieldPoints());
+    assertEquals(3, global.getCoveredYieldPoints());
+    assertEquals(2, global.getInterleavingPairs());
+  }
+}
@@ -0,0 +1,99 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.cooperari.core.CCoverageLog;
+import org.cooperari.core.CYieldPointRegistry;
+import org.cooperari.core.scheduling.CYieldPoint;
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class CCoverageLogTest {
+
+  private static CYieldPoint yp(String file, int line) {
+    return CYieldPointRegistry.INSTANCE.register("sig", file, line);
+  }
+
+  @Test
+  public void testRegistry() {
+    CYieldPoint a = yp("CCoverageLogTest-R.java", 1);
+    CYieldPoint b = yp("CCoverageLogTest-R.java", 2);
+    assertSame(a, yp("CCoverageLogTest-R.java", 1));
+    assertEquals(a.getId() + 1, b.getId());
+    assertSame(b, CYieldPointRegistry.INSTANCE.get(b.getId()));
+  }
+
+  @Test
+  public void testMarkAsCovered() {
+    CCoverageLog log = new CCoverageLog();
+    log.recordDefinition(yp("CCoverageLogTest-M.java", 1));
+    log.markAsCovered(yp("CCoverageLogTest-M.java", 2));
+    log.markAsCovered(yp("CCoverageLogTest-M.java", 2));
+    log.markAsCovered(yp("CCoverageLogTest-M.java", 1));
+    assertEquals(2, log.getTotalYieldPoints());
+    assertEquals(2, log.getCoveredYieldPoints());
+  }
+
+  @Test
+  public void testMerge() {
+    CCoverageLog log1 = new CCoverageLog(), log2 = new CCoverageLog();
+    log1.markAsCovered(yp("CCoverageLogTest-G.java", 1));
+    log1.recordDefinition(yp("CCoverageLogTest-G.java", 2));
+    log2.markAsCovered(yp("CCoverageLogTest-G.java", 1));
+    log2.markAsCovered(yp("CCoverageLogTest-G.java", 2));
+    log2.recordDefinition(yp("CCoverageLogTest-G.java", 3));
+    log1.merge(log2);
+    assertEquals(3, log1.getTotalYieldPoints());
+    assertEquals(2, log1.getCoveredYieldPoints());
+  }
+
+  @Test
+  public void testEnrich() {
+    CCoverageLog global = new CCoverageLog(), local = new CCoverageLog();
+    global.markAsCovered(yp("CCoverageLogTest-E1.java", 1));
+    global.recordDefinition(yp("CCoverageLogTest-E1.java", 2));
+    global.markAsCovered(yp("CCoverageLogTest-E2.java", 1));
+    local.markAsCovered(yp("CCoverageLogTest-E1.java", 2));
+    local.markAsCovered(yp("CCoverageLogTest-E1.java", 3));
+    global.enrich(local, false);
+    assertEquals(4, global.getTotalYieldPoints());
+    assertEquals(4, global.getCoveredYieldPoints());
+    local.enrich(global, true);
+    // E2 yield point is ignored, E1 line 1 is recorded as uncovered.
+    assertEquals(3, local.getTotalYieldPoints());
+    assertEquals(2, local.getCoveredYieldPoints());
+  }
+
+  @Test
+  public void testInterleavings() {
+    CCoverageLog log1 = new CCoverageLog(), log2 = new CCoverageLog();
+    int a = yp("CCoverageLogTest-I.java", 1).getId();
+    int b = yp("CCoverageLogTest-I.java", 2).getId();
+    assertTrue(log1.recordInterleaving(a, b));
+    assertFalse(log1.recordInterleaving(a, b));
+    assertTrue(log1.recordInterleaving(b, a));
+    log2.recordInterleaving(a, b);
+    log2.recordInterleaving(a, a);
+    log1.merge(log2);
+    assertEquals(3, log1.getInterleavingPairs());
+  }
+}
@@ -0,0 +1,88 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+package org.cooperari.sanity.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.cooperari.core.util.CLongHashSet;
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class CLongHashSetTest {
+
+  @Test
+  public void testEmpty() {
+    CLongHashSet s = new CLongHashSet();
+    assertEquals(0, s.size());
+    assertFalse(s.contains(0L));
+    assertFalse(s.contains(1L));
+    assertEquals(0, s.toArray().length);
+  }
+
+  @Test
+  public void testZeroAndNegative() {
+    CLongHashSet s = new CLongHashSet();
+    assertTrue(s.add(0L));
+    assertFalse(s.add(0L));
+    assertTrue(s.add(-1L));
+    assertTrue(s.add(Long.MIN_VALUE));
+    assertEquals(3, s.size());
+    assertArrayEquals(new long[] { Long.MIN_VALUE, -1L, 0L }, s.toArray());
+    s.clear();
+    assertEquals(0, s.size());
+    assertFalse(s.contains(0L));
+  }
+
+  @Test
+  public void testAgainstTreeSet() {
+    Random rng = new Random(0);
+    CLongHashSet s = new CLongHashSet();
+    TreeSet<Long> expected = new TreeSet<>();
+    for (int i = 0; i < 10000; i++) {
+      long v = ((long) rng.nextInt(500) << 32) | rng.nextInt(500);
+      assertEquals(expected.add(v), s.add(v));
+    }
+    assertEquals(expected.size(), s.size());
+    for (long v : expected) {
+      assertTrue(s.contains(v));
+    }
+    long[] array = s.toArray();
+    int i = 0;
+    for (long v : expected) {
+      assertEquals(v, array[i++]);
+    }
+  }
+
+  @Test
+  public void testAddAll() {
+    CLongHashSet a = new CLongHashSet();
+    CLongHashSet b = new CLongHashSet();
+    for (long v = 0; v < 100; v++) {
+      a.add(v);
+      b.add(v + 50);
+    }
+    assertEquals(50, a.addAll(b));
+    assertEquals(150, a.size());
+    assertEquals(0, a.addAll(b));
+  }
+}
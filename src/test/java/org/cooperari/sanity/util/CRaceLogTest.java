@@ -0,0 +1,98 @@
+//
+//   Copyright 2014-2019 Eduardo R. B. Marques
+//
+//  Licensed under the Apache License, Version 2.0 (the "License");
+//  you may not use this file except in compliance with the License.
+//  You may obtain a copy of the License at
+//
+//      http://www.apache.org/licenses/LICENSE-2.0
+//
+//  Unless required by applicable law or agreed to in writing, software
+//  distributed under the License is distributed on an "AS IS" BASIS,
+//  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+//  See the License for the specific language governing permissions and
+//  limitations under the License.
+//
+
+
+package org.cooperari.sanity.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.Iterator;
+
+import org.cooperari.core.CRaceLog;
+import org.cooperari.core.CRaceLog.Race;
+import org.junit.Test;
+
+@SuppressWarnings("javadoc")
+public class CRaceLogTest {
+
+  @Test
+  public void testDeduplication() {
+    CRaceLog log = new CRaceLog();
+    log.startTrial(1);
+    assertTrue(log.record("A.x", 1, 2));
+    assertFalse(log.record("A.x", 2, 1));
+    assertTrue(log.record("A.y", 1, 2));
+    assertTrue(log.hasNewRaces());
+    log.startTrial(2);
+    assertFalse(log.hasNewRaces());
+    assertFalse(log.record("A.x", 1, 2));
+    assertTrue(log.record("A.x", 1, -1));
+    assertEquals(3, log.size());
+    assertEquals(5, log.getOccurrences());
+    Iterator<Race> itr = log.getRaces().iterator();
+    Race r = itr.next();
+    assertEquals("A.x", r.getLocation());
+    assertArrayEquals(new int[] { 1, 2 }, r.getYieldPoints());
+    assertEquals(3, r.getOccurrences());
+    assertEquals(1, r.getFirstTrial());
+    itr.next();
+    r = itr.next();
+    assertArrayEquals(new int[] { 1, -1 }, r.getYieldPoints());
+    assertEquals(2, r.getFirstTrial());
+  }
+
+  @Test
+  public void testTraceForNewRaces() {
+    CRaceLog log = new CRaceLog();
+    File f1 = new File("t.1"), f2 = new File("t.2");
+    log.startTrial(1);
+    log.record("A.x", 1, 2);
+    log.setTraceForNewRaces(f1);
+    log.startTrial(2);
+    log.record("A.x", 1, 2);
+    log.record("A.y", 1, 2);
+    log.setTraceForNewRaces(f2);
+    Iterator<Race> itr = log.getRaces().iterator();
+    assertSame(f1, itr.next().getTraceFile());
+    assertSame(f2, itr.next().getTraceFile());
+  }
+
+  @Test
+  public void testMerge() {
+    CRaceLog log1 = new CRaceLog(), log2 = new CRaceLog();
+    log1.startTrial(3);
+    log1.record("A.x", 1, 2);
+    log2.startTrial(2);
+    log2.record("A.x", 2, 1);
+    log2.record("A.x", 2, 1);
+    log2.setTraceForNewRaces(new File("t.2"));
+    log2.record("A.y", 1, 2);
+    log1.merge(log2);
+    assertEquals(2, log1.size());
+    assertEquals(4, log1.getOccurrences());
+    Race r = log1.getRaces().iterator().next();
+    assertEquals(3, r.getOccurrences());
+    assertEquals(2, r.getFirstTrial());
+    assertEquals("t.2", r.getTraceFile().getName());
+    log1.merge(new CRaceLog());
+    assertEquals(2, log1.size());
+  }
+}
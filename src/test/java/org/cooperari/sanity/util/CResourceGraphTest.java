@@ -20,7 +20,10 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayDeque;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 
 import org.cooperari.core.util.ResourceGraph;
 import org.junit.Before;
@@ -192,4 +195,125 @@ public class CResourceGraphTest {
       assertPath(_graph.findCycle(i));
     }
   }
+
+  @Test
+  public final void testTryAddEdge() {
+    assertPath(_graph.tryAddEdge(3, 4));
+    assertPath(_graph.tryAddEdge(2, 3));
+    assertPath(_graph.tryAddEdge(1, 2));
+    assertPath(_graph.tryAddEdge(0, 1));
+    assertPath(_graph.tryAddEdge(0, 1));
+    assertEquals(4, _graph.edges());
+    assertPath(_graph.tryAddEdge(4, 0), 0, 1, 2, 3, 4, 0);
+    assertPath(_graph.tryAddEdge(3, 1), 1, 2, 3, 1);
+    assertPath(_graph.tryAddEdge(4, 4), 4, 4);
+    assertFalse(_graph.hasEdge(4, 0));
+    assertEquals(4, _graph.edges());
+    assertFalse(_graph.hasCycles());
+    _graph.removeEdge(1, 2);
+    assertPath(_graph.tryAddEdge(4, 0));
+    assertPath(_graph.tryAddEdge(3, 1));
+    assertPath(_graph.tryAddEdge(1, 2), 2, 3, 4, 0, 1, 2);
+  }
+
+  @Test
+  public final void testTryAddEdgeAfterCycleRemoval() {
+    _graph.addEdge(0, 1);
+    _graph.addEdge(1, 0);
+    assertTrue(_graph.hasCycles());
+    assertPath(_graph.tryAddEdge(1, 2));
+    assertPath(_graph.tryAddEdge(2, 0), 0, 1, 0);
+    _graph.removeEdge(1, 0);
+    assertFalse(_graph.hasCycles());
+    assertPath(_graph.tryAddEdge(2, 0), 0, 1, 2, 0);
+    assertPath(_graph.tryAddEdge(2, 3));
+    assertFalse(_graph.hasCycles());
+  }
+
+  @Test
+  public final void testTryAddEdgeRandom() {
+    Random rng = new Random(0);
+    for (int i = 0; i < 2000; i++) {
+      Integer a = rng.nextInt(64), b = rng.nextInt(64);
+      if (rng.nextInt(4) == 0) {
+        _graph.removeEdge(a, b);
+        continue;
+      }
+      boolean existed = _graph.hasEdge(a, b);
+      boolean closesCycle = !existed && reaches(b, a);
+      List<Integer> cycle = _graph.tryAddEdge(a, b);
+      assertEquals(closesCycle, !cycle.isEmpty());
+      if (cycle.isEmpty()) {
+        assertTrue(_graph.hasEdge(a, b));
+        assertFalse(_graph.hasCycles());
+      } else {
+        assertFalse(existed);
+        assertFalse(_graph.hasEdge(a, b));
+        assertEquals(b, cycle.get(0));
+        assertEquals(a, cycle.get(cycle.size() - 2));
+        assertEquals(b, cycle.get(cycle.size() - 1));
+        for (int j = 0; j + 2 < cycle.size(); j++) {
+          assertTrue(_graph.hasEdge(cycle.get(j), cycle.get(j + 1)));
+        }
+        _graph.addEdge(a, b);
+        assertTrue(_graph.hasCycles());
+        assertTrue(_graph.hasCycles(b));
+        _graph.removeEdge(a, b);
+      }
+    }
+  }
+
+  @Test
+  public final void testHasCyclesRandom() {
+    Random rng = new Random(1);
+    for (int i = 0; i < 1000; i++) {
+      Integer a = rng.nextInt(16), b = rng.nextInt(16);
+      if (rng.nextInt(3) == 0) {
+        _graph.removeEdge(a, b);
+      } else if (rng.nextBoolean()) {
+        _graph.addEdge(a, b);
+      } else {
+        _graph.tryAddEdge(a, b);
+      }
+      boolean cyclic = false;
+      for (Integer n = 0; n < 16 && !cyclic; n++) {
+        for (Integer m : _graph.successors(n)) {
+          cyclic |= reaches(m, n);
+        }
+        assertEquals(hasCycleFrom(n), _graph.hasCycles(n));
+      }
+      assertEquals(cyclic, _graph.hasCycles());
+    }
+  }
+
+  private boolean hasCycleFrom(Integer from) {
+    for (Integer n = 0; n < 16; n++) {
+      if (reaches(from, n)) {
+        for (Integer m : _graph.successors(n)) {
+          if (reaches(m, n)) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  private boolean reaches(Integer from, Integer to) {
+    ArrayDeque<Integer> queue = new ArrayDeque<>();
+    HashSet<Integer> visited = new HashSet<>();
+    queue.add(from);
+    while (!queue.isEmpty()) {
+      Integer n = queue.remove();
+      if (n.equals(to)) {
+        return true;
+      }
+      for (Integer s : _graph.successors(n)) {
+        if (visited.add(s)) {
+          queue.add(s);
+        }
+      }
+    }
+    return false;
+  }
 }
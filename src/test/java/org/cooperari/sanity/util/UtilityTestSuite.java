@@ -24,6 +24,12 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({ 
    AgentLoaderTest.class, 
+   CAsyncWriterTest.class,
+   CBinaryIOTest.class,
+   CCoverageDatabaseTest.class,
+   CCoverageLogTest.class,
+   CLongHashSetTest.class,
+   CRaceLogTest.class,
    CRawTupleTest.class,
    CResourceGraphTest.class, 
    UnsafeVMOperationsTest.class })